@@ -0,0 +1,244 @@
+package com.example.dawanlocations.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test instrumenté des {@link Migrations} de {@link AppDatabase}.
+ *
+ * <p>
+ * S’appuie sur les schémas exportés dans {@code app/schemas} : une base est créée
+ * dans une ancienne version, remplie, puis migrée et validée par Room.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    /**
+     * La migration 1 → 2 conserve les centres et crée la table {@code sync_metadata}.
+     */
+    @Test
+    public void migrate1To2_keepsLocations() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (1, 'Paris', '1 rue', 'Paris', '75001', 48.85, 2.35)");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 2, true, Migrations.MIGRATION_1_2);
+
+        try (Cursor c = db.query("SELECT name FROM locations WHERE id = 1")) {
+            assertTrue(c.moveToFirst());
+            assertEquals("Paris", c.getString(0));
+        }
+        try (Cursor c = db.query("SELECT COUNT(*) FROM sync_metadata")) {
+            assertTrue(c.moveToFirst());
+            assertEquals(0, c.getInt(0));
+        }
+    }
+
+    /**
+     * La migration 2 → 3 crée l’index R*Tree, l’alimente avec les centres existants,
+     * et les triggers le maintiennent ensuite à jour (si le SQLite de l’appareil
+     * fournit le module {@code rtree}).
+     */
+    @Test
+    public void migrate2To3_buildsAndMaintainsRTree() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2)) {
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (1, 'Paris', '1 rue', 'Paris', '75001', 48.85, 2.35)");
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (2, 'Lyon', '2 rue', 'Lyon', '69001', 45.76, 4.83)");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 3, true, Migrations.MIGRATION_2_3);
+        assumeTrue(LocationRTree.isModuleAvailable(db));
+
+        assertEquals(2, countInBounds(db, 40, 50, 0, 10));
+        assertEquals(1, countInBounds(db, 48, 49, 2, 3));
+
+        // Triggers : insertion, déplacement, suppression
+        db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                + "VALUES (3, 'Nouméa', NULL, 'Nouméa', '98800', -22.27, 166.44)");
+        db.execSQL("UPDATE locations SET latitude = 43.60, longitude = 1.44 WHERE id = 2");
+        db.execSQL("DELETE FROM locations WHERE id = 1");
+
+        assertEquals(1, countInBounds(db, 43, 44, 1, 2));
+        assertEquals(0, countInBounds(db, 45, 46, 4, 5));
+        assertEquals(0, countInBounds(db, 48, 49, 2, 3));
+        // Rectangle traversant l’antiméridien (160°E → 170°W)
+        assertEquals(1, countInBounds(db, -30, -10, 160, -170));
+        try (Cursor c = db.query("SELECT COUNT(*) FROM " + LocationRTree.TABLE)) {
+            assertTrue(c.moveToFirst());
+            assertEquals(2, c.getInt(0));
+        }
+    }
+
+    /**
+     * La migration 3 → 4 indexe les centres existants en plein texte, et les triggers
+     * de Room maintiennent ensuite l’index à jour.
+     */
+    @Test
+    public void migrate3To4_indexesLocationsForSearch() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3)) {
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (1, 'Dawan Saint-Étienne', '1 rue', 'Saint-Étienne', '42000', 45.43, 4.39)");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 4, true, Migrations.MIGRATION_3_4);
+
+        assertEquals(1, countMatches(db, LocationFts.toMatchQuery("etien")));
+        assertEquals(1, countMatches(db, LocationFts.toMatchQuery("42")));
+
+        db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                + "VALUES (2, 'Dawan Lyon', '2 rue', 'Lyon', '69001', 45.76, 4.83)");
+        db.execSQL("UPDATE locations SET city = 'Firminy' WHERE id = 1");
+
+        assertEquals(1, countMatches(db, LocationFts.toMatchQuery("lyo")));
+        assertEquals(2, countMatches(db, LocationFts.toMatchQuery("dawan")));
+        assertEquals(1, countMatches(db, LocationFts.toMatchQuery("firm")));
+    }
+
+    /**
+     * La migration 4 → 5 crée l’index {@code (city, name, id)} ; les requêtes paginées
+     * par clé parcourent toute la table, valeurs {@code NULL} comprises, dans l’ordre
+     * d’un {@code ORDER BY city, name, id}.
+     */
+    @Test
+    public void migrate4To5_keysetPagesFollowCityOrder() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            String[] cities = {null, "Lyon", "Paris", "Lyon", null, "Nantes", "Lyon"};
+            String[] names = {"B", null, "Dawan", "A", null, "Dawan", "A"};
+            for (int i = 0; i < cities.length; i++) {
+                db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                        + "VALUES (?, ?, NULL, ?, NULL, 0, 0)", new Object[]{i + 1, names[i], cities[i]});
+            }
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 5, true, Migrations.MIGRATION_4_5);
+
+        List<Integer> expected = new ArrayList<>();
+        try (Cursor c = db.query("SELECT id FROM locations ORDER BY city, name, id")) {
+            while (c.moveToNext()) expected.add(c.getInt(0));
+        }
+
+        // Pages de 2 lignes, chacune repartant de la dernière ligne de la précédente
+        List<Integer> paged = new ArrayList<>();
+        Object[] key = {null, null, Long.MIN_VALUE};
+        String sql = "SELECT id, city, name FROM (" + LocationPageQueries.CITY_AFTER
+                + ") ORDER BY city, name, id LIMIT 2";
+        while (true) {
+            int read = 0;
+            try (Cursor c = db.query(sql.replace(":city", "?1").replace(":name", "?2").replace(":id", "?3"), key)) {
+                while (c.moveToNext()) {
+                    paged.add(c.getInt(0));
+                    key = new Object[]{c.getString(1), c.getString(2), c.getLong(0)};
+                    read++;
+                }
+            }
+            if (read < 2) break;
+        }
+        assertEquals(expected, paged);
+
+        try (Cursor c = db.query("SELECT name FROM sqlite_master WHERE type = 'index' "
+                + "AND name = 'index_locations_city_name_id'")) {
+            assertTrue(c.moveToFirst());
+        }
+    }
+
+    /**
+     * La migration 5 → 6 conserve les métadonnées de synchronisation et ajoute
+     * un curseur vide (la prochaine synchronisation sera complète) et un constat
+     * d’absence de l’API de changements à 0 (l’API sera essayée).
+     */
+    @Test
+    public void migrate5To6_addsEmptyCursorAndUnsupportedFlag() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5)) {
+            db.execSQL("INSERT INTO sync_metadata (`key`, lastAttemptAt, lastSuccessAt, lastResult, "
+                    + "payloadHash, consecutiveFailures, nextAttemptAt) "
+                    + "VALUES ('locations', 10, 10, 'SUCCESS', 42, 0, 0)");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 6, true, Migrations.MIGRATION_5_6);
+
+        try (Cursor c = db.query("SELECT payloadHash, cursor, changesUnsupportedAt FROM sync_metadata "
+                + "WHERE `key` = 'locations'")) {
+            assertTrue(c.moveToFirst());
+            assertEquals(42, c.getLong(0));
+            assertTrue(c.isNull(1));
+            assertEquals(0, c.getLong(2));
+        }
+        db.execSQL("UPDATE sync_metadata SET cursor = 'c1' WHERE `key` = 'locations'");
+        try (Cursor c = db.query("SELECT cursor FROM sync_metadata")) {
+            assertTrue(c.moveToFirst());
+            assertEquals("c1", c.getString(0));
+        }
+    }
+
+    /**
+     * La migration 6 → 7 ajoute l’index {@code (latitude, longitude)} ; la requête par
+     * rectangle sans R*Tree donne les mêmes centres, antiméridien compris.
+     */
+    @Test
+    public void migrate6To7_addsCoordinatesIndexForFallbackQuery() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 6)) {
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (1, 'Paris', '1 rue', 'Paris', '75001', 48.85, 2.35)");
+            db.execSQL("INSERT INTO locations (id, name, address, city, postalCode, latitude, longitude) "
+                    + "VALUES (2, 'Nouméa', NULL, 'Nouméa', '98800', -22.27, 166.44)");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 7, true, Migrations.MIGRATION_6_7);
+
+        assertEquals(1, countInBounds(db, false, 48, 49, 2, 3));
+        assertEquals(0, countInBounds(db, false, 48, 49, 3, 4));
+        assertEquals(1, countInBounds(db, false, -30, -10, 160, -170));
+        assertEquals(2, countInBounds(db, false, -90, 90, -180, 180));
+        try (Cursor c = db.query("EXPLAIN QUERY PLAN " + LocationRTree.inBoundsQuery(
+                false, 48, 49, 2, 3).getSql(), new Object[]{48, 49, 2, 3})) {
+            StringBuilder plan = new StringBuilder();
+            while (c.moveToNext()) plan.append(c.getString(c.getColumnCount() - 1));
+            assertTrue(plan.toString(), plan.toString().contains("index_locations_latitude_longitude"));
+        }
+    }
+
+    private static int countMatches(SupportSQLiteDatabase db, String match) {
+        try (Cursor c = db.query("SELECT docid FROM locations_fts WHERE locations_fts MATCH ?",
+                new Object[]{match})) {
+            return c.getCount();
+        }
+    }
+
+    private static int countInBounds(SupportSQLiteDatabase db, double minLat, double maxLat,
+                                     double minLon, double maxLon) {
+        return countInBounds(db, true, minLat, maxLat, minLon, maxLon);
+    }
+
+    private static int countInBounds(SupportSQLiteDatabase db, boolean rtree, double minLat, double maxLat,
+                                     double minLon, double maxLon) {
+        try (Cursor c = db.query(LocationRTree.inBoundsQuery(rtree, minLat, maxLat, minLon, maxLon))) {
+            return c.getCount();
+        }
+    }
+}
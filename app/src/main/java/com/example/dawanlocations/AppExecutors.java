@@ -0,0 +1,97 @@
+package com.example.dawanlocations;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ensemble des exécuteurs partagés par toute l’application (pattern Singleton).
+ *
+ * <p>
+ * Plutôt que chaque composant crée (et oublie de fermer) son propre
+ * {@code Executors.newSingleThreadExecutor()}, les tâches sont réparties sur :
+ * <ul>
+ *     <li>{@link #network()} : appels HTTP (et écriture en flux associée),</li>
+ *     <li>{@link #disk()} : accès base de données et fichiers, sérialisés sur un seul thread,</li>
+ *     <li>{@link #compute()} : calculs CPU (clustering, mapping, index spatiaux),</li>
+ *     <li>{@link #scheduler()} : tâches différées ou périodiques (synchronisation),</li>
+ *     <li>{@link #mainThread()} : retour sur le thread principal.</li>
+ * </ul>
+ * Ces exécuteurs vivent aussi longtemps que le processus ; leurs threads sont
+ * des démons et n’empêchent donc pas son arrêt.
+ * </p>
+ */
+public final class AppExecutors {
+
+    private static volatile AppExecutors INSTANCE;
+
+    private final ExecutorService network;
+    private final ExecutorService disk;
+    private final ExecutorService compute;
+    private final ScheduledExecutorService scheduler;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        int cores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.network = Executors.newFixedThreadPool(2, namedDaemon("dawan-net"));
+        this.disk = Executors.newSingleThreadExecutor(namedDaemon("dawan-disk"));
+        this.compute = Executors.newFixedThreadPool(cores - 1, namedDaemon("dawan-compute"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(namedDaemon("dawan-sched"));
+        Handler main = new Handler(Looper.getMainLooper());
+        this.mainThread = main::post;
+    }
+
+    /**
+     * Récupère l’instance unique (créée à la première utilisation).
+     *
+     * @return les exécuteurs de l’application
+     */
+    public static AppExecutors get() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) INSTANCE = new AppExecutors();
+            }
+        }
+        return INSTANCE;
+    }
+
+    /** @return l’exécuteur des appels réseau */
+    public ExecutorService network() {
+        return network;
+    }
+
+    /** @return l’exécuteur (mono-thread) des accès disque et base de données */
+    public ExecutorService disk() {
+        return disk;
+    }
+
+    /** @return l’exécuteur des calculs CPU */
+    public ExecutorService compute() {
+        return compute;
+    }
+
+    /** @return l’exécuteur des tâches différées ou périodiques (ne doit lancer que des tâches courtes) */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /** @return un exécuteur qui poste sur le thread principal */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    private static ThreadFactory namedDaemon(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
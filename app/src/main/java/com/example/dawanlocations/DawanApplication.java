@@ -0,0 +1,21 @@
+package com.example.dawanlocations;
+
+import android.app.Application;
+
+/**
+ * Application Dawan Locations.
+ *
+ * <p>
+ * Lance, dès la création du processus, la préparation en arrière-plan des composants
+ * lourds ({@link StartupInitializer}) : quand la première activité est créée, la base,
+ * le client HTTP et la configuration de la carte sont prêts ou en cours de préparation.
+ * </p>
+ */
+public class DawanApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupInitializer.get(this).start();
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.dawanlocations;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.remote.DawanApi;
+import com.example.dawanlocations.data.remote.RetrofitClient;
+import com.example.dawanlocations.data.tiles.MapTiles;
+import com.example.dawanlocations.repository.LocationRepositoryImpl;
+import com.example.dawanlocations.repository.SyncScheduler;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.config.IConfigurationProvider;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Initialisation du démarrage de l’application, en parallèle et hors du thread principal
+ * (pattern Singleton).
+ *
+ * <p>
+ * Lancée dès {@link DawanApplication#onCreate()}, elle prépare chaque {@link Component}
+ * sur son propre thread d’arrière-plan :
+ * <ul>
+ *     <li>{@link Component#OSMDROID} : configuration OSMDroid (User-Agent, répertoires de cache) ;</li>
+ *     <li>{@link Component#TILES} : index du cache des tuiles, dont la construction parcourt
+ *     tous les fichiers du cache, et ouverture de l’archive hors ligne ({@link MapTiles}) ;</li>
+ *     <li>{@link Component#DATABASE} : ouverture de la base Room (et migrations éventuelles) ;</li>
+ *     <li>{@link Component#NETWORK} : construction de Retrofit, d’OkHttp et de Gson, puis
+ *     préchauffage (DNS, TLS) de la connexion à l’API, selon {@code BuildConfig.PREWARM_API_CONNECTION} ;</li>
+ *     <li>{@link Component#REPOSITORY} : repository et planificateur de synchronisation,
+ *     une fois la base et le réseau prêts.</li>
+ * </ul>
+ * Un écran n’attend ({@link #await}) que ce dont il a réellement besoin : la carte
+ * attend la configuration OSMDroid, le reste étant déjà en cours de préparation quand
+ * son ViewModel est créé. Aucun écran n’attend {@link Component#TILES}, dont la durée
+ * croît avec la taille du cache : les fournisseurs de tuiles l’achèvent au besoin sur
+ * leurs propres threads.
+ * </p>
+ *
+ * <p>
+ * La durée de chaque composant est journalisée (tag {@value #TAG}) et visible dans les
+ * traces système (sections {@code Dawan:startup:*}).
+ * </p>
+ */
+public final class StartupInitializer {
+
+    private static final String TAG = "Startup";
+
+    /**
+     * Composant préparé au démarrage.
+     */
+    public enum Component {
+        OSMDROID("osmdroid"),
+        TILES("tiles", OSMDROID),
+        DATABASE("database"),
+        NETWORK("network"),
+        REPOSITORY("repository", DATABASE, NETWORK);
+
+        /** Libellé court (journaux, traces) */
+        public final String label;
+        /** Composants qui doivent être prêts avant celui-ci */
+        final Component[] dependsOn;
+
+        Component(String label, Component... dependsOn) {
+            this.label = label;
+            this.dependsOn = dependsOn;
+        }
+    }
+
+    private static volatile StartupInitializer INSTANCE;
+
+    private final Map<Component, Runnable> tasks;
+    private final ExecutorService executor;
+    /** Préparation de chaque composant ; terminée quand le composant est prêt (ou en échec) */
+    private final Map<Component, FutureTask<Void>> futures = new EnumMap<>(Component.class);
+    /** Durée (ns) de chaque composant, indexée par ordinal ; {@code -1} tant qu’il n’est pas prêt */
+    private final AtomicLongArray durationsNanos = new AtomicLongArray(Component.values().length);
+    /** Nombre de composants restant à préparer */
+    private final AtomicInteger remaining = new AtomicInteger(Component.values().length);
+
+    /** {@code true} une fois les préparations soumises */
+    private boolean started;
+    /** Instant ({@link SystemClock#elapsedRealtimeNanos()}) du lancement */
+    private volatile long startedAtNanos;
+
+    /**
+     * Récupère l’instance unique (créée à la première utilisation).
+     *
+     * @param context contexte Android (le contexte applicatif est conservé)
+     * @return l’initialiseur partagé par toute l’application
+     */
+    public static StartupInitializer get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (StartupInitializer.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new StartupInitializer(defaultTasks(app, BuildConfig.PREWARM_API_CONNECTION), newExecutor());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @param tasks    préparation de chaque composant (tous les composants doivent être présents)
+     * @param executor exécuteur des préparations, arrêté une fois celles-ci soumises
+     */
+    StartupInitializer(Map<Component, Runnable> tasks, ExecutorService executor) {
+        for (Component c : Component.values()) {
+            if (!tasks.containsKey(c)) throw new IllegalArgumentException("missing task " + c);
+            durationsNanos.set(c.ordinal(), -1L);
+        }
+        this.tasks = new EnumMap<>(tasks);
+        this.executor = executor;
+        for (Component c : Component.values()) {
+            futures.put(c, new FutureTask<>(() -> {
+                run(c);
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Préparations réelles des composants de l’application.
+     *
+     * @param app     contexte applicatif
+     * @param prewarm {@code true} pour ouvrir la connexion à l’API dès le démarrage
+     *                ({@link RetrofitClient#prewarm}) ; {@code false} dans les tests
+     * @return la préparation de chaque composant
+     */
+    static Map<Component, Runnable> defaultTasks(Context app, boolean prewarm) {
+        Map<Component, Runnable> tasks = new EnumMap<>(Component.class);
+        tasks.put(Component.OSMDROID, () -> configureOsmdroid(app));
+        tasks.put(Component.TILES, () -> {
+            MapTiles.cache(app).ensureLoaded(); // parcourt les tuiles déjà en cache
+            MapTiles.archive(app); // ouvre l’archive hors ligne, s’il y en a une
+        });
+        // Room n’ouvre la base qu’au premier accès : on force l’ouverture ici
+        tasks.put(Component.DATABASE, () -> AppDatabase.get(app).getOpenHelper().getWritableDatabase());
+        tasks.put(Component.NETWORK, () -> {
+            RetrofitClient.getInstance(app).create(DawanApi.class);
+            // Connexion à l’API ouverte en arrière-plan, sans retarder le composant
+            if (prewarm) RetrofitClient.prewarm(app);
+        });
+        tasks.put(Component.REPOSITORY, () -> {
+            LocationRepositoryImpl.getInstance(app);
+            SyncScheduler.getInstance(app);
+        });
+        return tasks;
+    }
+
+    /**
+     * Configuration obligatoire d’OSMDroid, à terminer avant de créer une {@code MapView}.
+     *
+     * <ul>
+     *     <li>User-Agent requis par les serveurs de tuiles (Android 9+) ;</li>
+     *     <li>cache forcé dans le répertoire interne, pour éviter les soucis de permissions stockage.</li>
+     * </ul>
+     *
+     * @param app contexte applicatif
+     */
+    static void configureOsmdroid(Context app) {
+        IConfigurationProvider conf = Configuration.getInstance();
+        conf.setUserAgentValue(app.getPackageName());
+
+        File osmdroidBase = new File(app.getCacheDir(), "osmdroid");
+        //noinspection ResultOfMethodCallIgnored
+        osmdroidBase.mkdirs();
+        conf.setOsmdroidBasePath(osmdroidBase);
+        conf.setOsmdroidTileCache(new File(osmdroidBase, "tiles"));
+    }
+
+    /**
+     * Lance la préparation de tous les composants (sans effet si déjà lancée).
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        startedAtNanos = SystemClock.elapsedRealtimeNanos();
+        for (Component c : Component.values()) executor.execute(futures.get(c));
+        executor.shutdown(); // les threads s’arrêtent une fois les préparations terminées
+    }
+
+    /**
+     * Attend qu’un composant soit prêt (lance la préparation si ce n’est pas déjà fait).
+     *
+     * <p>
+     * À n’appeler sur le thread principal que pour un composant indispensable à l’écran
+     * en cours de création.
+     * </p>
+     *
+     * @param component composant attendu
+     * @throws IllegalStateException si la préparation du composant (ou d’une de ses
+     *                               dépendances) a échoué
+     */
+    public void await(Component component) {
+        start();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    futures.get(component).get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("startup " + component.label + " failed", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param component composant
+     * @return {@code true} si le composant est prêt (ou en échec)
+     */
+    public boolean isDone(Component component) {
+        return futures.get(component).isDone();
+    }
+
+    /**
+     * @param component composant
+     * @return durée (ms) de la préparation du composant, sans l’attente de ses dépendances ;
+     *         {@code -1} s’il n’est pas (encore) prêt
+     */
+    public long durationMs(Component component) {
+        long nanos = durationsNanos.get(component.ordinal());
+        return nanos < 0 ? -1 : nanos / 1_000_000L;
+    }
+
+    /**
+     * Prépare un composant (sur un thread de l’exécuteur) après ses dépendances.
+     */
+    private void run(Component c) throws Exception {
+        try {
+            for (Component dep : c.dependsOn) {
+                try {
+                    futures.get(dep).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("dependency " + dep.label + " failed", e.getCause());
+                }
+            }
+            long start = SystemClock.elapsedRealtimeNanos();
+            Trace.beginSection("Dawan:startup:" + c.label);
+            try {
+                tasks.get(c).run();
+            } finally {
+                Trace.endSection();
+            }
+            long nanos = SystemClock.elapsedRealtimeNanos() - start;
+            durationsNanos.set(c.ordinal(), nanos);
+            Log.i(TAG, String.format(Locale.ROOT, "%s ready in %d ms (%d ms after start, %s)",
+                    c.label, nanos / 1_000_000L, (SystemClock.elapsedRealtimeNanos() - startedAtNanos) / 1_000_000L,
+                    Thread.currentThread().getName()));
+        } catch (Exception | Error e) {
+            Log.e(TAG, c.label + " failed", e);
+            throw e;
+        } finally {
+            if (remaining.decrementAndGet() == 0) {
+                Log.i(TAG, "all components done in "
+                        + (SystemClock.elapsedRealtimeNanos() - startedAtNanos) / 1_000_000L + " ms");
+            }
+        }
+    }
+
+    /**
+     * Un thread (démon) par composant : les préparations sont courtes et surtout
+     * faites d’entrées-sorties, elles ne sont donc pas confiées aux exécuteurs partagés.
+     */
+    private static ExecutorService newExecutor() {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(Component.values().length, r -> {
+            Thread t = new Thread(r, "dawan-startup-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
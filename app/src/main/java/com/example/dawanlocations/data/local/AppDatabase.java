@@ -9,8 +9,12 @@ import androidx.room.RoomDatabase;
  * Base de données locale de l’application utilisant Room.
  *
  * <p>
- * Cette classe définit la base SQLite qui stocke les entités (ici {@link LocationEntity}).
+ * Cette classe définit la base SQLite qui stocke les entités ({@link LocationEntity},
+ * son index plein texte {@link LocationFtsEntity} et les métadonnées de synchronisation
+ * {@link SyncMetadataEntity}).
  * Elle fournit un accès centralisé aux DAO pour effectuer les opérations CRUD.
+ * Un index spatial R*Tree ({@link LocationRTree}), hors schéma Room, accompagne
+ * la table des centres lorsque le SQLite de l’appareil fournit le module {@code rtree}.
  * </p>
  *
  * <p>
@@ -18,7 +22,8 @@ import androidx.room.RoomDatabase;
  * de données est créée et partagée dans toute l'application.
  * </p>
  */
-@Database(entities = {LocationEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {LocationEntity.class, LocationFtsEntity.class, SyncMetadataEntity.class},
+        version = 7, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
 
     /**
@@ -29,6 +34,13 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract LocationDao locationDao();
 
+    /**
+     * Fournit l'accès au DAO {@link SyncMetadataDao} (métadonnées de synchronisation).
+     *
+     * @return une instance de {@link SyncMetadataDao}.
+     */
+    public abstract SyncMetadataDao syncMetadataDao();
+
     /**
      * Instance unique de la base de données (pattern Singleton).
      * <p>
@@ -43,7 +55,9 @@ public abstract class AppDatabase extends RoomDatabase {
      *
      * <p>
      * Si l’instance n’existe pas encore, elle est créée en utilisant
-     * {@link Room#databaseBuilder(Context, Class, String)}.
+     * {@link Room#databaseBuilder(Context, Class, String)}, avec les {@link Migrations}
+     * nécessaires pour faire évoluer une base existante et la création de l’index
+     * R*Tree pour une nouvelle base.
      * L’accès est synchronisé pour éviter la création multiple
      * en environnement multi-threadé (double-checked locking).
      * </p>
@@ -59,7 +73,10 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             "dawan_locations.db"
-                    ).build();
+                    )
+                            .addMigrations(Migrations.ALL)
+                            .addCallback(LocationRTree.CALLBACK)
+                            .build();
                 }
             }
         }
@@ -5,6 +5,9 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.List;
 
@@ -52,4 +55,209 @@ public interface LocationDao {
      */
     @Query("DELETE FROM locations")
     void clear();
+
+    /**
+     * Récupère de façon synchrone toutes les locations (à appeler hors thread principal).
+     *
+     * <p>
+     * Utilisé par la synchronisation incrémentale pour comparer l’état local
+     * avec les données reçues de l’API.
+     * </p>
+     *
+     * @return la liste des {@link LocationEntity} présentes en base
+     */
+    @Query("SELECT * FROM locations")
+    List<LocationEntity> getAll();
+
+    /**
+     * Récupère les locations dont l’identifiant figure dans la liste.
+     *
+     * @param ids identifiants recherchés (au plus 999 par appel)
+     * @return les {@link LocationEntity} trouvées
+     */
+    @Query("SELECT * FROM locations WHERE id IN (:ids)")
+    List<LocationEntity> getByIds(List<Integer> ids);
+
+    /**
+     * Récupère uniquement les identifiants des locations stockées.
+     *
+     * @return la liste des identifiants
+     */
+    @Query("SELECT id FROM locations")
+    List<Integer> getAllIds();
+
+    /**
+     * Compte les locations présentes en base.
+     *
+     * @return le nombre de lignes de la table {@code locations}
+     */
+    @Query("SELECT COUNT(*) FROM locations")
+    int count();
+
+    /**
+     * Met à jour des {@link LocationEntity} existantes (identifiées par leur clé primaire).
+     *
+     * @param items entités à mettre à jour
+     */
+    @Update
+    void updateAll(List<LocationEntity> items);
+
+    /**
+     * Supprime les locations dont l’identifiant figure dans la liste.
+     *
+     * <p>
+     * SQLite limite le nombre de paramètres par requête (999 sur les anciennes versions) :
+     * l’appelant doit découper les listes trop longues.
+     * </p>
+     *
+     * @param ids identifiants à supprimer
+     * @return le nombre de lignes supprimées
+     */
+    @Query("DELETE FROM locations WHERE id IN (:ids)")
+    int deleteByIds(List<Integer> ids);
+
+    /**
+     * Récupère de façon synchrone les locations situées dans un rectangle
+     * (à appeler hors thread principal).
+     *
+     * <p>
+     * La recherche passe par l’index R*Tree {@code locations_rtree} ({@link LocationRTree}) :
+     * seules les lignes du rectangle sont lues, quelle que soit la taille de la table.
+     * Si le SQLite de l’appareil n’a pas de module {@code rtree}, elle passe par l’index
+     * {@code (latitude, longitude)} : seule la bande de latitudes est lue.
+     * Si {@code minLon > maxLon}, le rectangle traverse l’antiméridien.
+     * </p>
+     *
+     * @param minLat latitude minimale
+     * @param maxLat latitude maximale
+     * @param minLon longitude minimale (ouest)
+     * @param maxLon longitude maximale (est)
+     * @return les {@link LocationEntity} du rectangle
+     */
+    default List<LocationEntity> getInBounds(double minLat, double maxLat, double minLon, double maxLon) {
+        return queryInBounds(LocationRTree.inBoundsQuery(minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Variante observable de {@link #getInBounds} : le résultat est recalculé
+     * à chaque modification de la table {@code locations}.
+     *
+     * @return une {@link LiveData} contenant les {@link LocationEntity} du rectangle
+     */
+    default LiveData<List<LocationEntity>> getInBoundsLive(double minLat, double maxLat,
+                                                           double minLon, double maxLon) {
+        return queryInBoundsLive(LocationRTree.inBoundsQuery(minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Exécute une requête construite par {@link LocationRTree#inBoundsQuery}.
+     * Room ne connaît pas la table virtuelle R*Tree, d’où le recours à {@link RawQuery}.
+     */
+    @RawQuery
+    List<LocationEntity> queryInBounds(SupportSQLiteQuery query);
+
+    /**
+     * Variante observable de {@link #queryInBounds} (invalidée par la table {@code locations}).
+     */
+    @RawQuery(observedEntities = LocationEntity.class)
+    LiveData<List<LocationEntity>> queryInBoundsLive(SupportSQLiteQuery query);
+
+    /**
+     * Recherche plein texte (préfixes) dans le nom, l’adresse, la ville et le code postal.
+     *
+     * <p>
+     * La requête passe par l’index FTS {@code locations_fts} (aucun parcours complet
+     * de la table). Toutes les correspondances sont renvoyées, sans limite : SQLite ne
+     * sait pas les trier par pertinence, et une limite retiendrait des lignes arbitraires.
+     * Chaque ligne, réduite à l’id et au nom, est accompagnée de {@code matchinfo},
+     * utilisé par {@link LocationFts#rank} pour retenir les meilleurs résultats, à lire
+     * ensuite par {@link #getByIds(List)}.
+     * </p>
+     *
+     * @param match requête FTS construite par {@link LocationFts#toMatchQuery(String)}
+     * @return les correspondances (non triées)
+     */
+    @Query("SELECT l.id AS id, l.name AS name, matchinfo(locations_fts, 'pcx') AS matchInfo "
+            + "FROM locations AS l JOIN locations_fts ON l.id = locations_fts.docid "
+            + "WHERE locations_fts MATCH :match")
+    List<LocationSearchRow> search(String match);
+
+    /**
+     * Page de la liste triée par ville, puis par nom, puis par id : les {@code limit}
+     * centres qui suivent la clé {@code (city, name, id)}.
+     *
+     * <p>
+     * Pagination par clé : la page est lue par plages de l’index
+     * {@code index_locations_city_name_id} à partir de la clé, sans parcourir les lignes
+     * précédentes (voir {@link LocationPageQueries}). Pour la première page, passer
+     * {@code city = name = null} et {@code id = Long.MIN_VALUE}.
+     * </p>
+     *
+     * @param city  ville de la dernière ligne lue (peut être {@code null})
+     * @param name  nom de la dernière ligne lue (peut être {@code null})
+     * @param id    id de la dernière ligne lue
+     * @param limit taille de la page
+     * @return les centres suivants, dans l’ordre croissant
+     */
+    @Query("SELECT * FROM (" + LocationPageQueries.CITY_AFTER + ") "
+            + "ORDER BY city, name, id LIMIT :limit")
+    List<LocationEntity> pageByCityAfter(String city, String name, long id, int limit);
+
+    /**
+     * Page précédant la clé {@code (city, name, id)} dans l’ordre de {@link #pageByCityAfter}.
+     *
+     * @return les {@code limit} centres précédents, <b>du plus proche de la clé au plus éloigné</b>
+     */
+    @Query("SELECT * FROM (" + LocationPageQueries.CITY_BEFORE + ") "
+            + "ORDER BY city DESC, name DESC, id DESC LIMIT :limit")
+    List<LocationEntity> pageByCityBefore(String city, String name, long id, int limit);
+
+    /**
+     * Position d’une clé dans l’ordre de {@link #pageByCityAfter} (nombre de centres qui la précèdent).
+     * Ne lit que l’index, sans charger de ligne.
+     */
+    @Query(LocationPageQueries.CITY_COUNT_BEFORE)
+    int countByCityBefore(String city, String name, long id);
+
+    /**
+     * Page de la liste triée par distance (approchée) à un point de référence : les
+     * {@code limit} centres qui suivent la clé {@code (distanceKey, id)}.
+     *
+     * <p>
+     * La clé {@link LocationDistanceRow#distanceKey} est le carré de la distance
+     * équirectangulaire, suffisante pour ordonner des centres proches les uns des autres.
+     * Pour la première page, passer {@code distanceKey = -1} et {@code id = Long.MIN_VALUE}.
+     * </p>
+     *
+     * @param lat         latitude du point de référence
+     * @param lon         longitude du point de référence
+     * @param lonScale    cos² de la latitude de référence
+     * @param distanceKey clé de distance de la dernière ligne lue
+     * @param id          id de la dernière ligne lue
+     * @param limit       taille de la page
+     * @return les centres suivants, du plus proche au plus éloigné
+     */
+    @Query("SELECT * FROM (" + LocationPageQueries.WITH_DISTANCE + ") "
+            + "WHERE distanceKey > :distanceKey OR (distanceKey = :distanceKey AND id > :id) "
+            + "ORDER BY distanceKey, id LIMIT :limit")
+    List<LocationDistanceRow> pageByDistanceAfter(double lat, double lon, double lonScale,
+                                                  double distanceKey, long id, int limit);
+
+    /**
+     * Page précédant la clé {@code (distanceKey, id)} dans l’ordre de {@link #pageByDistanceAfter}.
+     *
+     * @return les {@code limit} centres précédents, <b>du plus proche de la clé au plus éloigné</b>
+     */
+    @Query("SELECT * FROM (" + LocationPageQueries.WITH_DISTANCE + ") "
+            + "WHERE distanceKey < :distanceKey OR (distanceKey = :distanceKey AND id < :id) "
+            + "ORDER BY distanceKey DESC, id DESC LIMIT :limit")
+    List<LocationDistanceRow> pageByDistanceBefore(double lat, double lon, double lonScale,
+                                                   double distanceKey, long id, int limit);
+
+    /**
+     * Position d’une clé dans l’ordre de {@link #pageByDistanceAfter} (nombre de centres qui la précèdent).
+     */
+    @Query("SELECT COUNT(*) FROM (" + LocationPageQueries.WITH_DISTANCE + ") "
+            + "WHERE distanceKey < :distanceKey OR (distanceKey = :distanceKey AND id < :id)")
+    int countByDistanceBefore(double lat, double lon, double lonScale, double distanceKey, long id);
 }
@@ -0,0 +1,13 @@
+package com.example.dawanlocations.data.local;
+
+import androidx.room.Embedded;
+
+/**
+ * Ligne de la liste paginée triée par distance : le centre et sa clé de tri
+ * (distance approchée, voir {@link LocationDao#pageByDistanceAfter}).
+ */
+public class LocationDistanceRow {
+    @Embedded public LocationEntity location;
+    /** Carré de la distance équirectangulaire (degrés²), recalculé par SQLite pour chaque ligne */
+    public double distanceKey;
+}
@@ -2,10 +2,29 @@ package com.example.dawanlocations.data.local;
 
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 
-@Entity(tableName = "locations")
+/**
+ * Centre de formation stocké en base.
+ *
+ * <p>
+ * L’index {@code (city, name, id)} sert la liste paginée triée par ville puis par nom
+ * ({@link LocationDao#pageByCityAfter}) : chaque page est lue directement à partir de
+ * la dernière ligne de la page précédente, sans parcourir les lignes qui la précèdent.
+ * </p>
+ *
+ * <p>
+ * L’index {@code (latitude, longitude)} sert les requêtes par rectangle
+ * ({@link LocationDao#getInBounds}) lorsque SQLite ne fournit pas le module R*Tree
+ * ({@link LocationRTree}).
+ * </p>
+ */
+@Entity(tableName = "locations",
+        indices = {
+                @Index(value = {"city", "name", "id"}, name = "index_locations_city_name_id"),
+                @Index(value = {"latitude", "longitude"}, name = "index_locations_latitude_longitude")})
 public class LocationEntity {
     @PrimaryKey public int id;
     public String name;
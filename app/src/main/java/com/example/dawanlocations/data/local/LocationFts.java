@@ -0,0 +1,144 @@
+package com.example.dawanlocations.data.local;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Outils de la recherche plein texte sur {@link LocationFtsEntity}.
+ *
+ * <p>
+ * <ul>
+ *     <li>{@link #toMatchQuery(String)} transforme la saisie de l’utilisateur en requête
+ *     {@code MATCH} de préfixes (chaque mot saisi doit commencer un mot indexé) ;</li>
+ *     <li>{@link #score(byte[])} calcule un score de pertinence à partir de
+ *     {@code matchinfo(locations_fts, 'pcx')}, en pondérant les colonnes
+ *     (le nom compte plus que la ville, qui compte plus que l’adresse) ;</li>
+ *     <li>{@link #rank(List, int)} retient les meilleures correspondances selon ce score.</li>
+ * </ul>
+ * </p>
+ */
+public final class LocationFts {
+
+    /**
+     * Poids des colonnes, dans l’ordre de {@link LocationFtsEntity} :
+     * name, address, city, postalCode.
+     */
+    private static final double[] COLUMN_WEIGHTS = {4.0, 1.0, 3.0, 2.0};
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private LocationFts() {}
+
+    /**
+     * Construit une requête FTS de préfixes à partir d’une saisie libre.
+     *
+     * <p>
+     * Seuls les lettres et chiffres sont conservés : la ponctuation et les opérateurs
+     * FTS ({@code " * - ( ) :}…) sont traités comme des séparateurs, ce qui rend la
+     * requête toujours valide. Exemple : {@code "Saint-Ét 42"} → {@code saint* ét* 42*}.
+     * </p>
+     *
+     * @param input saisie de l’utilisateur (peut être {@code null})
+     * @return la requête {@code MATCH}, ou {@code null} si la saisie ne contient aucun mot
+     */
+    public static String toMatchQuery(String input) {
+        if (input == null) return null;
+        StringBuilder out = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        String lower = input.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char ch = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                token.append(ch);
+            } else if (token.length() > 0) {
+                if (out.length() > 0) out.append(' ');
+                out.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return out.length() > 0 ? out.toString() : null;
+    }
+
+    /**
+     * Score de pertinence d’une ligne (plus grand = plus pertinent).
+     *
+     * <p>
+     * Pour chaque mot de la requête et chaque colonne, la proportion des occurrences
+     * du mot situées dans cette ligne est multipliée par le poids de la colonne :
+     * un mot rare qui apparaît dans le nom compte beaucoup, un mot fréquent dans
+     * l’adresse compte peu.
+     * </p>
+     *
+     * @param matchInfo résultat de {@code matchinfo(locations_fts, 'pcx')}
+     * @return le score, ou {@code 0} si {@code matchInfo} est absent ou mal formé
+     */
+    public static double score(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) return 0;
+        ByteBuffer buf = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buf.getInt(0);
+        int columns = buf.getInt(4);
+        if (matchInfo.length < 8 + 12L * phrases * columns) return 0;
+
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int c = 0; c < columns; c++) {
+                int at = 8 + 12 * (p * columns + c);
+                long hitsThisRow = buf.getInt(at) & 0xffffffffL;
+                long hitsAllRows = buf.getInt(at + 4) & 0xffffffffL;
+                if (hitsThisRow == 0 || hitsAllRows == 0) continue;
+                double weight = c < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[c] : 1.0;
+                score += weight * hitsThisRow / hitsAllRows;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Classe les correspondances d’une recherche et retient les {@code limit} meilleures.
+     *
+     * <p>
+     * Ordre : score ({@link #score(byte[])}) décroissant ; à égalité, nom (sans tenir compte
+     * de la casse, noms absents en dernier), puis id, pour un ordre stable d’une frappe à
+     * l’autre. Toutes les lignes sont notées, mais seules les {@code limit} meilleures
+     * sont conservées (tas borné) : le coût reste proportionnel au nombre de lignes.
+     * </p>
+     *
+     * @param rows  correspondances renvoyées par {@link LocationDao#search(String)}
+     * @param limit nombre maximal de résultats
+     * @return les ids retenus, du plus pertinent au moins pertinent
+     */
+    public static int[] rank(List<LocationSearchRow> rows, int limit) {
+        int n = rows.size();
+        if (limit <= 0 || n == 0) return new int[0];
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) scores[i] = score(rows.get(i).matchInfo);
+
+        Comparator<Integer> better = (a, b) -> {
+            int c = Double.compare(scores[b], scores[a]);
+            if (c != 0) return c;
+            String na = rows.get(a).name, nb = rows.get(b).name;
+            c = na == null ? (nb == null ? 0 : 1) : (nb == null ? -1 : na.compareToIgnoreCase(nb));
+            return c != 0 ? c : Integer.compare(rows.get(a).id, rows.get(b).id);
+        };
+        // Tête du tas : le moins bon des résultats retenus
+        PriorityQueue<Integer> kept = new PriorityQueue<>(Math.min(limit, n) + 1, better.reversed());
+        for (int i = 0; i < n; i++) {
+            if (kept.size() < limit) {
+                kept.add(i);
+            } else if (better.compare(i, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(i);
+            }
+        }
+
+        Integer[] order = kept.toArray(new Integer[0]);
+        Arrays.sort(order, better);
+        int[] ids = new int[order.length];
+        for (int i = 0; i < order.length; i++) ids[i] = rows.get(order[i]).id;
+        return ids;
+    }
+}
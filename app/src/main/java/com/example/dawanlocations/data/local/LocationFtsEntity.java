@@ -0,0 +1,24 @@
+package com.example.dawanlocations.data.local;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Index plein texte (FTS4) des champs textuels de {@link LocationEntity}.
+ *
+ * <p>
+ * Table à contenu externe : le texte n’est pas dupliqué, seul l’index est stocké, et
+ * Room maintient la synchronisation avec la table {@code locations} par des triggers.
+ * Le tokenizer {@code unicode61} ignore la casse et les accents
+ * (« etienne » trouve « Saint-Étienne »).
+ * </p>
+ */
+@Fts4(contentEntity = LocationEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "locations_fts")
+public class LocationFtsEntity {
+    public String name;
+    public String address;
+    public String city;
+    public String postalCode;
+}
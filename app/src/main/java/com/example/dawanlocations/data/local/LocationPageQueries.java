@@ -0,0 +1,64 @@
+package com.example.dawanlocations.data.local;
+
+/**
+ * Fragments SQL des requêtes paginées « par clé » (keyset) de {@link LocationDao}.
+ *
+ * <p>
+ * Une page commence juste après (ou juste avant) la clé de la dernière ligne lue,
+ * au lieu de sauter un nombre de lignes ({@code OFFSET}) : le coût d’une page ne
+ * dépend pas de sa position dans la liste.
+ * </p>
+ *
+ * <p>
+ * Ordre par ville : la condition « après {@code (city, name, id)} » est découpée en
+ * branches {@code UNION ALL} dont chacune est une plage de l’index
+ * {@code index_locations_city_name_id} ; SQLite fusionne ces plages déjà triées et
+ * s’arrête à {@code LIMIT}. Les valeurs {@code NULL} sont rangées en premier, comme
+ * dans un {@code ORDER BY} SQLite (d’où les branches {@code IS NULL}/{@code IS NOT NULL}).
+ * </p>
+ *
+ * <p>
+ * Ordre par distance : la clé est le carré de la distance équirectangulaire au point
+ * de référence ({@code :lat}, {@code :lon}), la longitude étant pondérée par
+ * {@code :lonScale} = cos²(latitude de référence) et prise au plus court autour de
+ * l’antiméridien. Aucun index ne peut servir ce tri : chaque page parcourt la table,
+ * mais SQLite ne conserve que {@code :limit} lignes en mémoire.
+ * </p>
+ */
+final class LocationPageQueries {
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private LocationPageQueries() {}
+
+    /** Lignes strictement après {@code (:city, :name, :id)} dans l’ordre (city, name, id) */
+    static final String CITY_AFTER =
+            "SELECT * FROM locations WHERE city IS :city AND name IS :name AND id > :id "
+            + "UNION ALL SELECT * FROM locations WHERE city IS :city AND name > :name "
+            + "UNION ALL SELECT * FROM locations WHERE city IS :city AND name IS NOT NULL AND :name IS NULL "
+            + "UNION ALL SELECT * FROM locations WHERE city > :city "
+            + "UNION ALL SELECT * FROM locations WHERE city IS NOT NULL AND :city IS NULL";
+
+    /** Lignes strictement avant {@code (:city, :name, :id)} dans l’ordre (city, name, id) */
+    static final String CITY_BEFORE =
+            "SELECT * FROM locations WHERE city IS :city AND name IS :name AND id < :id "
+            + "UNION ALL SELECT * FROM locations WHERE city IS :city AND name < :name "
+            + "UNION ALL SELECT * FROM locations WHERE city IS :city AND name IS NULL AND :name IS NOT NULL "
+            + "UNION ALL SELECT * FROM locations WHERE city < :city "
+            + "UNION ALL SELECT * FROM locations WHERE city IS NULL AND :city IS NOT NULL";
+
+    /** Nombre de lignes strictement avant {@code (:city, :name, :id)} (index couvrant uniquement) */
+    static final String CITY_COUNT_BEFORE =
+            "SELECT (SELECT COUNT(*) FROM locations WHERE city IS :city AND name IS :name AND id < :id) "
+            + "+ (SELECT COUNT(*) FROM locations WHERE city IS :city AND name < :name) "
+            + "+ (SELECT COUNT(*) FROM locations WHERE city IS :city AND name IS NULL AND :name IS NOT NULL) "
+            + "+ (SELECT COUNT(*) FROM locations WHERE city < :city) "
+            + "+ (SELECT COUNT(*) FROM locations WHERE city IS NULL AND :city IS NOT NULL)";
+
+    /** Écart de longitude au plus court (en degrés, entre 0 et 180) */
+    private static final String LON_DELTA = "MIN(ABS(longitude - :lon), 360 - ABS(longitude - :lon))";
+
+    /** Centres accompagnés de leur clé de distance {@code distanceKey} */
+    static final String WITH_DISTANCE =
+            "SELECT *, ((latitude - :lat) * (latitude - :lat) + :lonScale * "
+            + LON_DELTA + " * " + LON_DELTA + ") AS distanceKey FROM locations";
+}
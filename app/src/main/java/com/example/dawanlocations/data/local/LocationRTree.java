@@ -0,0 +1,198 @@
+package com.example.dawanlocations.data.local;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+/**
+ * Index spatial SQLite (R*Tree) de la table {@code locations}.
+ *
+ * <p>
+ * La table virtuelle {@code locations_rtree} contient, pour chaque centre, une boîte
+ * réduite à un point ({@code minLat = maxLat}, {@code minLon = maxLon}). Elle est tenue
+ * à jour par des triggers sur {@code locations} : aucune écriture supplémentaire
+ * n’est nécessaire pendant la synchronisation.
+ * </p>
+ *
+ * <p>
+ * Room ne gère pas les tables virtuelles R*Tree : elles sont créées ici, à la création
+ * de la base ({@link #CALLBACK}) comme lors de la migration 2 → 3, et interrogées
+ * via des {@code @RawQuery} (voir {@link LocationDao#getInBounds}).
+ * </p>
+ *
+ * <p>
+ * Le module {@code rtree} est optionnel : certaines versions de SQLite livrées avec
+ * Android ne l’incluent pas, et {@code CREATE VIRTUAL TABLE … USING rtree} y échoue.
+ * Sa présence est donc vérifiée avant toute création ; en son absence, ni la table
+ * virtuelle ni les triggers ne sont créés, et les requêtes passent par l’index
+ * {@code (latitude, longitude)} de {@code locations}.
+ * </p>
+ */
+public final class LocationRTree {
+
+    /** Nom de la table virtuelle */
+    public static final String TABLE = "locations_rtree";
+
+    private static final String TAG = "LocationRTree";
+
+    /** Triggers de maintien de la table virtuelle */
+    private static final String[] TRIGGERS = {
+            "locations_rtree_ai", "locations_rtree_au", "locations_rtree_ad"};
+
+    /**
+     * {@code true} si la base ouverte dispose de la table virtuelle
+     * (mis à jour à chaque ouverture par {@link #CALLBACK}).
+     */
+    private static volatile boolean available;
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private LocationRTree() {}
+
+    /**
+     * Indique si les requêtes peuvent passer par la table virtuelle R*Tree.
+     *
+     * @return {@code true} si le module {@code rtree} est présent et la table créée
+     */
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Vérifie que le SQLite de l’appareil fournit le module {@code rtree}, en créant
+     * puis supprimant une table virtuelle temporaire.
+     *
+     * @param db base ouverte
+     * @return {@code true} si le module est disponible
+     */
+    static boolean isModuleAvailable(@NonNull SupportSQLiteDatabase db) {
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS temp.`rtree_probe` USING rtree(`id`, `minX`, `maxX`)");
+            db.execSQL("DROP TABLE IF EXISTS temp.`rtree_probe`");
+            return true;
+        } catch (SQLException e) {
+            Log.w(TAG, "rtree module unavailable: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean tableExists(@NonNull SupportSQLiteDatabase db) {
+        try (Cursor c = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new Object[]{TABLE})) {
+            return c.moveToFirst();
+        }
+    }
+
+    /**
+     * Crée la table virtuelle et ses triggers (si absents), puis l’alimente
+     * avec les centres déjà présents. Sans module {@code rtree}, ne fait rien.
+     *
+     * @param db base ouverte (création ou migration)
+     * @return {@code true} si la table virtuelle a été créée
+     */
+    static boolean create(@NonNull SupportSQLiteDatabase db) {
+        if (!isModuleAvailable(db)) return false;
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + TABLE + "` "
+                + "USING rtree(`id`, `minLat`, `maxLat`, `minLon`, `maxLon`)");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `locations_rtree_ai` AFTER INSERT ON `locations` BEGIN "
+                + "INSERT OR REPLACE INTO `" + TABLE + "` (`id`, `minLat`, `maxLat`, `minLon`, `maxLon`) "
+                + "VALUES (NEW.`id`, NEW.`latitude`, NEW.`latitude`, NEW.`longitude`, NEW.`longitude`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `locations_rtree_au` AFTER UPDATE ON `locations` BEGIN "
+                + "DELETE FROM `" + TABLE + "` WHERE `id` = OLD.`id`; "
+                + "INSERT OR REPLACE INTO `" + TABLE + "` (`id`, `minLat`, `maxLat`, `minLon`, `maxLon`) "
+                + "VALUES (NEW.`id`, NEW.`latitude`, NEW.`latitude`, NEW.`longitude`, NEW.`longitude`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `locations_rtree_ad` AFTER DELETE ON `locations` BEGIN "
+                + "DELETE FROM `" + TABLE + "` WHERE `id` = OLD.`id`; END");
+
+        db.execSQL("INSERT OR REPLACE INTO `" + TABLE + "` (`id`, `minLat`, `maxLat`, `minLon`, `maxLon`) "
+                + "SELECT `id`, `latitude`, `latitude`, `longitude`, `longitude` FROM `locations`");
+        return true;
+    }
+
+    /**
+     * Crée l’index R*Tree lors de la création d’une nouvelle base
+     * (les bases existantes l’obtiennent par {@link Migrations#MIGRATION_2_3}),
+     * puis vérifie à chaque ouverture qu’il est utilisable.
+     *
+     * <p>
+     * À l’ouverture : si le module est apparu depuis (mise à jour du système), l’index
+     * est créé ; s’il a disparu (base restaurée sur un autre appareil), les triggers
+     * sont supprimés, sans quoi toute écriture dans {@code locations} échouerait.
+     * </p>
+     */
+    static final RoomDatabase.Callback CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            create(db);
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            if (!isModuleAvailable(db)) {
+                for (String trigger : TRIGGERS) db.execSQL("DROP TRIGGER IF EXISTS `" + trigger + "`");
+                available = false;
+            } else {
+                available = tableExists(db) || create(db);
+            }
+        }
+    };
+
+    /**
+     * Construit la requête des centres situés dans un rectangle, via le R*Tree s’il
+     * est disponible ({@link #isAvailable()}), sinon via l’index
+     * {@code (latitude, longitude)} de {@code locations}.
+     *
+     * @see #inBoundsQuery(boolean, double, double, double, double)
+     */
+    static SupportSQLiteQuery inBoundsQuery(double minLat, double maxLat, double minLon, double maxLon) {
+        return inBoundsQuery(available, minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Construit la requête des centres situés dans un rectangle.
+     *
+     * <p>
+     * Le R*Tree stocke ses bornes en flottants 32 bits (arrondies vers l’extérieur) :
+     * il sert à présélectionner les candidats, et le filtre final porte sur les
+     * coordonnées exactes de {@code locations}. Si {@code minLon > maxLon}, le rectangle
+     * traverse l’antiméridien et la requête couvre les deux côtés.
+     * Sans R*Tree, la plage de latitudes est lue sur l’index {@code (latitude, longitude)}
+     * et les longitudes sont filtrées sur les lignes de cette plage.
+     * </p>
+     *
+     * @param rtree  {@code true} pour passer par la table virtuelle
+     * @param minLat latitude minimale
+     * @param maxLat latitude maximale
+     * @param minLon longitude minimale (ouest)
+     * @param maxLon longitude maximale (est)
+     * @return la requête à passer à un {@code @RawQuery} de {@link LocationDao}
+     */
+    static SupportSQLiteQuery inBoundsQuery(boolean rtree, double minLat, double maxLat,
+                                            double minLon, double maxLon) {
+        if (!rtree) {
+            String select = "SELECT * FROM `locations` "
+                    + "WHERE `latitude` BETWEEN ? AND ? AND `longitude` BETWEEN ? AND ?";
+            if (minLon <= maxLon) {
+                return new SimpleSQLiteQuery(select, new Object[]{minLat, maxLat, minLon, maxLon});
+            }
+            return new SimpleSQLiteQuery(select + " UNION ALL " + select, new Object[]{
+                    minLat, maxLat, minLon, 180.0, minLat, maxLat, -180.0, maxLon});
+        }
+        String select = "SELECT l.* FROM `locations` AS l JOIN `" + TABLE + "` AS r ON r.`id` = l.`id` "
+                + "WHERE r.`maxLat` >= ? AND r.`minLat` <= ? AND r.`maxLon` >= ? AND r.`minLon` <= ? "
+                + "AND l.`latitude` BETWEEN ? AND ? AND l.`longitude` BETWEEN ? AND ?";
+        if (minLon <= maxLon) {
+            return new SimpleSQLiteQuery(select, new Object[]{
+                    minLat, maxLat, minLon, maxLon, minLat, maxLat, minLon, maxLon});
+        }
+        return new SimpleSQLiteQuery(select + " UNION ALL " + select, new Object[]{
+                minLat, maxLat, minLon, 180.0, minLat, maxLat, minLon, 180.0,
+                minLat, maxLat, -180.0, maxLon, minLat, maxLat, -180.0, maxLon});
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.dawanlocations.data.local;
+
+/**
+ * Ligne résultat d’une recherche plein texte : l’identifiant et le nom du centre trouvé,
+ * et les statistiques de correspondance FTS ({@code matchinfo(..., 'pcx')}) servant au
+ * classement. Le centre complet n’est lu qu’une fois classé parmi les meilleurs.
+ */
+public class LocationSearchRow {
+    public int id;
+    /** Nom du centre (départage des scores égaux) */
+    public String name;
+    /** Résultat brut de {@code matchinfo} (entiers 32 bits non signés, ordre natif) */
+    public byte[] matchInfo;
+}
@@ -0,0 +1,186 @@
+package com.example.dawanlocations.data.local;
+
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire compact du {@link LocationStore}, pour un affichage immédiat au démarrage.
+ *
+ * <p>
+ * Écrit après chaque synchronisation ayant modifié les données, il est relu au
+ * démarrage via un {@link MappedByteBuffer}, sans ouvrir la base Room.
+ * En cas de fichier absent, tronqué, de version inconnue ou de somme de contrôle
+ * invalide, {@link #read()} renvoie {@code null} : l’appelant se rabat alors sur Room.
+ * </p>
+ *
+ * <p>
+ * Format (little-endian) :
+ * <pre>
+ * en-tête (24 octets) : magic "DWLS" | version | n (centres) | m (chaînes) | CRC32 du corps (long)
+ * corps               : double lat[n] | double lon[n] | int id[n]
+ *                       | int name[n] | int address[n] | int city[n] | int postalCode[n]
+ *                       | m × (int longueur | octets UTF-8)
+ * </pre>
+ * Les colonnes texte contiennent un indice dans la table de chaînes dédupliquées
+ * ({@code -1} pour {@code null}).
+ * </p>
+ */
+public final class LocationSnapshotFile {
+
+    private static final int MAGIC = 0x534C5744; // "DWLS" en little-endian
+    /** Version du format ; à incrémenter à chaque changement incompatible */
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    private final File file;
+
+    /**
+     * @param file emplacement du fichier d’instantané
+     */
+    public LocationSnapshotFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Écrit l’instantané (dans un fichier temporaire, puis renommage atomique).
+     *
+     * @param store centres à enregistrer
+     * @throws IOException en cas d’erreur d’écriture
+     */
+    public void write(LocationStore store) throws IOException {
+        int n = store.size();
+        int m = store.stringCount();
+        byte[][] strings = new byte[m][];
+        int stringBytes = 0;
+        for (int s = 0; s < m; s++) {
+            strings[s] = store.string(s).getBytes(StandardCharsets.UTF_8);
+            stringBytes += 4 + strings[s].length;
+        }
+
+        int bodySize = n * (8 + 8 + 4 + 4 * 4) + stringBytes;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + bodySize).order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(HEADER_SIZE);
+        for (int i = 0; i < n; i++) buf.putDouble(store.latitude(i));
+        for (int i = 0; i < n; i++) buf.putDouble(store.longitude(i));
+        for (int i = 0; i < n; i++) buf.putInt(store.id(i));
+        for (int i = 0; i < n; i++) buf.putInt(store.nameRef(i));
+        for (int i = 0; i < n; i++) buf.putInt(store.addressRef(i));
+        for (int i = 0; i < n; i++) buf.putInt(store.cityRef(i));
+        for (int i = 0; i < n; i++) buf.putInt(store.postalCodeRef(i));
+        for (byte[] str : strings) {
+            buf.putInt(str.length);
+            buf.put(str);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_SIZE, bodySize);
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, FORMAT_VERSION);
+        buf.putInt(8, n);
+        buf.putInt(12, m);
+        buf.putLong(16, crc.getValue());
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(buf.array());
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Lit l’instantané.
+     *
+     * @return les centres, ou {@code null} si le fichier est absent ou invalide
+     *         (un fichier corrompu est supprimé)
+     */
+    public LocationStore read() {
+        if (!file.isFile()) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) return corrupt();
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            return decode(map);
+        } catch (IOException | RuntimeException e) {
+            return corrupt();
+        }
+    }
+
+    /** Supprime l’instantané (par exemple après un effacement des données). */
+    public void delete() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private LocationStore decode(ByteBuffer buf) {
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT_VERSION) return corrupt();
+        int n = buf.getInt(8);
+        int m = buf.getInt(12);
+        long expectedCrc = buf.getLong(16);
+        int bodySize = buf.capacity() - HEADER_SIZE;
+        if (n < 0 || m < 0 || (long) n * 36 > bodySize) return corrupt();
+
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buf.duplicate();
+        body.position(HEADER_SIZE);
+        crc.update(body);
+        if (crc.getValue() != expectedCrc) return corrupt();
+
+        int latAt = HEADER_SIZE, lonAt = latAt + 8 * n, idAt = lonAt + 8 * n, strAt = idAt + 4 * n;
+        int tableAt = strAt + 16 * n;
+
+        // Table de chaînes : décodée une seule fois, partagée entre les centres
+        String[] table = new String[m];
+        int pos = tableAt;
+        for (int s = 0; s < m; s++) {
+            int len = buf.getInt(pos);
+            pos += 4;
+            if (len < 0 || pos + len > buf.capacity()) return corrupt();
+            byte[] bytes = new byte[len];
+            ByteBuffer slice = buf.duplicate();
+            slice.position(pos);
+            slice.get(bytes);
+            table[s] = new String(bytes, StandardCharsets.UTF_8);
+            pos += len;
+        }
+
+        // Les colonnes sont copiées telles quelles, sans objet intermédiaire par centre
+        double[] lat = new double[n], lon = new double[n];
+        int[] ids = new int[n], names = new int[n], addresses = new int[n], cities = new int[n], postalCodes = new int[n];
+        ByteBuffer col = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        col.position(latAt);
+        col.asDoubleBuffer().get(lat);
+        col.position(lonAt);
+        col.asDoubleBuffer().get(lon);
+        col.position(idAt);
+        col.asIntBuffer().get(ids);
+        int[][] refs = {names, addresses, cities, postalCodes};
+        for (int c = 0; c < refs.length; c++) {
+            col.position(strAt + 4 * n * c);
+            col.asIntBuffer().get(refs[c]);
+        }
+        // Référence hors de la table → IllegalArgumentException → fichier considéré corrompu
+        return LocationStore.fromColumns(ids, lat, lon, names, addresses, cities, postalCodes, table);
+    }
+
+    private LocationStore corrupt() {
+        delete();
+        return null;
+    }
+}
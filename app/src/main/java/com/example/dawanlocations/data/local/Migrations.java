@@ -0,0 +1,123 @@
+package com.example.dawanlocations.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Migrations du schéma de {@link AppDatabase}.
+ *
+ * <p>
+ * Chaque migration reproduit exactement le SQL généré par Room pour la nouvelle
+ * version (voir les fichiers exportés dans {@code app/schemas}), afin que la
+ * validation du schéma à l’ouverture réussisse.
+ * </p>
+ */
+public final class Migrations {
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private Migrations() {}
+
+    /** 1 → 2 : ajout de la table {@code sync_metadata}. */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_metadata` ("
+                    + "`key` TEXT NOT NULL, "
+                    + "`lastAttemptAt` INTEGER NOT NULL, "
+                    + "`lastSuccessAt` INTEGER NOT NULL, "
+                    + "`lastResult` TEXT, "
+                    + "`payloadHash` INTEGER NOT NULL, "
+                    + "`consecutiveFailures` INTEGER NOT NULL, "
+                    + "`nextAttemptAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`key`))");
+        }
+    };
+
+    /**
+     * 2 → 3 : ajout de l’index spatial R*Tree {@code locations_rtree} et de ses triggers
+     * (hors schéma Room, voir {@link LocationRTree}), si le module {@code rtree} est présent.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            LocationRTree.create(db);
+        }
+    };
+
+    /**
+     * 3 → 4 : ajout de l’index plein texte {@code locations_fts} ({@link LocationFtsEntity}),
+     * de ses triggers de synchronisation (tels que générés par Room), puis indexation
+     * des centres existants.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `locations_fts` USING FTS4("
+                    + "`name` TEXT, `address` TEXT, `city` TEXT, `postalCode` TEXT, "
+                    + "tokenize=unicode61, content=`locations`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_locations_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `locations` BEGIN "
+                    + "DELETE FROM `locations_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_locations_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `locations` BEGIN "
+                    + "DELETE FROM `locations_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_locations_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `locations` BEGIN "
+                    + "INSERT INTO `locations_fts`(`docid`, `name`, `address`, `city`, `postalCode`) "
+                    + "VALUES (NEW.`rowid`, NEW.`name`, NEW.`address`, NEW.`city`, NEW.`postalCode`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_locations_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `locations` BEGIN "
+                    + "INSERT INTO `locations_fts`(`docid`, `name`, `address`, `city`, `postalCode`) "
+                    + "VALUES (NEW.`rowid`, NEW.`name`, NEW.`address`, NEW.`city`, NEW.`postalCode`); END");
+            db.execSQL("INSERT INTO `locations_fts`(`locations_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    /**
+     * 4 → 5 : ajout de l’index {@code (city, name, id)} utilisé par la liste paginée
+     * des centres (voir {@link LocationDao#pageByCityAfter}).
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_locations_city_name_id` "
+                    + "ON `locations` (`city`, `name`, `id`)");
+        }
+    };
+
+    /**
+     * 5 → 6 : ajout du curseur de synchronisation par différences
+     * ({@link SyncMetadataEntity#cursor}), vide pour les lignes existantes, et du constat
+     * d’absence de l’API de changements ({@link SyncMetadataEntity#changesUnsupportedAt}), à 0.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `sync_metadata` ADD COLUMN `cursor` TEXT");
+            db.execSQL("ALTER TABLE `sync_metadata` ADD COLUMN `changesUnsupportedAt` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * 6 → 7 : ajout de l’index {@code (latitude, longitude)}, utilisé par les requêtes
+     * par rectangle lorsque le module R*Tree est absent (voir {@link LocationRTree}).
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_locations_latitude_longitude` "
+                    + "ON `locations` (`latitude`, `longitude`)");
+        }
+    };
+
+    /** Toutes les migrations, à enregistrer auprès du builder Room. */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7
+    };
+}
@@ -0,0 +1,51 @@
+package com.example.dawanlocations.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+/**
+ * DAO d’accès aux {@link SyncMetadataEntity}.
+ */
+@Dao
+public interface SyncMetadataDao {
+
+    /**
+     * Récupère les métadonnées d’un jeu de données.
+     *
+     * @param key clé du jeu de données (ex. {@link SyncMetadataEntity#KEY_LOCATIONS})
+     * @return les métadonnées, ou {@code null} si aucune synchronisation n’a encore eu lieu
+     */
+    @Query("SELECT * FROM sync_metadata WHERE `key` = :key")
+    SyncMetadataEntity get(String key);
+
+    /**
+     * Enregistre (ou remplace) des métadonnées.
+     *
+     * @param metadata métadonnées à enregistrer
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(SyncMetadataEntity metadata);
+
+    /**
+     * Remplace uniquement le curseur de synchronisation, sans toucher aux autres colonnes
+     * (écrites par ailleurs par le {@code SyncScheduler}).
+     *
+     * @param key    clé du jeu de données
+     * @param cursor nouveau curseur, ou {@code null} pour l’effacer
+     * @return le nombre de lignes modifiées ({@code 0} si la ligne n’existe pas encore)
+     */
+    @Query("UPDATE sync_metadata SET cursor = :cursor WHERE `key` = :key")
+    int updateCursor(String key, String cursor);
+
+    /**
+     * Remplace uniquement l’horodatage du constat d’absence de l’API de changements.
+     *
+     * @param key clé du jeu de données
+     * @param at  horodatage (ms epoch) du constat, ou {@code 0} si l’API répond
+     * @return le nombre de lignes modifiées ({@code 0} si la ligne n’existe pas encore)
+     */
+    @Query("UPDATE sync_metadata SET changesUnsupportedAt = :at WHERE `key` = :key")
+    int updateChangesUnsupportedAt(String key, long at);
+}
@@ -0,0 +1,55 @@
+package com.example.dawanlocations.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Métadonnées de la dernière synchronisation d’un jeu de données (ici les {@code locations}).
+ *
+ * <p>
+ * Permettent au {@code SyncScheduler} de décider s’il faut rafraîchir
+ * (données périmées), ou s’il faut patienter (repli exponentiel après un échec).
+ * </p>
+ *
+ * <p>
+ * Le curseur de synchronisation ({@link #cursor}) est renvoyé par l’API de changements
+ * ({@code public/location/changes}) : présenté à la synchronisation suivante, il permet
+ * de ne recevoir que les lignes modifiées et les identifiants supprimés depuis. Un serveur
+ * qui n’expose pas cette API est noté ({@link #changesUnsupportedAt}) pour ne pas la
+ * redemander à chaque démarrage.
+ * </p>
+ */
+@Entity(tableName = "sync_metadata")
+public class SyncMetadataEntity {
+
+    /** Clé de la ligne décrivant la synchronisation des centres */
+    public static final String KEY_LOCATIONS = "locations";
+
+    /** Résultat : données mises à jour (ou inchangées après vérification) */
+    public static final String RESULT_SUCCESS = "SUCCESS";
+    /** Résultat : erreur réseau ou HTTP */
+    public static final String RESULT_ERROR = "ERROR";
+    /** Résultat : aucune connexion disponible */
+    public static final String RESULT_OFFLINE = "OFFLINE";
+
+    @PrimaryKey @NonNull public String key = KEY_LOCATIONS;
+    /** Horodatage (ms epoch) de la dernière tentative */
+    public long lastAttemptAt;
+    /** Horodatage (ms epoch) de la dernière synchronisation réussie, 0 si jamais */
+    public long lastSuccessAt;
+    /** Résultat de la dernière tentative ({@code RESULT_*}) */
+    public String lastResult;
+    /** Empreinte du dernier contenu reçu de l’API */
+    public long payloadHash;
+    /** Nombre d’échecs consécutifs depuis le dernier succès */
+    public int consecutiveFailures;
+    /** Horodatage (ms epoch) avant lequel aucune nouvelle tentative automatique n’est faite */
+    public long nextAttemptAt;
+    /** Curseur de la dernière synchronisation par différences, {@code null} si aucune (ou rejeté) */
+    public String cursor;
+    /** Horodatage (ms epoch) du dernier constat que l’API de changements est absente, 0 si elle répond */
+    @ColumnInfo(defaultValue = "0")
+    public long changesUnsupportedAt;
+}
@@ -3,11 +3,47 @@ package com.example.dawanlocations.data.remote;
 
 import com.example.dawanlocations.data.remote.model.LocationDto;
 import java.util.List;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
+import retrofit2.http.Query;
 
 
 public interface DawanApi {
     @GET("public/location/")
     Call<List<LocationDto>> getLocations();
-}
\ No newline at end of file
+
+    /**
+     * Même ressource que {@link #getLocations()}, mais corps brut et revalidation forcée.
+     *
+     * <p>
+     * {@code Cache-Control: max-age=0} oblige le cache HTTP à revalider la réponse
+     * stockée (requête conditionnelle {@code If-None-Match} / {@code If-Modified-Since}).
+     * ({@code no-cache} ne convient pas : OkHttp contournerait alors totalement le cache.)
+     * Le corps n’est pas désérialisé par Retrofit : l’appelant peut ainsi
+     * ignorer un {@code 304 Not Modified} sans analyser le JSON.
+     * </p>
+     */
+    @Headers("Cache-Control: max-age=0")
+    @GET("public/location/")
+    Call<ResponseBody> getLocationsRaw();
+
+    /**
+     * Changements survenus depuis un curseur de synchronisation (corps brut, analysé par
+     * {@link LocationStreamParser#parseChanges}).
+     *
+     * <p>
+     * Réponse attendue :
+     * {@code {"cursor": "...", "full": false, "changed": [ ... ], "deleted": [ id, ... ]}}.
+     * Sans curseur, le serveur renvoie l’ensemble des centres ({@code "full": true}) et
+     * un premier curseur. Un curseur expiré ou inconnu est rejeté par {@code 410 Gone}.
+     * Chaque réponse dépend du curseur : elle n’est pas stockée dans le cache HTTP.
+     * </p>
+     *
+     * @param cursor curseur reçu lors de la synchronisation précédente, ou {@code null}
+     */
+    @Headers("Cache-Control: no-store")
+    @GET("public/location/changes")
+    Call<ResponseBody> getLocationChanges(@Query("cursor") String cursor);
+}
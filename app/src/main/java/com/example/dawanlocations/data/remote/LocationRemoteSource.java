@@ -0,0 +1,243 @@
+package com.example.dawanlocations.data.remote;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import okhttp3.Cache;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import retrofit2.Response;
+
+/**
+ * Source distante des centres, au-dessus de {@link DawanApi#getLocationsRaw()}
+ * et de {@link DawanApi#getLocationChanges(String)}.
+ *
+ * <p>
+ * Distingue une réponse inchangée ({@code 304 Not Modified} après une requête
+ * conditionnelle, ou réponse servie par le cache HTTP) d’une réponse nouvelle.
+ * Dans le premier cas le corps est fermé sans être lu ; dans le second, il est
+ * exposé sous forme de flux afin d’être analysé par {@link LocationStreamParser}
+ * sans jamais être chargé entièrement en mémoire.
+ * </p>
+ *
+ * <p>
+ * {@link #fetchChanges(String)} interroge l’API de changements et traduit ses refus
+ * en exceptions dédiées : curseur rejeté ({@link CursorRejectedException}) ou
+ * API absente du serveur ({@link ChangesUnsupportedException}).
+ * </p>
+ *
+ * <p>
+ * Le cache HTTP enregistre une réponse dès que son corps a été lu jusqu’au bout, y compris
+ * quand la fermeture du résultat consomme la fin du flux après un échec. Si la réponse n’a
+ * pas pu être appliquée, {@link #evictCachedList()} la retire du cache : sans cela, la
+ * requête conditionnelle suivante recevrait un {@code 304} et les données locales
+ * resteraient périmées.
+ * </p>
+ */
+public final class LocationRemoteSource {
+
+    private final DawanApi api;
+    /** Cache HTTP du client de {@link #api}, ou {@code null} s’il n’y en a pas */
+    private final Cache cache;
+
+    /**
+     * @param api interface Retrofit de l’API Dawan
+     */
+    public LocationRemoteSource(DawanApi api) {
+        this(api, null);
+    }
+
+    /**
+     * @param api   interface Retrofit de l’API Dawan
+     * @param cache cache HTTP du client utilisé par {@code api} (peut être {@code null})
+     */
+    public LocationRemoteSource(DawanApi api, Cache cache) {
+        this.api = api;
+        this.cache = cache;
+    }
+
+    /**
+     * Interroge l’API.
+     *
+     * <p>
+     * Le résultat doit être fermé par l’appelant (try-with-resources).
+     * </p>
+     *
+     * @param readIfNotModified si {@code true}, le corps (servi depuis le cache)
+     *                          est exposé même si le serveur répond {@code 304}
+     * @return le résultat de l’appel
+     * @throws IOException en cas d’erreur réseau ou de code HTTP en échec
+     */
+    public FetchResult fetch(boolean readIfNotModified) throws IOException {
+        Response<ResponseBody> res = api.getLocationsRaw().execute();
+        ResponseBody body = res.body();
+        if (!res.isSuccessful() || body == null) {
+            if (body != null) body.close();
+            throw new IOException("HTTP " + res.code());
+        }
+        boolean notModified = isNotModified(res.raw());
+        if (notModified && !readIfNotModified) {
+            body.close();
+            return new FetchResult(true, null);
+        }
+        return new FetchResult(notModified, body);
+    }
+
+    /**
+     * Retire du cache HTTP la liste complète des centres : la prochaine requête
+     * sera inconditionnelle et renverra tout le corps.
+     *
+     * <p>
+     * À appeler après avoir fermé un {@link FetchResult} dont le contenu n’a pas été
+     * appliqué (erreur d’analyse ou d’écriture).
+     * </p>
+     *
+     * @throws IOException si le cache ne peut pas être parcouru
+     */
+    public void evictCachedList() throws IOException {
+        if (cache == null) return;
+        String url = api.getLocationsRaw().request().url().toString();
+        for (Iterator<String> it = cache.urls(); it.hasNext(); ) {
+            if (url.equals(it.next())) it.remove();
+        }
+    }
+
+    /**
+     * Interroge l’API de changements.
+     *
+     * <p>
+     * Le résultat (jamais « non modifié ») doit être fermé par l’appelant ; son corps
+     * s’analyse avec {@link LocationStreamParser#parseChanges}.
+     * </p>
+     *
+     * @param cursor curseur de la synchronisation précédente, ou {@code null} pour tout recevoir
+     * @return le résultat de l’appel
+     * @throws CursorRejectedException     si le serveur ne reconnaît plus le curseur ({@code 410})
+     * @throws ChangesUnsupportedException si le serveur n’expose pas l’API ({@code 404}, {@code 501})
+     * @throws IOException                 en cas d’erreur réseau ou d’un autre code HTTP en échec
+     */
+    public FetchResult fetchChanges(String cursor) throws IOException {
+        Response<ResponseBody> res = api.getLocationChanges(cursor).execute();
+        ResponseBody body = res.body();
+        if (!res.isSuccessful() || body == null) {
+            if (body != null) body.close();
+            int code = res.code();
+            if (code == 410 && cursor != null) throw new CursorRejectedException(cursor);
+            if (code == 404 || code == 501) throw new ChangesUnsupportedException(code);
+            throw new IOException("HTTP " + code);
+        }
+        return new FetchResult(false, body);
+    }
+
+    /**
+     * Indique si la réponse finale provient d’une revalidation réussie ({@code 304})
+     * ou uniquement du cache, c’est-à-dire si les données n’ont pas changé.
+     */
+    static boolean isNotModified(okhttp3.Response raw) {
+        okhttp3.Response network = raw.networkResponse();
+        if (network == null) return raw.cacheResponse() != null;
+        return network.code() == 304;
+    }
+
+    /**
+     * Résultat d’un appel à {@link #fetch(boolean)}.
+     */
+    public static final class FetchResult implements Closeable {
+        /** {@code true} si le serveur a confirmé que les données n’ont pas changé */
+        public final boolean notModified;
+        /** Corps de la réponse, ou {@code null} s’il n’a pas à être lu */
+        private final ResponseBody body;
+        /** Copie locale du corps ({@link #spool}), supprimée à la fermeture */
+        private File spooled;
+        private Reader spooledReader;
+
+        FetchResult(boolean notModified, ResponseBody body) {
+            this.notModified = notModified;
+            this.body = body;
+        }
+
+        /** @return {@code true} si un corps est disponible à la lecture */
+        public boolean hasBody() {
+            return body != null;
+        }
+
+        /**
+         * @return le flux de caractères du corps (décodé selon le {@code Content-Type})
+         * @throws IllegalStateException si aucun corps n’est disponible
+         */
+        public Reader reader() {
+            if (body == null) throw new IllegalStateException("No body");
+            return body.charStream();
+        }
+
+        /**
+         * Télécharge tout le corps dans un fichier temporaire, puis l’expose en flux de
+         * caractères : sa lecture ne dépend plus du réseau (une transaction ouverte pendant
+         * l’analyse n’attend pas un réseau lent). Le fichier est supprimé à la fermeture
+         * du résultat.
+         *
+         * @param dir répertoire du fichier temporaire
+         * @return le flux de caractères de la copie (décodé selon le {@code Content-Type})
+         * @throws IOException           si le téléchargement ou l’écriture du fichier échoue
+         * @throws IllegalStateException si aucun corps n’est disponible
+         */
+        public Reader spool(File dir) throws IOException {
+            if (body == null) throw new IllegalStateException("No body");
+            spooled = File.createTempFile("response", ".json", dir);
+            try (BufferedSink sink = Okio.buffer(Okio.sink(spooled))) {
+                sink.writeAll(body.source());
+            }
+            MediaType type = body.contentType();
+            Charset charset = type != null ? type.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+            spooledReader = new InputStreamReader(new BufferedInputStream(new FileInputStream(spooled)), charset);
+            return spooledReader;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) body.close();
+            if (spooledReader != null) {
+                try {
+                    spooledReader.close();
+                } catch (IOException ignored) {
+                    // fichier local en lecture seule : rien à perdre
+                }
+            }
+            //noinspection ResultOfMethodCallIgnored
+            if (spooled != null) spooled.delete();
+        }
+    }
+
+    /**
+     * Le curseur présenté n’est plus valide (expiré, purgé, ou d’une autre base) :
+     * il faut repartir d’une synchronisation complète.
+     */
+    public static final class CursorRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CursorRejectedException(String cursor) {
+            super("Sync cursor rejected: " + cursor);
+        }
+    }
+
+    /**
+     * Le serveur n’expose pas l’API de changements : seule la liste complète est disponible.
+     */
+    public static final class ChangesUnsupportedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ChangesUnsupportedException(int code) {
+            super("Changes API unavailable: HTTP " + code);
+        }
+    }
+}
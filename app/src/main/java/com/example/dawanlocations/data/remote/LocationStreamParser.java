@@ -0,0 +1,202 @@
+package com.example.dawanlocations.data.remote;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyse en flux (streaming) de la réponse JSON de {@code public/location/}.
+ *
+ * <p>
+ * Contrairement à la désérialisation Gson classique (liste complète de {@code LocationDto}),
+ * chaque élément du tableau est lu avec un {@link JsonReader} et converti directement
+ * en {@link LocationEntity}, sans réflexion. Les entités sont transmises par lots de
+ * taille fixe à un {@link BatchConsumer} : la mémoire utilisée reste constante,
+ * quelle que soit la taille de la réponse.
+ * </p>
+ *
+ * <p>
+ * {@link #parseChanges} lit de la même façon la réponse de {@code public/location/changes}
+ * (lignes modifiées, identifiants supprimés et nouveau curseur).
+ * </p>
+ */
+public final class LocationStreamParser {
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private LocationStreamParser() {}
+
+    /**
+     * Reçoit les entités analysées, lot par lot.
+     */
+    public interface BatchConsumer {
+        /**
+         * Traite un lot d’entités.
+         *
+         * <p>
+         * La liste est réutilisée pour le lot suivant : elle ne doit pas être conservée.
+         * </p>
+         *
+         * @param batch lot d’entités (non vide)
+         */
+        void accept(List<LocationEntity> batch) throws IOException;
+    }
+
+    /**
+     * Lit un tableau JSON de centres et le transmet par lots.
+     *
+     * @param in        flux de caractères de la réponse
+     * @param batchSize taille maximale d’un lot (strictement positive)
+     * @param consumer  destinataire des lots
+     * @return nombre total d’entités lues
+     * @throws IOException si le JSON est invalide ou si la lecture échoue
+     */
+    public static int parse(Reader in, int batchSize, BatchConsumer consumer) throws IOException {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize <= 0");
+        JsonReader reader = new JsonReader(in);
+        List<LocationEntity> batch = new ArrayList<>(batchSize);
+        int total = 0;
+
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                batch.add(readEntity(reader));
+                total++;
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch.clear();
+                }
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader signale un type inattendu par une exception non vérifiée
+            throw new IOException("Malformed locations payload", e);
+        }
+
+        if (!batch.isEmpty()) consumer.accept(batch);
+        return total;
+    }
+
+    /**
+     * Lit une réponse de changements et transmet les lignes modifiées par lots.
+     *
+     * <p>
+     * Les champs de l’objet peuvent arriver dans n’importe quel ordre : les lignes de
+     * {@code changed} sont transmises au fil de la lecture, tandis que les identifiants
+     * de {@code deleted} (de simples entiers) sont accumulés et retournés.
+     * </p>
+     *
+     * @param in        flux de caractères de la réponse
+     * @param batchSize taille maximale d’un lot (strictement positive)
+     * @param consumer  destinataire des lots de lignes modifiées
+     * @return le curseur, les identifiants supprimés et le nombre de lignes lues
+     * @throws IOException si le JSON est invalide, sans curseur, ou si la lecture échoue
+     */
+    public static Changes parseChanges(Reader in, int batchSize, BatchConsumer consumer) throws IOException {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize <= 0");
+        JsonReader reader = new JsonReader(in);
+        List<LocationEntity> batch = new ArrayList<>(batchSize);
+        String cursor = null;
+        boolean full = false;
+        int[] deleted = new int[16];
+        int deletedCount = 0;
+        int changed = 0;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "cursor": cursor = reader.nextString(); break;
+                    case "full": full = reader.nextBoolean(); break;
+                    case "changed":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            batch.add(readEntity(reader));
+                            changed++;
+                            if (batch.size() == batchSize) {
+                                consumer.accept(batch);
+                                batch.clear();
+                            }
+                        }
+                        reader.endArray();
+                        break;
+                    case "deleted":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            if (deletedCount == deleted.length) deleted = Arrays.copyOf(deleted, deletedCount * 2);
+                            deleted[deletedCount++] = reader.nextInt();
+                        }
+                        reader.endArray();
+                        break;
+                    default: reader.skipValue(); break;
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed changes payload", e);
+        }
+        if (cursor == null) throw new IOException("Changes payload without cursor");
+
+        if (!batch.isEmpty()) consumer.accept(batch);
+        return new Changes(cursor, full, changed, Arrays.copyOf(deleted, deletedCount));
+    }
+
+    /**
+     * Bilan de {@link #parseChanges} : tout ce qui n’a pas été transmis au {@link BatchConsumer}.
+     */
+    public static final class Changes {
+        /** Curseur à présenter lors de la synchronisation suivante */
+        public final String cursor;
+        /** {@code true} si {@code changed} contient l’ensemble des centres (et non une différence) */
+        public final boolean full;
+        /** Nombre de lignes modifiées lues */
+        public final int changedCount;
+        /** Identifiants des centres supprimés (« tombstones ») */
+        public final int[] deletedIds;
+
+        Changes(String cursor, boolean full, int changedCount, int[] deletedIds) {
+            this.cursor = cursor;
+            this.full = full;
+            this.changedCount = changedCount;
+            this.deletedIds = deletedIds;
+        }
+    }
+
+    /**
+     * Lit un objet JSON et le convertit en {@link LocationEntity}.
+     * Les champs inconnus sont ignorés, les valeurs {@code null} laissées par défaut.
+     */
+    private static LocationEntity readEntity(JsonReader reader) throws IOException {
+        LocationEntity e = new LocationEntity();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "id": e.id = reader.nextInt(); break;
+                case "name": e.name = reader.nextString(); break;
+                case "address": e.address = reader.nextString(); break;
+                case "city": e.city = reader.nextString(); break;
+                case "postalCode": e.postalCode = reader.nextString(); break;
+                case "latitude": e.latitude = reader.nextDouble(); break;
+                case "longitude": e.longitude = reader.nextDouble(); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+        return e;
+    }
+}
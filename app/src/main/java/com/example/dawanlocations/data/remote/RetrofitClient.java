@@ -1,5 +1,21 @@
 package com.example.dawanlocations.data.remote;
 
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -11,12 +27,68 @@ import retrofit2.converter.gson.GsonConverterFactory;
  * Cette classe encapsule la création et la configuration de Retrofit
  * afin d’assurer une seule instance réutilisée dans toute l’application.
  * </p>
+ *
+ * <p>
+ * Le client HTTP sous-jacent ({@link OkHttpClient}) dispose d’un cache disque borné :
+ * les réponses portant un {@code ETag} ou un {@code Last-Modified} sont revalidées
+ * par des requêtes conditionnelles, et un {@code 304 Not Modified} évite de
+ * retélécharger la liste complète.
+ * </p>
+ *
+ * <p>
+ * Réglages réseau du client :
+ * <ul>
+ *     <li>un {@link ConnectionPool} partagé par tous les clients dérivés
+ *     ({@code newBuilder()}, tuiles comprises) : les connexions TLS sont réutilisées ;</li>
+ *     <li>compression gzip négociée par OkHttp ({@code Accept-Encoding: gzip} ajouté et
+ *     corps décompressé de façon transparente ; l’en-tête ne doit donc pas être ajouté à la main) ;</li>
+ *     <li>délais de connexion, de lecture et d’écriture, et une échéance globale par appel
+ *     qui borne aussi les relances ;</li>
+ *     <li>relance des requêtes idempotentes après un échec transitoire ({@link RetryInterceptor}) ;</li>
+ *     <li>préchauffage facultatif (DNS, TCP, TLS) de la connexion à l’API ({@link #prewarm}).</li>
+ * </ul>
+ * </p>
  */
 public final class RetrofitClient {
 
     /** URL de base de l’API Dawan. */
     private static final String BASE_URL = "https://dawan.org/";
 
+    /** Sous-répertoire (dans le cache de l’application) du cache HTTP. */
+    private static final String HTTP_CACHE_DIR = "http";
+
+    /** Taille maximale du cache HTTP sur disque (10 Mio). */
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+
+    /** Délai (s) d’établissement d’une connexion (DNS, TCP, TLS). */
+    static final long CONNECT_TIMEOUT_S = 10;
+    /** Délai (s) maximal sans donnée reçue ou envoyée. */
+    static final long READ_WRITE_TIMEOUT_S = 20;
+    /** Échéance (s) d’un appel complet, relances et attentes comprises. */
+    static final long CALL_TIMEOUT_S = 45;
+
+    /** Nombre maximal de relances d’un appel. */
+    static final int MAX_RETRIES = 2;
+    /** Délai (ms) avant la première relance (doublé ensuite). */
+    static final long RETRY_BASE_DELAY_MS = 500;
+    /** Délai (ms) maximal entre deux tentatives. */
+    static final long RETRY_MAX_DELAY_MS = 5_000;
+    /** Rafale de relances permise par le budget. */
+    static final double RETRY_BUDGET_MAX_TOKENS = 10;
+    /** Proportion durable de relances (une relance pour cinq appels). */
+    static final double RETRY_BUDGET_PER_CALL = 0.2;
+
+    /** Connexions inactives conservées (et durée de conservation, en minutes). */
+    private static final int POOL_MAX_IDLE = 5;
+    private static final long POOL_KEEP_ALIVE_MIN = 5;
+
+    /** Pool de connexions partagé par tous les clients HTTP de l’application. */
+    private static final ConnectionPool CONNECTION_POOL =
+            new ConnectionPool(POOL_MAX_IDLE, POOL_KEEP_ALIVE_MIN, TimeUnit.MINUTES);
+    /** Budget de relances partagé par tous les appels. */
+    private static final RetryInterceptor.Budget RETRY_BUDGET =
+            new RetryInterceptor.Budget(RETRY_BUDGET_MAX_TOKENS, RETRY_BUDGET_PER_CALL);
+
     /** Instance unique (singleton) de Retrofit. */
     private static Retrofit instance;
 
@@ -32,16 +104,102 @@ public final class RetrofitClient {
      * est créée même en cas d’accès concurrent.
      * </p>
      *
+     * @param context contexte Android, utilisé pour situer le cache HTTP
      * @return l’instance {@link Retrofit} configurée avec {@code BASE_URL}
      *         et le convertisseur Gson pour (dé)sérialiser les JSON.
      */
-    public static synchronized Retrofit getInstance() {
+    public static synchronized Retrofit getInstance(Context context) {
         if (instance == null) {
-            instance = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+            instance = create(BASE_URL, newHttpClient(cacheDir));
         }
         return instance;
     }
+
+    /**
+     * Construit le client HTTP avec un cache disque borné et les réglages réseau de
+     * l’application.
+     *
+     * @param cacheDir répertoire du cache HTTP
+     * @return un nouveau {@link OkHttpClient}
+     */
+    public static OkHttpClient newHttpClient(File cacheDir) {
+        return newHttpClient(cacheDir, new RetryInterceptor(
+                MAX_RETRIES, RETRY_BASE_DELAY_MS, RETRY_MAX_DELAY_MS, RETRY_BUDGET, new Random()));
+    }
+
+    /**
+     * Construit le client HTTP avec une politique de relance donnée (utilisé par les
+     * tests, avec des délais courts).
+     *
+     * @param cacheDir répertoire du cache HTTP
+     * @param retry    politique de relance
+     * @return un nouveau {@link OkHttpClient}
+     */
+    static OkHttpClient newHttpClient(File cacheDir, RetryInterceptor retry) {
+        return new OkHttpClient.Builder()
+                .cache(new Cache(cacheDir, HTTP_CACHE_SIZE))
+                .connectionPool(CONNECTION_POOL)
+                .connectTimeout(CONNECT_TIMEOUT_S, TimeUnit.SECONDS)
+                .readTimeout(READ_WRITE_TIMEOUT_S, TimeUnit.SECONDS)
+                .writeTimeout(READ_WRITE_TIMEOUT_S, TimeUnit.SECONDS)
+                .callTimeout(CALL_TIMEOUT_S, TimeUnit.SECONDS)
+                .addInterceptor(retry)
+                .build();
+    }
+
+    /**
+     * Préchauffe la connexion à l’API : résolution DNS, connexion TCP et poignée de main
+     * TLS sont faites en arrière-plan par une requête {@code HEAD}, et la connexion reste
+     * dans le pool pour le premier vrai appel. Un échec est sans conséquence.
+     *
+     * @param context contexte Android
+     */
+    public static void prewarm(Context context) {
+        OkHttpClient client = (OkHttpClient) getInstance(context).callFactory();
+        newPrewarmCall(client, BASE_URL).enqueue(new Callback() {
+            @Override public void onResponse(Call call, Response response) {
+                response.close();
+            }
+            @Override public void onFailure(Call call, IOException e) {
+                Log.i("RetrofitClient", "prewarm failed: " + e);
+            }
+        });
+    }
+
+    /**
+     * Construit la requête de préchauffage : même pool de connexions que le client de
+     * l’API, mais sans ses intercepteurs (ni relance, ni consommation du budget de
+     * relances réservé aux vrais appels) ni cache HTTP.
+     *
+     * @param api client de l’API
+     * @param url URL à contacter
+     * @return l’appel {@code HEAD}, à exécuter
+     */
+    static Call newPrewarmCall(OkHttpClient api, String url) {
+        OkHttpClient.Builder builder = api.newBuilder().cache(null);
+        builder.interceptors().clear();
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .cacheControl(CacheControl.FORCE_NETWORK)
+                .build();
+        return builder.build().newCall(request);
+    }
+
+    /**
+     * Construit une instance {@link Retrofit} pour une URL et un client donnés
+     * (utilisé aussi par les tests, avec un serveur local).
+     *
+     * @param baseUrl URL de base de l’API
+     * @param client  client HTTP à utiliser
+     * @return une nouvelle instance {@link Retrofit}
+     */
+    public static Retrofit create(String baseUrl, OkHttpClient client) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+    }
 }
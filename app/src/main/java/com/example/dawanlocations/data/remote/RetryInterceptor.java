@@ -0,0 +1,181 @@
+package com.example.dawanlocations.data.remote;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Intercepteur OkHttp qui relance les requêtes idempotentes ({@code GET}, {@code HEAD})
+ * après un échec transitoire.
+ *
+ * <p>
+ * Sont relancés : les erreurs réseau (connexion refusée ou coupée, délai de lecture
+ * dépassé) et les réponses {@code 408}, {@code 429}, {@code 500}, {@code 502},
+ * {@code 503} et {@code 504}. Chaque relance :
+ * <ul>
+ *     <li>attend un délai exponentiel avec gigue ("equal jitter", comme
+ *     {@code SyncPolicy#backoffDelay}), allongé si le serveur indique un {@code Retry-After} ;</li>
+ *     <li>consomme un jeton d’un {@link Budget} partagé par tous les appels : quand le
+ *     serveur est durablement en panne, les relances s’arrêtent au lieu de multiplier
+ *     la charge ;</li>
+ *     <li>n’a lieu que si l’échéance de l’appel ({@code callTimeout}) laisse le temps
+ *     d’attendre : un appel annulé ou hors délai n’est jamais relancé.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Intercepteur d’application (au-dessus du cache HTTP) : une relance repasse par le
+ * cache et les requêtes conditionnelles.
+ * </p>
+ */
+public final class RetryInterceptor implements Interceptor {
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Budget budget;
+    private final Random random;
+
+    /**
+     * Budget de relances partagé (seau à jetons).
+     *
+     * <p>
+     * Chaque appel rapporte {@code tokensPerCall} jeton, chaque relance en coûte un, dans
+     * la limite de {@code maxTokens} : au-delà d’une courte rafale, les relances ne
+     * dépassent pas la proportion {@code tokensPerCall} des appels.
+     * </p>
+     */
+    public static final class Budget {
+        private final double maxTokens;
+        private final double tokensPerCall;
+        private double tokens;
+
+        /**
+         * @param maxTokens     jetons disponibles au départ et au plus (rafale de relances)
+         * @param tokensPerCall jetons rapportés par chaque appel (proportion durable de relances)
+         */
+        public Budget(double maxTokens, double tokensPerCall) {
+            if (maxTokens < 0 || tokensPerCall < 0) throw new IllegalArgumentException("Invalid retry budget");
+            this.maxTokens = maxTokens;
+            this.tokensPerCall = tokensPerCall;
+            this.tokens = maxTokens;
+        }
+
+        synchronized void onCall() {
+            tokens = Math.min(maxTokens, tokens + tokensPerCall);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        /** @return les jetons disponibles */
+        public synchronized double tokens() {
+            return tokens;
+        }
+    }
+
+    /**
+     * @param maxRetries  nombre maximal de relances par appel
+     * @param baseDelayMs délai (ms) avant la première relance
+     * @param maxDelayMs  délai (ms) maximal entre deux tentatives
+     * @param budget      budget partagé des relances
+     * @param random      source d’aléa (gigue)
+     */
+    public RetryInterceptor(int maxRetries, long baseDelayMs, long maxDelayMs, Budget budget, Random random) {
+        if (maxRetries < 0 || baseDelayMs <= 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budget = budget;
+        this.random = random;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        budget.onCall();
+        if (!isIdempotent(request.method())) return chain.proceed(request);
+
+        long start = System.nanoTime();
+        long deadlineNanos = chain.call().timeout().timeoutNanos(); // 0 : pas d’échéance
+        for (int retry = 0; ; retry++) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+                if (!isRetryable(response.code())) return response;
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) throw e; // annulé, ou échéance de l’appel dépassée
+                failure = e;
+            }
+
+            long delay = backoffDelay(retry + 1);
+            if (response != null) delay = Math.max(delay, retryAfterMs(response));
+            long elapsed = System.nanoTime() - start;
+            boolean timeLeft = deadlineNanos == 0
+                    || elapsed + TimeUnit.MILLISECONDS.toNanos(delay) < deadlineNanos;
+            if (retry >= maxRetries || !timeLeft || !budget.tryAcquire()) {
+                if (failure != null) throw failure;
+                return response; // la dernière réponse en échec est rendue telle quelle
+            }
+            if (response != null) response.close();
+            sleep(delay);
+            if (chain.call().isCanceled()) throw new IOException("Canceled");
+        }
+    }
+
+    /**
+     * Délai avant une relance : une valeur aléatoire entre la moitié et la totalité
+     * du délai exponentiel.
+     *
+     * @param retry numéro de la relance (≥ 1)
+     * @return le délai (ms)
+     */
+    long backoffDelay(int retry) {
+        int shift = Math.min(retry - 1, 30);
+        long exp = Math.min(maxDelayMs, baseDelayMs << shift);
+        long half = exp / 2;
+        return half + (long) (random.nextDouble() * (exp - half));
+    }
+
+    /**
+     * @return le délai demandé par l’en-tête {@code Retry-After} (en secondes), borné au
+     *         délai maximal ; {@code 0} s’il est absent ou sous forme de date
+     */
+    private long retryAfterMs(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) return 0;
+        try {
+            return Math.min(maxDelayMs, Math.max(0, Long.parseLong(value.trim())) * 1000L);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    static boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static void sleep(long ms) throws InterruptedIOException {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
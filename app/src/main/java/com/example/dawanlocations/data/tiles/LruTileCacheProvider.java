@@ -0,0 +1,110 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.graphics.drawable.Drawable;
+
+import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Module OSMDroid qui lit les tuiles dans le {@link TileCache} (avant tout téléchargement),
+ * derrière le cache mémoire des tuiles.
+ *
+ * <p>
+ * Chaque lecture marque la tuile comme récemment utilisée. Une tuile périmée, sur disque
+ * comme en mémoire, est affichée aussitôt, mais marquée comme expirée : OSMDroid demande
+ * alors au module suivant (téléchargement) une version à jour, si le réseau est disponible.
+ * </p>
+ */
+final class LruTileCacheProvider extends MapTileModuleProviderBase {
+
+    /** Threads de lecture (accès disque courts) */
+    private static final int THREADS = 2;
+    /** Nombre maximal de tuiles en attente de lecture */
+    private static final int PENDING_QUEUE_SIZE = 40;
+
+    private final TileCache cache;
+    private final TileMemoryCache memory;
+    private volatile ITileSource source;
+
+    /**
+     * @param cache  cache des tuiles
+     * @param memory cache mémoire partagé des tuiles
+     * @param source source des tuiles (décodage des images, niveaux de zoom)
+     */
+    LruTileCacheProvider(TileCache cache, TileMemoryCache memory, ITileSource source) {
+        super(THREADS, PENDING_QUEUE_SIZE);
+        this.cache = cache;
+        this.memory = memory;
+        this.source = source;
+    }
+
+    @Override
+    protected String getName() {
+        return "LRU tile cache";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "lrutilecache";
+    }
+
+    @Override
+    public TileLoader getTileLoader() {
+        return new TileLoader() {
+            @Override
+            public Drawable loadTile(long index) {
+                ITileSource src = source;
+                if (src == null) return null;
+                long key = LruTileWriter.key(index);
+                TileCache.Tile tile = memory.get(key);
+                boolean inMemory = tile != null;
+                if (!inMemory) {
+                    tile = cache.get(key);
+                    if (tile == null) return null;
+                }
+                boolean expired = tile.isExpired(System.currentTimeMillis());
+                // Une tuile périmée n’est pas gardée en mémoire : elle sera remplacée
+                if (expired) {
+                    if (inMemory) memory.remove(key);
+                } else if (!inMemory) {
+                    memory.put(key, tile);
+                }
+                try {
+                    Drawable drawable = src.getDrawable(new ByteArrayInputStream(tile.data));
+                    if (drawable != null && expired) {
+                        ExpirableBitmapDrawable.setState(drawable, ExpirableBitmapDrawable.EXPIRED);
+                    }
+                    return drawable;
+                } catch (BitmapTileSourceBase.LowMemoryException e) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        ITileSource src = source;
+        return src != null ? src.getMinimumZoomLevel() : 0;
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        ITileSource src = source;
+        return src != null ? src.getMaximumZoomLevel() : 0;
+    }
+
+    @Override
+    public void setTileSource(ITileSource source) {
+        this.source = source;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.graphics.drawable.Drawable;
+
+import org.osmdroid.tileprovider.modules.IFilesystemCache;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.util.MapTileIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Écriture des tuiles téléchargées par OSMDroid dans le {@link TileCache}
+ * (à la place du cache SQLite par défaut, qui n’est pas borné en LRU).
+ *
+ * <p>
+ * Le cache ne contient que les tuiles d’une seule source ({@link MapTiles#SOURCE}) :
+ * le paramètre {@code ITileSource} sert uniquement au décodage des images.
+ * Une tuile enregistrée ou supprimée est retirée du cache mémoire, qui ne sert plus
+ * l’ancienne version.
+ * </p>
+ */
+final class LruTileWriter implements IFilesystemCache {
+
+    private final TileCache cache;
+    private final TileMemoryCache memory;
+    private final long defaultMaxAgeMs;
+
+    /**
+     * @param cache           cache de destination
+     * @param memory          cache mémoire partagé des tuiles
+     * @param defaultMaxAgeMs durée de validité d’une tuile si le serveur n’en indique pas
+     */
+    LruTileWriter(TileCache cache, TileMemoryCache memory, long defaultMaxAgeMs) {
+        this.cache = cache;
+        this.memory = memory;
+        this.defaultMaxAgeMs = defaultMaxAgeMs;
+    }
+
+    @Override
+    public boolean saveFile(ITileSource source, long index, InputStream in, Long expirationTime) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            byte[] buf = new byte[8 * 1024];
+            for (int n; (n = in.read(buf)) != -1; ) out.write(buf, 0, n);
+            long expiresAt = expirationTime != null ? expirationTime : System.currentTimeMillis() + defaultMaxAgeMs;
+            long key = key(index);
+            memory.remove(key);
+            return cache.put(key, out.toByteArray(), expiresAt);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean exists(ITileSource source, long index) {
+        return cache.contains(key(index));
+    }
+
+    @Override
+    public void onDetach() {
+        // Le cache est partagé par toute l’application : rien à libérer
+    }
+
+    @Override
+    public boolean remove(ITileSource source, long index) {
+        long key = key(index);
+        memory.remove(key);
+        return cache.remove(key);
+    }
+
+    @Override
+    public Long getExpirationTimestamp(ITileSource source, long index) {
+        return cache.expiresAt(key(index));
+    }
+
+    @Override
+    public Drawable loadTile(ITileSource source, long index) throws Exception {
+        TileCache.Tile tile = cache.get(key(index));
+        return tile != null ? source.getDrawable(new ByteArrayInputStream(tile.data)) : null;
+    }
+
+    /** Convertit un index de tuile OSMDroid en clé du {@link TileCache}. */
+    static long key(long index) {
+        return TileCache.key(MapTileIndex.getZoom(index), MapTileIndex.getX(index), MapTileIndex.getY(index));
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.dawanlocations.data.remote.RetrofitClient;
+import com.example.dawanlocations.domain.spatial.PointSet;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.tileprovider.modules.MapTileDownloader;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.modules.NetworkAvailabliltyCheck;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.tileprovider.tilesource.TileSourcePolicy;
+import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
+import org.osmdroid.util.MapTileIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Tuiles de la carte : cache disque LRU partagé, archive MBTiles hors ligne,
+ * fournisseur de tuiles OSMDroid et préchargement autour des centres.
+ *
+ * <p>
+ * Les tuiles affichées comme les tuiles préchargées vont dans un même {@link TileCache},
+ * borné à {@value #CACHE_MAX_BYTES} octets. Une tuile est cherchée successivement :
+ * <ol>
+ *     <li>dans le cache mémoire ({@link TileMemoryCache}) ;</li>
+ *     <li>dans l’archive MBTiles ({@link #offlineArchiveFile}), si elle existe ;</li>
+ *     <li>dans le cache disque LRU ;</li>
+ *     <li>sur le serveur de tuiles, seulement si elle manque partout ailleurs.</li>
+ * </ol>
+ * La configuration OSMDroid ({@code StartupInitializer}) doit être terminée avant le
+ * premier appel.
+ * </p>
+ */
+public final class MapTiles {
+
+    private static final String TAG = "MapTiles";
+
+    /** Source des tuiles de la carte (celle d’OSMDroid par défaut) */
+    public static final OnlineTileSourceBase SOURCE = TileSourceFactory.MAPNIK;
+
+    /** Taille maximale du cache des tuiles (128 Mio) */
+    static final long CACHE_MAX_BYTES = 128L * 1024 * 1024;
+    /** Taille maximale du cache mémoire des tuiles (8 Mio, moins sur les petits appareils) */
+    private static final long MEMORY_MAX_BYTES = Math.min(8L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 32);
+    /** Nom du fichier de l’archive MBTiles hors ligne */
+    static final String OFFLINE_ARCHIVE_NAME = "offline.mbtiles";
+    /** Durée de validité d’une tuile si le serveur n’en indique pas */
+    private static final long DEFAULT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    /** Niveaux de zoom préchargés (vue de la ville jusqu’à la vue de la rue) */
+    static final int[] PREFETCH_ZOOMS = {12, 13, 14, 15, 16};
+    /** Rayon (km) préchargé autour de chaque centre */
+    static final double PREFETCH_RADIUS_KM = 1.0;
+    /** Nombre maximal de téléchargements simultanés (réduit si la source l’exige) */
+    private static final int PREFETCH_MAX_CONCURRENT = 4;
+
+    private static volatile TileCache CACHE;
+    private static volatile TileMemoryCache MEMORY;
+    /** Archive hors ligne ouverte ; {@code null} si absente (ou pas encore cherchée) */
+    private static volatile MbTilesArchive ARCHIVE;
+    /** {@code true} une fois l’archive hors ligne cherchée */
+    private static volatile boolean archiveLoaded;
+    /** Sérialise les exports de l’archive (même fichier temporaire) */
+    private static final Object EXPORT_LOCK = new Object();
+    /** {@code true} une fois le préchargement lancé (une fois par processus) */
+    private static final AtomicBoolean prefetchStarted = new AtomicBoolean();
+
+    private MapTiles() {
+    }
+
+    /**
+     * Récupère le cache des tuiles. Sa création ne touche pas au disque : l’index est
+     * reconstruit à la première lecture ou écriture ({@link TileCache#ensureLoaded()}),
+     * sur un thread d’arrière-plan.
+     *
+     * @param context contexte Android
+     * @return le cache partagé par toute l’application
+     */
+    public static TileCache cache(Context context) {
+        if (CACHE == null) {
+            synchronized (MapTiles.class) {
+                if (CACHE == null) {
+                    File dir = new File(Configuration.getInstance().getOsmdroidTileCache(), "lru/" + SOURCE.name());
+                    CACHE = new TileCache(dir, CACHE_MAX_BYTES);
+                }
+            }
+        }
+        return CACHE;
+    }
+
+    /**
+     * Récupère le cache mémoire des tuiles. Il est vidé quand le système manque de
+     * mémoire (les tuiles restent sur disque).
+     *
+     * @param context contexte Android
+     * @return le cache mémoire des tuiles, partagé par tous les fournisseurs
+     */
+    static TileMemoryCache memory(Context context) {
+        if (MEMORY == null) {
+            synchronized (MapTiles.class) {
+                if (MEMORY == null) {
+                    TileMemoryCache memory = new TileMemoryCache(MEMORY_MAX_BYTES);
+                    context.getApplicationContext().registerComponentCallbacks(new MemoryPressureCallbacks(memory));
+                    MEMORY = memory;
+                }
+            }
+        }
+        return MEMORY;
+    }
+
+    /**
+     * Vide le cache mémoire des tuiles quand le système manque de mémoire
+     * (mêmes seuils que le cache des centres de {@code LocationRepositoryImpl}).
+     */
+    private static final class MemoryPressureCallbacks implements ComponentCallbacks2 {
+        private final TileMemoryCache memory;
+
+        MemoryPressureCallbacks(TileMemoryCache memory) {
+            this.memory = memory;
+        }
+
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW
+                    || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+                memory.clear();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            memory.clear();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull android.content.res.Configuration newConfig) {
+            // sans objet
+        }
+    }
+
+    /**
+     * Emplacement de l’archive MBTiles hors ligne : dans le stockage externe propre à
+     * l’application (accessible par câble, pour y copier une archive), sinon dans le
+     * stockage interne.
+     *
+     * @param context contexte Android
+     * @return le fichier de l’archive (qui peut ne pas exister)
+     */
+    public static File offlineArchiveFile(Context context) {
+        File dir = context.getExternalFilesDir("tiles");
+        if (dir == null) dir = new File(context.getFilesDir(), "tiles");
+        return new File(dir, OFFLINE_ARCHIVE_NAME);
+    }
+
+    /**
+     * Récupère l’archive hors ligne (ouverte à la première utilisation : à appeler
+     * hors du thread principal). Le démarrage l’ouvre en arrière-plan, sans que la carte
+     * l’attende ({@code StartupInitializer.Component#TILES}).
+     *
+     * @param context contexte Android
+     * @return l’archive, ou {@code null} s’il n’y en a pas (ou si elle est invalide)
+     */
+    public static MbTilesArchive archive(Context context) {
+        if (!archiveLoaded) {
+            synchronized (MapTiles.class) {
+                if (!archiveLoaded) {
+                    ARCHIVE = MbTilesArchive.open(offlineArchiveFile(context));
+                    archiveLoaded = true;
+                    if (ARCHIVE != null) {
+                        Log.i(TAG, "offline archive: zoom " + ARCHIVE.minZoom() + "-" + ARCHIVE.maxZoom());
+                    }
+                }
+            }
+        }
+        return ARCHIVE;
+    }
+
+    /**
+     * Construit l’archive hors ligne à partir du cache des tuiles (remplace l’archive
+     * existante). À appeler hors du thread principal.
+     *
+     * <p>
+     * Les cartes affichées lisent ensuite la nouvelle archive (à l’exception de celles
+     * ouvertes alors qu’il n’y en avait aucune, qui continuent avec le cache disque).
+     * Lancé depuis la carte (bouton « Hors ligne » de {@code MapActivity}) ; deux exports
+     * simultanés sont exécutés l’un après l’autre. Un cache vide ne remplace pas l’archive
+     * existante (qui peut avoir été copiée sur l’appareil).
+     * </p>
+     *
+     * @param context contexte Android
+     * @return le nombre de tuiles exportées (0 si le cache est vide)
+     * @throws IOException si l’archive ne peut pas être écrite
+     */
+    public static int exportOfflineArchive(Context context) throws IOException {
+        synchronized (EXPORT_LOCK) {
+            if (cache(context).count() == 0) return 0;
+            int count = MbTilesExporter.export(cache(context), offlineArchiveFile(context), SOURCE.name(), "png");
+            synchronized (MapTiles.class) {
+                if (ARCHIVE != null) ARCHIVE.close();
+                ARCHIVE = null;
+                archiveLoaded = false;
+            }
+            // Les tuiles de l’ancienne archive gardées en mémoire n’expirent pas
+            memory(context).clear();
+            archive(context);
+            return count;
+        }
+    }
+
+    /**
+     * Construit le fournisseur de tuiles de la carte : lecture dans l’archive hors ligne
+     * (si elle existe), puis dans le cache LRU, puis téléchargement (les tuiles
+     * téléchargées sont enregistrées dans ce même cache). Les deux lectures sur disque
+     * passent par le cache mémoire partagé.
+     *
+     * <p>
+     * Appelée sur le thread principal : ni l’index du cache ni l’archive n’y sont chargés,
+     * les modules le font sur leurs propres threads à la première tuile demandée.
+     * </p>
+     *
+     * @param context contexte Android
+     * @return un fournisseur à passer à {@code MapView#setTileProvider}
+     */
+    public static MapTileProviderBase newTileProvider(Context context) {
+        TileCache cache = cache(context);
+        TileMemoryCache memory = memory(context);
+        Context app = context.getApplicationContext();
+        LruTileWriter writer = new LruTileWriter(cache, memory, DEFAULT_MAX_AGE_MS);
+
+        List<MapTileModuleProviderBase> modules = new ArrayList<>(3);
+        // Module inutile seulement si l’archive a déjà été cherchée sans succès
+        if (!archiveLoaded || ARCHIVE != null) {
+            modules.add(new MbTilesProvider(() -> archive(app), memory, SOURCE));
+        }
+        modules.add(new LruTileCacheProvider(cache, memory, SOURCE));
+        modules.add(new MapTileDownloader(SOURCE, writer, new NetworkAvailabliltyCheck(context)));
+        return new MapTileProviderArray(SOURCE, new SimpleRegisterReceiver(context),
+                modules.toArray(new MapTileModuleProviderBase[0]));
+    }
+
+    /**
+     * Lance (une seule fois par processus) le préchargement des tuiles autour des centres.
+     *
+     * <p>
+     * Le préchargement n’a lieu que si la politique d’usage de la source autorise le
+     * téléchargement en masse (comme le {@code CacheManager} d’OSMDroid) ; sinon, les
+     * tuiles restent téléchargées à l’affichage, puis conservées dans le cache LRU.
+     * </p>
+     *
+     * @param context contexte Android
+     * @param points  positions des centres
+     * @return le préchargement lancé, ou {@code null} (déjà lancé, ou interdit par la source)
+     */
+    public static TilePrefetcher.Job prefetch(Context context, PointSet points) {
+        TileSourcePolicy policy = SOURCE.getTileSourcePolicy();
+        if (!policy.acceptsBulkDownload()) {
+            Log.i(TAG, SOURCE.name() + " does not allow bulk download, prefetch skipped");
+            return null;
+        }
+        if (points.size() == 0 || !prefetchStarted.compareAndSet(false, true)) return null;
+
+        OkHttpClient shared = (OkHttpClient) RetrofitClient.getInstance(context).callFactory();
+        int limit = policy.getMaxConcurrent(); // 0 : pas de limite imposée par la source
+        int maxConcurrent = limit > 0 ? Math.min(PREFETCH_MAX_CONCURRENT, limit) : PREFETCH_MAX_CONCURRENT;
+        // Pool de connexions partagé ; ni cache HTTP (les tuiles vont dans le cache LRU) ni
+        // relances de l’API (le préchargement gère ses propres échecs)
+        OkHttpClient.Builder builder = shared.newBuilder().cache(null);
+        builder.interceptors().clear();
+        TilePrefetcher prefetcher = new TilePrefetcher(
+                builder.build(),
+                cache(context),
+                (z, x, y) -> SOURCE.getTileURLString(MapTileIndex.getTileIndex(z, x, y)),
+                Configuration.getInstance().getUserAgentValue(),
+                maxConcurrent,
+                DEFAULT_MAX_AGE_MS);
+        long[] tiles = TilePrefetcher.plan(points, PREFETCH_ZOOMS, PREFETCH_RADIUS_KM);
+        Log.i(TAG, "prefetching " + tiles.length + " tiles around " + points.size() + " centres");
+        return prefetcher.start(tiles, result -> Log.i(TAG, "prefetch finished: " + result));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import java.io.Closeable;
+import java.io.File;
+
+/**
+ * Archive de tuiles au format MBTiles (un seul fichier SQLite), en lecture seule.
+ *
+ * <p>
+ * Chaque tuile est lue par une recherche sur l’index unique
+ * {@code (zoom_level, tile_column, tile_row)} imposé par le format. Les lignes MBTiles
+ * suivent la convention TMS (origine en bas) : elles sont converties depuis les
+ * coordonnées XYZ de la carte (origine en haut).
+ * </p>
+ *
+ * <p>
+ * L’archive est soit copiée sur l’appareil (voir {@code MapTiles#offlineArchiveFile}),
+ * soit construite à partir du cache des tuiles par {@link MbTilesExporter}.
+ * </p>
+ */
+public final class MbTilesArchive implements Closeable {
+
+    /** Lecture d’une tuile ; les coordonnées sont liées en entiers (les tables peuvent être des vues) */
+    private static final String TILE_QUERY = "SELECT tile_data FROM tiles"
+            + " WHERE zoom_level = CAST(? AS INTEGER) AND tile_column = CAST(? AS INTEGER)"
+            + " AND tile_row = CAST(? AS INTEGER)";
+
+    private final SQLiteDatabase db;
+    private final int minZoom;
+    private final int maxZoom;
+
+    private MbTilesArchive(SQLiteDatabase db, int minZoom, int maxZoom) {
+        this.db = db;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+    }
+
+    /**
+     * Ouvre une archive.
+     *
+     * @param file fichier MBTiles
+     * @return l’archive, ou {@code null} si le fichier est absent, invalide ou vide
+     */
+    public static MbTilesArchive open(File file) {
+        if (!file.isFile()) return null;
+        SQLiteDatabase db = null;
+        try {
+            db = SQLiteDatabase.openDatabase(file.getPath(), null,
+                    SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+            // Bornes de zoom : les métadonnées sont facultatives, l’index donne la réponse directement
+            try (Cursor c = db.rawQuery("SELECT MIN(zoom_level), MAX(zoom_level) FROM tiles", null)) {
+                if (!c.moveToFirst() || c.isNull(0)) {
+                    db.close();
+                    return null;
+                }
+                return new MbTilesArchive(db, c.getInt(0), c.getInt(1));
+            }
+        } catch (SQLiteException e) {
+            if (db != null) db.close();
+            return null;
+        }
+    }
+
+    /** @return le plus petit zoom présent dans l’archive */
+    public int minZoom() {
+        return minZoom;
+    }
+
+    /** @return le plus grand zoom présent dans l’archive */
+    public int maxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Lit une tuile (coordonnées XYZ de la carte).
+     *
+     * @param z zoom
+     * @param x colonne
+     * @param y ligne (origine en haut)
+     * @return l’image de la tuile, ou {@code null} si elle n’est pas dans l’archive
+     */
+    public byte[] get(int z, int x, int y) {
+        if (z < minZoom || z > maxZoom) return null;
+        int tmsRow = (1 << z) - 1 - y;
+        try (Cursor c = db.rawQuery(TILE_QUERY,
+                new String[]{Integer.toString(z), Integer.toString(x), Integer.toString(tmsRow)})) {
+            return c.moveToFirst() ? c.getBlob(0) : null;
+        } catch (SQLiteException | IllegalStateException e) {
+            return null; // archive fermée ou tuile illisible : le module suivant prend le relais
+        }
+    }
+
+    @Override
+    public void close() {
+        db.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Construit une archive MBTiles à partir des tuiles du {@link TileCache}.
+ *
+ * <p>
+ * L’archive, un seul fichier, peut être copiée sur un autre appareil ou servir de
+ * source hors ligne ({@link MbTilesArchive}) : elle évite les milliers de petits
+ * fichiers du cache. Elle est écrite dans un fichier temporaire, puis renommée.
+ * </p>
+ */
+public final class MbTilesExporter {
+
+    private MbTilesExporter() {
+    }
+
+    /**
+     * Exporte toutes les tuiles du cache (sans modifier leur ordre LRU).
+     *
+     * @param cache  cache source
+     * @param out    fichier MBTiles à créer (remplacé s’il existe)
+     * @param name   nom du jeu de tuiles (métadonnée {@code name})
+     * @param format format des images ({@code png} ou {@code jpg})
+     * @return le nombre de tuiles exportées
+     * @throws IOException si l’archive ne peut pas être écrite
+     */
+    public static int export(TileCache cache, File out, String name, String format) throws IOException {
+        File tmp = new File(out.getPath() + ".tmp");
+        //noinspection ResultOfMethodCallIgnored
+        tmp.delete();
+        //noinspection ResultOfMethodCallIgnored
+        out.getParentFile().mkdirs();
+
+        int count = 0;
+        int minZoom = Integer.MAX_VALUE, maxZoom = Integer.MIN_VALUE;
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(tmp, null);
+        try {
+            db.execSQL("CREATE TABLE metadata (name TEXT, value TEXT)");
+            db.execSQL("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+            db.beginTransaction();
+            try (SQLiteStatement insert = db.compileStatement(
+                    "INSERT INTO tiles (zoom_level, tile_column, tile_row, tile_data) VALUES (?, ?, ?, ?)")) {
+                for (long key : cache.keys()) {
+                    TileCache.Tile tile = cache.peek(key);
+                    if (tile == null) continue; // évincée pendant l’export
+                    int z = TileCache.zoom(key);
+                    insert.bindLong(1, z);
+                    insert.bindLong(2, TileCache.x(key));
+                    insert.bindLong(3, (1L << z) - 1 - TileCache.y(key)); // ligne TMS
+                    insert.bindBlob(4, tile.data);
+                    insert.executeInsert();
+                    count++;
+                    minZoom = Math.min(minZoom, z);
+                    maxZoom = Math.max(maxZoom, z);
+                }
+                String[][] metadata = {
+                        {"name", name}, {"format", format}, {"type", "baselayer"}, {"version", "1.0"},
+                        {"minzoom", String.valueOf(count > 0 ? minZoom : 0)},
+                        {"maxzoom", String.valueOf(count > 0 ? maxZoom : 0)}};
+                for (String[] m : metadata) {
+                    db.execSQL("INSERT INTO metadata (name, value) VALUES (?, ?)", m);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            // Index créé après les insertions (plus rapide), exigé par le format pour les lectures
+            db.execSQL("CREATE UNIQUE INDEX tile_index ON tiles (zoom_level, tile_column, tile_row)");
+        } catch (RuntimeException e) {
+            db.close();
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot export tiles to " + out, e);
+        }
+        db.close();
+        if (!tmp.renameTo(out)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + out);
+        }
+        return count;
+    }
+}
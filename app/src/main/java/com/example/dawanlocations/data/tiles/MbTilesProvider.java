@@ -0,0 +1,120 @@
+package com.example.dawanlocations.data.tiles;
+
+import android.graphics.drawable.Drawable;
+
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+
+import java.io.ByteArrayInputStream;
+import java.util.function.Supplier;
+
+/**
+ * Module OSMDroid qui lit les tuiles dans une archive MBTiles, derrière le cache
+ * mémoire des tuiles.
+ *
+ * <p>
+ * Une tuile absente de l’archive (ou hors de ses niveaux de zoom) est demandée aux
+ * modules suivants : cache disque, puis téléchargement. Les tuiles de l’archive
+ * n’expirent pas ; une tuile du cache disque périmée en mémoire n’est pas servie
+ * ici, mais laissée au cache disque, qui la signale comme expirée. L’archive est partagée
+ * ({@link MapTiles#archive}) : elle n’est pas fermée au détachement du module.
+ * </p>
+ *
+ * <p>
+ * L’archive est récupérée par les threads de lecture, jamais à la construction du
+ * module (sur le thread principal) : son ouverture éventuelle n’y bloque pas la carte.
+ * Tant qu’aucune archive n’a été lue, le module annonce les zooms de la source.
+ * </p>
+ */
+final class MbTilesProvider extends MapTileModuleProviderBase {
+
+    /** Threads de lecture (recherches indexées, courtes) */
+    private static final int THREADS = 2;
+    /** Nombre maximal de tuiles en attente de lecture */
+    private static final int PENDING_QUEUE_SIZE = 40;
+
+    private final Supplier<MbTilesArchive> archive;
+    private final TileMemoryCache memory;
+    private volatile ITileSource source;
+    /** Dernière archive lue ({@code null} tant qu’aucune ne l’a été) : bornes de zoom */
+    private volatile MbTilesArchive current;
+
+    /**
+     * @param archive archive à lire (ouverte au besoin, hors du thread principal),
+     *                {@code null} si elle n’existe pas
+     * @param memory  cache mémoire partagé des tuiles
+     * @param source  source des tuiles (décodage des images)
+     */
+    MbTilesProvider(Supplier<MbTilesArchive> archive, TileMemoryCache memory, ITileSource source) {
+        super(THREADS, PENDING_QUEUE_SIZE);
+        this.archive = archive;
+        this.memory = memory;
+        this.source = source;
+    }
+
+    @Override
+    protected String getName() {
+        return "MBTiles archive";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "mbtiles";
+    }
+
+    @Override
+    public TileLoader getTileLoader() {
+        return new TileLoader() {
+            @Override
+            public Drawable loadTile(long index) {
+                ITileSource src = source;
+                if (src == null) return null;
+                long key = LruTileWriter.key(index);
+                TileCache.Tile tile = memory.get(key);
+                if (tile == null || tile.isExpired(System.currentTimeMillis())) {
+                    // Tuile absente de la mémoire, ou venue du cache disque et périmée :
+                    // l’archive en a peut-être une ; sinon, le cache disque la signalera
+                    MbTilesArchive a = archive.get();
+                    current = a;
+                    if (a == null) return null;
+                    byte[] data = a.get(TileCache.zoom(key), TileCache.x(key), TileCache.y(key));
+                    if (data == null) return null;
+                    tile = new TileCache.Tile(data, Long.MAX_VALUE);
+                    memory.put(key, tile);
+                }
+                try {
+                    return src.getDrawable(new ByteArrayInputStream(tile.data));
+                } catch (BitmapTileSourceBase.LowMemoryException e) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean getUsesDataConnection() {
+        return false;
+    }
+
+    @Override
+    public int getMinimumZoomLevel() {
+        MbTilesArchive a = current;
+        if (a != null) return a.minZoom();
+        ITileSource src = source;
+        return src != null ? src.getMinimumZoomLevel() : 0;
+    }
+
+    @Override
+    public int getMaximumZoomLevel() {
+        MbTilesArchive a = current;
+        if (a != null) return a.maxZoom();
+        ITileSource src = source;
+        return src != null ? src.getMaximumZoomLevel() : 0;
+    }
+
+    @Override
+    public void setTileSource(ITileSource source) {
+        this.source = source;
+    }
+}
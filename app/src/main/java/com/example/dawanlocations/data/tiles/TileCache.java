@@ -0,0 +1,357 @@
+package com.example.dawanlocations.data.tiles;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache disque des tuiles de la carte, de taille bornée, avec éviction LRU.
+ *
+ * <p>
+ * Chaque tuile est un fichier {@code <z>/<x>/<y>.tile} sous le répertoire du cache :
+ * un en-tête de 8 octets (date d’expiration, en ms) suivi de l’image telle que reçue
+ * du serveur. La date de dernière modification du fichier sert de date de dernier
+ * accès : elle est mise à jour à chaque lecture, ce qui permet de retrouver l’ordre
+ * LRU au redémarrage.
+ * </p>
+ *
+ * <p>
+ * La taille totale des tuiles ne dépasse jamais {@link #maxBytes()} : chaque écriture
+ * supprime d’abord les tuiles les moins récemment utilisées. L’index (taille de
+ * chaque tuile, ordre d’accès) est tenu en mémoire ; les lectures de fichiers se
+ * font hors verrou, si bien que le cache peut être lu par plusieurs threads à la fois.
+ * </p>
+ *
+ * <p>
+ * L’index est reconstruit à la première utilisation ({@link #ensureLoaded()}) et non
+ * à la construction : le parcours des fichiers, proportionnel à la taille du cache,
+ * a ainsi lieu sur le thread qui lit ou écrit les tuiles, jamais sur le thread principal.
+ * </p>
+ */
+public final class TileCache {
+
+    /** Extension des fichiers de tuiles */
+    private static final String EXTENSION = ".tile";
+    /** Taille de l’en-tête (date d’expiration) */
+    private static final int HEADER_SIZE = 8;
+    /** Bits réservés à chaque coordonnée dans une clé (zoom 29 au plus, comme OSMDroid) */
+    private static final int COORD_BITS = 29;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    /**
+     * Tuile lue dans le cache.
+     */
+    public static final class Tile {
+        /** Image (PNG, JPEG...) telle que reçue du serveur */
+        public final byte[] data;
+        /** Date (ms) au-delà de laquelle la tuile doit être retéléchargée */
+        public final long expiresAt;
+
+        Tile(byte[] data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @param now date courante (ms)
+         * @return {@code true} si la tuile est périmée (elle reste affichable)
+         */
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private final File dir;
+    private final long maxBytes;
+
+    /** Taille (octets) de chaque tuile, de la moins récemment utilisée à la plus récente */
+    private final LinkedHashMap<Long, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    /** Somme des tailles de {@link #index} */
+    private long totalBytes;
+    /** {@code true} une fois l’index reconstruit à partir des fichiers */
+    private volatile boolean loaded;
+
+    /**
+     * Crée le cache, sans toucher au disque : l’index sera reconstruit à la première
+     * utilisation.
+     *
+     * @param dir      répertoire du cache (créé si besoin)
+     * @param maxBytes taille maximale du cache (octets, strictement positive)
+     */
+    public TileCache(File dir, long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes <= 0");
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reconstruit l’index à partir des fichiers présents, si ce n’est pas déjà fait
+     * (les tuiles en excès, si la taille maximale a diminué, sont supprimées).
+     * Appelée par toutes les autres méthodes ; parcourt le répertoire du cache,
+     * donc à appeler hors du thread principal.
+     */
+    public void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            //noinspection ResultOfMethodCallIgnored
+            dir.mkdirs();
+            load();
+            loaded = true;
+        }
+    }
+
+    /**
+     * @param z zoom
+     * @param x colonne
+     * @param y ligne
+     * @return la clé (unique) de la tuile
+     */
+    public static long key(int z, int x, int y) {
+        return ((long) z << (2 * COORD_BITS)) | ((long) x << COORD_BITS) | y;
+    }
+
+    /** @return le zoom d’une clé */
+    public static int zoom(long key) {
+        return (int) (key >>> (2 * COORD_BITS));
+    }
+
+    /** @return la colonne d’une clé */
+    public static int x(long key) {
+        return (int) ((key >>> COORD_BITS) & COORD_MASK);
+    }
+
+    /** @return la ligne d’une clé */
+    public static int y(long key) {
+        return (int) (key & COORD_MASK);
+    }
+
+    /** @return la taille maximale du cache (octets) */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /** @return la taille actuelle du cache (octets) */
+    public synchronized long sizeBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    /** @return le nombre de tuiles en cache */
+    public synchronized int count() {
+        ensureLoaded();
+        return index.size();
+    }
+
+    /**
+     * @param key clé de la tuile ({@link #key})
+     * @return {@code true} si la tuile est en cache (sans la marquer comme utilisée)
+     */
+    public synchronized boolean contains(long key) {
+        ensureLoaded();
+        return index.containsKey(key);
+    }
+
+    /**
+     * Lit une tuile et la marque comme la plus récemment utilisée.
+     *
+     * @param key clé de la tuile ({@link #key})
+     * @return la tuile, ou {@code null} si elle est absente (ou illisible)
+     */
+    public Tile get(long key) {
+        ensureLoaded();
+        synchronized (this) {
+            if (index.get(key) == null) return null; // get() déplace la tuile en fin d’ordre LRU
+        }
+        File file = fileOf(key);
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return read(key, file);
+    }
+
+    /**
+     * Lit une tuile sans la marquer comme utilisée (export, inspection).
+     *
+     * @param key clé de la tuile ({@link #key})
+     * @return la tuile, ou {@code null} si elle est absente (ou illisible)
+     */
+    public Tile peek(long key) {
+        return contains(key) ? read(key, fileOf(key)) : null;
+    }
+
+    /**
+     * @return les clés des tuiles en cache, de la moins récemment utilisée à la plus récente
+     */
+    public synchronized long[] keys() {
+        ensureLoaded();
+        long[] keys = new long[index.size()];
+        int i = 0;
+        for (Long key : index.keySet()) keys[i++] = key;
+        return keys;
+    }
+
+    private Tile read(long key, File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            long expiresAt = in.readLong();
+            byte[] data = new byte[(int) file.length() - HEADER_SIZE];
+            in.readFully(data);
+            return new Tile(data, expiresAt);
+        } catch (IOException | RuntimeException e) {
+            // Tuile évincée entre-temps, ou fichier tronqué
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Lit la date d’expiration d’une tuile, sans la marquer comme utilisée.
+     *
+     * @param key clé de la tuile ({@link #key})
+     * @return la date d’expiration (ms), ou {@code null} si la tuile est absente
+     */
+    public Long expiresAt(long key) {
+        if (!contains(key)) return null;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileOf(key)))) {
+            return in.readLong();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Enregistre (ou remplace) une tuile, en évinçant au besoin les tuiles les moins
+     * récemment utilisées.
+     *
+     * @param key       clé de la tuile ({@link #key})
+     * @param data      image de la tuile
+     * @param expiresAt date (ms) au-delà de laquelle la tuile doit être retéléchargée
+     * @return {@code false} si la tuile n’a pas pu être enregistrée (plus grande que le
+     *         cache entier, ou erreur d’écriture)
+     */
+    public boolean put(long key, byte[] data, long expiresAt) {
+        long size = HEADER_SIZE + data.length;
+        if (size > maxBytes) return false;
+        ensureLoaded();
+
+        File file = fileOf(key);
+        File tmp = new File(file.getPath() + ".tmp" + Thread.currentThread().getId());
+        //noinspection ResultOfMethodCallIgnored
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(ByteBuffer.allocate(HEADER_SIZE).putLong(expiresAt).array());
+            out.write(data);
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            return false;
+        }
+
+        synchronized (this) {
+            Long previous = index.remove(key);
+            if (previous != null) totalBytes -= previous;
+            evictUntil(maxBytes - size);
+            if (!tmp.renameTo(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return false;
+            }
+            index.put(key, size);
+            totalBytes += size;
+        }
+        return true;
+    }
+
+    /**
+     * Supprime une tuile.
+     *
+     * @param key clé de la tuile ({@link #key})
+     * @return {@code true} si la tuile était en cache
+     */
+    public synchronized boolean remove(long key) {
+        ensureLoaded();
+        Long size = index.remove(key);
+        if (size == null) return false;
+        totalBytes -= size;
+        //noinspection ResultOfMethodCallIgnored
+        fileOf(key).delete();
+        return true;
+    }
+
+    /** Supprime toutes les tuiles. */
+    public synchronized void clear() {
+        ensureLoaded();
+        evictUntil(0);
+    }
+
+    /** Supprime les tuiles les moins récemment utilisées jusqu’à ce que le cache tienne dans {@code limit}. */
+    private void evictUntil(long limit) {
+        Iterator<Map.Entry<Long, Long>> it = index.entrySet().iterator();
+        while (totalBytes > limit && it.hasNext()) {
+            Map.Entry<Long, Long> lru = it.next();
+            totalBytes -= lru.getValue();
+            //noinspection ResultOfMethodCallIgnored
+            fileOf(lru.getKey()).delete();
+            it.remove();
+        }
+    }
+
+    private File fileOf(long key) {
+        return new File(dir, zoom(key) + File.separator + x(key) + File.separator + y(key) + EXTENSION);
+    }
+
+    /**
+     * Reconstruit l’index : les tuiles sont classées par date de dernier accès.
+     * Les fichiers temporaires restés d’une écriture interrompue sont supprimés.
+     * Appelée une seule fois, verrou tenu ({@link #ensureLoaded()}).
+     */
+    private void load() {
+        List<long[]> found = new ArrayList<>(); // {clé, taille, dernier accès}
+        for (File zDir : listDirs(dir)) {
+            int z = parse(zDir.getName());
+            for (File xDir : listDirs(zDir)) {
+                int x = parse(xDir.getName());
+                File[] files = xDir.listFiles();
+                if (files == null || z < 0 || x < 0) continue;
+                for (File f : files) {
+                    String name = f.getName();
+                    int y = name.endsWith(EXTENSION) ? parse(name.substring(0, name.length() - EXTENSION.length())) : -1;
+                    if (y < 0 || f.length() < HEADER_SIZE) {
+                        //noinspection ResultOfMethodCallIgnored
+                        f.delete();
+                        continue;
+                    }
+                    found.add(new long[]{key(z, x, y), f.length(), f.lastModified()});
+                }
+            }
+        }
+        found.sort((a, b) -> Long.compare(a[2], b[2]));
+        for (long[] t : found) {
+            index.put(t[0], t[1]);
+            totalBytes += t[1];
+        }
+        evictUntil(maxBytes);
+    }
+
+    private static File[] listDirs(File parent) {
+        File[] dirs = parent.listFiles(File::isDirectory);
+        return dirs != null ? dirs : new File[0];
+    }
+
+    private static int parse(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
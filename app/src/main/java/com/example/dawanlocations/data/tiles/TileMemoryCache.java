@@ -0,0 +1,76 @@
+package com.example.dawanlocations.data.tiles;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache mémoire des tuiles (images compressées), borné en octets, avec éviction LRU.
+ *
+ * <p>
+ * Placé devant les sources sur disque (archive MBTiles, {@link TileCache}) : une tuile
+ * revue après un déplacement de la carte est servie sans accès disque. Les tuiles
+ * décodées (bitmaps) restent gérées par le cache d’OSMDroid, limité à la zone visible.
+ * </p>
+ *
+ * <p>
+ * Chaque tuile est gardée avec sa date d’expiration ({@link TileCache.Tile}) : les
+ * fournisseurs la vérifient à chaque lecture, pour qu’une tuile périmée pendant son
+ * séjour en mémoire soit retéléchargée comme une tuile lue sur disque.
+ * </p>
+ */
+public final class TileMemoryCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<Long, TileCache.Tile> tiles = new LinkedHashMap<>(128, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * @param maxBytes taille maximale (octets) des tuiles conservées
+     */
+    public TileMemoryCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param key clé de la tuile ({@link TileCache#key})
+     * @return la tuile (image et expiration), ou {@code null} si elle n’est pas en mémoire
+     */
+    public synchronized TileCache.Tile get(long key) {
+        return tiles.get(key);
+    }
+
+    /**
+     * Conserve une tuile, en évinçant au besoin les moins récemment utilisées.
+     *
+     * @param key  clé de la tuile ({@link TileCache#key})
+     * @param tile tuile (son image ne doit plus être modifiée)
+     */
+    public synchronized void put(long key, TileCache.Tile tile) {
+        if (tile.data.length > maxBytes) return;
+        TileCache.Tile previous = tiles.put(key, tile);
+        totalBytes += tile.data.length - (previous != null ? previous.data.length : 0);
+        Iterator<Map.Entry<Long, TileCache.Tile>> it = tiles.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().data.length;
+            it.remove();
+        }
+    }
+
+    /** @param key clé de la tuile à oublier */
+    public synchronized void remove(long key) {
+        TileCache.Tile previous = tiles.remove(key);
+        if (previous != null) totalBytes -= previous.data.length;
+    }
+
+    /** Vide le cache (mémoire faible, voir {@code MapTiles#memory}). */
+    public synchronized void clear() {
+        tiles.clear();
+        totalBytes = 0;
+    }
+
+    /** @return la taille actuelle (octets) */
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+}
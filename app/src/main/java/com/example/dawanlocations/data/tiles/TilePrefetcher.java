@@ -0,0 +1,304 @@
+package com.example.dawanlocations.data.tiles;
+
+import com.example.dawanlocations.domain.spatial.PointSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Préchargement des tuiles de la carte autour des centres, pour un affichage immédiat
+ * et une consultation hors ligne.
+ *
+ * <p>
+ * {@link #plan} calcule, pour chaque zoom demandé, les tuiles couvrant un disque de rayon
+ * donné autour de chaque centre (sans doublon) ; {@link #start} les télécharge dans le
+ * {@link TileCache} :
+ * <ul>
+ *     <li>au plus {@code maxConcurrent} requêtes simultanées (un thread par requête) ;</li>
+ *     <li>reprise : les tuiles déjà en cache et non périmées sont ignorées, si bien qu’un
+ *     préchargement interrompu (annulation, perte du réseau, arrêt du processus) reprend
+ *     là où il s’était arrêté quand il est relancé ;</li>
+ *     <li>arrêt anticipé après {@value #MAX_CONSECUTIVE_FAILURES} échecs consécutifs
+ *     (serveur indisponible, hors ligne).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Le préchargement ne dépend pas d’Android : il est testé sur JVM avec un serveur HTTP local.
+ * </p>
+ */
+public final class TilePrefetcher {
+
+    /** Nombre d’échecs consécutifs au-delà duquel le préchargement s’arrête */
+    static final int MAX_CONSECUTIVE_FAILURES = 8;
+    /** Latitude maximale de la projection Web Mercator */
+    private static final double MAX_LATITUDE = 85.05112878;
+    /** Longueur (km) d’un degré de latitude */
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final OkHttpClient client;
+    private final TileCache cache;
+    private final UrlFactory urls;
+    private final String userAgent;
+    private final int maxConcurrent;
+    private final long defaultMaxAgeMs;
+
+    /**
+     * Fournit l’URL d’une tuile sur le serveur.
+     */
+    public interface UrlFactory {
+        String url(int z, int x, int y);
+    }
+
+    /**
+     * Reçoit l’avancement d’un préchargement (appelé depuis les threads de téléchargement).
+     */
+    public interface Listener {
+
+        /**
+         * @param processed tuiles traitées (téléchargées, ignorées ou en échec)
+         * @param total     tuiles du plan
+         */
+        default void onProgress(int processed, int total) {
+        }
+
+        /**
+         * @param result bilan du préchargement
+         */
+        void onFinished(Result result);
+    }
+
+    /**
+     * Bilan d’un préchargement.
+     */
+    public static final class Result {
+        /** Tuiles du plan */
+        public final int total;
+        /** Tuiles téléchargées et enregistrées */
+        public final int downloaded;
+        /** Tuiles déjà en cache (non périmées) */
+        public final int skipped;
+        /** Tuiles en échec (erreur réseau ou HTTP, écriture impossible) */
+        public final int failed;
+        /** {@code true} si le préchargement a été annulé ou arrêté avant la fin */
+        public final boolean stopped;
+
+        Result(int total, int downloaded, int skipped, int failed, boolean stopped) {
+            this.total = total;
+            this.downloaded = downloaded;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{total=" + total + ", downloaded=" + downloaded + ", skipped=" + skipped
+                    + ", failed=" + failed + ", stopped=" + stopped + '}';
+        }
+    }
+
+    /**
+     * Préchargement en cours.
+     */
+    public final class Job {
+        private final long[] tiles;
+        private final Listener listener;
+        /** Prochaine tuile à traiter */
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger downloaded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        /** Threads de téléchargement encore actifs */
+        private final AtomicInteger activeWorkers;
+        /** Ouvert une fois le bilan calculé */
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean stopped;
+        private volatile Result result;
+
+        Job(long[] tiles, Listener listener, int workers) {
+            this.tiles = tiles;
+            this.listener = listener;
+            this.activeWorkers = new AtomicInteger(workers);
+        }
+
+        /** Annule le préchargement : les requêtes en cours se terminent, aucune autre n’est lancée. */
+        public void cancel() {
+            stopped = true;
+        }
+
+        /**
+         * Attend la fin du préchargement.
+         *
+         * @return le bilan
+         * @throws InterruptedException si le thread appelant est interrompu
+         */
+        public Result await() throws InterruptedException {
+            done.await();
+            return result;
+        }
+
+        /** Boucle d’un thread de téléchargement : traite les tuiles du plan une à une. */
+        private void work() {
+            try {
+                int i;
+                while (!stopped && (i = cursor.getAndIncrement()) < tiles.length) {
+                    fetch(tiles[i]);
+                    if (listener != null) listener.onProgress(processed.incrementAndGet(), tiles.length);
+                }
+            } finally {
+                if (activeWorkers.decrementAndGet() == 0) finish();
+            }
+        }
+
+        private void fetch(long key) {
+            if (cache.contains(key)) {
+                Long expiresAt = cache.expiresAt(key);
+                if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+            }
+            if (download(key)) {
+                downloaded.incrementAndGet();
+                consecutiveFailures.set(0);
+            } else {
+                failed.incrementAndGet();
+                if (consecutiveFailures.incrementAndGet() >= MAX_CONSECUTIVE_FAILURES) stopped = true;
+            }
+        }
+
+        private void finish() {
+            result = new Result(tiles.length, downloaded.get(), skipped.get(), failed.get(),
+                    stopped && processed.get() < tiles.length);
+            done.countDown();
+            if (listener != null) listener.onFinished(result);
+        }
+    }
+
+    /**
+     * @param client          client HTTP (idéalement sans cache HTTP : les tuiles vont dans {@code cache})
+     * @param cache           cache de destination
+     * @param urls            URL de chaque tuile
+     * @param userAgent       User-Agent envoyé au serveur de tuiles
+     * @param maxConcurrent   nombre maximal de requêtes simultanées (au moins 1)
+     * @param defaultMaxAgeMs durée de validité d’une tuile si le serveur n’en indique pas
+     */
+    public TilePrefetcher(OkHttpClient client, TileCache cache, UrlFactory urls, String userAgent,
+                          int maxConcurrent, long defaultMaxAgeMs) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent < 1");
+        this.client = client;
+        this.cache = cache;
+        this.urls = urls;
+        this.userAgent = userAgent;
+        this.maxConcurrent = maxConcurrent;
+        this.defaultMaxAgeMs = defaultMaxAgeMs;
+    }
+
+    /**
+     * Calcule les tuiles à précharger autour de points.
+     *
+     * @param points   positions des centres
+     * @param zooms    niveaux de zoom à précharger
+     * @param radiusKm rayon (km) couvert autour de chaque point
+     * @return les clés ({@link TileCache#key}) des tuiles, sans doublon, triées par zoom croissant
+     *         (les vues d’ensemble, moins nombreuses, sont téléchargées en premier)
+     */
+    public static long[] plan(PointSet points, int[] zooms, double radiusKm) {
+        long[] keys = new long[64];
+        int n = 0;
+        for (int z : zooms) {
+            int tiles = 1 << z;
+            for (int i = 0; i < points.size(); i++) {
+                double lat = points.latitude(i), lon = points.longitude(i);
+                double dLat = radiusKm / KM_PER_DEGREE;
+                double dLon = dLat / Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+                int yMin = tileY(Math.min(lat + dLat, MAX_LATITUDE), z);
+                int yMax = tileY(Math.max(lat - dLat, -MAX_LATITUDE), z);
+                int xFrom = (int) Math.floor((lon - dLon + 180) / 360 * tiles);
+                int xTo = (int) Math.floor((lon + dLon + 180) / 360 * tiles);
+                if (xTo - xFrom >= tiles) {
+                    xFrom = 0;
+                    xTo = tiles - 1;
+                }
+                for (int xi = xFrom; xi <= xTo; xi++) {
+                    // Au-delà de l’antiméridien, les colonnes reprennent à 0 (modulo)
+                    int x = Math.floorMod(xi, tiles);
+                    for (int y = yMin; y <= yMax; y++) {
+                        if (n == keys.length) keys = Arrays.copyOf(keys, n * 2);
+                        keys[n++] = TileCache.key(z, x, y);
+                    }
+                }
+            }
+        }
+        // Tri puis suppression des doublons (centres voisins partageant des tuiles)
+        Arrays.sort(keys, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || keys[i] != keys[unique - 1]) keys[unique++] = keys[i];
+        }
+        return Arrays.copyOf(keys, unique);
+    }
+
+    /**
+     * @param latitude latitude (degrés, dans les limites de Web Mercator)
+     * @param z        zoom
+     * @return la ligne de la tuile contenant la latitude
+     */
+    static int tileY(double latitude, int z) {
+        double rad = Math.toRadians(latitude);
+        double y = (1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2 * (1 << z);
+        return Math.max(0, Math.min((1 << z) - 1, (int) Math.floor(y)));
+    }
+
+    /**
+     * Lance le préchargement de tuiles, sur {@code maxConcurrent} threads dédiés.
+     *
+     * @param tiles    clés des tuiles ({@link #plan})
+     * @param listener destinataire de l’avancement (peut être {@code null})
+     * @return le préchargement en cours
+     */
+    public Job start(long[] tiles, Listener listener) {
+        int workers = Math.max(1, Math.min(maxConcurrent, tiles.length));
+        Job job = new Job(tiles, listener, workers);
+        for (int w = 0; w < workers; w++) {
+            Thread t = new Thread(job::work, "dawan-tiles-" + (w + 1));
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            t.start();
+        }
+        return job;
+    }
+
+    /**
+     * Télécharge une tuile et l’enregistre dans le cache.
+     *
+     * @return {@code true} si la tuile a été enregistrée
+     */
+    private boolean download(long key) {
+        String url = urls.url(TileCache.zoom(key), TileCache.x(key), TileCache.y(key));
+        Request request = new Request.Builder().url(url).header("User-Agent", userAgent).build();
+        Call call = client.newCall(request);
+        try (Response response = call.execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) return false;
+            byte[] data = body.bytes();
+            if (data.length == 0) return false;
+            int maxAge = response.cacheControl().maxAgeSeconds();
+            long ttl = maxAge > 0 ? maxAge * 1000L : defaultMaxAgeMs;
+            return cache.put(key, data, System.currentTimeMillis() + ttl);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.dawanlocations.domain.cluster;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+/**
+ * Groupe de {@link Location} affiché comme un seul repère à un niveau de zoom donné.
+ *
+ * <p>
+ * Un cluster contenant un seul centre porte directement ce {@link Location}
+ * (voir {@link #single}) et son identifiant est celui du centre : le même repère
+ * peut ainsi être conservé d’un niveau de zoom à l’autre.
+ * </p>
+ */
+public final class Cluster {
+    /** Identifiant stable : {@link Location#id} si un seul centre, valeur négative sinon */
+    public final long id;
+    /** Latitude du barycentre des centres regroupés */
+    public final double latitude;
+    /** Longitude du barycentre des centres regroupés */
+    public final double longitude;
+    /** Nombre de centres regroupés */
+    public final int count;
+    /** Le centre représenté si {@code count == 1}, {@code null} sinon */
+    public final Location single;
+    /** Niveau de zoom à partir duquel ce cluster se sépare en plusieurs repères */
+    public final int expansionZoom;
+    /** Emprise des centres regroupés */
+    public final double south, north, west, east;
+
+    Cluster(long id, double latitude, double longitude, int count, Location single, int expansionZoom,
+            double south, double north, double west, double east) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.single = single;
+        this.expansionZoom = expansionZoom;
+        this.south = south;
+        this.north = north;
+        this.west = west;
+        this.east = east;
+    }
+
+    /**
+     * Crée un cluster réduit à un seul centre (le {@link Location} est matérialisé ici).
+     *
+     * @param store stockage des centres
+     * @param index position du centre dans {@code store}
+     * @return un cluster de taille 1
+     */
+    static Cluster of(LocationStore store, int index) {
+        double lat = store.latitude(index), lon = store.longitude(index);
+        return new Cluster(store.id(index), lat, lon, 1, store.get(index), Integer.MAX_VALUE,
+                lat, lat, lon, lon);
+    }
+
+    /** @return {@code true} si ce cluster représente un unique centre */
+    public boolean isSingle() {
+        return single != null;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.dawanlocations.domain.cluster;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.spatial.GridIndex;
+import com.example.dawanlocations.domain.spatial.IntGridIndex;
+import com.example.dawanlocations.domain.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moteur de regroupement (clustering) hiérarchique des {@link Location} par niveau de zoom.
+ *
+ * <p>
+ * Pour chaque zoom entre {@code minZoom} et {@code maxZoom}, les points sont regroupés
+ * selon une grille de {@code cellSizePx} pixels en projection Web Mercator.
+ * Le calcul est hiérarchique : les clusters d’un niveau sont construits à partir
+ * de ceux du niveau immédiatement plus fin, ce qui rend le coût total
+ * proportionnel au nombre de points multiplié par le nombre de niveaux.
+ * </p>
+ *
+ * <p>
+ * Le calcul ne touche pas à l’UI et peut (doit) être exécuté hors du thread principal.
+ * </p>
+ */
+public final class ClusterEngine {
+
+    /** Taille d’une tuile en pixels (OSM) */
+    private static final double TILE_SIZE = 256.0;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final double cellSizePx;
+
+    /**
+     * @param minZoom    plus petit zoom pour lequel des clusters sont calculés
+     * @param maxZoom    plus grand zoom regroupé ; au-delà, chaque centre est affiché seul
+     * @param cellSizePx taille (en pixels écran) de la cellule de regroupement
+     */
+    public ClusterEngine(int minZoom, int maxZoom, double cellSizePx) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 22) {
+            throw new IllegalArgumentException("zoom range " + minZoom + ".." + maxZoom);
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.cellSizePx = cellSizePx;
+    }
+
+    /**
+     * Calcule les clusters de tous les niveaux de zoom.
+     *
+     * <p>
+     * Le niveau le plus fin est calculé directement sur les colonnes du {@link LocationStore},
+     * sans objet intermédiaire : seuls les clusters résultants (et les centres restés seuls)
+     * sont alloués. Les centres individuels au-delà de {@code maxZoom} sont servis à la
+     * demande par le {@link ClusterIndex}, pour la seule zone visible.
+     * </p>
+     *
+     * @param store centres à regrouper (peut être {@code null})
+     * @return l’index des clusters par niveau
+     */
+    public ClusterIndex build(LocationStore store) {
+        if (store == null) store = LocationStore.EMPTY;
+        List<GridIndex<Cluster>> levels = new ArrayList<>(Collections.nCopies(maxZoom - minZoom + 1, null));
+
+        // Dernier niveau : chaque centre seul, indexé par position
+        IntGridIndex leaves = IntGridIndex.build(store, cellSizeDeg(maxZoom + 1));
+
+        List<Cluster> current = clusterPoints(store, maxZoom);
+        levels.set(maxZoom - minZoom, GridIndex.build(current, ClusterIndex.COORDS, cellSizeDeg(maxZoom)));
+        for (int z = maxZoom - 1; z >= minZoom; z--) {
+            current = clusterLevel(current, z);
+            levels.set(z - minZoom, GridIndex.build(current, ClusterIndex.COORDS, cellSizeDeg(z)));
+        }
+        return new ClusterIndex(minZoom, levels, store, leaves);
+    }
+
+    /**
+     * Regroupe directement les centres du {@link LocationStore} selon la grille du niveau {@code zoom}.
+     *
+     * <p>
+     * Les agrégats (effectif, sommes des coordonnées, emprise) sont accumulés dans des
+     * tableaux primitifs indexés par cellule ; la correspondance cellule → numéro
+     * utilise une table {@link LongIntHashMap} sans boxing.
+     * </p>
+     */
+    private List<Cluster> clusterPoints(LocationStore store, int zoom) {
+        int n = store.size();
+        double scale = TILE_SIZE * (1L << zoom) / cellSizePx;
+        LongIntHashMap cellIds = new LongIntHashMap(n);
+        long[] keys = new long[n];
+        int[] count = new int[n], first = new int[n];
+        double[] sumLat = new double[n], sumLon = new double[n];
+        double[] south = new double[n], north = new double[n], west = new double[n], east = new double[n];
+        int cells = 0;
+
+        for (int i = 0; i < n; i++) {
+            double lat = store.latitude(i), lon = store.longitude(i);
+            long key = cellKey(lat, lon, scale);
+            int c = cellIds.get(key);
+            if (c == LongIntHashMap.MISSING) {
+                c = cells++;
+                cellIds.put(key, c);
+                keys[c] = key;
+                first[c] = i;
+                south[c] = north[c] = lat;
+                west[c] = east[c] = lon;
+            } else {
+                south[c] = Math.min(south[c], lat);
+                north[c] = Math.max(north[c], lat);
+                west[c] = Math.min(west[c], lon);
+                east[c] = Math.max(east[c], lon);
+            }
+            count[c]++;
+            sumLat[c] += lat;
+            sumLon[c] += lon;
+        }
+
+        List<Cluster> out = new ArrayList<>(cells);
+        for (int c = 0; c < cells; c++) {
+            if (count[c] == 1) {
+                out.add(Cluster.of(store, first[c]));
+            } else {
+                out.add(new Cluster(clusterId(zoom, keys[c]), sumLat[c] / count[c], sumLon[c] / count[c],
+                        count[c], null, zoom + 1, south[c], north[c], west[c], east[c]));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Regroupe les clusters du niveau {@code zoom + 1} selon la grille du niveau {@code zoom}.
+     */
+    private List<Cluster> clusterLevel(List<Cluster> children, int zoom) {
+        double scale = TILE_SIZE * (1L << zoom) / cellSizePx;
+        Map<Long, List<Cluster>> cells = new HashMap<>();
+        for (Cluster c : children) {
+            long key = cellKey(c.latitude, c.longitude, scale);
+            List<Cluster> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(key, cell);
+            }
+            cell.add(c);
+        }
+
+        List<Cluster> out = new ArrayList<>(cells.size());
+        for (Map.Entry<Long, List<Cluster>> e : cells.entrySet()) {
+            List<Cluster> cell = e.getValue();
+            if (cell.size() == 1) {
+                // Pas de regroupement : on conserve le même cluster (et donc le même id)
+                out.add(cell.get(0));
+            } else {
+                out.add(merge(cell, zoom, e.getKey()));
+            }
+        }
+        return out;
+    }
+
+    private static Cluster merge(List<Cluster> cell, int zoom, long cellKey) {
+        int count = 0;
+        double lat = 0, lon = 0;
+        double south = Double.MAX_VALUE, north = -Double.MAX_VALUE;
+        double west = Double.MAX_VALUE, east = -Double.MAX_VALUE;
+        for (Cluster c : cell) {
+            count += c.count;
+            lat += c.latitude * c.count;
+            lon += c.longitude * c.count;
+            south = Math.min(south, c.south);
+            north = Math.max(north, c.north);
+            west = Math.min(west, c.west);
+            east = Math.max(east, c.east);
+        }
+        return new Cluster(clusterId(zoom, cellKey), lat / count, lon / count, count, null, zoom + 1,
+                south, north, west, east);
+    }
+
+    /** Clé (ligne, colonne) de la cellule de regroupement contenant un point. */
+    private static long cellKey(double lat, double lon, double scale) {
+        long col = (long) Math.floor(mercatorX(lon) * scale);
+        long row = (long) Math.floor(mercatorY(lat) * scale);
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    /** Identifiant (négatif, stable) d’un cluster à partir de son zoom et de sa cellule. */
+    private static long clusterId(int zoom, long cellKey) {
+        long row = (cellKey >> 32) & 0xffffffL;
+        long col = cellKey & 0xffffffL;
+        return -1L - (((long) zoom << 48) | (row << 24) | col);
+    }
+
+    /** Taille de cellule du {@link GridIndex} d’un niveau : la largeur d’une tuile à ce zoom. */
+    private static double cellSizeDeg(int zoom) {
+        return 360.0 / (1L << Math.min(zoom, 22));
+    }
+
+    /** Longitude → abscisse Web Mercator normalisée dans [0, 1]. */
+    static double mercatorX(double lon) {
+        return (lon + 180.0) / 360.0;
+    }
+
+    /** Latitude → ordonnée Web Mercator normalisée dans [0, 1]. */
+    static double mercatorY(double lat) {
+        double clamped = Math.max(-85.05112878, Math.min(85.05112878, lat));
+        double sin = Math.sin(Math.toRadians(clamped));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.dawanlocations.domain.cluster;
+
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.spatial.GridIndex;
+import com.example.dawanlocations.domain.spatial.IntGridIndex;
+import com.example.dawanlocations.domain.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat précalculé du {@link ClusterEngine} : un ensemble de clusters par niveau de zoom.
+ *
+ * <p>
+ * Chaque niveau est lui-même indexé spatialement ({@link GridIndex}) afin de ne
+ * récupérer que les clusters de la zone visible. Au-delà du zoom maximal de
+ * regroupement, chaque centre est renvoyé individuellement : ces clusters d’un seul
+ * centre sont créés à la demande à partir du {@link LocationStore}, pour la zone
+ * demandée uniquement.
+ * </p>
+ */
+public final class ClusterIndex {
+
+    /** Accès aux coordonnées d’un {@link Cluster} pour le {@link GridIndex} */
+    static final GridIndex.Coordinates<Cluster> COORDS = new GridIndex.Coordinates<Cluster>() {
+        @Override public double latitude(Cluster item) { return item.latitude; }
+        @Override public double longitude(Cluster item) { return item.longitude; }
+    };
+
+    private final int minZoom;
+    /** levels.get(i) = clusters du zoom {@code minZoom + i} */
+    private final List<GridIndex<Cluster>> levels;
+    /** Centres regroupés */
+    private final LocationStore store;
+    /** Centres seuls (au-delà du zoom maximal de regroupement), indexés par position */
+    private final IntGridIndex leaves;
+
+    ClusterIndex(int minZoom, List<GridIndex<Cluster>> levels, LocationStore store, IntGridIndex leaves) {
+        this.minZoom = minZoom;
+        this.levels = levels;
+        this.store = store;
+        this.leaves = leaves;
+    }
+
+    /** @return nombre de centres indexés */
+    public int size() {
+        return store.size();
+    }
+
+    /** @return le stockage des centres à partir duquel l’index a été construit */
+    public LocationStore store() {
+        return store;
+    }
+
+    /**
+     * Reçoit les repères d’une zone, sans matérialiser les centres seuls.
+     */
+    public interface Visitor {
+        /** Groupe de plusieurs centres (zooms de regroupement uniquement). */
+        void cluster(Cluster cluster);
+
+        /**
+         * Centre seul.
+         *
+         * @param index position du centre dans {@link #store()}
+         */
+        void location(int index);
+    }
+
+    /**
+     * Parcourt les repères à afficher pour un zoom et une zone donnés.
+     *
+     * <p>
+     * Contrairement à {@link #query(double, double, double, double, double)}, aucun objet
+     * n’est créé par centre seul : le rendu des zooms élevés, où les centres visibles
+     * peuvent être nombreux, lit directement les colonnes du {@link LocationStore}.
+     * </p>
+     *
+     * @param zoom    niveau de zoom courant de la carte (tronqué à l’entier inférieur)
+     * @param south   latitude minimale
+     * @param north   latitude maximale
+     * @param west    longitude minimale
+     * @param east    longitude maximale
+     * @param visitor destinataire des repères
+     */
+    public void query(double zoom, double south, double north, double west, double east, Visitor visitor) {
+        int level = (int) Math.floor(zoom) - minZoom;
+        if (level < 0) level = 0;
+        if (level >= levels.size()) {
+            leaves.query(south, north, west, east, visitor::location);
+            return;
+        }
+        for (Cluster c : levels.get(level).query(south, north, west, east)) {
+            if (c.isSingle()) {
+                int index = store.indexOf((int) c.id);
+                if (index != LongIntHashMap.MISSING) visitor.location(index);
+            } else {
+                visitor.cluster(c);
+            }
+        }
+    }
+
+    /**
+     * Retourne les clusters à afficher pour un zoom et une zone donnés.
+     *
+     * @param zoom  niveau de zoom courant de la carte (tronqué à l’entier inférieur)
+     * @param south latitude minimale
+     * @param north latitude maximale
+     * @param west  longitude minimale
+     * @param east  longitude maximale
+     * @return les clusters de la zone (jamais {@code null})
+     */
+    public List<Cluster> query(double zoom, double south, double north, double west, double east) {
+        int level = (int) Math.floor(zoom) - minZoom;
+        if (level < 0) level = 0;
+        if (level < levels.size()) return levels.get(level).query(south, north, west, east);
+
+        List<Cluster> out = new ArrayList<>();
+        leaves.query(south, north, west, east, i -> out.add(Cluster.of(store, i)));
+        return out;
+    }
+}
@@ -3,9 +3,13 @@ package com.example.dawanlocations.domain.mapper;
 import com.example.dawanlocations.data.local.LocationEntity;
 import com.example.dawanlocations.data.remote.model.LocationDto;
 import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Classe utilitaire regroupant les méthodes de conversion (mapping)
@@ -23,6 +27,9 @@ import java.util.List;
  */
 public final class LocationMappers {
 
+    /** Taille minimale d’un morceau de liste converti par un thread ({@link #toStore(List, ExecutorService)}) */
+    static final int PARALLEL_CHUNK = 10_000;
+
     /** Constructeur privé pour empêcher l’instanciation. */
     private LocationMappers() {}
 
@@ -72,4 +79,75 @@ public final class LocationMappers {
         }
         return out;
     }
+
+    /**
+     * Convertit une liste d’entités {@link LocationEntity} en {@link LocationStore}
+     * (stockage en colonnes, sans objet {@link Location} par ligne).
+     *
+     * @param list la liste d’entités Room (peut être {@code null})
+     * @return un nouveau {@link LocationStore} (jamais {@code null})
+     */
+    public static LocationStore toStore(List<LocationEntity> list) {
+        if (list == null || list.isEmpty()) return LocationStore.EMPTY;
+        return toStore(list, 0, list.size());
+    }
+
+    /**
+     * Variante de {@link #toStore(List)} qui, pour les grandes listes, répartit la
+     * conversion sur plusieurs threads.
+     *
+     * <p>
+     * La liste est découpée en morceaux contigus d’au moins {@code PARALLEL_CHUNK} entités :
+     * chaque morceau est converti sur {@code executor} (le dernier par le thread appelant),
+     * puis les morceaux sont assemblés dans l’ordre par {@link LocationStore#concat(List)}.
+     * Le résultat est identique à celui de la conversion séquentielle. En dessous de
+     * deux morceaux, la conversion reste séquentielle.
+     * </p>
+     *
+     * <p>
+     * À appeler hors du thread principal, et jamais depuis un thread de {@code executor}
+     * (le thread appelant attend les autres morceaux).
+     * </p>
+     *
+     * @param list     la liste d’entités Room (peut être {@code null})
+     * @param executor exécuteur des morceaux (threads de calcul)
+     * @return un nouveau {@link LocationStore} (jamais {@code null})
+     */
+    public static LocationStore toStore(List<LocationEntity> list, ExecutorService executor) {
+        if (list == null || list.isEmpty()) return LocationStore.EMPTY;
+        int n = list.size();
+        int chunks = Math.min(n / PARALLEL_CHUNK, Runtime.getRuntime().availableProcessors());
+        if (chunks < 2) return toStore(list, 0, n);
+
+        List<Future<LocationStore>> pending = new ArrayList<>(chunks - 1);
+        int step = (n + chunks - 1) / chunks;
+        for (int from = 0; from + step < n; from += step) {
+            int start = from, end = from + step;
+            pending.add(executor.submit(() -> toStore(list, start, end)));
+        }
+        LocationStore last = toStore(list, pending.size() * step, n);
+
+        List<LocationStore> parts = new ArrayList<>(chunks);
+        try {
+            for (Future<LocationStore> f : pending) parts.add(f.get());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("location mapping failed", e.getCause());
+        } catch (InterruptedException e) {
+            for (Future<LocationStore> f : pending) f.cancel(true);
+            Thread.currentThread().interrupt();
+            return toStore(list, 0, n);
+        }
+        parts.add(last);
+        return LocationStore.concat(parts);
+    }
+
+    /** Convertit les entités {@code [from, to)} de la liste. */
+    private static LocationStore toStore(List<LocationEntity> list, int from, int to) {
+        LocationStore.Builder b = new LocationStore.Builder(to - from);
+        for (int i = from; i < to; i++) {
+            LocationEntity e = list.get(i);
+            b.add(e.id, e.name, e.address, e.city, e.postalCode, e.latitude, e.longitude);
+        }
+        return b.build();
+    }
 }
@@ -0,0 +1,380 @@
+package com.example.dawanlocations.domain.model;
+
+import com.example.dawanlocations.domain.spatial.PointSet;
+import com.example.dawanlocations.domain.util.LongIntHashMap;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Stockage immuable, en colonnes de types primitifs, de l’ensemble des centres.
+ *
+ * <p>
+ * Au lieu d’un objet {@link Location} par centre, chaque champ est rangé dans un tableau
+ * ({@code int[]} pour les ids, {@code double[]} pour les coordonnées) et les textes sont
+ * des indices dans une table de chaînes dédupliquées. Les chemins critiques (clustering,
+ * index spatiaux, plus proches voisins, rendu) parcourent ainsi les centres par position
+ * ({@code 0 <= i < size()}) sans aucune allocation.
+ * </p>
+ *
+ * <p>
+ * Un {@link Location} n’est matérialisé qu’à la demande ({@link #get(int)}), par exemple
+ * pour la fiche de détails d’un centre. La recherche d’un centre par id
+ * ({@link #indexOf(int)}) passe par une table de hachage primitive, sans boxing.
+ * </p>
+ */
+public final class LocationStore implements PointSet {
+
+    /** Référence de chaîne représentant {@code null} */
+    public static final int NO_STRING = -1;
+
+    /** Stockage vide */
+    public static final LocationStore EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final int[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] names;
+    private final int[] addresses;
+    private final int[] cities;
+    private final int[] postalCodes;
+    private final String[] strings;
+    /** id → position */
+    private final LongIntHashMap positions;
+
+    private LocationStore(int size, int[] ids, double[] latitudes, double[] longitudes,
+                          int[] names, int[] addresses, int[] cities, int[] postalCodes,
+                          String[] strings) {
+        this.size = size;
+        this.ids = ids;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.names = names;
+        this.addresses = addresses;
+        this.cities = cities;
+        this.postalCodes = postalCodes;
+        this.strings = strings;
+        this.positions = new LongIntHashMap(size);
+        for (int i = 0; i < size; i++) positions.put(ids[i], i);
+    }
+
+    /**
+     * Construit un stockage directement à partir de ses colonnes (lecture d’un instantané
+     * binaire par exemple). Les tableaux sont repris tels quels, sans copie.
+     *
+     * @param ids         ids des centres
+     * @param latitudes   latitudes
+     * @param longitudes  longitudes
+     * @param names       références des noms dans {@code strings}
+     * @param addresses   références des adresses
+     * @param cities      références des villes
+     * @param postalCodes références des codes postaux
+     * @param strings     table de chaînes
+     * @return un nouveau stockage
+     * @throws IllegalArgumentException si les colonnes n’ont pas la même taille
+     *                                  ou si une référence sort de la table
+     */
+    public static LocationStore fromColumns(int[] ids, double[] latitudes, double[] longitudes,
+                                            int[] names, int[] addresses, int[] cities,
+                                            int[] postalCodes, String[] strings) {
+        int n = ids.length;
+        if (latitudes.length != n || longitudes.length != n || names.length != n
+                || addresses.length != n || cities.length != n || postalCodes.length != n) {
+            throw new IllegalArgumentException("column sizes differ");
+        }
+        for (int[] column : new int[][]{names, addresses, cities, postalCodes}) {
+            for (int ref : column) {
+                if (ref < NO_STRING || ref >= strings.length) {
+                    throw new IllegalArgumentException("string ref out of range: " + ref);
+                }
+            }
+        }
+        return new LocationStore(n, ids, latitudes, longitudes, names, addresses, cities, postalCodes, strings);
+    }
+
+    /**
+     * Construit un stockage à partir d’une liste de {@link Location}.
+     *
+     * @param list centres (peut être {@code null})
+     * @return un nouveau stockage
+     */
+    public static LocationStore of(List<Location> list) {
+        if (list == null || list.isEmpty()) return EMPTY;
+        Builder b = new Builder(list.size());
+        for (Location l : list) b.add(l.id, l.name, l.address, l.city, l.postalCode, l.latitude, l.longitude);
+        return b.build();
+    }
+
+    /**
+     * Concatène plusieurs stockages (dans l’ordre), en fusionnant leurs tables de chaînes.
+     *
+     * <p>
+     * Sert à assembler des morceaux construits en parallèle : seules les chaînes
+     * distinctes de chaque morceau sont fusionnées, puis les références de chaque
+     * colonne sont renumérotées ; aucun {@link Location} n’est créé.
+     * </p>
+     *
+     * @param parts stockages à assembler
+     * @return un nouveau stockage contenant les centres de tous les morceaux
+     */
+    public static LocationStore concat(List<LocationStore> parts) {
+        if (parts.isEmpty()) return EMPTY;
+        if (parts.size() == 1) return parts.get(0);
+        int n = 0;
+        for (LocationStore part : parts) n += part.size;
+
+        int[] ids = new int[n];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        int[] names = new int[n], addresses = new int[n], cities = new int[n], postalCodes = new int[n];
+        Builder strings = new Builder(0);
+
+        int at = 0;
+        for (LocationStore part : parts) {
+            int[] remap = new int[part.strings.length];
+            for (int r = 0; r < remap.length; r++) remap[r] = strings.intern(part.strings[r]);
+            System.arraycopy(part.ids, 0, ids, at, part.size);
+            System.arraycopy(part.latitudes, 0, latitudes, at, part.size);
+            System.arraycopy(part.longitudes, 0, longitudes, at, part.size);
+            for (int i = 0; i < part.size; i++) {
+                names[at + i] = remapRef(remap, part.names[i]);
+                addresses[at + i] = remapRef(remap, part.addresses[i]);
+                cities[at + i] = remapRef(remap, part.cities[i]);
+                postalCodes[at + i] = remapRef(remap, part.postalCodes[i]);
+            }
+            at += part.size;
+        }
+        return new LocationStore(n, ids, latitudes, longitudes, names, addresses, cities, postalCodes,
+                Arrays.copyOf(strings.strings, strings.stringCount));
+    }
+
+    private static int remapRef(int[] remap, int ref) {
+        return ref == NO_STRING ? NO_STRING : remap[ref];
+    }
+
+    /**
+     * Compare le contenu de deux stockages : mêmes centres, dans le même ordre,
+     * avec les mêmes valeurs (les tables de chaînes peuvent être numérotées différemment).
+     *
+     * <p>
+     * Permet d’ignorer un rechargement qui n’apporte aucun changement. Le cas courant
+     * (mêmes colonnes, même table de chaînes) se résout par comparaison de tableaux.
+     * </p>
+     *
+     * @param other stockage à comparer (peut être {@code null})
+     * @return {@code true} si les deux stockages décrivent exactement les mêmes centres
+     */
+    public boolean contentEquals(LocationStore other) {
+        if (other == this) return true;
+        if (other == null || other.size != size) return false;
+        if (!Arrays.equals(ids, other.ids) || !Arrays.equals(latitudes, other.latitudes)
+                || !Arrays.equals(longitudes, other.longitudes)) {
+            return false;
+        }
+        if (Arrays.equals(strings, other.strings)) {
+            return Arrays.equals(names, other.names) && Arrays.equals(addresses, other.addresses)
+                    && Arrays.equals(cities, other.cities) && Arrays.equals(postalCodes, other.postalCodes);
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(name(i), other.name(i)) || !Objects.equals(address(i), other.address(i))
+                    || !Objects.equals(city(i), other.city(i))
+                    || !Objects.equals(postalCode(i), other.postalCode(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return nombre de centres */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** @return id du centre à la position {@code i} */
+    public int id(int i) {
+        return ids[i];
+    }
+
+    @Override
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    @Override
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    /** @return nom du centre {@code i} ({@code null} si inconnu) */
+    public String name(int i) {
+        return string(names[i]);
+    }
+
+    /** @return adresse du centre {@code i} ({@code null} si inconnu) */
+    public String address(int i) {
+        return string(addresses[i]);
+    }
+
+    /** @return ville du centre {@code i} ({@code null} si inconnu) */
+    public String city(int i) {
+        return string(cities[i]);
+    }
+
+    /** @return code postal du centre {@code i} ({@code null} si inconnu) */
+    public String postalCode(int i) {
+        return string(postalCodes[i]);
+    }
+
+    /** @return référence (dans la table de chaînes) du nom du centre {@code i} */
+    public int nameRef(int i) {
+        return names[i];
+    }
+
+    /** @return référence de l’adresse du centre {@code i} */
+    public int addressRef(int i) {
+        return addresses[i];
+    }
+
+    /** @return référence de la ville du centre {@code i} */
+    public int cityRef(int i) {
+        return cities[i];
+    }
+
+    /** @return référence du code postal du centre {@code i} */
+    public int postalCodeRef(int i) {
+        return postalCodes[i];
+    }
+
+    /** @return nombre de chaînes distinctes */
+    public int stringCount() {
+        return strings.length;
+    }
+
+    /**
+     * @param ref référence dans la table de chaînes, ou {@link #NO_STRING}
+     * @return la chaîne, ou {@code null} pour {@link #NO_STRING}
+     */
+    public String string(int ref) {
+        return ref == NO_STRING ? null : strings[ref];
+    }
+
+    /**
+     * @param id id d’un centre
+     * @return sa position, ou {@code -1} s’il est absent
+     */
+    public int indexOf(int id) {
+        return positions.get(id);
+    }
+
+    /**
+     * Matérialise le centre à la position {@code i} (alloue un nouvel objet).
+     *
+     * @param i position du centre
+     * @return un nouveau {@link Location}
+     */
+    public Location get(int i) {
+        return new Location(ids[i], name(i), address(i), city(i), postalCode(i), latitudes[i], longitudes[i]);
+    }
+
+    /**
+     * Vue {@link List} non modifiable du stockage, pour le code qui attend des {@link Location}.
+     * Chaque accès matérialise un nouvel objet : à éviter dans les boucles critiques.
+     *
+     * @return une vue en lecture seule
+     */
+    public List<Location> asList() {
+        return new ListView();
+    }
+
+    private final class ListView extends AbstractList<Location> implements RandomAccess {
+        @Override public Location get(int index) { return LocationStore.this.get(index); }
+        @Override public int size() { return size; }
+    }
+
+    /**
+     * Construit un {@link LocationStore} ligne par ligne, en dédupliquant les chaînes.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private double[] latitudes;
+        private double[] longitudes;
+        private int[] names;
+        private int[] addresses;
+        private int[] cities;
+        private int[] postalCodes;
+        private String[] strings = new String[16];
+        private int stringCount;
+        private final Map<String, Integer> stringRefs = new HashMap<>();
+
+        /**
+         * @param expectedSize nombre de centres attendu (le builder s’agrandit au besoin)
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 0);
+            ids = new int[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            names = new int[capacity];
+            addresses = new int[capacity];
+            cities = new int[capacity];
+            postalCodes = new int[capacity];
+        }
+
+        /**
+         * Ajoute un centre.
+         *
+         * @return ce builder
+         */
+        public Builder add(int id, String name, String address, String city, String postalCode,
+                           double latitude, double longitude) {
+            if (size == ids.length) grow();
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            names[size] = intern(name);
+            addresses[size] = intern(address);
+            cities[size] = intern(city);
+            postalCodes[size] = intern(postalCode);
+            size++;
+            return this;
+        }
+
+        /** @return le stockage construit (le builder ne doit plus être utilisé ensuite) */
+        public LocationStore build() {
+            return new LocationStore(size,
+                    Arrays.copyOf(ids, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size),
+                    Arrays.copyOf(names, size), Arrays.copyOf(addresses, size),
+                    Arrays.copyOf(cities, size), Arrays.copyOf(postalCodes, size),
+                    Arrays.copyOf(strings, stringCount));
+        }
+
+        private int intern(String s) {
+            if (s == null) return NO_STRING;
+            Integer ref = stringRefs.get(s);
+            if (ref != null) return ref;
+            if (stringCount == strings.length) strings = Arrays.copyOf(strings, stringCount * 2);
+            strings[stringCount] = s;
+            stringRefs.put(s, stringCount);
+            return stringCount++;
+        }
+
+        private void grow() {
+            int capacity = Math.max(16, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+            cities = Arrays.copyOf(cities, capacity);
+            postalCodes = Arrays.copyOf(postalCodes, capacity);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.dawanlocations.domain.model;
+
+/**
+ * Un centre de formation accompagné de sa distance à une position de référence.
+ */
+public class NearbyLocation {
+    /** Le centre */
+    public final Location location;
+    /** Distance orthodromique (haversine) à la position de référence, en mètres */
+    public final double distanceMeters;
+
+    public NearbyLocation(Location location, double distanceMeters) {
+        this.location = location;
+        this.distanceMeters = distanceMeters;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dawanlocations.domain.spatial;
+
+/**
+ * Calculs géographiques élémentaires sur la sphère terrestre.
+ */
+public final class Geo {
+
+    /** Rayon moyen de la Terre (en mètres) */
+    public static final double EARTH_RADIUS_M = 6_371_008.8;
+
+    /** Constructeur privé pour empêcher l’instanciation. */
+    private Geo() {}
+
+    /**
+     * Distance orthodromique entre deux points (formule de haversine).
+     *
+     * @param lat1 latitude du premier point (degrés)
+     * @param lon1 longitude du premier point (degrés)
+     * @param lat2 latitude du second point (degrés)
+     * @param lon2 longitude du second point (degrés)
+     * @return la distance en mètres
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2), sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
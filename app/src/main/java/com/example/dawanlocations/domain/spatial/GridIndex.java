@@ -0,0 +1,158 @@
+package com.example.dawanlocations.domain.spatial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index spatial en mémoire basé sur une grille régulière (latitude / longitude).
+ *
+ * <p>
+ * Chaque élément est rangé dans une cellule carrée de {@code cellSizeDeg} degrés.
+ * Une requête par rectangle englobant (bounding box) ne parcourt ainsi que
+ * les cellules qui intersectent ce rectangle, au lieu de toute la liste.
+ * </p>
+ *
+ * <p>
+ * L’index est immuable une fois construit : pour prendre en compte de nouvelles
+ * données, on reconstruit simplement une nouvelle instance.
+ * </p>
+ *
+ * @param <T> type des éléments indexés
+ */
+public final class GridIndex<T> {
+
+    /** Taille de cellule par défaut (en degrés), adaptée à des points répartis sur un pays. */
+    public static final double DEFAULT_CELL_SIZE_DEG = 0.5;
+
+    /**
+     * Fournit les coordonnées d’un élément indexé.
+     *
+     * @param <T> type des éléments
+     */
+    public interface Coordinates<T> {
+        double latitude(T item);
+        double longitude(T item);
+    }
+
+    private final double cellSizeDeg;
+    private final Coordinates<T> coords;
+    /** Cellules non vides, indexées par la clé (ligne, colonne) empaquetée dans un {@code long}. */
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final int size;
+
+    private GridIndex(List<T> items, Coordinates<T> coords, double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.coords = coords;
+        for (T item : items) {
+            long key = key(row(coords.latitude(item)), col(coords.longitude(item)));
+            List<T> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>();
+                cells.put(key, cell);
+            }
+            cell.add(item);
+        }
+        this.size = items.size();
+    }
+
+    /**
+     * Construit un index avec la taille de cellule par défaut.
+     *
+     * @param items  éléments à indexer (peut être {@code null})
+     * @param coords accès aux coordonnées des éléments
+     * @return un nouvel index
+     */
+    public static <T> GridIndex<T> build(List<T> items, Coordinates<T> coords) {
+        return build(items, coords, DEFAULT_CELL_SIZE_DEG);
+    }
+
+    /**
+     * Construit un index avec une taille de cellule donnée.
+     *
+     * @param items       éléments à indexer (peut être {@code null})
+     * @param coords      accès aux coordonnées des éléments
+     * @param cellSizeDeg taille d’une cellule en degrés (strictement positive)
+     * @return un nouvel index
+     */
+    public static <T> GridIndex<T> build(List<T> items, Coordinates<T> coords, double cellSizeDeg) {
+        if (cellSizeDeg <= 0) throw new IllegalArgumentException("cellSizeDeg <= 0");
+        return new GridIndex<>(items != null ? items : Collections.emptyList(), coords, cellSizeDeg);
+    }
+
+    /** @return nombre total d’éléments indexés */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne les éléments situés dans le rectangle donné.
+     *
+     * <p>
+     * Si {@code west > east}, le rectangle traverse l’antiméridien
+     * et la requête est découpée en deux.
+     * </p>
+     *
+     * @param south latitude minimale
+     * @param north latitude maximale
+     * @param west  longitude minimale
+     * @param east  longitude maximale
+     * @return une nouvelle liste (jamais {@code null})
+     */
+    public List<T> query(double south, double north, double west, double east) {
+        List<T> out = new ArrayList<>();
+        if (west > east) {
+            collect(south, north, west, 180.0, out);
+            collect(south, north, -180.0, east, out);
+        } else {
+            collect(south, north, west, east, out);
+        }
+        return out;
+    }
+
+    private void collect(double south, double north, double west, double east, List<T> out) {
+        int minRow = row(south), maxRow = row(north);
+        int minCol = col(west), maxCol = col(east);
+        long range = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        if (range > cells.size()) {
+            // Vue très large (faible zoom) : plus rapide de parcourir les cellules occupées
+            for (Map.Entry<Long, List<T>> e : cells.entrySet()) {
+                int r = (int) (e.getKey() >> 32);
+                int c = (int) (long) e.getKey();
+                if (r >= minRow && r <= maxRow && c >= minCol && c <= maxCol) {
+                    filter(e.getValue(), south, north, west, east, out);
+                }
+            }
+        } else {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    List<T> cell = cells.get(key(r, c));
+                    if (cell != null) filter(cell, south, north, west, east, out);
+                }
+            }
+        }
+    }
+
+    private void filter(List<T> cell, double south, double north, double west, double east, List<T> out) {
+        for (T item : cell) {
+            double lat = coords.latitude(item);
+            double lon = coords.longitude(item);
+            if (lat >= south && lat <= north && lon >= west && lon <= east) out.add(item);
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellSizeDeg);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellSizeDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.dawanlocations.domain.spatial;
+
+import com.example.dawanlocations.domain.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Variante primitive de {@link GridIndex} : indexe les positions d’un {@link PointSet}.
+ *
+ * <p>
+ * Les cellules sont stockées au format « CSR » : une table {@code cellStart} donne,
+ * pour chaque cellule occupée, le début de ses positions dans un unique {@code int[]}.
+ * Ni la construction ni les requêtes n’allouent d’objet par point : une requête
+ * appelle simplement un {@link IntConsumer} pour chaque position trouvée.
+ * </p>
+ *
+ * <p>
+ * L’index est immuable une fois construit.
+ * </p>
+ */
+public final class IntGridIndex {
+
+    private final PointSet points;
+    private final double cellSizeDeg;
+    /** clé (ligne, colonne) → numéro de cellule occupée */
+    private final LongIntHashMap cellIds;
+    /** Ligne et colonne de chaque cellule occupée */
+    private final int[] cellRows, cellCols;
+    /** Positions de la cellule {@code c} : {@code items[cellStart[c] .. cellStart[c + 1])} */
+    private final int[] cellStart;
+    private final int[] items;
+
+    private IntGridIndex(PointSet points, double cellSizeDeg) {
+        this.points = points;
+        this.cellSizeDeg = cellSizeDeg;
+        int n = points.size();
+
+        cellIds = new LongIntHashMap(n);
+        int[] cellOf = new int[n];
+        int[] rows = new int[n], cols = new int[n];
+        int cellCount = 0;
+        for (int i = 0; i < n; i++) {
+            int r = row(points.latitude(i)), c = col(points.longitude(i));
+            long key = key(r, c);
+            int id = cellIds.get(key);
+            if (id == LongIntHashMap.MISSING) {
+                id = cellCount++;
+                cellIds.put(key, id);
+                rows[id] = r;
+                cols[id] = c;
+            }
+            cellOf[i] = id;
+        }
+
+        // Tri par dénombrement des positions par cellule
+        cellStart = new int[cellCount + 1];
+        for (int i = 0; i < n; i++) cellStart[cellOf[i] + 1]++;
+        for (int c = 0; c < cellCount; c++) cellStart[c + 1] += cellStart[c];
+        int[] fill = new int[cellCount];
+        items = new int[n];
+        for (int i = 0; i < n; i++) {
+            int c = cellOf[i];
+            items[cellStart[c] + fill[c]++] = i;
+        }
+        cellRows = Arrays.copyOf(rows, cellCount);
+        cellCols = Arrays.copyOf(cols, cellCount);
+    }
+
+    /**
+     * Construit un index.
+     *
+     * @param points      points à indexer
+     * @param cellSizeDeg taille d’une cellule en degrés (strictement positive)
+     * @return un nouvel index
+     */
+    public static IntGridIndex build(PointSet points, double cellSizeDeg) {
+        if (cellSizeDeg <= 0) throw new IllegalArgumentException("cellSizeDeg <= 0");
+        return new IntGridIndex(points, cellSizeDeg);
+    }
+
+    /** @return nombre de points indexés */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Appelle {@code visitor} pour chaque position située dans le rectangle donné.
+     *
+     * <p>
+     * Si {@code west > east}, le rectangle traverse l’antiméridien
+     * et la requête est découpée en deux.
+     * </p>
+     *
+     * @param south   latitude minimale
+     * @param north   latitude maximale
+     * @param west    longitude minimale
+     * @param east    longitude maximale
+     * @param visitor reçoit chaque position trouvée
+     */
+    public void query(double south, double north, double west, double east, IntConsumer visitor) {
+        if (west > east) {
+            collect(south, north, west, 180.0, visitor);
+            collect(south, north, -180.0, east, visitor);
+        } else {
+            collect(south, north, west, east, visitor);
+        }
+    }
+
+    private void collect(double south, double north, double west, double east, IntConsumer visitor) {
+        int minRow = row(south), maxRow = row(north);
+        int minCol = col(west), maxCol = col(east);
+        long range = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        int cellCount = cellRows.length;
+
+        if (range > cellCount) {
+            // Vue très large : plus rapide de parcourir les cellules occupées
+            for (int c = 0; c < cellCount; c++) {
+                int r = cellRows[c], k = cellCols[c];
+                if (r >= minRow && r <= maxRow && k >= minCol && k <= maxCol) {
+                    filter(c, south, north, west, east, visitor);
+                }
+            }
+        } else {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int k = minCol; k <= maxCol; k++) {
+                    int c = cellIds.get(key(r, k));
+                    if (c != LongIntHashMap.MISSING) filter(c, south, north, west, east, visitor);
+                }
+            }
+        }
+    }
+
+    private void filter(int cell, double south, double north, double west, double east, IntConsumer visitor) {
+        for (int j = cellStart[cell], end = cellStart[cell + 1]; j < end; j++) {
+            int i = items[j];
+            double lat = points.latitude(i);
+            double lon = points.longitude(i);
+            if (lat >= south && lat <= north && lon >= west && lon <= east) visitor.accept(i);
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellSizeDeg);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellSizeDeg);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
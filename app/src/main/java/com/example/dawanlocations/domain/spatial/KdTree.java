@@ -0,0 +1,219 @@
+package com.example.dawanlocations.domain.spatial;
+
+/**
+ * Arbre k-d (k = 3) pour la recherche des plus proches voisins sur la sphère.
+ *
+ * <p>
+ * Chaque point est projeté sur la sphère unité (x, y, z). La distance euclidienne
+ * entre deux points projetés (la corde) croît avec la distance orthodromique : les
+ * plus proches voisins au sens de la corde sont donc aussi les plus proches au sens
+ * de haversine, sans cas particulier aux pôles ni à l’antiméridien.
+ * </p>
+ *
+ * <p>
+ * L’arbre est implicite : les coordonnées sont rangées dans des tableaux primitifs,
+ * réordonnés de sorte que le nœud d’un intervalle {@code [lo, hi)} soit son milieu,
+ * l’axe de coupe dépendant de la profondeur. Aucun objet n’est alloué par point.
+ * L’arbre est immuable une fois construit et peut être interrogé depuis plusieurs threads.
+ * </p>
+ */
+public final class KdTree {
+
+    /** Positions des points dans le {@link PointSet} d’origine, dans l’ordre de l’arbre */
+    private final int[] items;
+    /** Coordonnées cartésiennes, dans l’ordre de l’arbre : coords[3 * j + axe] */
+    private final double[] coords;
+
+    private KdTree(int[] items, double[] coords) {
+        this.items = items;
+        this.coords = coords;
+    }
+
+    /**
+     * Construit l’arbre (en O(n log n)).
+     *
+     * @param points points à indexer
+     * @return un nouvel arbre
+     */
+    public static KdTree build(PointSet points) {
+        int n = points.size();
+        int[] items = new int[n];
+        double[] coords = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            items[i] = i;
+            toUnitVector(points.latitude(i), points.longitude(i), coords, 3 * i);
+        }
+        KdTree tree = new KdTree(items, coords);
+        tree.buildRange(0, n, 0);
+        return tree;
+    }
+
+    /** @return nombre de points indexés */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Recherche les {@code k} points les plus proches d’une position.
+     *
+     * @param latitude  latitude de la position (degrés)
+     * @param longitude longitude de la position (degrés)
+     * @param k         nombre de voisins souhaités
+     * @return les positions (dans le {@link PointSet} d’origine) des voisins,
+     *         de la plus proche à la plus lointaine ; au plus {@code min(k, size())} éléments
+     */
+    public int[] nearest(double latitude, double longitude, int k) {
+        int count = Math.min(Math.max(k, 0), items.length);
+        if (count == 0) return new int[0];
+        double[] q = new double[3];
+        toUnitVector(latitude, longitude, q, 0);
+        Neighbours best = new Neighbours(count);
+        search(0, items.length, 0, q, best);
+        return best.sortedItems();
+    }
+
+    private void buildRange(int lo, int hi, int depth) {
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, depth % 3);
+            buildRange(mid + 1, hi, depth + 1);
+            hi = mid;
+            depth++;
+        }
+    }
+
+    private void search(int lo, int hi, int depth, double[] q, Neighbours best) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int base = 3 * mid;
+            double dx = q[0] - coords[base], dy = q[1] - coords[base + 1], dz = q[2] - coords[base + 2];
+            best.offer(dx * dx + dy * dy + dz * dz, items[mid]);
+
+            int axis = depth % 3;
+            double diff = q[axis] - coords[base + axis];
+            depth++;
+            // On descend d’abord du côté de la requête ; l’autre côté n’est visité
+            // que si le plan de coupe est plus proche que le pire voisin retenu.
+            if (diff < 0) {
+                search(lo, mid, depth, q, best);
+                lo = mid + 1;
+            } else {
+                search(mid + 1, hi, depth, q, best);
+                hi = mid;
+            }
+            if (best.isFull() && diff * diff >= best.worst()) return;
+        }
+    }
+
+    /**
+     * Sélection rapide (partition à trois voies, robuste aux valeurs égales) :
+     * place en {@code nth} l’élément de rang {@code nth} selon {@code axis}, les plus petits
+     * (ou égaux) avant, les plus grands (ou égaux) après.
+     */
+    private void select(int lo, int hi, int nth, int axis) {
+        while (hi - lo > 1) {
+            double pivot = medianOfThree(lo, (lo + hi) >>> 1, hi - 1, axis);
+            int lt = lo, i = lo, gt = hi;
+            while (i < gt) {
+                double c = coords[3 * i + axis];
+                if (c < pivot) swap(lt++, i++);
+                else if (c > pivot) swap(i, --gt);
+                else i++;
+            }
+            if (nth < lt) hi = lt;
+            else if (nth >= gt) lo = gt;
+            else return;
+        }
+    }
+
+    private double medianOfThree(int a, int b, int c, int axis) {
+        double x = coords[3 * a + axis], y = coords[3 * b + axis], z = coords[3 * c + axis];
+        return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+    }
+
+    private void swap(int a, int b) {
+        int t = items[a];
+        items[a] = items[b];
+        items[b] = t;
+        for (int axis = 0; axis < 3; axis++) {
+            double c = coords[3 * a + axis];
+            coords[3 * a + axis] = coords[3 * b + axis];
+            coords[3 * b + axis] = c;
+        }
+    }
+
+    private static void toUnitVector(double lat, double lon, double[] out, int offset) {
+        double phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+        double cosPhi = Math.cos(phi);
+        out[offset] = cosPhi * Math.cos(lambda);
+        out[offset + 1] = cosPhi * Math.sin(lambda);
+        out[offset + 2] = Math.sin(phi);
+    }
+
+    /**
+     * Les {@code k} meilleurs candidats, dans un tas binaire max (par distance au carré).
+     */
+    private static final class Neighbours {
+        private final double[] dist;
+        private final int[] item;
+        private int size;
+
+        Neighbours(int capacity) {
+            dist = new double[capacity];
+            item = new int[capacity];
+        }
+
+        boolean isFull() {
+            return size == dist.length;
+        }
+
+        /** @return la plus grande distance retenue (tas plein uniquement) */
+        double worst() {
+            return dist[0];
+        }
+
+        void offer(double d, int it) {
+            if (size < dist.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (dist[parent] >= d) break;
+                    dist[i] = dist[parent];
+                    item[i] = item[parent];
+                    i = parent;
+                }
+                dist[i] = d;
+                item[i] = it;
+            } else if (d < dist[0]) {
+                siftDown(d, it, size);
+            }
+        }
+
+        /** Remplace la racine par (d, it) et rétablit le tas sur {@code [0, n)}. */
+        private void siftDown(double d, int it, int n) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) break;
+                if (child + 1 < n && dist[child + 1] > dist[child]) child++;
+                if (dist[child] <= d) break;
+                dist[i] = dist[child];
+                item[i] = item[child];
+                i = child;
+            }
+            dist[i] = d;
+            item[i] = it;
+        }
+
+        /** Vide le tas (tri par tas) et renvoie les candidats du plus proche au plus lointain. */
+        int[] sortedItems() {
+            int[] out = new int[size];
+            for (int n = size; n > 0; n--) {
+                out[n - 1] = item[0];
+                siftDown(dist[n - 1], item[n - 1], n - 1);
+            }
+            size = 0;
+            return out;
+        }
+    }
+}
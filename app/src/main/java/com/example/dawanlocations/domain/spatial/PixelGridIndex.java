@@ -0,0 +1,122 @@
+package com.example.dawanlocations.domain.spatial;
+
+import com.example.dawanlocations.domain.util.LongIntHashMap;
+
+/**
+ * Grille régulière indexant des points en pixels (coordonnées à l’écran ou du monde
+ * projeté), pour retrouver le point le plus proche d’un toucher.
+ *
+ * <p>
+ * Même organisation « CSR » que {@link IntGridIndex} : seules les cellules occupées
+ * sont stockées, et une recherche ne visite que les cellules recouvrant le disque de
+ * recherche, au lieu de tester chaque point. Avec des cellules de la taille du rayon de
+ * toucher, un toucher examine au plus quatre cellules.
+ * </p>
+ *
+ * <p>
+ * Le résultat est déterministe : à distance égale (points superposés), la plus grande
+ * position l’emporte, c’est-à-dire le point dessiné en dernier, donc au-dessus des autres.
+ * L’index est immuable une fois construit.
+ * </p>
+ */
+public final class PixelGridIndex {
+
+    private final long[] xs, ys;
+    private final double cellSizePx;
+    /** clé (ligne, colonne) → numéro de cellule occupée */
+    private final LongIntHashMap cellIds;
+    /** Positions de la cellule {@code c} : {@code items[cellStart[c] .. cellStart[c + 1])} */
+    private final int[] cellStart;
+    private final int[] items;
+
+    private PixelGridIndex(long[] xs, long[] ys, int n, double cellSizePx) {
+        this.xs = xs;
+        this.ys = ys;
+        this.cellSizePx = cellSizePx;
+
+        cellIds = new LongIntHashMap(n);
+        int[] cellOf = new int[n];
+        int cellCount = 0;
+        for (int i = 0; i < n; i++) {
+            long key = key(cell(xs[i]), cell(ys[i]));
+            int id = cellIds.get(key);
+            if (id == LongIntHashMap.MISSING) {
+                id = cellCount++;
+                cellIds.put(key, id);
+            }
+            cellOf[i] = id;
+        }
+
+        // Tri par dénombrement ; dans chaque cellule, les positions restent croissantes
+        cellStart = new int[cellCount + 1];
+        for (int i = 0; i < n; i++) cellStart[cellOf[i] + 1]++;
+        for (int c = 0; c < cellCount; c++) cellStart[c + 1] += cellStart[c];
+        int[] fill = new int[cellCount];
+        items = new int[n];
+        for (int i = 0; i < n; i++) {
+            int c = cellOf[i];
+            items[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    /**
+     * Construit un index sur les {@code n} premiers points (les tableaux ne sont pas copiés
+     * et ne doivent plus être modifiés).
+     *
+     * @param xs         abscisses (px)
+     * @param ys         ordonnées (px)
+     * @param n          nombre de points
+     * @param cellSizePx taille d’une cellule (px, strictement positive), idéalement le rayon de recherche
+     * @return un nouvel index
+     */
+    public static PixelGridIndex build(long[] xs, long[] ys, int n, double cellSizePx) {
+        if (cellSizePx <= 0) throw new IllegalArgumentException("cellSizePx <= 0");
+        if (n > xs.length || n > ys.length) throw new IllegalArgumentException("n > length");
+        return new PixelGridIndex(xs, ys, n, cellSizePx);
+    }
+
+    /** @return nombre de points indexés */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Cherche le point le plus proche dans un rayon donné.
+     *
+     * @param x      abscisse recherchée (px)
+     * @param y      ordonnée recherchée (px)
+     * @param radius rayon de recherche (px)
+     * @return la position du point le plus proche (la plus grande à distance égale),
+     *         ou {@code -1} si aucun point n’est dans le rayon
+     */
+    public int nearest(double x, double y, double radius) {
+        long minCol = cell(x - radius), maxCol = cell(x + radius);
+        long minRow = cell(y - radius), maxRow = cell(y + radius);
+        double bestD2 = radius * radius;
+        int best = -1;
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long k = minCol; k <= maxCol; k++) {
+                int c = cellIds.get(key(k, r));
+                if (c == LongIntHashMap.MISSING) continue;
+                for (int j = cellStart[c], end = cellStart[c + 1]; j < end; j++) {
+                    int i = items[j];
+                    double dx = xs[i] - x, dy = ys[i] - y;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 < bestD2 || (d2 == bestD2 && i > best)) {
+                        bestD2 = d2;
+                        best = i;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private long cell(double v) {
+        return (long) Math.floor(v / cellSizePx);
+    }
+
+    private static long key(long col, long row) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.dawanlocations.domain.spatial;
+
+/**
+ * Ensemble de points accessibles par position, sans objet par point.
+ *
+ * <p>
+ * Implémenté par les stockages en colonnes (voir
+ * {@link com.example.dawanlocations.domain.model.LocationStore}) pour que les index
+ * spatiaux puissent les parcourir sans allocation.
+ * </p>
+ */
+public interface PointSet {
+
+    /** @return nombre de points */
+    int size();
+
+    /**
+     * @param index position du point, dans {@code [0, size())}
+     * @return latitude du point
+     */
+    double latitude(int index);
+
+    /**
+     * @param index position du point, dans {@code [0, size())}
+     * @return longitude du point
+     */
+    double longitude(int index);
+}
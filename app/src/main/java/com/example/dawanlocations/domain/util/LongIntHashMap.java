@@ -0,0 +1,99 @@
+package com.example.dawanlocations.domain.util;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage {@code long → int} à adressage ouvert, sans boxing.
+ *
+ * <p>
+ * Sert aux chemins critiques (index id → position, regroupement par cellule) où une
+ * {@code HashMap<Long, Integer>} allouerait un objet par clé et par valeur.
+ * Les valeurs stockées doivent être positives ou nulles : {@link #MISSING} signale une clé absente.
+ * </p>
+ *
+ * <p>
+ * Non thread-safe pendant le remplissage ; une fois remplie, la table peut être lue
+ * par plusieurs threads si elle est publiée correctement (champ {@code final}, etc.).
+ * </p>
+ */
+public final class LongIntHashMap {
+
+    /** Valeur renvoyée par {@link #get(long)} pour une clé absente */
+    public static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    /** {@link #MISSING} = emplacement libre */
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize nombre de clés attendu (la table s’agrandit au besoin)
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key clé recherchée
+     * @return la valeur associée, ou {@link #MISSING}
+     */
+    public int get(long key) {
+        int slot = slot(key);
+        while (true) {
+            int v = values[slot];
+            if (v == MISSING || keys[slot] == key) return v;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associe une valeur à une clé (remplace la valeur existante).
+     *
+     * @param key   clé
+     * @param value valeur positive ou nulle
+     */
+    public void put(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("value < 0");
+        if (size + 1 > values.length * LOAD_FACTOR) rehash();
+        int slot = slot(key);
+        while (values[slot] != MISSING && keys[slot] != key) slot = (slot + 1) & mask;
+        if (values[slot] == MISSING) size++;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /** @return nombre de clés */
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(values.length * 2);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int min = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        return Integer.highestOneBit(Math.max(min - 1, 1)) << 1;
+    }
+}
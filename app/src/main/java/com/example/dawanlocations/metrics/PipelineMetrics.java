@@ -0,0 +1,225 @@
+package com.example.dawanlocations.metrics;
+
+import android.os.Trace;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Mesures de performance du chemin « rafraîchissement → markers affichés » (pattern Singleton).
+ *
+ * <p>
+ * Chaque étape ({@link Stage}) est chronométrée :
+ * <ul>
+ *     <li>par une {@link Span} ({@link #start(Stage)}), qui ouvre aussi une section
+ *     {@link Trace} visible dans Perfetto / Android Studio ;</li>
+ *     <li>ou, pour les étapes qui changent de thread, par {@link #record(Stage, long)}.</li>
+ * </ul>
+ * Pour chaque étape sont conservés le nombre de mesures et une distribution glissante
+ * ({@link RollingHistogram}) dont on tire p50, p95 et p99 ({@link StageStats}).
+ * </p>
+ *
+ * <p>
+ * Des {@link Listener} peuvent être branchés pour exporter les mesures (journal,
+ * superposition de débogage, outil externe). Les mesures peuvent être enregistrées
+ * depuis n’importe quel thread.
+ * </p>
+ */
+public final class PipelineMetrics {
+
+    /** Nombre de mesures conservées par étape pour le calcul des percentiles */
+    private static final int WINDOW = 256;
+
+    /**
+     * Étapes mesurées, dans l’ordre du pipeline.
+     */
+    public enum Stage {
+        /** Vérification de la connectivité réseau */
+        CONNECTIVITY("connectivity"),
+        /** Appel HTTP, jusqu’à la réception des en-têtes */
+        HTTP("http"),
+        /** Réception du corps de la réponse (copie locale, avant la transaction) */
+        DOWNLOAD("download"),
+        /** Analyse JSON en flux (lecture de la copie locale comprise, écritures en base exclues) */
+        PARSE("parse"),
+        /** Transaction Room de la synchronisation (analyse et écritures) */
+        DB_TRANSACTION("db-transaction"),
+        /** Conversion des entités en {@code LocationStore} ({@code LocationMappers}) */
+        MAPPING("mapping"),
+        /** Publication du {@code LiveData} jusqu’à la notification des observateurs */
+        DELIVERY("delivery"),
+        /** Calcul des clusters */
+        CLUSTERING("clustering"),
+        /** Mise à jour des markers de la carte ({@code renderMarkers}) */
+        RENDER("render");
+
+        /** Nom court (sections de trace, affichage) */
+        public final String label;
+        /** Nom de la section {@link Trace} */
+        final String traceName;
+
+        Stage(String label) {
+            this.label = label;
+            this.traceName = "Dawan:" + label;
+        }
+    }
+
+    /**
+     * Statistiques d’une étape à un instant donné (durées en nanosecondes).
+     */
+    public static final class StageStats {
+        public final Stage stage;
+        /** Nombre total de mesures */
+        public final long count;
+        /** Dernière durée mesurée */
+        public final long lastNanos;
+        public final long p50Nanos;
+        public final long p95Nanos;
+        public final long p99Nanos;
+
+        StageStats(Stage stage, long count, long lastNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+            this.stage = stage;
+            this.count = count;
+            this.lastNanos = lastNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        /** @return une ligne lisible, durées en millisecondes */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-14s n=%-4d last=%7.1f p50=%7.1f p95=%7.1f p99=%7.1f ms",
+                    stage.label, count, millis(lastNanos), millis(p50Nanos), millis(p95Nanos), millis(p99Nanos));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Reçoit chaque mesure enregistrée.
+     *
+     * <p>
+     * Appelé sur le thread qui a enregistré la mesure : l’implémentation doit être
+     * rapide et, si besoin, repasser elle-même sur le thread principal.
+     * </p>
+     */
+    public interface Listener {
+
+        /**
+         * @param stage         étape mesurée
+         * @param durationNanos durée de cette mesure
+         */
+        void onRecorded(Stage stage, long durationNanos);
+    }
+
+    /**
+     * Mesure en cours d’une étape, à fermer sur le thread qui l’a ouverte
+     * (de préférence via {@code try-with-resources}).
+     */
+    public final class Span implements AutoCloseable {
+        private final Stage stage;
+        private final long startNanos;
+
+        private Span(Stage stage) {
+            this.stage = stage;
+            Trace.beginSection(stage.traceName);
+            this.startNanos = System.nanoTime();
+        }
+
+        /** Termine la section de trace et enregistre la durée écoulée. */
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            Trace.endSection();
+            record(stage, elapsed);
+        }
+    }
+
+    private static volatile PipelineMetrics INSTANCE;
+
+    private final Map<Stage, RollingHistogram> histograms = new EnumMap<>(Stage.class);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    PipelineMetrics() {
+        for (Stage stage : Stage.values()) histograms.put(stage, new RollingHistogram(WINDOW));
+    }
+
+    /**
+     * Récupère l’instance unique (créée à la première utilisation).
+     *
+     * @return les mesures de l’application
+     */
+    public static PipelineMetrics get() {
+        if (INSTANCE == null) {
+            synchronized (PipelineMetrics.class) {
+                if (INSTANCE == null) INSTANCE = new PipelineMetrics();
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Commence la mesure d’une étape et ouvre la section {@link Trace} correspondante.
+     *
+     * @param stage étape mesurée
+     * @return la mesure en cours, à fermer sur le même thread
+     */
+    public Span start(Stage stage) {
+        return new Span(stage);
+    }
+
+    /**
+     * Enregistre une durée mesurée par l’appelant (étapes qui changent de thread).
+     *
+     * @param stage         étape mesurée
+     * @param durationNanos durée en nanosecondes
+     */
+    public void record(Stage stage, long durationNanos) {
+        histograms.get(stage).record(durationNanos);
+        for (Listener l : listeners) l.onRecorded(stage, durationNanos);
+    }
+
+    /**
+     * @param stage étape
+     * @return les statistiques courantes de l’étape
+     */
+    public StageStats stats(Stage stage) {
+        RollingHistogram h = histograms.get(stage);
+        long[] p = h.percentiles(50, 95, 99);
+        return new StageStats(stage, h.count(), h.last(), p[0], p[1], p[2]);
+    }
+
+    /**
+     * @return les statistiques des étapes déjà mesurées, dans l’ordre du pipeline
+     */
+    public List<StageStats> snapshot() {
+        List<StageStats> out = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            StageStats s = stats(stage);
+            if (s.count > 0) out.add(s);
+        }
+        return out;
+    }
+
+    /** @param listener listener à notifier de chaque mesure */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** @param listener listener à retirer */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Efface toutes les mesures (les listeners sont conservés). */
+    public void reset() {
+        for (RollingHistogram h : histograms.values()) h.clear();
+    }
+}
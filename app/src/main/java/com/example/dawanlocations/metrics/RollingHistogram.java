@@ -0,0 +1,88 @@
+package com.example.dawanlocations.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Distribution glissante de durées : conserve les {@code capacity} dernières mesures
+ * et en calcule les percentiles à la demande.
+ *
+ * <p>
+ * Les mesures sont rangées dans un tableau circulaire de {@code long} : l’enregistrement
+ * est en O(1) sans allocation ; seul le calcul des percentiles trie une copie de la
+ * fenêtre (quelques centaines de valeurs). Les anciennes mesures sortent de la fenêtre,
+ * si bien que les percentiles reflètent le comportement récent. Thread-safe.
+ * </p>
+ */
+public final class RollingHistogram {
+
+    private final long[] samples;
+    /** Position de la prochaine écriture */
+    private int next;
+    /** Nombre de mesures présentes dans la fenêtre (au plus {@code samples.length}) */
+    private int filled;
+    /** Nombre total de mesures depuis la création (ou le dernier {@link #clear()}) */
+    private long count;
+    /** Dernière mesure */
+    private long last;
+
+    /**
+     * @param capacity nombre de mesures conservées (au moins 1)
+     */
+    public RollingHistogram(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Ajoute une mesure (la plus ancienne sort de la fenêtre si elle est pleine).
+     *
+     * @param value durée mesurée
+     */
+    public synchronized void record(long value) {
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (filled < samples.length) filled++;
+        count++;
+        last = value;
+    }
+
+    /** @return nombre total de mesures enregistrées */
+    public synchronized long count() {
+        return count;
+    }
+
+    /** @return dernière mesure, ou {@code 0} si aucune */
+    public synchronized long last() {
+        return last;
+    }
+
+    /**
+     * Calcule plusieurs percentiles sur la fenêtre courante (rang le plus proche).
+     *
+     * @param percentiles percentiles demandés, entre 0 et 100
+     * @return les valeurs correspondantes, dans le même ordre ({@code 0} si aucune mesure)
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, filled);
+        }
+        Arrays.sort(sorted);
+        long[] out = new long[percentiles.length];
+        if (sorted.length == 0) return out;
+        for (int i = 0; i < percentiles.length; i++) {
+            double p = Math.max(0, Math.min(100, percentiles[i]));
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            out[i] = sorted[Math.max(0, rank - 1)];
+        }
+        return out;
+    }
+
+    /** Vide la fenêtre et remet les compteurs à zéro. */
+    public synchronized void clear() {
+        next = 0;
+        filled = 0;
+        count = 0;
+        last = 0;
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.dawanlocations.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.local.LocationDao;
+import com.example.dawanlocations.data.local.LocationDistanceRow;
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.domain.mapper.LocationMappers;
+import com.example.dawanlocations.domain.model.Location;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import kotlin.Unit;
+
+/**
+ * Source de pages (Paging 3) de la liste des centres, paginée par clé (keyset).
+ *
+ * <p>
+ * Chaque page est demandée à Room à partir de la clé de tri de la dernière ligne de la
+ * page voisine ({@link Key}) : la base ne lit que les lignes de la page, quelle que soit
+ * sa position dans la liste. Combinée à une {@code PagingConfig} bornée
+ * ({@code maxSize}), la mémoire utilisée reste constante, quelle que soit la taille
+ * de la table.
+ * </p>
+ *
+ * <p>
+ * Au premier chargement, la position de la page dans la liste et le nombre total de
+ * centres sont calculés (requêtes {@code COUNT} sur l’index) pour que la liste affiche
+ * des emplacements vides (placeholders) à la place des pages non encore chargées.
+ * </p>
+ *
+ * <p>
+ * La source est invalidée à chaque modification de la table {@code locations} ; la
+ * nouvelle source repart de l’élément visible ({@link #getRefreshKey}).
+ * Deux ordres sont disponibles : {@link #byCity} et {@link #byDistance}.
+ * </p>
+ */
+public abstract class LocationPagingSource extends ListenableFuturePagingSource<LocationPagingSource.Key, Location> {
+
+    /**
+     * Clé de tri d’un centre (position dans la liste) : une page commence strictement
+     * après (ou se termine strictement avant) cette clé.
+     */
+    public static final class Key {
+        /** Ville (ordre par ville) */
+        public final String city;
+        /** Nom (ordre par ville) */
+        public final String name;
+        /** Clé de distance (ordre par distance) */
+        public final double distance;
+        /** Identifiant, qui départage les égalités */
+        public final long id;
+
+        Key(String city, String name, double distance, long id) {
+            this.city = city;
+            this.name = name;
+            this.distance = distance;
+            this.id = id;
+        }
+    }
+
+    /** Centre lu en base, accompagné de sa clé de tri. */
+    static final class Row {
+        final Location location;
+        final Key key;
+
+        Row(Location location, Key key) {
+            this.location = location;
+            this.key = key;
+        }
+    }
+
+    private final AppDatabase db;
+    private final Executor executor;
+    private final InvalidationTracker.Observer observer;
+
+    /**
+     * @param db       base contenant les centres
+     * @param executor exécuteur des requêtes (thread disque)
+     */
+    LocationPagingSource(AppDatabase db, Executor executor) {
+        this.db = db;
+        this.executor = executor;
+        this.observer = new InvalidationTracker.Observer("locations") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        db.getInvalidationTracker().addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            db.getInvalidationTracker().removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Liste triée par ville, puis par nom, puis par id (index {@code (city, name, id)}).
+     *
+     * @param db       base contenant les centres
+     * @param executor exécuteur des requêtes (thread disque)
+     * @return une nouvelle source
+     */
+    static LocationPagingSource byCity(AppDatabase db, Executor executor) {
+        return new ByCity(db, executor);
+    }
+
+    /**
+     * Liste triée par distance croissante (approchée) à un point de référence.
+     *
+     * @param db        base contenant les centres
+     * @param executor  exécuteur des requêtes (thread disque)
+     * @param latitude  latitude du point de référence
+     * @param longitude longitude du point de référence
+     * @return une nouvelle source
+     */
+    static LocationPagingSource byDistance(AppDatabase db, Executor executor,
+                                           double latitude, double longitude) {
+        return new ByDistance(db, executor, latitude, longitude);
+    }
+
+    /** @return une clé située avant tous les centres */
+    abstract Key start();
+
+    /** @return une clé située juste avant {@code anchor} (qui sera donc la première ligne chargée) */
+    abstract Key justBefore(Location anchor);
+
+    /** @return au plus {@code limit} centres strictement après {@code key}, dans l’ordre de la liste */
+    abstract List<Row> after(Key key, int limit);
+
+    /** @return au plus {@code limit} centres strictement avant {@code key}, du plus proche au plus éloigné */
+    abstract List<Row> before(Key key, int limit);
+
+    /** @return le nombre de centres strictement avant {@code key} */
+    abstract int countBefore(Key key);
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, Location>> loadFuture(@NonNull LoadParams<Key> params) {
+        ListenableFutureTask<LoadResult<Key, Location>> task = ListenableFutureTask.create(() -> {
+            try {
+                return load(params);
+            } catch (RuntimeException e) {
+                return new LoadResult.Error<>(e);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Charge une page (sur l’exécuteur des requêtes).
+     *
+     * <ul>
+     *     <li>{@code Append} : les centres après la clé ;</li>
+     *     <li>{@code Prepend} : les centres avant la clé, remis dans l’ordre de la liste ;</li>
+     *     <li>{@code Refresh} : les centres à partir de la clé (ou du début), avec leur
+     *     position et le nombre de centres restants, dans une même transaction.</li>
+     * </ul>
+     */
+    private LoadResult<Key, Location> load(LoadParams<Key> params) {
+        int limit = params.getLoadSize();
+        Key key = params.getKey();
+
+        if (params instanceof LoadParams.Prepend) {
+            List<Row> rows = before(key, limit);
+            Collections.reverse(rows);
+            Key prev = rows.size() < limit ? null : rows.get(0).key;
+            return page(rows, prev, key, LoadResult.Page.COUNT_UNDEFINED, LoadResult.Page.COUNT_UNDEFINED);
+        }
+        if (params instanceof LoadParams.Append) {
+            List<Row> rows = after(key, limit);
+            Key next = rows.size() < limit ? null : rows.get(rows.size() - 1).key;
+            return page(rows, key, next, LoadResult.Page.COUNT_UNDEFINED, LoadResult.Page.COUNT_UNDEFINED);
+        }
+
+        return db.runInTransaction(() -> {
+            List<Row> rows = after(key != null ? key : start(), limit);
+            if (rows.isEmpty() && key != null) {
+                // L’élément d’ancrage et ceux qui le suivaient ont disparu : on repart du début
+                rows = after(start(), limit);
+            }
+            int total = db.locationDao().count();
+            int itemsBefore = rows.isEmpty() ? 0 : countBefore(rows.get(0).key);
+            int itemsAfter = Math.max(0, total - itemsBefore - rows.size());
+            Key prev = itemsBefore == 0 ? null : rows.get(0).key;
+            Key next = itemsAfter == 0 ? null : rows.get(rows.size() - 1).key;
+            return page(rows, prev, next, itemsBefore, itemsAfter);
+        });
+    }
+
+    private static LoadResult<Key, Location> page(List<Row> rows, Key prev, Key next,
+                                                  int itemsBefore, int itemsAfter) {
+        List<Location> data = new ArrayList<>(rows.size());
+        for (Row row : rows) data.add(row.location);
+        return new LoadResult.Page<>(data, prev, next, itemsBefore, itemsAfter);
+    }
+
+    /**
+     * Clé de rechargement après invalidation : la position de l’élément le plus proche
+     * de la zone visible, pour que la liste ne saute pas au début.
+     */
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, Location> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) return null;
+        Location item = state.closestItemToPosition(anchor);
+        return item != null ? justBefore(item) : null;
+    }
+
+    /** @return le {@link LocationDao} de la base */
+    LocationDao dao() {
+        return db.locationDao();
+    }
+
+    /**
+     * Ordre par ville, puis par nom, puis par id.
+     */
+    private static final class ByCity extends LocationPagingSource {
+
+        ByCity(AppDatabase db, Executor executor) {
+            super(db, executor);
+        }
+
+        @Override
+        Key start() {
+            return new Key(null, null, 0, Long.MIN_VALUE);
+        }
+
+        @Override
+        Key justBefore(Location anchor) {
+            return new Key(anchor.city, anchor.name, 0, anchor.id - 1L);
+        }
+
+        @Override
+        List<Row> after(Key key, int limit) {
+            return rows(dao().pageByCityAfter(key.city, key.name, key.id, limit));
+        }
+
+        @Override
+        List<Row> before(Key key, int limit) {
+            return rows(dao().pageByCityBefore(key.city, key.name, key.id, limit));
+        }
+
+        @Override
+        int countBefore(Key key) {
+            return dao().countByCityBefore(key.city, key.name, key.id);
+        }
+
+        private static List<Row> rows(List<LocationEntity> entities) {
+            List<Row> out = new ArrayList<>(entities.size());
+            for (LocationEntity e : entities) {
+                out.add(new Row(LocationMappers.toDomain(e), new Key(e.city, e.name, 0, e.id)));
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Ordre par distance (équirectangulaire) croissante, puis par id.
+     */
+    private static final class ByDistance extends LocationPagingSource {
+        private final double latitude;
+        private final double longitude;
+        /** Poids de l’écart de longitude : cos² de la latitude de référence */
+        private final double lonScale;
+
+        ByDistance(AppDatabase db, Executor executor, double latitude, double longitude) {
+            super(db, executor);
+            this.latitude = latitude;
+            this.longitude = longitude;
+            double cos = Math.cos(Math.toRadians(latitude));
+            this.lonScale = cos * cos;
+        }
+
+        @Override
+        Key start() {
+            return new Key(null, null, -1, Long.MIN_VALUE);
+        }
+
+        /**
+         * La clé est recalculée ici plutôt que relue en base : elle est abaissée d’un cran
+         * pour que l’élément d’ancrage soit inclus malgré d’éventuels écarts d’arrondi.
+         */
+        @Override
+        Key justBefore(Location anchor) {
+            double dLat = anchor.latitude - latitude;
+            double dLon = Math.abs(anchor.longitude - longitude);
+            dLon = Math.min(dLon, 360 - dLon);
+            double d = dLat * dLat + lonScale * dLon * dLon;
+            return new Key(null, null, Math.nextDown(d), Long.MIN_VALUE);
+        }
+
+        @Override
+        List<Row> after(Key key, int limit) {
+            return rows(dao().pageByDistanceAfter(latitude, longitude, lonScale, key.distance, key.id, limit));
+        }
+
+        @Override
+        List<Row> before(Key key, int limit) {
+            return rows(dao().pageByDistanceBefore(latitude, longitude, lonScale, key.distance, key.id, limit));
+        }
+
+        @Override
+        int countBefore(Key key) {
+            return dao().countByDistanceBefore(latitude, longitude, lonScale, key.distance, key.id);
+        }
+
+        private static List<Row> rows(List<LocationDistanceRow> found) {
+            List<Row> out = new ArrayList<>(found.size());
+            for (LocationDistanceRow r : found) {
+                out.add(new Row(LocationMappers.toDomain(r.location),
+                        new Key(null, null, r.distanceKey, r.location.id)));
+            }
+            return out;
+        }
+    }
+}
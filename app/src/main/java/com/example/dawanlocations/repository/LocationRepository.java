@@ -1,7 +1,10 @@
 package com.example.dawanlocations.repository;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
 import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.model.NearbyLocation;
 
 import java.util.List;
 
@@ -34,6 +37,69 @@ public interface LocationRepository {
      */
     LiveData<List<Location>> getLocations();
 
+    /**
+     * Retourne un flux observable des centres sous forme de {@link LocationStore}
+     * (colonnes primitives), à privilégier pour les traitements sur l’ensemble des centres
+     * (clustering, recherche spatiale, rendu).
+     *
+     * @return un {@link LiveData} du stockage courant
+     */
+    LiveData<LocationStore> getStore();
+
+    /**
+     * Recherche les {@code k} centres les plus proches d’une position.
+     *
+     * <p>
+     * La recherche s’appuie sur un index spatial (arbre k-d) construit à partir de
+     * l’instantané courant des centres ; elle est exécutée hors du thread principal
+     * et le résultat est remis sur le thread principal.
+     * </p>
+     *
+     * @param latitude  latitude de la position (degrés)
+     * @param longitude longitude de la position (degrés)
+     * @param k         nombre maximal de centres renvoyés
+     * @param callback  reçoit les centres triés par distance (haversine) croissante
+     */
+    void findNearest(double latitude, double longitude, int k, NearestCallback callback);
+
+    /**
+     * Recherche plein texte des centres (nom, adresse, ville, code postal).
+     *
+     * <p>
+     * Chaque mot saisi est cherché comme début de mot (recherche par préfixes) grâce à
+     * l’index FTS de la base ; les résultats sont classés par pertinence. La recherche
+     * est exécutée hors du thread principal et le résultat est remis sur le thread principal.
+     * </p>
+     *
+     * @param query    saisie de l’utilisateur
+     * @param limit    nombre maximal de résultats
+     * @param callback reçoit les centres, du plus pertinent au moins pertinent
+     */
+    void search(String query, int limit, SearchCallback callback);
+
+    /**
+     * Liste paginée des centres, triée par ville puis par nom.
+     *
+     * <p>
+     * Les pages sont lues en base à la demande (pagination par clé, voir
+     * {@link LocationPagingSource}) : seule une fenêtre bornée de centres est en mémoire,
+     * les autres positions étant représentées par des emplacements vides (placeholders).
+     * </p>
+     *
+     * @return un {@link Pager}, dont le flux est à mettre en cache par l’appelant (ViewModel)
+     */
+    Pager<LocationPagingSource.Key, Location> pageByCity();
+
+    /**
+     * Liste paginée des centres, du plus proche au plus éloigné d’un point de référence.
+     *
+     * @param latitude  latitude du point de référence
+     * @param longitude longitude du point de référence
+     * @return un {@link Pager}, dont le flux est à mettre en cache par l’appelant (ViewModel)
+     * @see #pageByCity()
+     */
+    Pager<LocationPagingSource.Key, Location> pageByDistance(double latitude, double longitude);
+
     /**
      * Rafraîchit les données en lançant une récupération asynchrone
      * depuis l’API distante, puis en mettant à jour la base locale.
@@ -53,6 +119,19 @@ public interface LocationRepository {
          */
         void onSuccess();
 
+        /**
+         * Appelé si la mise à jour a réussi, avec le bilan des lignes écrites.
+         *
+         * <p>
+         * Par défaut, délègue à {@link #onSuccess()}.
+         * </p>
+         *
+         * @param result nombre de lignes ajoutées, modifiées et supprimées
+         */
+        default void onSynced(SyncResult result) {
+            onSuccess();
+        }
+
         /**
          * Appelé si une erreur est survenue lors de la récupération
          * ou du traitement des données.
@@ -66,4 +145,26 @@ public interface LocationRepository {
          */
         void onOffline();
     }
+
+    /**
+     * Interface de rappel recevant le résultat de {@link #findNearest}.
+     */
+    interface NearestCallback {
+
+        /**
+         * @param results centres du plus proche au plus lointain (jamais {@code null})
+         */
+        void onResult(List<NearbyLocation> results);
+    }
+
+    /**
+     * Interface de rappel recevant le résultat de {@link #search}.
+     */
+    interface SearchCallback {
+
+        /**
+         * @param results centres trouvés, classés par pertinence (jamais {@code null})
+         */
+        void onResult(List<Location> results);
+    }
 }
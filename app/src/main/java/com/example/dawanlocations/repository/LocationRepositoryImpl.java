@@ -1,29 +1,50 @@
 package com.example.dawanlocations.repository;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Transformations;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.room.InvalidationTracker;
 
+import com.example.dawanlocations.AppExecutors;
 import com.example.dawanlocations.data.local.AppDatabase;
 import com.example.dawanlocations.data.local.LocationDao;
 import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.data.local.LocationFts;
+import com.example.dawanlocations.data.local.LocationSnapshotFile;
 import com.example.dawanlocations.data.remote.DawanApi;
+import com.example.dawanlocations.data.remote.LocationRemoteSource;
+import com.example.dawanlocations.data.remote.LocationStreamParser;
 import com.example.dawanlocations.data.remote.RetrofitClient;
-import com.example.dawanlocations.data.remote.model.LocationDto;
 import com.example.dawanlocations.domain.mapper.LocationMappers;
 import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.model.NearbyLocation;
+import com.example.dawanlocations.domain.spatial.Geo;
+import com.example.dawanlocations.domain.spatial.KdTree;
+import com.example.dawanlocations.metrics.PipelineMetrics;
+import com.example.dawanlocations.metrics.PipelineMetrics.Stage;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
 
-import retrofit2.Response;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
 
 /**
  * Implémentation concrète du {@link LocationRepository}.
@@ -38,37 +59,417 @@ import retrofit2.Response;
  * Elle orchestre la récupération, la persistance et l’exposition
  * des données de {@link Location} au reste de l’application.
  * </p>
+ *
+ * <p>
+ * Une seule instance existe par processus ({@link #getInstance(Context)}).
+ * Les rafraîchissements concurrents sont regroupés : un appel à
+ * {@link #refreshAsync(Callback)} arrivant pendant une récupération en cours
+ * s’y rattache au lieu d’en lancer une nouvelle.
+ * </p>
+ *
+ * <p>
+ * Les centres sont conservés dans un cache mémoire versionné ({@link LocationSnapshotCache}),
+ * sous forme de {@link LocationStore} en colonnes : un nouvel observateur (rotation,
+ * autre écran) les reçoit immédiatement, sans requête SQL ni conversion. Le cache est rechargé
+ * quand la table {@code locations} change, et vidé en cas de pression mémoire.
+ * </p>
+ *
+ * <p>
+ * Chaque nouvel instantané issu de Room est aussi enregistré dans un fichier binaire
+ * ({@link LocationSnapshotFile}). Au démarrage à froid, ce fichier est relu en premier :
+ * la carte peut afficher ses markers avant même l’ouverture de la base, qui reste
+ * ensuite la référence.
+ * </p>
  */
 public class LocationRepositoryImpl implements LocationRepository {
+    /** Nom du fichier d’instantané binaire (dans le répertoire {@code files} de l’application) */
+    private static final String SNAPSHOT_FILE_NAME = "locations.snapshot";
+    /** Taille d’une page de la liste des centres */
+    private static final int PAGE_SIZE = 50;
+    /** Distance (en éléments) au bord des données chargées à partir de laquelle la page suivante est demandée */
+    private static final int PREFETCH_DISTANCE = 50;
+    /** Nombre maximal de centres gardés en mémoire par la liste : les pages éloignées sont libérées */
+    private static final int MAX_LOADED_ITEMS = 300;
+
+    private final AppDatabase db;
     private final LocationDao dao;
-    private final DawanApi api;
-    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final LocationSynchronizer synchronizer;
+    private final AppExecutors executors;
     private final Context appContext;
+    /** Mesures des étapes du rafraîchissement */
+    private final PipelineMetrics metrics = PipelineMetrics.get();
+
+    /** Instance unique (pattern Singleton) */
+    private static volatile LocationRepositoryImpl INSTANCE;
+
+    /** Verrou protégeant {@link #refreshing} et {@link #pendingCallbacks} */
+    private final Object refreshLock = new Object();
+    /** {@code true} tant qu’un rafraîchissement est en cours */
+    private boolean refreshing;
+    /** Callbacks en attente du résultat du rafraîchissement en cours */
+    private final List<Callback> pendingCallbacks = new ArrayList<>();
+
+    /** Dernière liste connue des centres, partagée par tous les observateurs */
+    private final LocationSnapshotCache snapshots = new LocationSnapshotCache();
+    /** Flux unique exposé à l’UI, alimenté par {@link #snapshots} */
+    private final SnapshotLiveData store = new SnapshotLiveData();
+    /** Vue « liste de {@link Location} » de {@link #store}, pour le code qui en a besoin */
+    private final MediatorLiveData<List<Location>> locations = new MediatorLiveData<>();
+    /** Index des plus proches voisins, reconstruit à la demande pour chaque nouvel instantané */
+    private volatile NearestIndex nearestIndex;
+    /** Copie sur disque du dernier instantané, relue au démarrage à froid */
+    private final LocationSnapshotFile snapshotFile;
+
+    /**
+     * Récupère l’instance unique du repository (créée à la première utilisation).
+     *
+     * @param context contexte Android (le contexte applicatif est conservé)
+     * @return le repository partagé par toute l’application
+     */
+    public static LocationRepositoryImpl getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (LocationRepositoryImpl.class) {
+                if (INSTANCE == null) INSTANCE = new LocationRepositoryImpl(context);
+            }
+        }
+        return INSTANCE;
+    }
 
     /**
      * Construit un repository en initialisant la base locale et l’API distante.
      *
      * @param context contexte Android, utilisé pour obtenir la DB et vérifier la connectivité
      */
-    public LocationRepositoryImpl(Context context) {
+    private LocationRepositoryImpl(Context context) {
         this.appContext = context.getApplicationContext();
-        this.dao = AppDatabase.get(appContext).locationDao();
-        this.api = RetrofitClient.getInstance().create(DawanApi.class);
+        this.db = AppDatabase.get(appContext);
+        this.dao = db.locationDao();
+        Retrofit retrofit = RetrofitClient.getInstance(appContext);
+        Cache httpCache = ((OkHttpClient) retrofit.callFactory()).cache();
+        LocationRemoteSource remote = new LocationRemoteSource(retrofit.create(DawanApi.class), httpCache);
+        this.synchronizer = new LocationSynchronizer(db, remote, metrics, appContext.getCacheDir());
+        this.executors = AppExecutors.get();
+        this.snapshotFile = new LocationSnapshotFile(new File(appContext.getFilesDir(), SNAPSHOT_FILE_NAME));
+
+        // Recharge l’instantané à chaque modification de la table (sync, autre écrivain...)
+        db.getInvalidationTracker().addObserver(
+                new InvalidationTracker.Observer("locations") {
+                    @Override
+                    public void onInvalidated(@NonNull Set<String> tables) {
+                        if (snapshots.get() != null || store.hasObservers()) {
+                            reloadSnapshot(true);
+                        } else {
+                            // Personne ne lit la liste : on invalide juste le fichier, régénéré au prochain démarrage
+                            executors.disk().execute(snapshotFile::delete);
+                        }
+                    }
+                });
+        appContext.registerComponentCallbacks(new MemoryPressureCallbacks());
+        locations.addSource(store, s -> locations.setValue(s != null ? s.asList() : null));
     }
 
     /**
-     * Retourne un flux {@link LiveData} observant les entités locales.
+     * Retourne le flux {@link LiveData} (unique pour tout le processus) des centres,
+     * vus comme une liste de {@link Location}.
      *
      * <p>
-     * Les entités sont transformées en objets de domaine {@link Location}
-     * grâce au mapper {@link LocationMappers}.
+     * La liste est une vue sur le {@link LocationStore} courant : chaque élément n’est
+     * matérialisé qu’au moment où il est lu.
      * </p>
      *
      * @return un {@link LiveData} contenant la liste des {@link Location}
      */
     @Override
     public LiveData<List<Location>> getLocations() {
-        return Transformations.map(dao.getAllLive(), LocationMappers::toDomainList);
+        return locations;
+    }
+
+    /**
+     * Retourne le flux {@link LiveData} (unique pour tout le processus) du stockage des centres.
+     *
+     * <p>
+     * Un observateur qui s’abonne reçoit aussitôt l’instantané en cache s’il existe ;
+     * sinon, les entités sont lues sur le thread disque et converties en
+     * {@link LocationStore} grâce au mapper {@link LocationMappers}.
+     * </p>
+     *
+     * @return un {@link LiveData} du {@link LocationStore} courant
+     */
+    @Override
+    public LiveData<LocationStore> getStore() {
+        return store;
+    }
+
+    /**
+     * Premier chargement (cache mémoire vide) : sert d’abord le fichier d’instantané
+     * s’il est valide, puis relit Room qui fait foi.
+     *
+     * <p>
+     * Le fichier est lu sur un thread de calcul et non sur le thread disque : celui-ci
+     * peut être occupé à ouvrir Room (et à migrer la base) pour une tâche déjà en file,
+     * comme la vérification du {@code SyncScheduler}. Le fichier est remplacé par
+     * renommage atomique, sa lecture ne gêne donc pas une écriture en cours. Si Room a
+     * déjà publié un instantané entre-temps, celui du fichier (plus ancien) est ignoré.
+     * </p>
+     */
+    private void loadSnapshot() {
+        executors.compute().execute(() -> {
+            if (snapshots.get() != null) return;
+            LocationStore fromFile = snapshotFile.read();
+            if (fromFile != null) {
+                LocationSnapshotCache.Snapshot published = snapshots.publishIfEmpty(fromFile);
+                if (published != null) store.deliver(published.store);
+            }
+            // Fichier absent ou corrompu : on le régénère à partir de Room
+            reloadSnapshot(fromFile == null);
+        });
+    }
+
+    /**
+     * Relit la table {@code locations} sur le thread disque et publie un nouvel instantané.
+     *
+     * @param persist {@code true} pour réécrire aussi le fichier d’instantané
+     */
+    private void reloadSnapshot(boolean persist) {
+        executors.disk().execute(() -> readFromRoom(persist));
+    }
+
+    /**
+     * Lit la table, publie l’instantané et, si demandé, l’enregistre sur disque
+     * (à appeler sur le thread disque).
+     *
+     * <p>
+     * La conversion des entités est faite ici, hors du thread principal (répartie sur
+     * les threads de calcul pour les grandes tables) ; seul le résultat est posté à l’UI.
+     * Si le contenu est identique à l’instantané courant (synchronisation sans changement,
+     * relecture de Room après le fichier au démarrage), rien n’est publié : les
+     * observateurs ne recalculent ni clusters ni markers pour rien.
+     * </p>
+     *
+     * @param persist {@code true} pour réécrire aussi le fichier d’instantané
+     * @return l’instantané publié (ou l’instantané courant, inchangé)
+     */
+    private LocationSnapshotCache.Snapshot readFromRoom(boolean persist) {
+        List<LocationEntity> entities = dao.getAll();
+        LocationStore fresh;
+        try (PipelineMetrics.Span ignored = metrics.start(Stage.MAPPING)) {
+            fresh = LocationMappers.toStore(entities, executors.compute());
+        }
+        LocationSnapshotCache.Snapshot current = snapshots.get();
+        if (current != null && current.store.contentEquals(fresh)) return current;
+
+        LocationSnapshotCache.Snapshot snapshot = snapshots.publish(fresh);
+        store.deliver(snapshot.store);
+        if (!persist) return snapshot;
+        try {
+            snapshotFile.write(snapshot.store);
+        } catch (IOException e) {
+            // Sans instantané, le prochain démarrage lira simplement Room
+            snapshotFile.delete();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Recherche les centres les plus proches grâce à un arbre k-d ({@link KdTree}).
+     *
+     * <p>
+     * L’arbre est construit (une fois par instantané) puis interrogé sur le thread de calcul ;
+     * si aucun instantané n’est en mémoire, les centres sont d’abord relus depuis Room.
+     * Le résultat est remis au callback sur le thread principal.
+     * </p>
+     */
+    @Override
+    public void findNearest(double latitude, double longitude, int k, NearestCallback callback) {
+        LocationSnapshotCache.Snapshot snapshot = snapshots.get();
+        if (snapshot == null) {
+            executors.disk().execute(() -> {
+                LocationStore loaded = readFromRoom(false).store;
+                executors.compute().execute(() -> searchNearest(loaded, latitude, longitude, k, callback));
+            });
+        } else {
+            executors.compute().execute(() -> searchNearest(snapshot.store, latitude, longitude, k, callback));
+        }
+    }
+
+    /**
+     * Interroge l’index du stockage donné et convertit les positions trouvées en
+     * {@link NearbyLocation} (à appeler sur le thread de calcul).
+     */
+    private void searchNearest(LocationStore current, double latitude, double longitude, int k,
+                               NearestCallback callback) {
+        NearestIndex index = nearestIndex;
+        if (index == null || index.store != current) {
+            index = new NearestIndex(current, KdTree.build(current));
+            nearestIndex = index;
+        }
+
+        int[] hits = index.tree.nearest(latitude, longitude, k);
+        List<NearbyLocation> out = new ArrayList<>(hits.length);
+        for (int i : hits) {
+            double d = Geo.haversineMeters(latitude, longitude, current.latitude(i), current.longitude(i));
+            out.add(new NearbyLocation(current.get(i), d));
+        }
+        // Même ordre que la corde, mais on trie sur la distance renvoyée (arrondis flottants)
+        Collections.sort(out, (a, b) -> Double.compare(a.distanceMeters, b.distanceMeters));
+        executors.mainThread().execute(() -> callback.onResult(out));
+    }
+
+    /**
+     * Recherche plein texte via l’index FTS ({@link LocationDao#search}) sur l’exécuteur
+     * de requêtes de Room.
+     *
+     * <p>
+     * Pas sur le thread disque : une frappe n’attend ni l’écriture de l’instantané
+     * (plusieurs Mo) ni la lecture complète de la table. Room exécute ses requêtes sur
+     * un pool de threads, et les lectures ne sont pas bloquées par la synchronisation
+     * (journal WAL).
+     * </p>
+     *
+     * <p>
+     * Toutes les correspondances sont notées ({@link LocationFts#rank}) à partir de leur
+     * seul {@code matchinfo} ; seuls les {@code limit} centres retenus sont ensuite lus
+     * en entier. Le classement ne dépend donc pas de l’ordre (arbitraire) dans lequel
+     * SQLite renvoie les correspondances.
+     * </p>
+     */
+    @Override
+    public void search(String query, int limit, SearchCallback callback) {
+        String match = LocationFts.toMatchQuery(query);
+        if (match == null || limit <= 0) {
+            executors.mainThread().execute(() -> callback.onResult(Collections.emptyList()));
+            return;
+        }
+        db.getQueryExecutor().execute(() -> {
+            int[] ranked = LocationFts.rank(dao.search(match), limit);
+            List<Integer> ids = new ArrayList<>(ranked.length);
+            for (int id : ranked) ids.add(id);
+
+            Map<Integer, LocationEntity> byId = new HashMap<>(ranked.length * 2);
+            for (int i = 0; i < ids.size(); i += LocationSyncWriter.MAX_SQL_PARAMS) {
+                List<Integer> chunk = ids.subList(i, Math.min(i + LocationSyncWriter.MAX_SQL_PARAMS, ids.size()));
+                for (LocationEntity e : dao.getByIds(chunk)) byId.put(e.id, e);
+            }
+            List<Location> out = new ArrayList<>(ranked.length);
+            for (int id : ranked) {
+                LocationEntity e = byId.get(id);
+                if (e != null) out.add(LocationMappers.toDomain(e)); // supprimé entre les deux lectures
+            }
+            executors.mainThread().execute(() -> callback.onResult(out));
+        });
+    }
+
+    /**
+     * Liste paginée par ville : chaque invalidation de la table produit une nouvelle
+     * {@link LocationPagingSource}, interrogée sur le thread disque.
+     */
+    @Override
+    public Pager<LocationPagingSource.Key, Location> pageByCity() {
+        return new Pager<>(pagingConfig(), () -> LocationPagingSource.byCity(db, executors.disk()));
+    }
+
+    /**
+     * Liste paginée par distance (voir {@link #pageByCity()}).
+     */
+    @Override
+    public Pager<LocationPagingSource.Key, Location> pageByDistance(double latitude, double longitude) {
+        return new Pager<>(pagingConfig(),
+                () -> LocationPagingSource.byDistance(db, executors.disk(), latitude, longitude));
+    }
+
+    /**
+     * Configuration commune des listes paginées : pages de {@code PAGE_SIZE} centres,
+     * préchargement à {@code PREFETCH_DISTANCE} éléments du bord, emplacements vides
+     * (placeholders) pour les positions non chargées, et au plus {@code MAX_LOADED_ITEMS}
+     * centres en mémoire.
+     */
+    private static PagingConfig pagingConfig() {
+        return new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, true, 2 * PAGE_SIZE, MAX_LOADED_ITEMS);
+    }
+
+    /**
+     * Arbre k-d associé au stockage à partir duquel il a été construit.
+     */
+    private static final class NearestIndex {
+        final LocationStore store;
+        final KdTree tree;
+
+        NearestIndex(LocationStore store, KdTree tree) {
+            this.store = store;
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * {@link LiveData} servant l’instantané en cache dès qu’un observateur devient actif.
+     */
+    private final class SnapshotLiveData extends LiveData<LocationStore> {
+        @Override
+        protected void onActive() {
+            LocationSnapshotCache.Snapshot snapshot = snapshots.get();
+            if (snapshot == null) {
+                loadSnapshot();
+            } else if (getValue() != snapshot.store) {
+                setValue(snapshot.store);
+            }
+        }
+
+        /** Instant ({@link System#nanoTime()}) de la dernière publication en attente, {@code 0} sinon */
+        private volatile long postedAt;
+
+        /** Publie un nouveau stockage (depuis n’importe quel thread). */
+        void deliver(LocationStore value) {
+            postedAt = System.nanoTime();
+            postValue(value);
+        }
+
+        /** Mesure le délai entre la publication et la notification des observateurs. */
+        @Override
+        protected void setValue(LocationStore value) {
+            long posted = postedAt;
+            postedAt = 0;
+            super.setValue(value);
+            if (posted != 0) metrics.record(Stage.DELIVERY, System.nanoTime() - posted);
+        }
+
+        /** Libère le stockage détenu par le {@link LiveData} (thread principal uniquement). */
+        void release() {
+            setValue(null);
+        }
+    }
+
+    /**
+     * Vide le cache mémoire quand le système manque de mémoire.
+     *
+     * <p>
+     * Si aucun écran n’observe la liste, celle-ci est aussi libérée du {@link LiveData} :
+     * elle sera rechargée depuis Room au prochain abonnement.
+     * </p>
+     */
+    private final class MemoryPressureCallbacks implements ComponentCallbacks2 {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW
+                    || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+                dropSnapshot();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            dropSnapshot();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            // sans objet
+        }
+
+        private void dropSnapshot() {
+            snapshots.clear();
+            nearestIndex = null;
+            if (!store.hasActiveObservers()) store.release();
+        }
     }
 
     /**
@@ -79,40 +480,88 @@ public class LocationRepositoryImpl implements LocationRepository {
      * <ol>
      *     <li>Vérifie d’abord la connectivité avec {@link #isOnline()}.</li>
      *     <li>Si offline → callback.onOffline().</li>
-     *     <li>Sinon, exécute un appel Retrofit synchrone à {@link DawanApi#getLocations()}.</li>
-     *     <li>Si succès → mappe les DTO en entités Room, puis insère en transaction.</li>
+     *     <li>Sinon, délègue au {@link LocationSynchronizer} : changements depuis le curseur
+     *     enregistré (lignes modifiées et supprimées), ou ensemble des centres si aucun curseur
+     *     n’est valide ; à défaut d’API de changements, requête conditionnelle sur la liste complète
+     *     (ni analyse JSON ni transaction sur {@code 304 Not Modified}, sauf base locale vide).</li>
+     *     <li>Si succès → la réponse est analysée en flux ({@link LocationStreamParser}) et,
+     *     dans une transaction, chaque lot est comparé aux lignes stockées (par id et empreinte
+     *     de contenu) pour n’écrire que les différences ({@link LocationSyncWriter}).</li>
      *     <li>Sinon → signale l’erreur au callback.</li>
      * </ol>
      * </p>
      *
+     * <p>
+     * Si un rafraîchissement est déjà en cours, le callback est simplement ajouté
+     * à la liste des destinataires de son résultat (single-flight).
+     * </p>
+     *
      * @param callback interface de rappel notifiant succès, erreur ou hors-ligne
      */
     @Override
     public void refreshAsync(Callback callback) {
-        io.execute(() -> {
-            if (!isOnline()) {
-                if (callback != null) callback.onOffline();
-                return;
+        synchronized (refreshLock) {
+            if (callback != null) pendingCallbacks.add(callback);
+            if (refreshing) return;
+            refreshing = true;
+        }
+        executors.network().execute(() -> doRefresh(new Callback() {
+            @Override public void onSuccess() { onSynced(SyncResult.NOT_MODIFIED); }
+            @Override public void onSynced(SyncResult result) {
+                for (Callback cb : drainCallbacks()) cb.onSynced(result);
             }
-            try {
-                Response<List<LocationDto>> res = api.getLocations().execute();
-                if (res.isSuccessful() && res.body() != null) {
-                    List<LocationEntity> entities = new ArrayList<>();
-                    for (LocationDto dto : res.body()) {
-                        entities.add(LocationMappers.toEntity(dto));
-                    }
-                    AppDatabase.get(appContext).runInTransaction(() -> {
-                        dao.clear();
-                        dao.insertAll(entities);
-                    });
-                    if (callback != null) callback.onSuccess();
-                } else {
-                    if (callback != null) callback.onError(new IOException("HTTP " + res.code()));
-                }
-            } catch (Exception e) {
-                if (callback != null) callback.onError(e);
+            @Override public void onError(Throwable t) {
+                for (Callback cb : drainCallbacks()) cb.onError(t);
             }
-        });
+            @Override public void onOffline() {
+                for (Callback cb : drainCallbacks()) cb.onOffline();
+            }
+        }));
+    }
+
+    /**
+     * Termine le rafraîchissement en cours et retourne les callbacks à notifier.
+     *
+     * @return les callbacks enregistrés pendant ce rafraîchissement
+     */
+    private List<Callback> drainCallbacks() {
+        synchronized (refreshLock) {
+            List<Callback> out = new ArrayList<>(pendingCallbacks);
+            pendingCallbacks.clear();
+            refreshing = false;
+            return out;
+        }
+    }
+
+    /**
+     * Effectue réellement le rafraîchissement (sur le thread réseau).
+     *
+     * <p>
+     * Toute erreur, y compris hors de la synchronisation (vérification de la connectivité)
+     * ou de type {@link Error}, est signalée au callback : c’est lui qui termine le
+     * rafraîchissement ({@link #drainCallbacks()}), sans quoi les suivants seraient
+     * ignorés jusqu’au redémarrage de l’application.
+     * </p>
+     *
+     * @param callback callback notifié exactement une fois
+     */
+    private void doRefresh(Callback callback) {
+        SyncResult result;
+        try {
+            boolean online;
+            try (PipelineMetrics.Span ignored = metrics.start(Stage.CONNECTIVITY)) {
+                online = isOnline();
+            }
+            if (!online) {
+                callback.onOffline();
+                return;
+            }
+            result = synchronizer.sync();
+        } catch (Throwable t) {
+            callback.onError(t);
+            return;
+        }
+        callback.onSynced(result);
     }
 
     /**
@@ -0,0 +1,76 @@
+package com.example.dawanlocations.repository;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache mémoire, partagé par tout le processus, de la dernière liste de {@link Location} connue.
+ *
+ * <p>
+ * Les centres y sont conservés sous forme de {@link LocationStore} (colonnes primitives).
+ * Chaque {@link Snapshot} est immuable et porte un numéro de version croissant.
+ * Un nouvel instantané remplace l’ancien de façon atomique : un lecteur voit
+ * toujours une liste complète et cohérente, sans verrou.
+ * </p>
+ */
+final class LocationSnapshotCache {
+
+    /**
+     * Instantané immuable et versionné de la liste des centres.
+     */
+    static final class Snapshot {
+        /** Numéro de version (strictement croissant au sein du processus) */
+        final long version;
+        /** Centres (stockage immuable) */
+        final LocationStore store;
+
+        Snapshot(long version, LocationStore store) {
+            this.version = version;
+            this.store = store;
+        }
+    }
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * @return l’instantané courant, ou {@code null} si le cache est vide
+     */
+    Snapshot get() {
+        return current.get();
+    }
+
+    /**
+     * Remplace atomiquement l’instantané courant.
+     *
+     * @param store nouveaux centres
+     * @return le nouvel instantané
+     */
+    Snapshot publish(LocationStore store) {
+        Snapshot s = new Snapshot(versions.incrementAndGet(), store);
+        current.set(s);
+        return s;
+    }
+
+    /**
+     * Publie un instantané seulement si le cache est vide (instantané lu sur disque,
+     * qui ne doit pas remplacer une lecture de Room plus récente).
+     *
+     * @param store centres à publier
+     * @return le nouvel instantané, ou {@code null} si le cache n’était pas vide
+     */
+    Snapshot publishIfEmpty(LocationStore store) {
+        Snapshot s = new Snapshot(versions.incrementAndGet(), store);
+        return current.compareAndSet(null, s) ? s : null;
+    }
+
+    /**
+     * Vide le cache (pression mémoire) ; le prochain lecteur rechargera depuis Room.
+     */
+    void clear() {
+        current.set(null);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.dawanlocations.repository;
+
+import com.example.dawanlocations.data.local.LocationDao;
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.data.remote.LocationStreamParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Écrit de façon incrémentale, lot par lot, les {@link LocationEntity} reçues de l’API.
+ *
+ * <p>
+ * Pour chaque lot fourni par le {@link LocationStreamParser} :
+ * <ul>
+ *     <li>les lignes existantes de même identifiant sont lues via {@link LocationDao#getByIds(List)},</li>
+ *     <li>les entités absentes sont insérées,</li>
+ *     <li>celles dont l’empreinte de contenu ({@link #contentHash(LocationEntity)}) diffère sont mises à jour,</li>
+ *     <li>les autres sont ignorées (aucune écriture).</li>
+ * </ul>
+ * À la fin ({@link #finish()}), les lignes dont l’identifiant n’a pas été reçu sont supprimées.
+ * Seuls les identifiants sont conservés entre deux lots : la mémoire reste bornée.
+ * </p>
+ *
+ * <p>
+ * Pour une synchronisation par différences, {@link #finishChanges(int[])} remplace
+ * {@link #finish()} : seules les lignes désignées comme supprimées par le serveur
+ * disparaissent, les lignes non mentionnées restent inchangées.
+ * </p>
+ *
+ * <p>
+ * Toutes les méthodes doivent être appelées dans une même transaction Room.
+ * </p>
+ */
+final class LocationSyncWriter implements LocationStreamParser.BatchConsumer {
+
+    /** Nombre maximal d’identifiants par requête {@code ... IN (...)} */
+    static final int MAX_SQL_PARAMS = 900;
+
+    private final LocationDao dao;
+    private final List<LocationEntity> toInsert = new ArrayList<>();
+    private final List<LocationEntity> toUpdate = new ArrayList<>();
+    private final List<Integer> batchIds = new ArrayList<>();
+    private int[] seenIds = new int[256];
+    private int seenCount;
+    private int added, changed;
+    /** Empreinte cumulée (dans l’ordre de réception) de tout le contenu reçu */
+    private long payloadHash = 1;
+
+    LocationSyncWriter(LocationDao dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public void accept(List<LocationEntity> batch) {
+        batchIds.clear();
+        for (LocationEntity e : batch) batchIds.add(e.id);
+
+        Map<Integer, Long> storedHashes = new HashMap<>(batch.size() * 2);
+        for (int i = 0; i < batchIds.size(); i += MAX_SQL_PARAMS) {
+            List<Integer> chunk = batchIds.subList(i, Math.min(i + MAX_SQL_PARAMS, batchIds.size()));
+            for (LocationEntity stored : dao.getByIds(chunk)) {
+                storedHashes.put(stored.id, contentHash(stored));
+            }
+        }
+
+        toInsert.clear();
+        toUpdate.clear();
+        for (LocationEntity e : batch) {
+            long hash = contentHash(e);
+            payloadHash = 31 * payloadHash + hash;
+            Long stored = storedHashes.get(e.id);
+            if (stored == null) {
+                toInsert.add(e);
+            } else if (stored != hash) {
+                toUpdate.add(e);
+            }
+            markSeen(e.id);
+        }
+        if (!toInsert.isEmpty()) dao.insertAll(toInsert);
+        if (!toUpdate.isEmpty()) dao.updateAll(toUpdate);
+        added += toInsert.size();
+        changed += toUpdate.size();
+    }
+
+    /**
+     * Supprime les lignes absentes de la réponse et retourne le bilan.
+     *
+     * @return le nombre de lignes ajoutées, modifiées et supprimées
+     */
+    SyncResult finish() {
+        int[] seen = Arrays.copyOf(seenIds, seenCount);
+        Arrays.sort(seen);
+
+        List<Integer> toDelete = new ArrayList<>();
+        for (int id : dao.getAllIds()) {
+            if (Arrays.binarySearch(seen, id) < 0) toDelete.add(id);
+        }
+        for (int i = 0; i < toDelete.size(); i += MAX_SQL_PARAMS) {
+            dao.deleteByIds(toDelete.subList(i, Math.min(i + MAX_SQL_PARAMS, toDelete.size())));
+        }
+        return new SyncResult(added, changed, toDelete.size(), payloadHash);
+    }
+
+    /**
+     * Termine une synchronisation par différences : supprime les identifiants reçus
+     * comme supprimés (« tombstones »), après les écritures des lots, et retourne le bilan.
+     *
+     * @param deletedIds identifiants supprimés côté serveur (éventuellement inconnus localement)
+     * @return le nombre de lignes ajoutées, modifiées et réellement supprimées
+     */
+    SyncResult finishChanges(int[] deletedIds) {
+        List<Integer> ids = new ArrayList<>(deletedIds.length);
+        for (int id : deletedIds) ids.add(id);
+        int removed = 0;
+        for (int i = 0; i < ids.size(); i += MAX_SQL_PARAMS) {
+            removed += dao.deleteByIds(ids.subList(i, Math.min(i + MAX_SQL_PARAMS, ids.size())));
+        }
+        return new SyncResult(added, changed, removed, payloadHash);
+    }
+
+    private void markSeen(int id) {
+        if (seenCount == seenIds.length) seenIds = Arrays.copyOf(seenIds, seenCount * 2);
+        seenIds[seenCount++] = id;
+    }
+
+    /**
+     * Calcule une empreinte 64 bits (FNV-1a) du contenu d’une entité, identifiant inclus.
+     *
+     * @param e entité à hacher
+     * @return l’empreinte du contenu
+     */
+    static long contentHash(LocationEntity e) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, e.id);
+        h = mix(h, e.name);
+        h = mix(h, e.address);
+        h = mix(h, e.city);
+        h = mix(h, e.postalCode);
+        h = mix(h, Double.doubleToLongBits(e.latitude));
+        h = mix(h, Double.doubleToLongBits(e.longitude));
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (v >>> (i * 8)) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h, String s) {
+        if (s == null) return mix(h, -1L);
+        h = mix(h, s.length());
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.dawanlocations.repository;
+
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.local.LocationDao;
+import com.example.dawanlocations.data.local.SyncMetadataDao;
+import com.example.dawanlocations.data.local.SyncMetadataEntity;
+import com.example.dawanlocations.data.remote.LocationRemoteSource;
+import com.example.dawanlocations.data.remote.LocationStreamParser;
+import com.example.dawanlocations.metrics.PipelineMetrics;
+import com.example.dawanlocations.metrics.PipelineMetrics.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Synchronise la table {@code locations} avec l’API (sur le thread réseau).
+ *
+ * <p>
+ * Stratégie :
+ * <ol>
+ *     <li>Si un curseur est enregistré ({@link SyncMetadataEntity#cursor}), seuls les
+ *     changements depuis ce curseur sont demandés : lignes modifiées écrites lot par lot,
+ *     puis suppression des identifiants signalés supprimés (« tombstones »).</li>
+ *     <li>Sans curseur (première synchronisation, base vide), ou si le serveur rejette
+ *     le curseur, la même API renvoie l’ensemble des centres : les lignes absentes
+ *     de la réponse sont supprimées, comme lors d’une synchronisation complète.</li>
+ *     <li>Si le serveur n’expose pas l’API de changements, la liste complète est
+ *     téléchargée par requête conditionnelle (ETag). Ce constat est enregistré
+ *     ({@link SyncMetadataEntity#changesUnsupportedAt}) : l’API n’est de nouveau essayée
+ *     qu’une fois {@code CHANGES_RETRY_INTERVAL_MS} écoulé, y compris après un redémarrage.</li>
+ * </ol>
+ * Les écritures et le nouveau curseur sont enregistrés dans une même transaction :
+ * un curseur n’est jamais conservé sans les changements qu’il couvre.
+ * </p>
+ *
+ * <p>
+ * Le corps de chaque réponse est d’abord copié dans un fichier temporaire
+ * ({@link LocationRemoteSource.FetchResult#spool}), hors transaction : la transaction
+ * n’est ouverte qu’une fois la réponse entièrement reçue, et ne dure que le temps de
+ * l’analyse et des écritures depuis ce fichier. Un réseau lent ne retient donc pas le
+ * verrou d’écriture de la base (ni ne retarde le point de contrôle du journal WAL).
+ * La mémoire reste bornée par la taille des lots, quelle que soit la taille de la réponse.
+ * </p>
+ *
+ * <p>
+ * Appliquer deux fois les mêmes changements ne modifie rien (comparaison par empreinte,
+ * suppression d’identifiants déjà absents) : repartir d’un curseur un peu ancien est sans risque.
+ * </p>
+ */
+final class LocationSynchronizer {
+
+    /** Taille des lots d’entités écrits en base pendant l’analyse en flux */
+    private static final int SYNC_BATCH_SIZE = 500;
+    /** Délai avant de réessayer l’API de changements après l’avoir constatée absente */
+    static final long CHANGES_RETRY_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final AppDatabase db;
+    private final LocationDao dao;
+    private final SyncMetadataDao metadataDao;
+    private final LocationRemoteSource remote;
+    private final PipelineMetrics metrics;
+    /** Répertoire des copies temporaires des réponses */
+    private final File spoolDir;
+    /** Horloge (ms epoch) */
+    private final LongSupplier clock;
+
+    /**
+     * @param db      base locale (tables {@code locations} et {@code sync_metadata})
+     * @param remote  source distante
+     * @param metrics  mesures des étapes de la synchronisation
+     * @param spoolDir répertoire des copies temporaires des réponses (ex. répertoire de cache)
+     */
+    LocationSynchronizer(AppDatabase db, LocationRemoteSource remote, PipelineMetrics metrics, File spoolDir) {
+        this(db, remote, metrics, spoolDir, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock horloge (ms epoch), remplaçable dans les tests
+     */
+    LocationSynchronizer(AppDatabase db, LocationRemoteSource remote, PipelineMetrics metrics, File spoolDir,
+                         LongSupplier clock) {
+        this.db = db;
+        this.dao = db.locationDao();
+        this.metadataDao = db.syncMetadataDao();
+        this.remote = remote;
+        this.metrics = metrics;
+        this.spoolDir = spoolDir;
+        this.clock = clock;
+    }
+
+    /**
+     * Effectue une synchronisation.
+     *
+     * @return le bilan des écritures ({@link SyncResult#NOT_MODIFIED} si rien n’a changé
+     * d’après une requête conditionnelle)
+     * @throws Exception en cas d’erreur réseau, HTTP, d’analyse ou d’écriture
+     */
+    SyncResult sync() throws Exception {
+        // Base vide (première installation, données effacées) : il faut tout recevoir
+        boolean hasLocalData = dao.count() > 0;
+        SyncMetadataEntity meta = metadataDao.get(SyncMetadataEntity.KEY_LOCATIONS);
+        long unsupportedAt = meta != null ? meta.changesUnsupportedAt : 0;
+        long now = clock.getAsLong();
+        // API absente lors d’un essai récent : inutile de la redemander (sauf horloge modifiée)
+        boolean changesRetry = unsupportedAt == 0 || now < unsupportedAt
+                || now - unsupportedAt >= CHANGES_RETRY_INTERVAL_MS;
+        if (changesRetry) {
+            try {
+                return syncChanges(hasLocalData, meta);
+            } catch (LocationRemoteSource.ChangesUnsupportedException e) {
+                saveChangesUnsupportedAt(now);
+            }
+        }
+        return syncFull(hasLocalData);
+    }
+
+    /**
+     * Synchronisation par l’API de changements, avec repli sur une réponse complète
+     * si le curseur est rejeté.
+     */
+    private SyncResult syncChanges(boolean hasLocalData, SyncMetadataEntity meta) throws Exception {
+        String cursor = hasLocalData && meta != null ? meta.cursor : null;
+        boolean wasUnsupported = meta != null && meta.changesUnsupportedAt != 0;
+        try {
+            return applyChanges(cursor, wasUnsupported);
+        } catch (LocationRemoteSource.CursorRejectedException e) {
+            // Le curseur ne sera plus présenté, même si la synchronisation complète échoue
+            metadataDao.updateCursor(SyncMetadataEntity.KEY_LOCATIONS, null);
+            return applyChanges(null, wasUnsupported);
+        }
+    }
+
+    /**
+     * Demande les changements depuis {@code cursor} et les applique en une transaction,
+     * avec le nouveau curseur et, si besoin, l’effacement du constat d’absence de l’API.
+     *
+     * @param cursor         curseur à présenter, ou {@code null} pour recevoir tous les centres
+     * @param wasUnsupported {@code true} si l’API était enregistrée comme absente
+     */
+    private SyncResult applyChanges(String cursor, boolean wasUnsupported) throws Exception {
+        LocationRemoteSource.FetchResult fetched;
+        try (PipelineMetrics.Span ignored = metrics.start(Stage.HTTP)) {
+            fetched = remote.fetchChanges(cursor);
+        }
+        try (LocationRemoteSource.FetchResult res = fetched) {
+            Reader body = download(res);
+            try (PipelineMetrics.Span ignored = metrics.start(Stage.DB_TRANSACTION)) {
+                return db.runInTransaction(() -> {
+                    LocationSyncWriter writer = new LocationSyncWriter(dao);
+                    long[] writeNanos = new long[1];
+                    long parseStart = System.nanoTime();
+                    LocationStreamParser.Changes changes =
+                            LocationStreamParser.parseChanges(body, SYNC_BATCH_SIZE, batch -> {
+                                long t = System.nanoTime();
+                                writer.accept(batch);
+                                writeNanos[0] += System.nanoTime() - t;
+                            });
+                    metrics.record(Stage.PARSE, System.nanoTime() - parseStart - writeNanos[0]);
+
+                    // Réponse complète : elle fait foi, les lignes non reçues sont supprimées
+                    SyncResult result = cursor == null || changes.full
+                            ? writer.finish()
+                            : writer.finishChanges(changes.deletedIds);
+                    saveCursor(changes.cursor);
+                    if (wasUnsupported) {
+                        metadataDao.updateChangesUnsupportedAt(SyncMetadataEntity.KEY_LOCATIONS, 0);
+                    }
+                    return result;
+                });
+            }
+        }
+    }
+
+    /**
+     * Reçoit tout le corps de la réponse dans une copie locale, avant l’ouverture
+     * de la transaction.
+     *
+     * @return le flux de la copie, fermé (et supprimé) avec {@code res}
+     */
+    private Reader download(LocationRemoteSource.FetchResult res) throws IOException {
+        try (PipelineMetrics.Span ignored = metrics.start(Stage.DOWNLOAD)) {
+            return res.spool(spoolDir);
+        }
+    }
+
+    /**
+     * Synchronisation complète par la liste des centres (requête conditionnelle).
+     *
+     * <p>
+     * Si la réponse n’a pas pu être appliquée, elle est retirée du cache HTTP (où la
+     * fermeture du flux l’a enregistrée) : la tentative suivante la retéléchargera au lieu
+     * de recevoir un {@code 304} pour des données jamais écrites.
+     * </p>
+     *
+     * <p>
+     * Une liste appliquée efface le curseur de l’API de changements (dans la même
+     * transaction) : la liste complète l’a dépassé, et le prochain essai de l’API
+     * demandera de nouveau l’ensemble des centres.
+     * </p>
+     */
+    private SyncResult syncFull(boolean hasLocalData) throws Exception {
+        LocationRemoteSource.FetchResult fetched;
+        try (PipelineMetrics.Span ignored = metrics.start(Stage.HTTP)) {
+            fetched = remote.fetch(!hasLocalData);
+        }
+        try (LocationRemoteSource.FetchResult res = fetched) {
+            if (!res.hasBody()) {
+                // 304 Not Modified : les données locales sont déjà à jour
+                return SyncResult.NOT_MODIFIED;
+            }
+            Reader body = download(res);
+            try (PipelineMetrics.Span ignored = metrics.start(Stage.DB_TRANSACTION)) {
+                return db.runInTransaction(() -> {
+                    LocationSyncWriter writer = new LocationSyncWriter(dao);
+                    // Analyse et écritures sont entrelacées : le temps d’analyse exclut celui des lots écrits
+                    long[] writeNanos = new long[1];
+                    long parseStart = System.nanoTime();
+                    LocationStreamParser.parse(body, SYNC_BATCH_SIZE, batch -> {
+                        long t = System.nanoTime();
+                        writer.accept(batch);
+                        writeNanos[0] += System.nanoTime() - t;
+                    });
+                    metrics.record(Stage.PARSE, System.nanoTime() - parseStart - writeNanos[0]);
+                    SyncResult result = writer.finish();
+                    metadataDao.updateCursor(SyncMetadataEntity.KEY_LOCATIONS, null);
+                    return result;
+                });
+            }
+        } catch (Exception e) {
+            try {
+                remote.evictCachedList();
+            } catch (IOException evictionFailure) {
+                e.addSuppressed(evictionFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Enregistre le curseur sans écraser les autres métadonnées (à appeler dans la transaction).
+     */
+    private void saveCursor(String cursor) {
+        if (metadataDao.updateCursor(SyncMetadataEntity.KEY_LOCATIONS, cursor) == 0) {
+            SyncMetadataEntity meta = new SyncMetadataEntity();
+            meta.cursor = cursor;
+            metadataDao.upsert(meta);
+        }
+    }
+
+    /**
+     * Enregistre le constat d’absence de l’API de changements, sans écraser les autres métadonnées.
+     */
+    private void saveChangesUnsupportedAt(long at) {
+        if (metadataDao.updateChangesUnsupportedAt(SyncMetadataEntity.KEY_LOCATIONS, at) == 0) {
+            SyncMetadataEntity meta = new SyncMetadataEntity();
+            meta.changesUnsupportedAt = at;
+            metadataDao.upsert(meta);
+        }
+    }
+}
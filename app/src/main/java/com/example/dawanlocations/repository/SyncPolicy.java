@@ -0,0 +1,81 @@
+package com.example.dawanlocations.repository;
+
+import com.example.dawanlocations.data.local.SyncMetadataEntity;
+
+import java.util.Random;
+
+/**
+ * Règles de déclenchement de la synchronisation : durée de validité (TTL),
+ * période des synchronisations de fond et repli exponentiel après échec.
+ *
+ * <p>
+ * Classe immuable et sans dépendance Android, afin d’être testée sur la JVM.
+ * </p>
+ */
+public final class SyncPolicy {
+
+    /** Politique par défaut : données valides 15 min, synchro de fond toutes les heures. */
+    public static final SyncPolicy DEFAULT =
+            new SyncPolicy(15 * 60_000L, 60 * 60_000L, 30_000L, 30 * 60_000L);
+
+    /** Durée (ms) pendant laquelle des données synchronisées sont considérées fraîches */
+    public final long ttlMs;
+    /** Période (ms) des synchronisations de fond */
+    public final long periodMs;
+    /** Délai (ms) de repli après le premier échec */
+    public final long baseBackoffMs;
+    /** Délai (ms) de repli maximal */
+    public final long maxBackoffMs;
+
+    public SyncPolicy(long ttlMs, long periodMs, long baseBackoffMs, long maxBackoffMs) {
+        if (ttlMs < 0 || periodMs <= 0 || baseBackoffMs <= 0 || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("Invalid sync policy");
+        }
+        this.ttlMs = ttlMs;
+        this.periodMs = periodMs;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Indique si les données sont périmées.
+     *
+     * @param meta métadonnées de synchronisation (ou {@code null} si jamais synchronisé)
+     * @param now  horodatage courant (ms epoch)
+     * @return {@code true} si une synchronisation est nécessaire
+     */
+    public boolean isStale(SyncMetadataEntity meta, long now) {
+        if (meta == null || meta.lastSuccessAt <= 0) return true;
+        long age = now - meta.lastSuccessAt;
+        return age < 0 || age >= ttlMs; // horloge reculée : on considère les données périmées
+    }
+
+    /**
+     * Délai de repli avant une nouvelle tentative, avec gigue ("equal jitter") :
+     * une valeur aléatoire entre la moitié et la totalité du délai exponentiel.
+     *
+     * @param failures nombre d’échecs consécutifs (≥ 1)
+     * @param random   source d’aléa
+     * @return le délai (ms) à respecter
+     */
+    public long backoffDelay(int failures, Random random) {
+        if (failures <= 0) return 0;
+        int shift = Math.min(failures - 1, 30);
+        long exp = Math.min(maxBackoffMs, baseBackoffMs << shift);
+        long half = exp / 2;
+        return half + (long) (random.nextDouble() * (exp - half));
+    }
+
+    /**
+     * Indique si une tentative est encore bloquée par le repli après échec.
+     *
+     * @param meta métadonnées de synchronisation (ou {@code null})
+     * @param now  horodatage courant (ms epoch)
+     * @return {@code true} s’il faut encore attendre
+     */
+    public boolean isBackingOff(SyncMetadataEntity meta, long now) {
+        if (meta == null || meta.consecutiveFailures <= 0) return false;
+        // Horloge reculée avant la dernière tentative : on ne bloque pas indéfiniment
+        return now >= meta.lastAttemptAt && now < meta.nextAttemptAt;
+    }
+}
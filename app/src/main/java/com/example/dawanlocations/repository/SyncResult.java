@@ -0,0 +1,53 @@
+package com.example.dawanlocations.repository;
+
+/**
+ * Bilan d’une synchronisation incrémentale de la table {@code locations}.
+ *
+ * <p>
+ * Indique combien de lignes ont été ajoutées, modifiées et supprimées.
+ * Un bilan vide ({@link #hasChanges()} à {@code false}) signifie que la base
+ * n’a pas été écrite du tout.
+ * </p>
+ */
+public final class SyncResult {
+
+    /** Bilan d’une réponse {@code 304 Not Modified} : rien n’a été lu ni écrit */
+    public static final SyncResult NOT_MODIFIED = new SyncResult(0, 0, 0, 0L, true);
+
+    /** Nombre de lignes insérées */
+    public final int added;
+    /** Nombre de lignes dont le contenu a changé */
+    public final int changed;
+    /** Nombre de lignes supprimées (absentes d’une réponse complète, ou signalées supprimées) */
+    public final int removed;
+    /**
+     * Empreinte du contenu reçu : ensemble des centres, ou seulement des lignes modifiées
+     * pour une synchronisation par différences (sans objet si {@link #notModified})
+     */
+    public final long payloadHash;
+    /** {@code true} si le serveur a confirmé que les données n’avaient pas changé */
+    public final boolean notModified;
+
+    public SyncResult(int added, int changed, int removed, long payloadHash) {
+        this(added, changed, removed, payloadHash, false);
+    }
+
+    private SyncResult(int added, int changed, int removed, long payloadHash, boolean notModified) {
+        this.added = added;
+        this.changed = changed;
+        this.removed = removed;
+        this.payloadHash = payloadHash;
+        this.notModified = notModified;
+    }
+
+    /** @return {@code true} si au moins une ligne a été écrite */
+    public boolean hasChanges() {
+        return added + changed + removed > 0;
+    }
+
+    @Override
+    public String toString() {
+        if (notModified) return "SyncResult{notModified}";
+        return "SyncResult{added=" + added + ", changed=" + changed + ", removed=" + removed + '}';
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.dawanlocations.repository;
+
+import android.content.Context;
+
+import com.example.dawanlocations.AppExecutors;
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.local.SyncMetadataDao;
+import com.example.dawanlocations.data.local.SyncMetadataEntity;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planificateur de synchronisation autour du {@link LocationRepository}.
+ *
+ * <p>
+ * Il conserve en base (table {@code sync_metadata}) l’horodatage, le résultat
+ * et l’empreinte du contenu de la dernière synchronisation, et s’appuie sur
+ * une {@link SyncPolicy} pour :
+ * <ul>
+ *     <li>ne rafraîchir que si les données sont plus anciennes que le TTL,</li>
+ *     <li>lancer des synchronisations de fond périodiques,</li>
+ *     <li>espacer les tentatives après {@code onError} / {@code onOffline}
+ *     (repli exponentiel avec gigue).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Une seule instance existe par processus ({@link #getInstance(Context)}).
+ * Les synchronisations de fond vivent aussi longtemps que le processus.
+ * </p>
+ */
+public final class SyncScheduler {
+
+    private static volatile SyncScheduler INSTANCE;
+
+    private final LocationRepository repo;
+    private final SyncMetadataDao metadataDao;
+    private final AppExecutors executors;
+    private final SyncPolicy policy;
+    private final Random random;
+
+    /** Tâche périodique en cours, {@code null} si arrêtée */
+    private ScheduledFuture<?> periodic;
+
+    /**
+     * Récupère l’instance unique du planificateur (créée à la première utilisation).
+     *
+     * @param context contexte Android
+     * @return le planificateur partagé
+     */
+    public static SyncScheduler getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SyncScheduler.class) {
+                if (INSTANCE == null) {
+                    Context app = context.getApplicationContext();
+                    INSTANCE = new SyncScheduler(
+                            LocationRepositoryImpl.getInstance(app),
+                            AppDatabase.get(app).syncMetadataDao(),
+                            AppExecutors.get(),
+                            SyncPolicy.DEFAULT,
+                            new Random());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    SyncScheduler(LocationRepository repo, SyncMetadataDao metadataDao, AppExecutors executors,
+                  SyncPolicy policy, Random random) {
+        this.repo = repo;
+        this.metadataDao = metadataDao;
+        this.executors = executors;
+        this.policy = policy;
+        this.random = random;
+    }
+
+    /**
+     * Synchronise uniquement si nécessaire.
+     *
+     * <p>
+     * Si les données sont encore fraîches, le callback reçoit directement
+     * {@code onSuccess()}. Si une tentative précédente a échoué et que le délai
+     * de repli n’est pas écoulé, il reçoit le résultat de cette tentative
+     * ({@code onOffline()} ou {@code onError()}) sans nouvel appel réseau.
+     * </p>
+     *
+     * @param callback callback optionnel (appelé hors thread principal)
+     */
+    public void syncIfStale(LocationRepository.Callback callback) {
+        executors.disk().execute(() -> {
+            SyncMetadataEntity meta = metadataDao.get(SyncMetadataEntity.KEY_LOCATIONS);
+            long now = System.currentTimeMillis();
+            if (policy.isBackingOff(meta, now)) {
+                reportLastFailure(meta, callback);
+            } else if (!policy.isStale(meta, now)) {
+                if (callback != null) callback.onSuccess();
+            } else {
+                syncNow(callback);
+            }
+        });
+    }
+
+    /**
+     * Synchronise immédiatement, quel que soit l’âge des données (action explicite de l’utilisateur).
+     *
+     * @param callback callback optionnel (appelé hors thread principal)
+     */
+    public void syncNow(LocationRepository.Callback callback) {
+        repo.refreshAsync(new LocationRepository.Callback() {
+            @Override public void onSuccess() {
+                onSynced(SyncResult.NOT_MODIFIED);
+            }
+            @Override public void onSynced(SyncResult result) {
+                record(SyncMetadataEntity.RESULT_SUCCESS, result);
+                if (callback != null) callback.onSynced(result);
+            }
+            @Override public void onError(Throwable t) {
+                record(SyncMetadataEntity.RESULT_ERROR, null);
+                if (callback != null) callback.onError(t);
+            }
+            @Override public void onOffline() {
+                record(SyncMetadataEntity.RESULT_OFFLINE, null);
+                if (callback != null) callback.onOffline();
+            }
+        });
+    }
+
+    /**
+     * Démarre les synchronisations de fond périodiques (sans effet si déjà démarrées).
+     */
+    public synchronized void startPeriodic() {
+        if (periodic != null) return;
+        periodic = executors.scheduler().scheduleWithFixedDelay(
+                () -> syncIfStale(null), policy.periodMs, policy.periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Arrête les synchronisations de fond périodiques.
+     */
+    public synchronized void stopPeriodic() {
+        if (periodic != null) {
+            periodic.cancel(false);
+            periodic = null;
+        }
+    }
+
+    /**
+     * Enregistre le résultat d’une tentative et, en cas d’échec, planifie un nouvel essai
+     * après le délai de repli.
+     *
+     * @param result {@code SyncMetadataEntity.RESULT_*}
+     * @param sync   bilan en cas de succès, {@code null} sinon
+     */
+    private void record(String result, SyncResult sync) {
+        executors.disk().execute(() -> {
+            SyncMetadataEntity meta = metadataDao.get(SyncMetadataEntity.KEY_LOCATIONS);
+            if (meta == null) meta = new SyncMetadataEntity();
+            long now = System.currentTimeMillis();
+            meta.lastAttemptAt = now;
+            meta.lastResult = result;
+
+            if (sync != null) {
+                meta.lastSuccessAt = now;
+                meta.consecutiveFailures = 0;
+                meta.nextAttemptAt = 0;
+                if (!sync.notModified) meta.payloadHash = sync.payloadHash;
+            } else {
+                meta.consecutiveFailures++;
+                long delay = policy.backoffDelay(meta.consecutiveFailures, random);
+                meta.nextAttemptAt = now + delay;
+                executors.scheduler().schedule(() -> syncIfStale(null), delay, TimeUnit.MILLISECONDS);
+            }
+            metadataDao.upsert(meta);
+        });
+    }
+
+    /**
+     * Transmet au callback le résultat de la dernière tentative échouée.
+     */
+    private static void reportLastFailure(SyncMetadataEntity meta, LocationRepository.Callback callback) {
+        if (callback == null) return;
+        if (SyncMetadataEntity.RESULT_OFFLINE.equals(meta.lastResult)) {
+            callback.onOffline();
+        } else {
+            callback.onError(new IOException("Sync backing off until " + meta.nextAttemptAt));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.dawanlocations.ui.list;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.RadioGroup;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.PagingData;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.dawanlocations.R;
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.ui.map.LocationDetailsBottomSheet;
+
+/**
+ * Écran listant tous les centres de formation, triés par ville ou par distance.
+ *
+ * <p>
+ * La liste est paginée ({@link LocationListViewModel}) : seules les pages proches de
+ * la zone visible sont chargées, les autres positions étant des emplacements vides.
+ * Le point de référence du tri par distance est transmis par l’écran appelant
+ * (centre de la carte, voir {@link #newIntent}).
+ * Un clic sur un centre ouvre le {@link LocationDetailsBottomSheet}.
+ * </p>
+ */
+public class LocationListActivity extends AppCompatActivity {
+
+    private static final String EXTRA_LATITUDE = "extra_latitude";
+    private static final String EXTRA_LONGITUDE = "extra_longitude";
+
+    private LocationListViewModel vm;
+    private LocationPagingAdapter adapter;
+    /** Flux de pages actuellement affiché */
+    private LiveData<PagingData<Location>> shown;
+    private double originLat;
+    private double originLon;
+
+    /**
+     * Construit l’intention d’ouverture de la liste.
+     *
+     * @param context   contexte appelant
+     * @param latitude  latitude du point de référence du tri par distance
+     * @param longitude longitude du point de référence du tri par distance
+     * @return l’intention à passer à {@code startActivity}
+     */
+    public static Intent newIntent(Context context, double latitude, double longitude) {
+        return new Intent(context, LocationListActivity.class)
+                .putExtra(EXTRA_LATITUDE, latitude)
+                .putExtra(EXTRA_LONGITUDE, longitude);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_location_list);
+
+        originLat = getIntent().getDoubleExtra(EXTRA_LATITUDE, 0);
+        originLon = getIntent().getDoubleExtra(EXTRA_LONGITUDE, 0);
+
+        adapter = new LocationPagingAdapter(loc ->
+                LocationDetailsBottomSheet.newInstance(loc).show(getSupportFragmentManager(), "details"));
+        RecyclerView list = findViewById(R.id.list);
+        list.setLayoutManager(new LinearLayoutManager(this));
+        list.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        list.setAdapter(adapter);
+
+        vm = new ViewModelProvider(this).get(LocationListViewModel.class);
+
+        RadioGroup sort = findViewById(R.id.sort);
+        sort.setOnCheckedChangeListener((group, checkedId) -> showSort(checkedId));
+        showSort(sort.getCheckedRadioButtonId());
+    }
+
+    /**
+     * Affiche la liste correspondant au tri choisi.
+     *
+     * @param checkedId bouton coché ({@code R.id.sort_city} ou {@code R.id.sort_distance})
+     */
+    private void showSort(int checkedId) {
+        boolean byDistance = checkedId == R.id.sort_distance;
+        LiveData<PagingData<Location>> pages = byDistance
+                ? vm.getPagesByDistance(originLat, originLon)
+                : vm.getPagesByCity();
+        if (pages == shown) return;
+        if (shown != null) shown.removeObservers(this);
+        shown = pages;
+        adapter.setOrigin(byDistance ? originLat : Double.NaN, byDistance ? originLon : Double.NaN);
+        pages.observe(this, data -> adapter.submitData(getLifecycle(), data));
+    }
+}
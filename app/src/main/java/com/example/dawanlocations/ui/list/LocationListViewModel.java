@@ -0,0 +1,66 @@
+package com.example.dawanlocations.ui.list;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.repository.LocationRepository;
+import com.example.dawanlocations.repository.LocationRepositoryImpl;
+
+/**
+ * ViewModel de l’écran de liste des centres ({@link LocationListActivity}).
+ *
+ * <p>
+ * Expose les deux listes paginées du {@link LocationRepository} (par ville, par distance).
+ * Chaque flux est créé à la première demande puis mis en cache dans la portée du
+ * ViewModel : après une rotation, la liste repart des pages déjà chargées, sans
+ * nouvelle requête.
+ * </p>
+ */
+public class LocationListViewModel extends AndroidViewModel {
+    /** Référence vers le repository (accès données locales + distantes) */
+    private final LocationRepository repo;
+    /** Liste triée par ville (créée à la demande) */
+    private LiveData<PagingData<Location>> byCity;
+    /** Liste triée par distance (créée à la demande) */
+    private LiveData<PagingData<Location>> byDistance;
+
+    /**
+     * @param app application Android, nécessaire car {@link AndroidViewModel} a besoin d’un contexte
+     */
+    public LocationListViewModel(@NonNull Application app) {
+        super(app);
+        repo = LocationRepositoryImpl.getInstance(app);
+    }
+
+    /**
+     * @return les pages de la liste triée par ville puis par nom (thread principal uniquement)
+     */
+    public LiveData<PagingData<Location>> getPagesByCity() {
+        if (byCity == null) {
+            byCity = PagingLiveData.cachedIn(PagingLiveData.getLiveData(repo.pageByCity()), this);
+        }
+        return byCity;
+    }
+
+    /**
+     * Le point de référence est celui du premier appel : il ne change pas
+     * pendant la vie de l’écran (thread principal uniquement).
+     *
+     * @param latitude  latitude du point de référence
+     * @param longitude longitude du point de référence
+     * @return les pages de la liste triée par distance croissante
+     */
+    public LiveData<PagingData<Location>> getPagesByDistance(double latitude, double longitude) {
+        if (byDistance == null) {
+            byDistance = PagingLiveData.cachedIn(
+                    PagingLiveData.getLiveData(repo.pageByDistance(latitude, longitude)), this);
+        }
+        return byDistance;
+    }
+}
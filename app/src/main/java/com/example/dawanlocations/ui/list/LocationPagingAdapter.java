@@ -0,0 +1,114 @@
+package com.example.dawanlocations.ui.list;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.dawanlocations.R;
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.spatial.Geo;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Adaptateur de la liste paginée des centres.
+ *
+ * <p>
+ * Les positions dont la page n’est pas encore chargée (placeholders) sont affichées
+ * vides, à leur hauteur définitive : la barre de défilement reflète dès le départ
+ * le nombre total de centres.
+ * </p>
+ */
+class LocationPagingAdapter extends PagingDataAdapter<Location, LocationPagingAdapter.ViewHolder> {
+
+    /** Réaction à un clic sur un centre */
+    interface OnLocationClickListener {
+        void onLocationClick(Location location);
+    }
+
+    /** Compare les centres par id, puis par contenu */
+    private static final DiffUtil.ItemCallback<Location> DIFF = new DiffUtil.ItemCallback<Location>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Location a, @NonNull Location b) {
+            return a.id == b.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Location a, @NonNull Location b) {
+            return Objects.equals(a.name, b.name) && Objects.equals(a.address, b.address)
+                    && Objects.equals(a.city, b.city) && Objects.equals(a.postalCode, b.postalCode)
+                    && a.latitude == b.latitude && a.longitude == b.longitude;
+        }
+    };
+
+    private final OnLocationClickListener listener;
+    /** Point de référence des distances affichées ({@code NaN} : pas de distance) */
+    private double originLat = Double.NaN;
+    private double originLon = Double.NaN;
+
+    LocationPagingAdapter(OnLocationClickListener listener) {
+        super(DIFF);
+        this.listener = listener;
+    }
+
+    /**
+     * Affiche (ou masque, avec {@code NaN}) la distance de chaque centre à un point.
+     */
+    void setOrigin(double latitude, double longitude) {
+        originLat = latitude;
+        originLon = longitude;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_location, parent, false);
+        return new ViewHolder(v);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Location loc = getItem(position);
+        holder.bind(loc);
+    }
+
+    final class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView title;
+        private final TextView subtitle;
+        private Location location;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.title);
+            subtitle = itemView.findViewById(R.id.subtitle);
+            itemView.setOnClickListener(v -> {
+                if (location != null) listener.onLocationClick(location);
+            });
+        }
+
+        /** @param loc centre à afficher, ou {@code null} pour un emplacement pas encore chargé */
+        void bind(Location loc) {
+            location = loc;
+            if (loc == null) {
+                title.setText(null);
+                subtitle.setText(null);
+                return;
+            }
+            title.setText(loc.name != null ? loc.name : "Centre");
+            String place = (loc.postalCode != null ? loc.postalCode + " " : "") + (loc.city != null ? loc.city : "");
+            if (!Double.isNaN(originLat)) {
+                double km = Geo.haversineMeters(originLat, originLon, loc.latitude, loc.longitude) / 1000.0;
+                place = String.format(Locale.FRANCE, "%s · %.1f km", place, km);
+            }
+            subtitle.setText(place);
+        }
+    }
+}
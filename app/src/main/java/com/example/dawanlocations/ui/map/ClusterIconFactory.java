@@ -0,0 +1,67 @@
+package com.example.dawanlocations.ui.map;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fabrique (avec cache) des icônes de cluster : un disque portant le nombre de centres regroupés.
+ *
+ * <p>
+ * Les icônes sont mises en cache par libellé, afin que deux clusters de même
+ * taille partagent le même bitmap (dessiné tel quel par {@link LocationPointsOverlay}).
+ * </p>
+ */
+final class ClusterIconFactory {
+
+    private static final int FILL_COLOR = Color.rgb(0x1e, 0x63, 0xb0);
+    private static final float BASE_RADIUS_DP = 16f;
+
+    private final float density;
+    private final Map<String, Bitmap> cache = new HashMap<>();
+    private final Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint stroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    ClusterIconFactory(Resources res) {
+        this.density = res.getDisplayMetrics().density;
+        fill.setColor(FILL_COLOR);
+        stroke.setColor(Color.WHITE);
+        stroke.setStyle(Paint.Style.STROKE);
+        stroke.setStrokeWidth(2f * density);
+        text.setColor(Color.WHITE);
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setFakeBoldText(true);
+        text.setTextSize(12f * density);
+    }
+
+    /**
+     * Retourne l’icône correspondant à un nombre de centres.
+     *
+     * @param count nombre de centres regroupés (supérieur à 1)
+     * @return un {@link Bitmap} partagé (à ne pas modifier)
+     */
+    Bitmap iconFor(int count) {
+        String label = count < 1000 ? String.valueOf(count) : (count / 1000) + "k";
+        Bitmap cached = cache.get(label);
+        if (cached != null) return cached;
+
+        // Le disque grossit légèrement avec le nombre de chiffres
+        float radius = (BASE_RADIUS_DP + 3f * (label.length() - 1)) * density;
+        int size = (int) Math.ceil(radius * 2 + stroke.getStrokeWidth());
+        Bitmap bmp = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(bmp);
+        float center = size / 2f;
+        c.drawCircle(center, center, radius, fill);
+        c.drawCircle(center, center, radius, stroke);
+        c.drawText(label, center, center - (text.descent() + text.ascent()) / 2f, text);
+
+        cache.put(label, bmp);
+        return bmp;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.dawanlocations.ui.map;
 
+import android.content.DialogInterface;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -25,6 +26,9 @@ import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
  */
 public class LocationDetailsBottomSheet extends BottomSheetDialogFragment {
 
+    /** Résultat (sans données) publié à la fermeture de la fiche */
+    public static final String RESULT_DISMISSED = "location_details_dismissed";
+
     // --- Clés des arguments transmis au fragment ---
     private static final String ARG_ID = "arg_id";
     private static final String ARG_NAME = "arg_name";
@@ -101,4 +105,15 @@ public class LocationDetailsBottomSheet extends BottomSheetDialogFragment {
 
         return v;
     }
+
+    /**
+     * Publie {@link #RESULT_DISMISSED} : la carte cesse alors de mettre en avant le centre.
+     *
+     * @param dialog boîte de dialogue fermée
+     */
+    @Override
+    public void onDismiss(@NonNull DialogInterface dialog) {
+        super.onDismiss(dialog);
+        getParentFragmentManager().setFragmentResult(RESULT_DISMISSED, Bundle.EMPTY);
+    }
 }
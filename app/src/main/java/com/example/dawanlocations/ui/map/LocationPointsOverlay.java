@@ -0,0 +1,379 @@
+package com.example.dawanlocations.ui.map;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+
+import com.example.dawanlocations.domain.cluster.Cluster;
+import com.example.dawanlocations.domain.cluster.ClusterIndex;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.spatial.PixelGridIndex;
+
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
+import org.osmdroid.views.overlay.Overlay;
+
+import java.util.Arrays;
+
+/**
+ * Calque OSMDroid dessinant tous les repères (centres seuls et clusters) en une seule passe.
+ *
+ * <p>
+ * Il remplace un {@code Marker} par repère (chacun avec son drawable, sa bulle, son
+ * écouteur et ses calculs d’emprise, parcourus par OSMDroid à chaque dessin et à chaque
+ * toucher) :
+ * <ul>
+ *     <li>les repères visibles sont rangés dans des tableaux primitifs (un lot), remplis
+ *     à partir du {@link ClusterIndex} sans créer d’objet par centre ;</li>
+ *     <li>les coordonnées sont projetées une fois par lot en Mercator normalisé, puis
+ *     converties en pixels une fois par changement de zoom : un déplacement de la carte
+ *     ne coûte qu’une addition par repère ;</li>
+ *     <li>tous les centres seuls partagent le même bitmap, les clusters de même taille
+ *     aussi ({@link ClusterIconFactory}) ; les repères hors de l’écran ne sont pas dessinés ;</li>
+ *     <li>le centre sélectionné est dessiné en dernier, sur un halo ;</li>
+ *     <li>un toucher est résolu par une grille en pixels ({@link PixelGridIndex}), construite
+ *     au premier toucher après chaque changement de zoom ou de lot : le repère retenu est
+ *     le plus proche dans le rayon de toucher, sans parcourir tous les repères.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Toutes les méthodes s’exécutent sur le thread principal.
+ * </p>
+ */
+final class LocationPointsOverlay extends Overlay {
+
+    /** Aucun centre sélectionné */
+    static final int NO_SELECTION = Integer.MIN_VALUE;
+
+    /** Taille minimale (dp) de la zone de toucher d’un repère */
+    private static final float MIN_TOUCH_DP = 48f;
+    /** Couleur du halo du centre sélectionné */
+    private static final int HALO_COLOR = Color.argb(0x66, 0x1e, 0x63, 0xb0);
+
+    /**
+     * Reçoit les touchers sur les repères.
+     */
+    interface Listener {
+        /**
+         * @param store stockage des centres affichés
+         * @param index position du centre touché dans {@code store}
+         */
+        void onLocationTap(LocationStore store, int index);
+
+        /**
+         * @param latitude      latitude du cluster touché
+         * @param longitude     longitude du cluster touché
+         * @param expansionZoom zoom à partir duquel le cluster se sépare
+         */
+        void onClusterTap(double latitude, double longitude, int expansionZoom);
+    }
+
+    private final Bitmap locationIcon;
+    private final ClusterIconFactory clusterIcons;
+    private final Listener listener;
+    private final Paint iconPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint haloPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    /** Rayon (px) de recherche d’un repère autour d’un toucher */
+    private final float touchRadiusPx;
+    /** Marge (px) autour de l’écran en deçà de laquelle un repère est dessiné */
+    private final float cullMarginPx;
+
+    /** Stockage des centres du lot affiché */
+    private LocationStore store = LocationStore.EMPTY;
+    /** Lot affiché et lot en cours de remplissage (réutilisés, sans allocation en régime établi) */
+    private Batch front = new Batch(), back = new Batch();
+    private int selectedId = NO_SELECTION;
+
+    /**
+     * @param locationIcon icône des centres seuls (ancrée en bas, au centre)
+     * @param clusterIcons icônes des clusters (ancrées au centre)
+     * @param density      densité de l’écran
+     * @param listener     destinataire des touchers
+     */
+    LocationPointsOverlay(Drawable locationIcon, ClusterIconFactory clusterIcons, float density, Listener listener) {
+        this.locationIcon = render(locationIcon);
+        this.clusterIcons = clusterIcons;
+        this.listener = listener;
+        float minTouchPx = MIN_TOUCH_DP * density;
+        this.cullMarginPx = Math.max(minTouchPx,
+                Math.max(this.locationIcon.getWidth(), this.locationIcon.getHeight()));
+        this.touchRadiusPx = cullMarginPx / 2f;
+        haloPaint.setColor(HALO_COLOR);
+    }
+
+    /**
+     * Remplace les repères affichés par ceux d’une zone.
+     *
+     * @param index clusters des centres
+     * @param zoom  zoom courant de la carte
+     * @param south latitude minimale
+     * @param north latitude maximale
+     * @param west  longitude minimale
+     * @param east  longitude maximale
+     * @return {@code true} si les repères ont changé (la carte doit être redessinée)
+     */
+    boolean setPoints(ClusterIndex index, double zoom, double south, double north, double west, double east) {
+        LocationStore newStore = index.store();
+        Batch next = back;
+        next.clear();
+        index.query(zoom, south, north, west, east, new ClusterIndex.Visitor() {
+            @Override public void cluster(Cluster c) {
+                next.add(-1, c.latitude, c.longitude, c.count, c.expansionZoom, clusterIcons.iconFor(c.count));
+            }
+            @Override public void location(int i) {
+                next.add(i, newStore.latitude(i), newStore.longitude(i), 1, Integer.MAX_VALUE, locationIcon);
+            }
+        });
+        if (newStore == store && next.sameAs(front)) return false;
+        store = newStore;
+        back = front;
+        front = next;
+        return true;
+    }
+
+    /** @return l’id du centre sélectionné, ou {@link #NO_SELECTION} */
+    int getSelectedId() {
+        return selectedId;
+    }
+
+    /**
+     * Sélectionne un centre (mis en avant par un halo), qu’il soit visible ou non.
+     *
+     * @param id id du centre, ou {@link #NO_SELECTION}
+     * @return {@code true} si la sélection a changé (la carte doit être redessinée)
+     */
+    boolean setSelectedId(int id) {
+        if (id == selectedId) return false;
+        selectedId = id;
+        return true;
+    }
+
+    @Override
+    public void draw(Canvas canvas, Projection pj) {
+        Batch b = front;
+        if (b.size == 0) return;
+        b.project(pj.getWorldMapSize());
+        Rect screen = pj.getIntrinsicScreenRect();
+        float left = screen.left - cullMarginPx, right = screen.right + cullMarginPx;
+        float top = screen.top - cullMarginPx, bottom = screen.bottom + cullMarginPx;
+
+        int selected = -1;
+        for (int i = 0; i < b.size; i++) {
+            float x = screenX(b, i, pj), y = screenY(b, i, pj);
+            if (x < left || x > right || y < top || y > bottom) continue;
+            if (selectedId != NO_SELECTION && b.storeIndex[i] >= 0 && store.id(b.storeIndex[i]) == selectedId) {
+                selected = i; // dessiné en dernier, au-dessus des autres
+                continue;
+            }
+            drawIcon(canvas, b, i, x, y);
+        }
+        if (selected >= 0) {
+            float x = screenX(b, selected, pj), y = screenY(b, selected, pj);
+            Bitmap icon = b.icons[selected];
+            canvas.drawCircle(x, y - icon.getHeight() / 2f, Math.max(icon.getWidth(), icon.getHeight()) * 0.75f, haloPaint);
+            drawIcon(canvas, b, selected, x, y);
+        }
+    }
+
+    private void drawIcon(Canvas canvas, Batch b, int i, float x, float y) {
+        Bitmap icon = b.icons[i];
+        // Centre seul : pointe de l’épingle sur la position ; cluster : disque centré
+        float top = b.storeIndex[i] >= 0 ? y - icon.getHeight() : y - icon.getHeight() / 2f;
+        canvas.drawBitmap(icon, x - icon.getWidth() / 2f, top, iconPaint);
+    }
+
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent e, MapView mapView) {
+        int hit = hitTest(e.getX(), e.getY(), mapView.getProjection());
+        if (hit < 0) {
+            // Toucher hors des repères : la sélection est abandonnée, le toucher reste à la carte
+            if (setSelectedId(NO_SELECTION)) mapView.invalidate();
+            return false;
+        }
+        Batch b = front;
+        if (b.storeIndex[hit] >= 0) {
+            if (setSelectedId(store.id(b.storeIndex[hit]))) mapView.invalidate();
+            listener.onLocationTap(store, b.storeIndex[hit]);
+        } else {
+            listener.onClusterTap(b.latitude[hit], b.longitude[hit], b.expansionZoom[hit]);
+        }
+        return true;
+    }
+
+    /**
+     * Cherche le repère touché : celui dont le centre de l’icône est le plus proche du
+     * toucher, dans le rayon de toucher. À distance égale (repères superposés), le dernier
+     * dessiné l’emporte, ce qui rend le choix déterministe.
+     *
+     * @return la position du repère dans le lot affiché, ou {@code -1}
+     */
+    private int hitTest(float tx, float ty, Projection pj) {
+        Batch b = front;
+        if (b.size == 0) return -1;
+        PixelGridIndex grid = b.grid(pj.getWorldMapSize(), touchRadiusPx);
+        // Toucher en pixels du monde : les repères y sont indexés une fois pour toutes par zoom
+        double x = tx - pj.getOffsetX(), y = ty - pj.getOffsetY();
+        if (!pj.isHorizontalWrapEnabled()) return grid.nearest(x, y, touchRadiusPx);
+
+        // Carte répétée horizontalement : on se ramène au monde de référence, sans oublier
+        // les repères situés de l’autre côté de l’antiméridien
+        double world = b.projectedWorldSize;
+        x -= Math.floor(x / world) * world;
+        int hit = grid.nearest(x, y, touchRadiusPx);
+        if (x < touchRadiusPx) hit = closer(b, hit, grid.nearest(x + world, y, touchRadiusPx), x + world, y, x, y);
+        if (x > world - touchRadiusPx) hit = closer(b, hit, grid.nearest(x - world, y, touchRadiusPx), x - world, y, x, y);
+        return hit;
+    }
+
+    /**
+     * @return parmi deux repères trouvés (ou {@code -1}), le plus proche de son point de recherche
+     */
+    private static int closer(Batch b, int a, int c, double cx, double cy, double ax, double ay) {
+        if (a < 0) return c;
+        if (c < 0) return a;
+        double da = sq(b.hitX[a] - ax) + sq(b.hitY[a] - ay);
+        double dc = sq(b.hitX[c] - cx) + sq(b.hitY[c] - cy);
+        return dc < da || (dc == da && c > a) ? c : a;
+    }
+
+    private static double sq(double v) {
+        return v * v;
+    }
+
+    /** @return l’abscisse à l’écran du repère {@code i}, sur la copie du monde la plus proche du centre */
+    private static float screenX(Batch b, int i, Projection pj) {
+        long x = b.pixelX[i] + pj.getOffsetX();
+        if (pj.isHorizontalWrapEnabled()) {
+            long world = (long) b.projectedWorldSize;
+            x -= Math.round((double) (x - pj.getScreenCenterX()) / world) * world;
+        }
+        return x;
+    }
+
+    private static float screenY(Batch b, int i, Projection pj) {
+        return b.pixelY[i] + pj.getOffsetY();
+    }
+
+    /**
+     * Dessine une fois une icône dans un bitmap, partagé ensuite par tous les centres.
+     */
+    private static Bitmap render(Drawable d) {
+        int w = Math.max(1, d.getIntrinsicWidth()), h = Math.max(1, d.getIntrinsicHeight());
+        Bitmap bmp = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        d.setBounds(0, 0, w, h);
+        d.draw(new Canvas(bmp));
+        return bmp;
+    }
+
+    /**
+     * Lot de repères, en colonnes : position {@code i} dans chaque tableau.
+     */
+    private static final class Batch {
+        private static final TileSystem TILES = MapView.getTileSystem();
+
+        int size;
+        /** Position dans le {@link LocationStore} pour un centre seul, {@code -1} pour un cluster */
+        int[] storeIndex = new int[64];
+        double[] latitude = new double[64];
+        double[] longitude = new double[64];
+        int[] count = new int[64];
+        int[] expansionZoom = new int[64];
+        Bitmap[] icons = new Bitmap[64];
+        /** Coordonnées Mercator normalisées ({@code [0, 1]}) */
+        double[] x01 = new double[64];
+        double[] y01 = new double[64];
+        /** Coordonnées en pixels du monde, pour {@link #projectedWorldSize} */
+        long[] pixelX = new long[64];
+        long[] pixelY = new long[64];
+        /** Centre de l’icône en pixels du monde (point visé par un toucher) */
+        long[] hitX = new long[64];
+        long[] hitY = new long[64];
+        /** Taille du monde (px) des coordonnées {@link #pixelX}/{@link #pixelY} ; {@code -1} si à calculer */
+        double projectedWorldSize = -1;
+        /** Index des centres d’icônes, pour {@link #projectedWorldSize} ; {@code null} si à construire */
+        PixelGridIndex grid;
+
+        void clear() {
+            Arrays.fill(icons, 0, size, null);
+            size = 0;
+            projectedWorldSize = -1;
+            grid = null;
+        }
+
+        void add(int index, double lat, double lon, int n, int expansion, Bitmap icon) {
+            if (size == storeIndex.length) grow();
+            storeIndex[size] = index;
+            latitude[size] = lat;
+            longitude[size] = lon;
+            count[size] = n;
+            expansionZoom[size] = expansion;
+            icons[size] = icon;
+            x01[size] = TILES.getX01FromLongitude(lon, true);
+            y01[size] = TILES.getY01FromLatitude(lat, true);
+            size++;
+        }
+
+        /** Convertit les coordonnées en pixels, seulement si la taille du monde (le zoom) a changé. */
+        void project(double worldSize) {
+            if (worldSize == projectedWorldSize) return;
+            for (int i = 0; i < size; i++) {
+                pixelX[i] = Math.round(x01[i] * worldSize);
+                pixelY[i] = Math.round(y01[i] * worldSize);
+            }
+            projectedWorldSize = worldSize;
+            grid = null;
+        }
+
+        /**
+         * @param worldSize taille du monde (px) au zoom courant
+         * @param cellSize  taille des cellules (px), le rayon de toucher
+         * @return l’index des centres d’icônes, construit seulement si le zoom ou le lot a changé
+         */
+        PixelGridIndex grid(double worldSize, double cellSize) {
+            project(worldSize);
+            if (grid == null) {
+                for (int i = 0; i < size; i++) {
+                    hitX[i] = pixelX[i];
+                    // Centre seul : l’épingle est au-dessus de sa pointe
+                    hitY[i] = storeIndex[i] >= 0 ? pixelY[i] - icons[i].getHeight() / 2 : pixelY[i];
+                }
+                grid = PixelGridIndex.build(hitX, hitY, size, cellSize);
+            }
+            return grid;
+        }
+
+        /** @return {@code true} si les deux lots affichent les mêmes repères, dans le même ordre */
+        boolean sameAs(Batch other) {
+            if (size != other.size) return false;
+            for (int i = 0; i < size; i++) {
+                if (storeIndex[i] != other.storeIndex[i] || count[i] != other.count[i]
+                        || latitude[i] != other.latitude[i] || longitude[i] != other.longitude[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            int n = storeIndex.length * 2;
+            storeIndex = Arrays.copyOf(storeIndex, n);
+            latitude = Arrays.copyOf(latitude, n);
+            longitude = Arrays.copyOf(longitude, n);
+            count = Arrays.copyOf(count, n);
+            expansionZoom = Arrays.copyOf(expansionZoom, n);
+            icons = Arrays.copyOf(icons, n);
+            x01 = Arrays.copyOf(x01, n);
+            y01 = Arrays.copyOf(y01, n);
+            pixelX = Arrays.copyOf(pixelX, n);
+            pixelY = Arrays.copyOf(pixelY, n);
+            hitX = Arrays.copyOf(hitX, n);
+            hitY = Arrays.copyOf(hitY, n);
+        }
+    }
+}
@@ -1,23 +1,38 @@
 package com.example.dawanlocations.ui.map;
 
+import android.content.Context;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.example.dawanlocations.AppExecutors;
+import com.example.dawanlocations.BuildConfig;
 import com.example.dawanlocations.R;
+import com.example.dawanlocations.StartupInitializer;
+import com.example.dawanlocations.data.tiles.MapTiles;
+import com.example.dawanlocations.domain.cluster.Cluster;
+import com.example.dawanlocations.domain.cluster.ClusterIndex;
 import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.metrics.PipelineMetrics;
+import com.example.dawanlocations.ui.list.LocationListActivity;
 
+import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.api.IMapController;
-import org.osmdroid.config.Configuration;
+import org.osmdroid.events.DelayedMapListener;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
-import org.osmdroid.views.overlay.Marker;
 
-import java.io.File;
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Activité principale affichant la carte OpenStreetMap via OSMDroid.
@@ -26,9 +41,17 @@ import java.util.List;
  * Cette activité :
  * <ul>
  *     <li>Initialise une {@link MapView} OSMDroid.</li>
- *     <li>Observe la liste des {@link Location} depuis le {@link MapViewModel}.</li>
- *     <li>Affiche les repères (markers) correspondant aux centres de formation Dawan.</li>
- *     <li>Ouvre un {@link LocationDetailsBottomSheet} quand un utilisateur clique sur un marker.</li>
+ *     <li>Observe les clusters de {@link Location} calculés par le {@link MapViewModel}.</li>
+ *     <li>Affiche les repères (markers) correspondant aux centres de formation Dawan,
+ *     regroupés selon le zoom et uniquement dans la zone visible (plus une marge), dans un
+ *     seul calque ({@link LocationPointsOverlay}).</li>
+ *     <li>Ouvre un {@link LocationDetailsBottomSheet} quand un utilisateur clique sur un marker,
+ *     mis en avant tant que la fiche est ouverte.</li>
+ *     <li>Zoome sur un cluster quand l’utilisateur clique dessus.</li>
+ *     <li>Ouvre la liste des centres ({@link LocationListActivity}).</li>
+ *     <li>Enregistre les tuiles en cache dans l’archive hors ligne
+ *     ({@link MapTiles#exportOfflineArchive}).</li>
+ *     <li>En debug, affiche en superposition les mesures du pipeline ({@link PipelineMetrics}).</li>
  * </ul>
  * </p>
  */
@@ -41,95 +64,221 @@ public class MapActivity extends AppCompatActivity {
     /** Bandeau affiché si l’application est hors ligne */
     private TextView offlineBanner;
 
+    /** Marge ajoutée autour de la zone visible (facteur appliqué à la bounding box) */
+    private static final float VIEWPORT_MARGIN_SCALE = 1.5f;
+    /** Délai (ms) de regroupement des événements de scroll/zoom avant recalcul des markers */
+    private static final long CAMERA_DEBOUNCE_MS = 100;
+    /** Durée (ms) de l’animation de zoom lors d’un clic sur un cluster */
+    private static final long CLUSTER_ZOOM_ANIMATION_MS = 400;
+
+    /** Clusters par niveau de zoom, fournis par le {@link MapViewModel} */
+    private ClusterIndex clusters;
+    /** Calque dessinant tous les markers de la zone visible */
+    private LocationPointsOverlay points;
+
+    /** Intervalle minimal (ms) entre deux mises à jour de la superposition des mesures */
+    private static final long METRICS_OVERLAY_INTERVAL_MS = 250;
+    /** Superposition des mesures du pipeline (builds de debug uniquement) */
+    private TextView metricsOverlay;
+    /** {@code true} si une mise à jour de la superposition est déjà programmée */
+    private final AtomicBoolean metricsOverlayPending = new AtomicBoolean();
+    /** Programme une mise à jour de la superposition à chaque nouvelle mesure */
+    private final PipelineMetrics.Listener metricsListener = (stage, durationNanos) -> {
+        if (metricsOverlayPending.compareAndSet(false, true)) {
+            metricsOverlay.postDelayed(this::updateMetricsOverlay, METRICS_OVERLAY_INTERVAL_MS);
+        }
+    };
+
     /**
      * Méthode de cycle de vie Android, appelée lors de la création de l’activité.
      *
      * <p>
      * Elle configure :
      * <ul>
-     *     <li>Le layout {@code activity_map.xml}.</li>
+     *     <li>Le layout {@code activity_map.xml}, une fois la configuration OSMDroid
+     *     prête ({@link StartupInitializer}).</li>
      *     <li>La {@link MapView} OSMDroid.</li>
      *     <li>L’observation des données exposées par le {@link MapViewModel}.</li>
-     *     <li>Un rafraîchissement initial via {@link MapViewModel#refresh}.</li>
+     *     <li>Un rafraîchissement initial via {@link MapViewModel#refreshIfStale},
+     *     seulement si les données locales sont périmées.</li>
      * </ul>
      * </p>
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // La MapView lit la configuration OSMDroid à sa création : seul ce composant est attendu
+        StartupInitializer.get(this).await(StartupInitializer.Component.OSMDROID);
         setContentView(R.layout.activity_map);
 
         offlineBanner = findViewById(R.id.offline_banner);
-
-        // Configuration obligatoire pour OSMDroid (Android 9+ : User-Agent requis)
-        Configuration.getInstance().setUserAgentValue(getPackageName());
-
-        // Évite les soucis de permissions stockage en forçant le cache dans le répertoire interne
-        File osmdroidBase = new File(getCacheDir(), "osmdroid");
-        //noinspection ResultOfMethodCallIgnored
-        osmdroidBase.mkdirs();
-        Configuration.getInstance().setOsmdroidBasePath(osmdroidBase);
-        Configuration.getInstance().setOsmdroidTileCache(new File(osmdroidBase, "tiles"));
+        metricsOverlay = findViewById(R.id.metrics_overlay);
+        if (BuildConfig.DEBUG) metricsOverlay.setVisibility(View.VISIBLE);
 
         map = findViewById(R.id.map);
+        // Tuiles lues dans le cache LRU borné, puis téléchargées
+        map.setTileProvider(MapTiles.newTileProvider(this));
         map.setMultiTouchControls(true);
         map.setBuiltInZoomControls(true);
+        points = new LocationPointsOverlay(map.getRepository().getDefaultMarkerIcon(),
+                new ClusterIconFactory(getResources()), getResources().getDisplayMetrics().density,
+                new PointsListener());
+        map.getOverlays().add(points);
+        // La fiche de détails fermée, le centre n’est plus mis en avant
+        getSupportFragmentManager().setFragmentResultListener(LocationDetailsBottomSheet.RESULT_DISMISSED, this,
+                (key, result) -> {
+                    if (points.setSelectedId(LocationPointsOverlay.NO_SELECTION)) map.invalidate();
+                });
 
         IMapController mapController = map.getController();
         mapController.setZoom(5.0);
         mapController.setCenter(new GeoPoint(48.8566, 2.3522)); // France (Paris)
 
+        // Recalcule les markers visibles quand la caméra bouge (événements regroupés)
+        map.addMapListener(new DelayedMapListener(new MapListener() {
+            @Override public boolean onScroll(ScrollEvent event) { updateVisibleMarkers(); return false; }
+            @Override public boolean onZoom(ZoomEvent event) { updateVisibleMarkers(); return false; }
+        }, CAMERA_DEBOUNCE_MS));
+        map.addOnFirstLayoutListener((v, left, top, right, bottom) -> updateVisibleMarkers());
+
+        // Liste de tous les centres, triable par distance au centre de la carte
+        findViewById(R.id.open_list).setOnClickListener(v -> {
+            IGeoPoint center = map.getMapCenter();
+            startActivity(LocationListActivity.newIntent(this, center.getLatitude(), center.getLongitude()));
+        });
+
+        // Archive hors ligne construite à partir des tuiles déjà en cache
+        findViewById(R.id.export_offline).setOnClickListener(this::exportOfflineArchive);
+
         // Initialisation du ViewModel (lié au cycle de vie de l’activité)
         vm = new ViewModelProvider(this).get(MapViewModel.class);
 
         // Observation des données LiveData : mise à jour de la carte à chaque changement
-        vm.getLocations().observe(this, this::renderMarkers);
+        vm.getClusters().observe(this, this::renderMarkers);
+
+        // Rafraîchissement initial (appel réseau + mise à jour DB) si les données sont périmées
+        vm.refreshIfStale(new LocationRepositoryCallback());
+    }
+
+    /**
+     * Remplace l’index de clusters courant, puis met à jour les markers de la zone visible.
+     *
+     * <p>
+     * Une synchronisation qui ne change rien ne provoque pas de redessin
+     * ({@link LocationPointsOverlay#setPoints}).
+     * </p>
+     *
+     * @param index clusters des centres de formation à afficher
+     */
+    private void renderMarkers(ClusterIndex index) {
+        if (map == null || index == null) return;
+        try (PipelineMetrics.Span ignored = PipelineMetrics.get().start(PipelineMetrics.Stage.RENDER)) {
+            clusters = index;
+            updateVisibleMarkers();
+        }
+    }
+
+    /**
+     * Synchronise les markers présents sur la carte avec la zone visible.
+     *
+     * <p>
+     * Le {@link LocationPointsOverlay} interroge le {@link ClusterIndex} pour le zoom
+     * courant et la {@link BoundingBox} élargie d’une marge ; la carte n’est redessinée
+     * que si les markers ont changé.
+     * </p>
+     */
+    private void updateVisibleMarkers() {
+        if (map == null || clusters == null || map.getWidth() == 0 || map.getHeight() == 0) return;
 
-        // Déclenche un rafraîchissement initial (appel réseau + mise à jour DB)
-        vm.refresh(new LocationRepositoryCallback());
+        BoundingBox box = map.getBoundingBox().increaseByScale(VIEWPORT_MARGIN_SCALE);
+        if (points.setPoints(clusters, map.getZoomLevelDouble(),
+                box.getLatSouth(), box.getLatNorth(), box.getLonWest(), box.getLonEast())) {
+            map.invalidate();
+        }
     }
 
     /**
-     * Ajoute des markers sur la carte pour chaque {@link Location}.
+     * Construit l’archive hors ligne à partir des tuiles en cache, hors du thread
+     * principal, puis indique le nombre de tuiles enregistrées. Le bouton reste
+     * désactivé pendant l’export.
      *
-     * @param list liste des centres de formation à afficher
+     * @param button bouton « Hors ligne »
      */
-    private void renderMarkers(List<Location> list) {
-        if (map == null || list == null) return;
-        map.getOverlays().removeIf(overlay -> overlay instanceof Marker);
-
-        for (Location loc : list) {
-            GeoPoint point = new GeoPoint(loc.latitude, loc.longitude);
-            Marker marker = new Marker(map);
-            marker.setPosition(point);
-            marker.setTitle(loc.name);
-            marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
-            marker.setRelatedObject(loc);
-            marker.setOnMarkerClickListener((clickedMarker, mapView) -> {
-                Object related = clickedMarker.getRelatedObject();
-                if (related instanceof Location) {
-                    LocationDetailsBottomSheet.newInstance((Location) related)
-                            .show(getSupportFragmentManager(), "details");
-                }
-                return true;
+    private void exportOfflineArchive(View button) {
+        button.setEnabled(false);
+        Context app = getApplicationContext();
+        AppExecutors.get().compute().execute(() -> {
+            String message;
+            try {
+                int count = MapTiles.exportOfflineArchive(app);
+                message = count > 0 ? count + " tuiles enregistrées pour le mode hors-ligne"
+                        : "Aucune tuile en cache à enregistrer";
+            } catch (IOException e) {
+                message = "Échec de l’enregistrement hors-ligne";
+            }
+            String text = message;
+            AppExecutors.get().mainThread().execute(() -> {
+                button.setEnabled(true);
+                Toast.makeText(app, text, Toast.LENGTH_LONG).show();
             });
-            map.getOverlays().add(marker);
+        });
+    }
+
+    /**
+     * Réagit aux clics sur les markers.
+     *
+     * <ul>
+     *     <li>Un clic sur un centre ouvre le {@link LocationDetailsBottomSheet}.</li>
+     *     <li>Un clic sur un cluster zoome jusqu’au niveau où il se sépare
+     *     ({@link Cluster#expansionZoom}).</li>
+     * </ul>
+     */
+    private class PointsListener implements LocationPointsOverlay.Listener {
+        @Override
+        public void onLocationTap(LocationStore store, int index) {
+            // Le Location n’est matérialisé que pour le centre cliqué
+            LocationDetailsBottomSheet.newInstance(store.get(index))
+                    .show(getSupportFragmentManager(), "details");
+        }
+
+        @Override
+        public void onClusterTap(double latitude, double longitude, int expansionZoom) {
+            double target = Math.min(expansionZoom, map.getMaxZoomLevel());
+            map.getController().animateTo(new GeoPoint(latitude, longitude), target, CLUSTER_ZOOM_ANIMATION_MS);
         }
-        map.invalidate();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         if (map != null) map.onResume();
+        if (BuildConfig.DEBUG) {
+            PipelineMetrics.get().addListener(metricsListener);
+            updateMetricsOverlay();
+        }
     }
 
     @Override
     protected void onPause() {
+        if (BuildConfig.DEBUG) PipelineMetrics.get().removeListener(metricsListener);
         if (map != null) map.onPause();
         super.onPause();
     }
 
+    /**
+     * Affiche les dernières statistiques de chaque étape du pipeline
+     * (durée, p50, p95, p99) dans la superposition de débogage.
+     */
+    private void updateMetricsOverlay() {
+        metricsOverlayPending.set(false);
+        StringBuilder text = new StringBuilder();
+        for (PipelineMetrics.StageStats stats : PipelineMetrics.get().snapshot()) {
+            if (text.length() > 0) text.append('\n');
+            text.append(stats);
+        }
+        metricsOverlay.setText(text);
+    }
+
     /**
      * Implémentation du callback du {@link com.example.dawanlocations.repository.LocationRepository}.
      *
@@ -5,12 +5,25 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
 
+import com.example.dawanlocations.AppExecutors;
+import com.example.dawanlocations.data.tiles.MapTiles;
+import com.example.dawanlocations.domain.cluster.ClusterEngine;
+import com.example.dawanlocations.domain.cluster.ClusterIndex;
 import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.metrics.PipelineMetrics;
 import com.example.dawanlocations.repository.LocationRepository;
 import com.example.dawanlocations.repository.LocationRepositoryImpl;
+import com.example.dawanlocations.repository.SyncScheduler;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ViewModel dédié à l’écran de la carte ({@link MapActivity}).
@@ -33,23 +46,55 @@ import java.util.List;
 public class MapViewModel extends AndroidViewModel {
     /** Référence vers le repository (accès données locales + distantes) */
     private final LocationRepository repo;
+    /** Planificateur de synchronisation (TTL, synchro de fond, repli après échec) */
+    private final SyncScheduler syncScheduler;
     /** Liste observable des centres (utilisée pour afficher les markers) */
     private final LiveData<List<Location>> locations;
+    /** Clusters précalculés par niveau de zoom, recalculés à chaque nouveau {@link LocationStore} */
+    private final MediatorLiveData<ClusterIndex> clusters = new MediatorLiveData<>();
+
+    /** Zoom minimal pour lequel des clusters sont calculés */
+    private static final int CLUSTER_MIN_ZOOM = 3;
+    /** Au-delà de ce zoom, chaque centre est affiché individuellement */
+    private static final int CLUSTER_MAX_ZOOM = 16;
+    /** Taille (en pixels) de la cellule de regroupement */
+    private static final double CLUSTER_CELL_PX = 64;
+
+    /** Moteur de clustering (sans état, réutilisable) */
+    private final ClusterEngine clusterEngine =
+            new ClusterEngine(CLUSTER_MIN_ZOOM, CLUSTER_MAX_ZOOM, CLUSTER_CELL_PX);
+    /** Numéro de la dernière demande de calcul, pour ignorer les résultats périmés */
+    private final AtomicInteger clusterGeneration = new AtomicInteger();
+
+    /** Délai (ms) sans nouvelle frappe avant de lancer la recherche */
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    /** Nombre maximal de résultats de recherche */
+    private static final int SEARCH_LIMIT = 50;
+    /** Résultats de la dernière recherche */
+    private final MutableLiveData<List<Location>> searchResults = new MutableLiveData<>();
+    /** Numéro de la dernière recherche demandée, pour ignorer les réponses périmées */
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    /** Recherche en attente (délai de regroupement non écoulé) ; thread principal uniquement */
+    private ScheduledFuture<?> pendingSearch;
 
     /**
      * Constructeur.
      *
      * <p>
-     * Initialise le repository et récupère directement
-     * le flux {@link LiveData} des {@link Location}.
+     * Récupère le repository partagé et récupère directement
+     * le flux {@link LiveData} des {@link Location}. Démarre aussi (une seule fois
+     * par processus) les synchronisations de fond.
      * </p>
      *
      * @param app application Android, nécessaire car {@link AndroidViewModel} a besoin d’un contexte
      */
     public MapViewModel(@NonNull Application app) {
         super(app);
-        repo = new LocationRepositoryImpl(app);
+        repo = LocationRepositoryImpl.getInstance(app);
+        syncScheduler = SyncScheduler.getInstance(app);
+        syncScheduler.startPeriodic();
         locations = repo.getLocations();
+        clusters.addSource(repo.getStore(), this::rebuildClusters);
     }
 
     /**
@@ -67,7 +112,93 @@ public class MapViewModel extends AndroidViewModel {
     }
 
     /**
-     * Demande un rafraîchissement depuis l’API distante.
+     * Retourne les clusters de centres, prêts à être affichés selon le zoom courant.
+     *
+     * <p>
+     * Le calcul est effectué sur un thread d’arrière-plan à chaque changement
+     * du {@link LocationStore} ; seul le résultat le plus récent est publié.
+     * </p>
+     *
+     * @return {@link LiveData} de l’index de clusters
+     */
+    public LiveData<ClusterIndex> getClusters() {
+        return clusters;
+    }
+
+    /**
+     * Lance le calcul des clusters pour un nouveau stockage de centres.
+     *
+     * @param store nouveaux centres (peut être {@code null})
+     */
+    private void rebuildClusters(LocationStore store) {
+        if (store == null) return;
+        prefetchTiles(store);
+        int generation = clusterGeneration.incrementAndGet();
+        AppExecutors.get().compute().execute(() -> {
+            if (generation != clusterGeneration.get()) return; // une demande plus récente existe
+            ClusterIndex index;
+            try (PipelineMetrics.Span ignored = PipelineMetrics.get().start(PipelineMetrics.Stage.CLUSTERING)) {
+                index = clusterEngine.build(store);
+            }
+            if (generation == clusterGeneration.get()) clusters.postValue(index);
+        });
+    }
+
+    /**
+     * Lance (une fois par processus, hors du thread principal) le préchargement des
+     * tuiles de la carte autour des centres.
+     *
+     * @param store centres connus
+     */
+    private void prefetchTiles(LocationStore store) {
+        if (store.size() == 0) return;
+        Application app = getApplication();
+        AppExecutors.get().compute().execute(() -> MapTiles.prefetch(app, store));
+    }
+
+    /**
+     * Retourne les résultats de la recherche en cours (voir {@link #search(String)}).
+     *
+     * @return {@link LiveData} des centres trouvés, classés par pertinence
+     */
+    public LiveData<List<Location>> getSearchResults() {
+        return searchResults;
+    }
+
+    /**
+     * Lance une recherche plein texte, à appeler à chaque frappe (thread principal).
+     *
+     * <p>
+     * Les frappes rapprochées sont regroupées : la recherche ne part qu’après
+     * {@code SEARCH_DEBOUNCE_MS} sans nouvelle saisie, et la réponse d’une recherche
+     * dépassée par une saisie plus récente est ignorée. Une saisie vide vide les résultats.
+     * </p>
+     *
+     * @param query texte saisi
+     */
+    public void search(String query) {
+        int generation = searchGeneration.incrementAndGet();
+        if (pendingSearch != null) pendingSearch.cancel(false);
+        pendingSearch = null;
+        if (query == null || query.trim().isEmpty()) {
+            searchResults.setValue(Collections.emptyList());
+            return;
+        }
+        pendingSearch = AppExecutors.get().scheduler().schedule(
+                () -> repo.search(query, SEARCH_LIMIT, results -> {
+                    if (generation == searchGeneration.get()) searchResults.setValue(results);
+                }),
+                SEARCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void onCleared() {
+        if (pendingSearch != null) pendingSearch.cancel(false);
+        searchGeneration.incrementAndGet();
+    }
+
+    /**
+     * Demande un rafraîchissement depuis l’API distante, quel que soit l’âge des données.
      *
      * <p>
      * Cette méthode déclenche l’appel réseau et la mise à jour
@@ -78,6 +209,16 @@ public class MapViewModel extends AndroidViewModel {
      * @param cb callback du repository
      */
     public void refresh(LocationRepository.Callback cb) {
-        repo.refreshAsync(cb);
+        syncScheduler.syncNow(cb);
+    }
+
+    /**
+     * Demande un rafraîchissement uniquement si les données locales sont périmées
+     * (voir {@link SyncScheduler#syncIfStale}).
+     *
+     * @param cb callback du repository
+     */
+    public void refreshIfStale(LocationRepository.Callback cb) {
+        syncScheduler.syncIfStale(cb);
     }
 }
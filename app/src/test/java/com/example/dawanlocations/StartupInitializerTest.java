@@ -0,0 +1,121 @@
+package com.example.dawanlocations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.dawanlocations.StartupInitializer.Component;
+import com.example.dawanlocations.data.remote.RetrofitClient;
+import com.example.dawanlocations.data.tiles.MapTiles;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.osmdroid.config.Configuration;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests (Robolectric) de {@link StartupInitializer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class StartupInitializerTest {
+
+    private static StartupInitializer newInitializer(Map<Component, Runnable> tasks) {
+        return new StartupInitializer(tasks, Executors.newFixedThreadPool(Component.values().length));
+    }
+
+    /** Les composants indépendants sont préparés en même temps ; le repository attend ses dépendances. */
+    @Test
+    public void independent_components_run_in_parallel() {
+        CountDownLatch allRunning = new CountDownLatch(3);
+        Runnable parallel = () -> {
+            allRunning.countDown();
+            try {
+                // N’aboutit que si les trois préparations s’exécutent simultanément
+                if (!allRunning.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("not parallel");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        boolean[] depsReady = new boolean[1];
+        StartupInitializer[] self = new StartupInitializer[1];
+        Map<Component, Runnable> tasks = new EnumMap<>(Component.class);
+        tasks.put(Component.OSMDROID, parallel);
+        tasks.put(Component.TILES, () -> { });
+        tasks.put(Component.DATABASE, parallel);
+        tasks.put(Component.NETWORK, parallel);
+        tasks.put(Component.REPOSITORY, () ->
+                depsReady[0] = self[0].isDone(Component.DATABASE) && self[0].isDone(Component.NETWORK));
+        self[0] = newInitializer(tasks);
+
+        assertEquals(-1, self[0].durationMs(Component.OSMDROID));
+        self[0].await(Component.REPOSITORY); // lance aussi la préparation
+        self[0].await(Component.OSMDROID);
+
+        assertTrue(depsReady[0]);
+        for (Component c : Component.values()) assertTrue(self[0].durationMs(c) >= 0);
+    }
+
+    /** L’échec d’un composant est remonté à ceux qui l’attendent, sans bloquer les autres. */
+    @Test
+    public void failure_propagates_to_dependents_only() {
+        Map<Component, Runnable> tasks = new EnumMap<>(Component.class);
+        tasks.put(Component.OSMDROID, () -> { });
+        tasks.put(Component.TILES, () -> { });
+        tasks.put(Component.DATABASE, () -> { throw new IllegalStateException("disk full"); });
+        tasks.put(Component.NETWORK, () -> { });
+        tasks.put(Component.REPOSITORY, () -> fail("must not run"));
+        StartupInitializer init = newInitializer(tasks);
+        init.start();
+
+        init.await(Component.OSMDROID);
+        init.await(Component.NETWORK);
+        try {
+            init.await(Component.REPOSITORY);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(init.isDone(Component.DATABASE));
+            assertEquals(-1, init.durationMs(Component.REPOSITORY));
+        }
+    }
+
+    /** Les préparations réelles configurent OSMDroid et construisent le client HTTP partagé. */
+    @Test
+    public void default_tasks_configure_osmdroid_and_network() {
+        Context app = ApplicationProvider.getApplicationContext();
+        // Sans préchauffage : aucune requête vers l’API réelle
+        Map<Component, Runnable> tasks = StartupInitializer.defaultTasks(app, false);
+        // Base et repository : couverts par les tests instrumentés (SQLite réel)
+        tasks.put(Component.DATABASE, () -> { });
+        tasks.put(Component.REPOSITORY, () -> { });
+        StartupInitializer init = newInitializer(tasks);
+
+        init.await(Component.OSMDROID);
+        File base = new File(app.getCacheDir(), "osmdroid");
+        assertTrue(base.isDirectory());
+        assertEquals(base, Configuration.getInstance().getOsmdroidBasePath());
+        assertEquals(new File(base, "tiles"), Configuration.getInstance().getOsmdroidTileCache());
+        assertEquals(app.getPackageName(), Configuration.getInstance().getUserAgentValue());
+
+        init.await(Component.TILES);
+        assertTrue(new File(base, "tiles/lru/" + MapTiles.SOURCE.name()).isDirectory());
+
+        init.await(Component.NETWORK);
+        assertNotNull(RetrofitClient.getInstance(app));
+        assertFalse(init.durationMs(Component.NETWORK) < 0);
+    }
+}
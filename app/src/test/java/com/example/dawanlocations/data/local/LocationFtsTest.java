@@ -0,0 +1,125 @@
+package com.example.dawanlocations.data.local;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests (JVM) de la construction des requêtes et du classement de {@link LocationFts}.
+ */
+public class LocationFtsTest {
+
+    /** Chaque mot devient un préfixe ; la ponctuation et les opérateurs FTS sont neutralisés. */
+    @Test
+    public void toMatchQuery_builds_prefix_terms() {
+        assertEquals("saint* ét* 42*", LocationFts.toMatchQuery("  Saint-Ét 42 "));
+        assertEquals("paris*", LocationFts.toMatchQuery("\"Paris\"*"));
+        assertEquals("a* or* b*", LocationFts.toMatchQuery("a OR (b)"));
+        assertNull(LocationFts.toMatchQuery("  - * \" "));
+        assertNull(LocationFts.toMatchQuery(null));
+    }
+
+    /** Construit un {@code matchinfo('pcx')} pour une requête d’un mot sur les 4 colonnes. */
+    private static byte[] matchInfo(int[] hitsThisRow, int[] hitsAllRows) {
+        ByteBuffer buf = ByteBuffer.allocate(8 + 12 * 4).order(ByteOrder.nativeOrder());
+        buf.putInt(1).putInt(4);
+        for (int c = 0; c < 4; c++) buf.putInt(hitsThisRow[c]).putInt(hitsAllRows[c]).putInt(hitsAllRows[c]);
+        return buf.array();
+    }
+
+    /** Un mot trouvé dans le nom l’emporte sur le même mot trouvé dans l’adresse. */
+    @Test
+    public void score_prefers_name_over_address() {
+        int[] all = {10, 10, 10, 10};
+        double inName = LocationFts.score(matchInfo(new int[]{1, 0, 0, 0}, all));
+        double inAddress = LocationFts.score(matchInfo(new int[]{0, 1, 0, 0}, all));
+        double inCity = LocationFts.score(matchInfo(new int[]{0, 0, 1, 0}, all));
+        assertTrue(inName > inCity);
+        assertTrue(inCity > inAddress);
+        assertTrue(inAddress > 0);
+    }
+
+    /** Un mot rare pèse plus qu’un mot fréquent ; un matchinfo invalide vaut 0. */
+    @Test
+    public void score_favours_rare_terms_and_tolerates_bad_input() {
+        double rare = LocationFts.score(matchInfo(new int[]{1, 0, 0, 0}, new int[]{2, 0, 0, 0}));
+        double common = LocationFts.score(matchInfo(new int[]{1, 0, 0, 0}, new int[]{50, 0, 0, 0}));
+        assertTrue(rare > common);
+        assertEquals(0.0, LocationFts.score(null), 0.0);
+        assertEquals(0.0, LocationFts.score(new byte[]{1, 0, 0, 0, 4, 0, 0, 0}), 0.0);
+    }
+
+    private static LocationSearchRow row(int id, String name, byte[] matchInfo) {
+        LocationSearchRow r = new LocationSearchRow();
+        r.id = id;
+        r.name = name;
+        r.matchInfo = matchInfo;
+        return r;
+    }
+
+    /**
+     * Toutes les correspondances sont classées, pas seulement les premières renvoyées :
+     * les meilleures, placées en fin de liste parmi 2 000 lignes, sont retenues.
+     */
+    @Test
+    public void rank_considers_every_match() {
+        int[] all = {3, 2000, 0, 0};
+        List<LocationSearchRow> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(row(i, "Centre " + i, matchInfo(new int[]{0, 1, 0, 0}, all))); // adresse seule
+        }
+        rows.add(row(5000, "Zeta", matchInfo(new int[]{1, 0, 0, 0}, all)));
+        rows.add(row(5001, "alpha", matchInfo(new int[]{1, 0, 0, 0}, all)));
+        rows.add(row(5002, "Beta", matchInfo(new int[]{1, 1, 0, 0}, all)));
+
+        assertArrayEquals(new int[]{5002, 5001, 5000}, LocationFts.rank(rows, 3));
+        int[] top = LocationFts.rank(rows, 5);
+        assertArrayEquals(new int[]{5002, 5001, 5000, 0, 1}, top);
+        assertEquals(0, LocationFts.rank(rows, 0).length);
+        assertEquals(0, LocationFts.rank(Collections.emptyList(), 10).length);
+    }
+
+    /**
+     * Le tas borné donne le même résultat qu’un tri complet : score décroissant, puis nom
+     * (noms absents en dernier), puis id.
+     */
+    @Test
+    public void rank_matches_full_sort() {
+        Random rnd = new Random(7);
+        int[] all = {40, 40, 40, 40};
+        List<LocationSearchRow> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int[] hits = {rnd.nextInt(2), rnd.nextInt(2), rnd.nextInt(2), 0};
+            String name = rnd.nextInt(10) == 0 ? null : "Centre " + rnd.nextInt(50);
+            rows.add(row(10_000 - i, name, matchInfo(hits, all)));
+        }
+
+        List<LocationSearchRow> sorted = new ArrayList<>(rows);
+        sorted.sort((a, b) -> {
+            int c = Double.compare(LocationFts.score(b.matchInfo), LocationFts.score(a.matchInfo));
+            if (c != 0) return c;
+            if (a.name == null || b.name == null) {
+                c = a.name == null ? (b.name == null ? 0 : 1) : -1;
+            } else {
+                c = a.name.compareToIgnoreCase(b.name);
+            }
+            return c != 0 ? c : Integer.compare(a.id, b.id);
+        });
+        for (int limit : new int[]{1, 50, 600, 5000}) {
+            int[] expected = new int[Math.min(limit, sorted.size())];
+            for (int i = 0; i < expected.length; i++) expected[i] = sorted.get(i).id;
+            assertEquals("limit " + limit, Arrays.toString(expected), Arrays.toString(LocationFts.rank(rows, limit)));
+        }
+    }
+}
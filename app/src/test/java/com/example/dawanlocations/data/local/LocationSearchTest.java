@@ -0,0 +1,93 @@
+package com.example.dawanlocations.data.local;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests (Robolectric, Room en mémoire) de la recherche plein texte :
+ * {@link LocationDao#search(String)} puis {@link LocationFts#rank}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LocationSearchTest {
+
+    private AppDatabase db;
+    private LocationDao dao;
+
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        dao = db.locationDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static LocationEntity entity(int id, String name, String address, String city) {
+        LocationEntity e = new LocationEntity();
+        e.id = id;
+        e.name = name;
+        e.address = address;
+        e.city = city;
+        e.postalCode = "69000";
+        e.latitude = 45.0;
+        e.longitude = 4.0 + id / 10_000.0;
+        return e;
+    }
+
+    /**
+     * Avec bien plus de correspondances que de résultats demandés, les plus pertinentes
+     * (mot trouvé dans le nom) sont retenues, même insérées en dernier.
+     */
+    @Test
+    public void search_ranks_every_match() {
+        List<LocationEntity> rows = new ArrayList<>();
+        for (int i = 1; i <= 1200; i++) rows.add(entity(i, "Centre " + i, "12 quai du Port", "Lyon"));
+        rows.add(entity(2001, "Port Vauban", "1 place Masséna", "Antibes"));
+        rows.add(entity(2002, "Centre du Port", "3 quai du Port", "Marseille"));
+        dao.insertAll(rows);
+
+        List<LocationSearchRow> matches = dao.search(LocationFts.toMatchQuery("port"));
+        assertEquals(1202, matches.size());
+        assertArrayEquals(new int[]{2002, 2001}, LocationFts.rank(matches, 2));
+
+        int[] top = LocationFts.rank(matches, 10);
+        assertEquals(10, top.length);
+        assertEquals(2002, top[0]);
+        assertEquals(2001, top[1]);
+        // Puis les ex aequo, par nom : « Centre 1 », « Centre 10 », « Centre 100 »…
+        assertEquals(1, top[2]);
+        assertEquals(10, top[3]);
+        assertEquals(100, top[4]);
+    }
+
+    /** Les mots saisis sont des préfixes, sans tenir compte des accents. */
+    @Test
+    public void search_matches_prefixes_without_accents() {
+        List<LocationEntity> rows = new ArrayList<>();
+        rows.add(entity(1, "Saint-Étienne Centre", "5 rue Gambetta", "Saint-Étienne"));
+        rows.add(entity(2, "Lyon Part-Dieu", "10 rue de la Villette", "Lyon"));
+        dao.insertAll(rows);
+
+        assertArrayEquals(new int[]{1}, LocationFts.rank(dao.search(LocationFts.toMatchQuery("etien")), 10));
+        assertArrayEquals(new int[]{2}, LocationFts.rank(dao.search(LocationFts.toMatchQuery("villet")), 10));
+        assertEquals(0, dao.search(LocationFts.toMatchQuery("paris")).size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.dawanlocations.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Tests (JVM) du format binaire de {@link LocationSnapshotFile}.
+ */
+public class LocationSnapshotFileTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File file;
+    private LocationSnapshotFile snapshot;
+
+    @Before
+    public void setUp() {
+        file = new File(tmp.getRoot(), "locations.snapshot");
+        snapshot = new LocationSnapshotFile(file);
+    }
+
+    private static LocationStore sample() {
+        return LocationStore.of(Arrays.asList(
+                new Location(1, "Dawan Paris", "11 rue Antoine Bourdelle", "Paris", "75015", 48.8437, 2.3186),
+                new Location(2, "Dawan Lyon", null, "Lyon", "69003", 45.7578, 4.8320),
+                new Location(3, "Dawan Paris Nord", "1 rue de Paris", "Paris", null, 48.90, 2.35),
+                new Location(4, "Café – Crème", "", "Saint-Étienne", "42000", -12.5, -170.25)));
+    }
+
+    /**
+     * Une écriture suivie d’une lecture restitue exactement les mêmes centres
+     * (chaînes dupliquées, vides, {@code null} et non ASCII compris).
+     */
+    @Test
+    public void roundTrip_preserves_all_fields() throws Exception {
+        LocationStore in = sample();
+        snapshot.write(in);
+
+        LocationStore out = snapshot.read();
+        assertNotNull(out);
+        assertEquals(in.size(), out.size());
+        assertEquals(in.stringCount(), out.stringCount());
+        assertEquals(2, out.indexOf(3));
+        for (int i = 0; i < in.size(); i++) {
+            Location a = in.get(i), b = out.get(i);
+            assertEquals(a.id, b.id);
+            assertEquals(a.name, b.name);
+            assertEquals(a.address, b.address);
+            assertEquals(a.city, b.city);
+            assertEquals(a.postalCode, b.postalCode);
+            assertEquals(a.latitude, b.latitude, 0.0);
+            assertEquals(a.longitude, b.longitude, 0.0);
+        }
+    }
+
+    /** Une liste vide est un instantané valide. */
+    @Test
+    public void empty_list_round_trips() throws Exception {
+        snapshot.write(LocationStore.EMPTY);
+        LocationStore out = snapshot.read();
+        assertNotNull(out);
+        assertEquals(0, out.size());
+    }
+
+    /** Sans fichier, la lecture renvoie {@code null} (repli sur Room). */
+    @Test
+    public void missing_file_returns_null() {
+        assertNull(snapshot.read());
+    }
+
+    /** Un octet modifié dans le corps est détecté par la somme de contrôle ; le fichier est supprimé. */
+    @Test
+    public void corrupted_body_is_rejected_and_deleted() throws Exception {
+        snapshot.write(sample());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(40);
+            int b = raf.read();
+            raf.seek(40);
+            raf.write(b ^ 0xff);
+        }
+        assertNull(snapshot.read());
+        assertFalse(file.exists());
+    }
+
+    /** Un fichier tronqué est rejeté. */
+    @Test
+    public void truncated_file_is_rejected() throws Exception {
+        snapshot.write(sample());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        assertNull(snapshot.read());
+    }
+
+    /** Une version de format inconnue est rejetée. */
+    @Test
+    public void unknown_version_is_rejected() throws Exception {
+        snapshot.write(sample());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(4);
+            raf.write(LocationSnapshotFile.FORMAT_VERSION + 1);
+        }
+        assertNull(snapshot.read());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.dawanlocations.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tests (JVM) des schémas exportés ({@code app/schemas}) utilisés par les tests de
+ * migration : le schéma le plus récent décrit exactement les entités Room actuelles.
+ */
+public class SchemaFilesTest {
+
+    private static final File SCHEMA_DIR = new File("schemas/" + AppDatabase.class.getName());
+
+    /** Entités Room, par nom de table */
+    private static final Map<String, Class<?>> ENTITIES = new TreeMap<>(Map.of(
+            "locations", LocationEntity.class,
+            "locations_fts", LocationFtsEntity.class,
+            "sync_metadata", SyncMetadataEntity.class));
+
+    private static JsonObject latestSchema() throws IOException {
+        File[] files = SCHEMA_DIR.listFiles((dir, name) -> name.matches("\\d+\\.json"));
+        assertNotNull("missing " + SCHEMA_DIR, files);
+        File latest = null;
+        for (File f : files) {
+            if (latest == null || version(f) > version(latest)) latest = f;
+        }
+        assertNotNull(latest);
+        try (Reader in = Files.newBufferedReader(latest.toPath(), StandardCharsets.UTF_8)) {
+            JsonObject database = JsonParser.parseReader(in).getAsJsonObject().getAsJsonObject("database");
+            assertEquals(version(latest), database.get("version").getAsInt());
+            return database;
+        }
+    }
+
+    private static int version(File f) {
+        return Integer.parseInt(f.getName().substring(0, f.getName().length() - ".json".length()));
+    }
+
+    /** Colonnes de l’entité (champs d’instance publics), avec {@code true} si le champ est primitif. */
+    private static Map<String, Boolean> columns(Class<?> entity) {
+        Map<String, Boolean> out = new TreeMap<>();
+        for (Field f : entity.getFields()) {
+            if (Modifier.isStatic(f.getModifiers())) continue;
+            out.put(f.getName(), f.getType().isPrimitive());
+        }
+        return out;
+    }
+
+    /** Mêmes tables et mêmes colonnes ; les champs primitifs sont {@code NOT NULL}. */
+    @Test
+    public void latest_schema_matches_entities() throws IOException {
+        JsonObject database = latestSchema();
+        Set<String> tables = new TreeSet<>();
+        for (JsonElement e : database.getAsJsonArray("entities")) {
+            JsonObject entity = e.getAsJsonObject();
+            String table = entity.get("tableName").getAsString();
+            tables.add(table);
+            Class<?> type = ENTITIES.get(table);
+            assertNotNull("unexpected table " + table, type);
+
+            Map<String, Boolean> expected = columns(type);
+            String createSql = entity.get("createSql").getAsString();
+            Set<String> actual = new TreeSet<>();
+            for (JsonElement c : entity.getAsJsonArray("fields")) {
+                JsonObject field = c.getAsJsonObject();
+                String name = field.get("columnName").getAsString();
+                actual.add(name);
+                assertTrue(table + "." + name, createSql.contains("`" + name + "`"));
+                if (expected.getOrDefault(name, false)) {
+                    assertTrue(table + "." + name + " NOT NULL", field.get("notNull").getAsBoolean());
+                }
+            }
+            assertEquals(table, expected.keySet(), actual);
+        }
+        assertEquals(ENTITIES.keySet(), tables);
+
+        String hash = database.get("identityHash").getAsString();
+        assertTrue(database.getAsJsonArray("setupQueries").toString().contains(hash));
+    }
+}
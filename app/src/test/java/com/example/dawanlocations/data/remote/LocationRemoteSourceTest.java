@@ -0,0 +1,194 @@
+package com.example.dawanlocations.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tests (JVM) du cache HTTP et des requêtes conditionnelles de {@link LocationRemoteSource},
+ * contre un {@link MockWebServer} local.
+ */
+public class LocationRemoteSourceTest {
+
+    private static final String BODY =
+            "[{\"id\":1,\"name\":\"Paris\",\"address\":\"1 rue\",\"city\":\"Paris\","
+                    + "\"postalCode\":\"75001\",\"latitude\":48.85,\"longitude\":2.35}]";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private LocationRemoteSource source;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        OkHttpClient client = RetrofitClient.newHttpClient(tmp.newFolder("http"));
+        DawanApi api = RetrofitClient.create(server.url("/").toString(), client).create(DawanApi.class);
+        source = new LocationRemoteSource(api, client.cache());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    /** Lit tout le corps d’un résultat (s’il y en a un) et le ferme. */
+    private static List<LocationEntity> readAll(LocationRemoteSource.FetchResult res) throws Exception {
+        try (LocationRemoteSource.FetchResult r = res) {
+            if (!r.hasBody()) return null;
+            List<LocationEntity> out = new ArrayList<>();
+            LocationStreamParser.parse(r.reader(), 10, out::addAll);
+            return out;
+        }
+    }
+
+    /**
+     * Une réponse avec ETag est revalidée par If-None-Match ; un 304 n’est pas analysé.
+     */
+    @Test
+    public void etag_revalidates_and_skips_parsing_on_304() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        LocationRemoteSource.FetchResult first = source.fetch(false);
+        assertFalse(first.notModified);
+        List<LocationEntity> parsed = readAll(first);
+        assertNotNull(parsed);
+        assertEquals(1, parsed.size());
+        assertEquals("Paris", parsed.get(0).name);
+
+        LocationRemoteSource.FetchResult second = source.fetch(false);
+        assertTrue(second.notModified);
+        assertNull(readAll(second));
+
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+    }
+
+    /**
+     * Une réponse avec Last-Modified est revalidée par If-Modified-Since.
+     */
+    @Test
+    public void lastModified_sends_ifModifiedSince() throws Exception {
+        String date = "Wed, 01 Jan 2025 10:00:00 GMT";
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("Last-Modified", date));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        readAll(source.fetch(false));
+        assertTrue(source.fetch(false).notModified);
+
+        server.takeRequest();
+        assertEquals(date, server.takeRequest().getHeader("If-Modified-Since"));
+    }
+
+    /**
+     * Sur 304, le corps mis en cache reste disponible si l’appelant le demande
+     * (base locale vide par exemple).
+     */
+    @Test
+    public void notModified_can_still_return_cached_body() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        readAll(source.fetch(false));
+        LocationRemoteSource.FetchResult cached = source.fetch(true);
+        assertTrue(cached.notModified);
+        List<LocationEntity> parsed = readAll(cached);
+        assertNotNull(parsed);
+        assertEquals(1, parsed.size());
+    }
+
+    /**
+     * Une nouvelle version (200 avec un autre ETag) est analysée normalement.
+     */
+    @Test
+    public void changed_payload_is_parsed() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setBody("[]").setHeader("ETag", "\"v2\""));
+
+        readAll(source.fetch(false));
+        LocationRemoteSource.FetchResult second = source.fetch(false);
+        assertFalse(second.notModified);
+        List<LocationEntity> parsed = readAll(second);
+        assertNotNull(parsed);
+        assertTrue(parsed.isEmpty());
+    }
+
+    /**
+     * Fermer un résultat sans l’avoir lu suffit à enregistrer la réponse dans le cache
+     * (la fin du corps est consommée) ; une fois retirée par {@code evictCachedList},
+     * la liste est redemandée sans condition.
+     */
+    @Test
+    public void evicted_list_is_fetched_unconditionally() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+
+        source.fetch(false).close(); // échec simulé : corps jamais appliqué
+        assertTrue(source.fetch(false).notModified);
+
+        source.evictCachedList();
+        LocationRemoteSource.FetchResult third = source.fetch(false);
+        assertFalse(third.notModified);
+        assertEquals(1, readAll(third).size());
+
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    /**
+     * Le corps copié localement se lit en entier sans le réseau (connexion déjà libérée),
+     * est enregistré dans le cache HTTP, et sa copie est supprimée à la fermeture.
+     */
+    @Test
+    public void spooled_body_is_read_from_local_copy() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+        File dir = tmp.newFolder("spool");
+
+        List<LocationEntity> parsed = new ArrayList<>();
+        try (LocationRemoteSource.FetchResult res = source.fetch(false)) {
+            Reader body = res.spool(dir);
+            server.shutdown();
+            assertEquals(1, dir.list().length);
+            LocationStreamParser.parse(body, 10, parsed::addAll);
+        }
+        assertEquals(1, parsed.size());
+        assertEquals("Paris", parsed.get(0).name);
+        assertEquals(0, dir.list().length);
+    }
+
+    /**
+     * Un code d’erreur HTTP est remonté sous forme d’{@link java.io.IOException}.
+     */
+    @Test(expected = java.io.IOException.class)
+    public void httpError_throws() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        source.fetch(false);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.dawanlocations.data.remote;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests (JVM) de l’analyse en flux {@link LocationStreamParser}.
+ */
+public class LocationStreamParserTest {
+
+    /**
+     * Les éléments sont transmis par lots de taille fixe, le dernier lot étant partiel.
+     */
+    @Test
+    public void emits_fixed_size_batches() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 25; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":").append(i).append(",\"latitude\":1.5,\"longitude\":2.5}");
+        }
+        json.append(']');
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        int total = LocationStreamParser.parse(new StringReader(json.toString()), 10, batch -> {
+            sizes.add(batch.size());
+            for (LocationEntity e : batch) ids.add(e.id);
+        });
+
+        assertEquals(25, total);
+        assertEquals(List.of(10, 10, 5), sizes);
+        assertEquals(25, ids.size());
+        assertEquals(24, (int) ids.get(24));
+    }
+
+    /**
+     * Les champs inconnus sont ignorés et les valeurs null laissées par défaut.
+     */
+    @Test
+    public void skips_unknown_fields_and_nulls() throws Exception {
+        String json = "[{\"id\":7,\"name\":null,\"extra\":{\"a\":[1,2]},\"city\":\"Lyon\","
+                + "\"postalCode\":\"69001\",\"address\":\"2 place\",\"latitude\":45.76,\"longitude\":4.83}]";
+        List<LocationEntity> out = new ArrayList<>();
+        LocationStreamParser.parse(new StringReader(json), 100, out::addAll);
+
+        assertEquals(1, out.size());
+        LocationEntity e = out.get(0);
+        assertEquals(7, e.id);
+        assertNull(e.name);
+        assertEquals("Lyon", e.city);
+        assertEquals("69001", e.postalCode);
+        assertEquals("2 place", e.address);
+        assertEquals(45.76, e.latitude, 0.0);
+        assertEquals(4.83, e.longitude, 0.0);
+    }
+
+    /**
+     * Un corps qui n’est pas un tableau JSON est rejeté.
+     */
+    @Test(expected = IOException.class)
+    public void rejects_non_array() throws Exception {
+        LocationStreamParser.parse(new StringReader("{\"id\":1}"), 10, batch -> { });
+    }
+
+    /**
+     * Réponse de changements : champs dans un ordre quelconque, lignes par lots,
+     * identifiants supprimés et curseur retournés.
+     */
+    @Test
+    public void parses_changes_in_any_field_order() throws Exception {
+        String json = "{\"deleted\":[4,9],\"changed\":[{\"id\":1,\"name\":\"A\"},{\"id\":2},{\"id\":3}],"
+                + "\"extra\":null,\"cursor\":\"c42\"}";
+
+        List<Integer> sizes = new ArrayList<>();
+        LocationStreamParser.Changes changes =
+                LocationStreamParser.parseChanges(new StringReader(json), 2, batch -> sizes.add(batch.size()));
+
+        assertEquals("c42", changes.cursor);
+        assertFalse(changes.full);
+        assertEquals(3, changes.changedCount);
+        assertArrayEquals(new int[]{4, 9}, changes.deletedIds);
+        assertEquals(List.of(2, 1), sizes);
+    }
+
+    /**
+     * Une réponse de changements sans curseur est rejetée.
+     */
+    @Test(expected = IOException.class)
+    public void rejects_changes_without_cursor() throws Exception {
+        LocationStreamParser.parseChanges(new StringReader("{\"changed\":[],\"deleted\":[]}"), 10, batch -> { });
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.dawanlocations.data.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Tests (JVM) du client HTTP de l’API ({@link RetrofitClient}, {@link RetryInterceptor})
+ * contre un {@link MockWebServer} qui injecte des pannes et de la latence.
+ */
+public class RetryInterceptorTest {
+
+    private static final String BODY =
+            "[{\"id\":1,\"name\":\"Paris\",\"address\":\"1 rue\",\"city\":\"Paris\","
+                    + "\"postalCode\":\"75001\",\"latitude\":48.85,\"longitude\":2.35}]";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    /** Client de l’application, avec des délais de relance courts. */
+    private OkHttpClient client(int maxRetries, RetryInterceptor.Budget budget) throws IOException {
+        return RetrofitClient.newHttpClient(tmp.newFolder(),
+                new RetryInterceptor(maxRetries, 10, 40, budget, new Random(42)));
+    }
+
+    private LocationRemoteSource source(OkHttpClient client) {
+        DawanApi api = RetrofitClient.create(server.url("/").toString(), client).create(DawanApi.class);
+        return new LocationRemoteSource(api);
+    }
+
+    private static List<LocationEntity> readAll(LocationRemoteSource.FetchResult res) throws Exception {
+        try (LocationRemoteSource.FetchResult r = res) {
+            List<LocationEntity> out = new ArrayList<>();
+            LocationStreamParser.parse(r.reader(), 10, out::addAll);
+            return out;
+        }
+    }
+
+    /** Une erreur serveur, puis une connexion coupée, sont relancées jusqu’au succès. */
+    @Test
+    public void transient_failures_are_retried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        List<LocationEntity> parsed = readAll(source(client(2, new RetryInterceptor.Budget(10, 0))).fetch(false));
+
+        assertEquals(1, parsed.size());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    /** Une réponse trop lente dépasse le délai de lecture ; la relance aboutit. */
+    @Test
+    public void slow_response_times_out_then_succeeds() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(2, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(BODY));
+        OkHttpClient client = client(1, new RetryInterceptor.Budget(10, 0)).newBuilder()
+                .readTimeout(300, TimeUnit.MILLISECONDS)
+                .build();
+
+        assertEquals(1, readAll(source(client).fetch(false)).size());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    /** L’échéance de l’appel borne l’ensemble des tentatives : pas de relance au-delà. */
+    @Test
+    public void call_deadline_stops_retries() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(1, TimeUnit.SECONDS));
+        }
+        OkHttpClient client = client(4, new RetryInterceptor.Budget(10, 0)).newBuilder()
+                .readTimeout(200, TimeUnit.MILLISECONDS)
+                .callTimeout(500, TimeUnit.MILLISECONDS)
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            source(client).fetch(false);
+            fail();
+        } catch (InterruptedIOException expected) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500);
+            assertTrue(server.getRequestCount() < 5);
+        }
+    }
+
+    /** Budget épuisé : la dernière réponse en échec est rendue sans nouvelle relance. */
+    @Test
+    public void exhausted_budget_stops_retries() throws Exception {
+        for (int i = 0; i < 4; i++) server.enqueue(new MockResponse().setResponseCode(503));
+        RetryInterceptor.Budget budget = new RetryInterceptor.Budget(1, 0);
+        OkHttpClient client = client(3, budget);
+
+        try (Response res = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+            assertEquals(503, res.code());
+        }
+        assertEquals(2, server.getRequestCount()); // une seule relance permise
+        assertEquals(0, budget.tokens(), 0);
+    }
+
+    /** Une requête non idempotente n’est jamais relancée. */
+    @Test
+    public void post_is_not_retried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+        RequestBody body = RequestBody.create(MediaType.get("application/json"), "{}");
+
+        try (Response res = client(2, new RetryInterceptor.Budget(10, 0))
+                .newCall(new Request.Builder().url(server.url("/")).post(body).build()).execute()) {
+            assertEquals(503, res.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /** La compression gzip est négociée et le corps décompressé de façon transparente. */
+    @Test
+    public void gzip_is_negotiated() throws Exception {
+        Buffer gzipped = new Buffer();
+        try (okio.BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8(BODY);
+        }
+        server.enqueue(new MockResponse().setBody(gzipped).setHeader("Content-Encoding", "gzip"));
+
+        List<LocationEntity> parsed = readAll(source(client(0, new RetryInterceptor.Budget(0, 0))).fetch(false));
+
+        assertNotNull(parsed);
+        assertEquals("Paris", parsed.get(0).name);
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+    }
+
+    /** Les délais de relance croissent de façon exponentielle, gigue comprise, jusqu’au maximum. */
+    @Test
+    public void backoff_grows_with_jitter() {
+        RetryInterceptor retry = new RetryInterceptor(5, 100, 1_000, new RetryInterceptor.Budget(1, 0), new Random(7));
+        for (int i = 0; i < 50; i++) {
+            long first = retry.backoffDelay(1);
+            assertTrue(first >= 50 && first <= 100);
+            long third = retry.backoffDelay(3);
+            assertTrue(third >= 200 && third <= 400);
+            long capped = retry.backoffDelay(10);
+            assertTrue(capped >= 500 && capped <= 1_000);
+        }
+        assertFalse(RetryInterceptor.isIdempotent("POST"));
+        assertTrue(RetryInterceptor.isRetryable(429));
+        assertFalse(RetryInterceptor.isRetryable(404));
+    }
+
+    /**
+     * Le préchauffage n’est pas relancé et ne consomme pas le budget de relances, mais
+     * sa connexion reste dans le pool partagé avec le client de l’API.
+     */
+    @Test
+    public void prewarm_skips_retries_and_shares_pool() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        RetryInterceptor.Budget budget = new RetryInterceptor.Budget(10, 0);
+        OkHttpClient api = client(3, budget);
+        api.connectionPool().evictAll();
+
+        try (Response response = RetrofitClient.newPrewarmCall(api, server.url("/").toString()).execute()) {
+            assertEquals(503, response.code());
+            assertEquals("HEAD", server.takeRequest().getMethod());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(10, budget.tokens(), 0);
+        assertEquals(1, api.connectionPool().idleConnectionCount());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.dawanlocations.data.tiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.osmdroid.util.MapTileIndex;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+/**
+ * Tests (Robolectric, SQLite réel) de l’archive MBTiles et de son export depuis le cache,
+ * ainsi que du cache mémoire placé devant et de son invalidation à l’écriture.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class MbTilesArchiveTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    /** Les tuiles exportées se relisent en coordonnées XYZ (lignes TMS dans le fichier). */
+    @Test
+    public void export_then_read_back() throws Exception {
+        TileCache cache = new TileCache(tmp.newFolder("cache"), 1 << 20);
+        cache.put(TileCache.key(3, 1, 2), new byte[]{1, 2, 3}, Long.MAX_VALUE);
+        cache.put(TileCache.key(5, 17, 9), new byte[]{4, 5}, 0); // périmée : exportée quand même
+        File file = new File(tmp.getRoot(), "out/offline.mbtiles");
+
+        assertEquals(2, MbTilesExporter.export(cache, file, "test", "png"));
+
+        MbTilesArchive archive = MbTilesArchive.open(file);
+        assertNotNull(archive);
+        try {
+            assertEquals(3, archive.minZoom());
+            assertEquals(5, archive.maxZoom());
+            assertArrayEquals(new byte[]{1, 2, 3}, archive.get(3, 1, 2));
+            assertArrayEquals(new byte[]{4, 5}, archive.get(5, 17, 9));
+            assertNull(archive.get(3, 1, 5)); // ligne TMS de (3, 1, 2) : ne doit pas répondre
+            assertNull(archive.get(12, 1, 2)); // hors des zooms de l’archive
+        } finally {
+            archive.close();
+        }
+    }
+
+    /** Un fichier absent ou qui n’est pas une archive n’ouvre rien. */
+    @Test
+    public void invalid_archive_is_ignored() throws Exception {
+        assertNull(MbTilesArchive.open(new File(tmp.getRoot(), "missing.mbtiles")));
+        File empty = new File(tmp.getRoot(), "empty.mbtiles");
+        MbTilesExporter.export(new TileCache(tmp.newFolder("empty"), 1 << 20), empty, "test", "png");
+        assertNull(MbTilesArchive.open(empty));
+    }
+
+    private static TileCache.Tile tile(int size) {
+        return new TileCache.Tile(new byte[size], Long.MAX_VALUE);
+    }
+
+    /** Le cache mémoire reste sous sa taille maximale en évinçant les tuiles les moins récentes. */
+    @Test
+    public void memory_cache_evicts_least_recently_used() {
+        TileMemoryCache memory = new TileMemoryCache(10);
+        memory.put(1, tile(4));
+        memory.put(2, tile(4));
+        assertNotNull(memory.get(1)); // 2 devient la moins récente
+        memory.put(3, tile(4));
+
+        assertNull(memory.get(2));
+        assertNotNull(memory.get(1));
+        assertNotNull(memory.get(3));
+        assertEquals(8, memory.sizeBytes());
+        memory.put(4, tile(11)); // plus grande que le cache : ignorée
+        assertNull(memory.get(4));
+        memory.remove(1);
+        assertEquals(4, memory.sizeBytes());
+    }
+
+    /** Une tuile enregistrée ou supprimée sur disque n’est plus servie par le cache mémoire. */
+    @Test
+    public void writer_drops_stale_memory_copy() throws Exception {
+        TileCache cache = new TileCache(tmp.newFolder("writer"), 1 << 20);
+        TileMemoryCache memory = new TileMemoryCache(1 << 20);
+        LruTileWriter writer = new LruTileWriter(cache, memory, 60_000);
+        long index = MapTileIndex.getTileIndex(12, 2074, 1409);
+        long key = LruTileWriter.key(index);
+
+        memory.put(key, new TileCache.Tile(new byte[]{1}, 0)); // ancienne version, périmée
+        assertTrue(writer.saveFile(null, index, new ByteArrayInputStream(new byte[]{2, 2}), null));
+        assertNull(memory.get(key));
+        assertArrayEquals(new byte[]{2, 2}, cache.get(key).data);
+        assertFalse(cache.get(key).isExpired(System.currentTimeMillis()));
+
+        memory.put(key, cache.get(key));
+        assertTrue(writer.remove(null, index));
+        assertNull(memory.get(key));
+        assertNull(cache.get(key));
+    }
+}
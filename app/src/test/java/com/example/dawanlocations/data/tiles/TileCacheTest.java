@@ -0,0 +1,111 @@
+package com.example.dawanlocations.data.tiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+/**
+ * Tests (JVM) du cache disque LRU {@link TileCache}.
+ */
+public class TileCacheTest {
+
+    /** Taille d’une tuile de test sur disque (en-tête compris) */
+    private static final int TILE_BYTES = 1000;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static byte[] tile(int seed) {
+        byte[] data = new byte[TILE_BYTES - 8];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) (seed + i);
+        return data;
+    }
+
+    /** Les clés conservent zoom, colonne et ligne, jusqu’au zoom 22. */
+    @Test
+    public void key_round_trips() {
+        long key = TileCache.key(22, (1 << 22) - 1, 12345);
+        assertEquals(22, TileCache.zoom(key));
+        assertEquals((1 << 22) - 1, TileCache.x(key));
+        assertEquals(12345, TileCache.y(key));
+    }
+
+    /** La taille ne dépasse jamais le maximum ; la tuile la moins récemment lue part en premier. */
+    @Test
+    public void evicts_least_recently_used() throws Exception {
+        TileCache cache = new TileCache(tmp.newFolder("tiles"), 3 * TILE_BYTES);
+        long a = TileCache.key(10, 1, 1), b = TileCache.key(10, 1, 2), c = TileCache.key(10, 1, 3);
+        assertTrue(cache.put(a, tile(1), Long.MAX_VALUE));
+        assertTrue(cache.put(b, tile(2), Long.MAX_VALUE));
+        assertTrue(cache.put(c, tile(3), Long.MAX_VALUE));
+        assertNotNull(cache.get(a)); // a devient la plus récente : b est la moins récente
+
+        assertTrue(cache.put(TileCache.key(10, 1, 4), tile(4), Long.MAX_VALUE));
+        assertEquals(3, cache.count());
+        assertTrue(cache.sizeBytes() <= cache.maxBytes());
+        assertFalse(cache.contains(b));
+        assertNull(cache.get(b));
+        assertArrayEquals(tile(1), cache.get(a).data);
+
+        // Une tuile plus grande que le cache entier est refusée sans rien évincer
+        assertFalse(cache.put(TileCache.key(10, 2, 2), new byte[4 * TILE_BYTES], Long.MAX_VALUE));
+        assertEquals(3, cache.count());
+    }
+
+    /** L’index (et l’ordre LRU) est reconstruit à la réouverture ; le plafond s’applique aussitôt. */
+    @Test
+    public void reopens_existing_tiles() throws Exception {
+        File dir = tmp.newFolder("tiles");
+        TileCache cache = new TileCache(dir, 10 * TILE_BYTES);
+        long now = System.currentTimeMillis();
+        for (int y = 0; y < 4; y++) {
+            cache.put(TileCache.key(12, 7, y), tile(y), now + 1000);
+            // Dates d’accès distinctes et croissantes : y = 0 est la moins récente
+            assertTrue(new File(dir, "12/7/" + y + ".tile").setLastModified(now - 10_000 + y * 1000));
+        }
+        assertTrue(new File(dir, "12/7/junk.tmp").createNewFile());
+
+        TileCache reopened = new TileCache(dir, 10 * TILE_BYTES);
+        assertEquals(4, reopened.count());
+        assertEquals(4L * TILE_BYTES, reopened.sizeBytes());
+        TileCache.Tile t = reopened.get(TileCache.key(12, 7, 2));
+        assertArrayEquals(tile(2), t.data);
+        assertEquals(now + 1000, t.expiresAt);
+        assertFalse(t.isExpired(now));
+        assertFalse(new File(dir, "12/7/junk.tmp").exists());
+
+        TileCache smaller = new TileCache(dir, 2 * TILE_BYTES);
+        assertEquals(2, smaller.count());
+        assertTrue(smaller.contains(TileCache.key(12, 7, 2)));
+        assertTrue(smaller.contains(TileCache.key(12, 7, 3)));
+        assertFalse(new File(dir, "12/7/0.tile").exists());
+    }
+
+    /** La construction ne touche pas au disque : le parcours a lieu à la première utilisation. */
+    @Test
+    public void index_is_loaded_lazily() throws Exception {
+        File dir = tmp.newFolder("tiles");
+        new TileCache(dir, 10 * TILE_BYTES).put(TileCache.key(3, 1, 1), tile(1), Long.MAX_VALUE);
+        assertTrue(new File(dir, "3/1/junk.tmp").createNewFile());
+
+        TileCache reopened = new TileCache(dir, 10 * TILE_BYTES);
+        assertTrue(new File(dir, "3/1/junk.tmp").exists()); // pas encore parcouru
+        assertEquals(1, reopened.count());
+        assertFalse(new File(dir, "3/1/junk.tmp").exists());
+
+        File missing = new File(tmp.getRoot(), "missing");
+        TileCache fresh = new TileCache(missing, TILE_BYTES);
+        assertFalse(missing.exists());
+        fresh.ensureLoaded();
+        assertTrue(missing.isDirectory());
+    }
+}
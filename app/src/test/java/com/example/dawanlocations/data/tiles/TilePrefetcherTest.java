@@ -0,0 +1,168 @@
+package com.example.dawanlocations.data.tiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * Tests (JVM) de {@link TilePrefetcher}, avec un serveur de tuiles local ({@link MockWebServer}).
+ */
+public class TilePrefetcherTest {
+
+    private static final int MAX_CONCURRENT = 3;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockWebServer server;
+    private TileCache cache;
+    /** Requêtes en cours côté serveur, et maximum observé */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    /** Requêtes reçues, par chemin */
+    private final Set<String> requested = Collections.synchronizedSet(new HashSet<>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5); // laisse aux requêtes le temps de se chevaucher
+                    if (!requested.add(request.getPath())) {
+                        return new MockResponse().setResponseCode(500); // tuile demandée deux fois
+                    }
+                    if (request.getPath().startsWith("/missing/")) return new MockResponse().setResponseCode(404);
+                    return new MockResponse()
+                            .setHeader("Cache-Control", "max-age=3600")
+                            .setBody(new Buffer().writeUtf8("png" + request.getPath()));
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+        cache = new TileCache(tmp.newFolder("tiles"), 10L * 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private TilePrefetcher prefetcher(String prefix) {
+        return new TilePrefetcher(new OkHttpClient(), cache,
+                (z, x, y) -> server.url(prefix + z + "/" + x + "/" + y + ".png").toString(),
+                "dawan-test", MAX_CONCURRENT, TimeUnit.DAYS.toMillis(1));
+    }
+
+    private static LocationStore centres(double... latLon) {
+        LocationStore.Builder b = new LocationStore.Builder(latLon.length / 2);
+        for (int i = 0; i < latLon.length; i += 2) {
+            b.add(i + 1, "Centre " + i, null, "Ville", "75000", latLon[i], latLon[i + 1]);
+        }
+        return b.build();
+    }
+
+    /** Le plan couvre chaque centre à chaque zoom, sans doublon, les petits zooms en premier. */
+    @Test
+    public void plan_covers_centres_without_duplicates() {
+        // Deux centres voisins (Paris) et un à l’antiméridien
+        LocationStore store = centres(48.8566, 2.3522, 48.8570, 2.3530, -17.7, 179.999);
+        long[] plan = TilePrefetcher.plan(store, new int[]{10, 14}, 1.0);
+
+        Set<Long> unique = new HashSet<>();
+        for (long k : plan) assertTrue(unique.add(k));
+        for (int i = 1; i < plan.length; i++) assertTrue(TileCache.zoom(plan[i - 1]) <= TileCache.zoom(plan[i]));
+
+        // Tuile de Paris au zoom 14 : x = 8299, y = 5637
+        assertTrue(unique.contains(TileCache.key(14, 8299, 5637)));
+        // De part et d’autre de l’antiméridien
+        assertTrue(unique.contains(TileCache.key(14, 0, TilePrefetcher.tileY(-17.7, 14))));
+        assertTrue(unique.contains(TileCache.key(14, (1 << 14) - 1, TilePrefetcher.tileY(-17.7, 14))));
+        // 1 km au zoom 10 (≈ 25 km par tuile) : au plus 2 × 2 tuiles par centre
+        int z10 = 0;
+        for (long k : plan) if (TileCache.zoom(k) == 10) z10++;
+        assertTrue(z10 >= 2 && z10 <= 8);
+    }
+
+    /** Toutes les tuiles sont téléchargées une fois, sans dépasser la limite de requêtes simultanées. */
+    @Test
+    public void downloads_with_concurrency_limit() throws Exception {
+        long[] plan = TilePrefetcher.plan(centres(48.8566, 2.3522, 45.764, 4.8357), new int[]{14, 15}, 1.0);
+        TilePrefetcher.Result result = prefetcher("/").start(plan, null).await();
+
+        assertEquals(plan.length, result.total);
+        assertEquals(plan.length, result.downloaded);
+        assertEquals(0, result.failed);
+        assertFalse(result.stopped);
+        assertEquals(plan.length, requested.size());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENT);
+        assertTrue(maxInFlight.get() > 1);
+
+        long k = plan[0];
+        String path = "/" + TileCache.zoom(k) + "/" + TileCache.x(k) + "/" + TileCache.y(k) + ".png";
+        assertArrayEquals(("png" + path).getBytes("UTF-8"), cache.get(k).data);
+        assertFalse(cache.get(k).isExpired(System.currentTimeMillis()));
+    }
+
+    /** Un préchargement annulé reprend sans retélécharger les tuiles déjà en cache. */
+    @Test
+    public void resumes_after_cancel() throws Exception {
+        long[] plan = TilePrefetcher.plan(centres(48.8566, 2.3522), new int[]{15, 16}, 1.0);
+        TilePrefetcher.Job[] first = new TilePrefetcher.Job[1];
+        first[0] = prefetcher("/").start(plan, new TilePrefetcher.Listener() {
+            @Override public void onProgress(int processed, int total) {
+                if (processed == 5) first[0].cancel();
+            }
+            @Override public void onFinished(TilePrefetcher.Result result) {
+            }
+        });
+        TilePrefetcher.Result partial = first[0].await();
+        assertTrue(partial.stopped);
+        assertTrue(partial.downloaded < plan.length);
+
+        TilePrefetcher.Result rest = prefetcher("/").start(plan, null).await();
+        assertEquals(partial.downloaded, rest.skipped);
+        assertEquals(plan.length, rest.skipped + rest.downloaded);
+        assertEquals(0, rest.failed); // le serveur répond 500 à toute tuile demandée deux fois
+        assertEquals(plan.length, cache.count());
+    }
+
+    /** Après trop d’échecs consécutifs (serveur en erreur), le préchargement s’arrête. */
+    @Test
+    public void stops_after_consecutive_failures() throws Exception {
+        long[] plan = TilePrefetcher.plan(centres(48.8566, 2.3522), new int[]{15, 16, 17}, 1.0);
+        TilePrefetcher.Result result = prefetcher("/missing/").start(plan, null).await();
+
+        assertTrue(result.stopped);
+        assertEquals(0, result.downloaded);
+        assertTrue(result.failed >= TilePrefetcher.MAX_CONSECUTIVE_FAILURES);
+        assertTrue(result.failed < plan.length);
+        assertEquals(0, cache.count());
+    }
+}
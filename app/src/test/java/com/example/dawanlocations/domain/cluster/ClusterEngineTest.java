@@ -0,0 +1,246 @@
+package com.example.dawanlocations.domain.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests (JVM) de {@link ClusterEngine} et des requêtes du {@link ClusterIndex},
+ * comparés à un regroupement exhaustif (oracle).
+ */
+public class ClusterEngineTest {
+
+    private static final int MIN_ZOOM = 3, MAX_ZOOM = 15;
+    private static final double CELL_PX = 60;
+
+    /** Centres concentrés sur la France (nombreux regroupements), plus quelques-uns dans le monde. */
+    private static LocationStore random(int n, long seed) {
+        Random rnd = new Random(seed);
+        LocationStore.Builder b = new LocationStore.Builder(n);
+        for (int i = 0; i < n; i++) {
+            boolean far = i % 10 == 0;
+            double lat = far ? rnd.nextDouble() * 160 - 80 : 43 + rnd.nextDouble() * 6;
+            double lon = far ? rnd.nextDouble() * 360 - 180 : -2 + rnd.nextDouble() * 9;
+            b.add(1000 + i, "Centre " + i, null, "Ville " + (i % 7), "750" + (i % 20), lat, lon);
+        }
+        return b.build();
+    }
+
+    /** Regroupement exhaustif : centres par cellule de la grille du zoom. */
+    private static Markers groups(LocationStore store, int zoom) {
+        double scale = 256.0 * (1L << zoom) / CELL_PX;
+        Map<String, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < store.size(); i++) {
+            long col = (long) Math.floor(ClusterEngine.mercatorX(store.longitude(i)) * scale);
+            long row = (long) Math.floor(ClusterEngine.mercatorY(store.latitude(i)) * scale);
+            cells.computeIfAbsent(row + "/" + col, k -> new ArrayList<>()).add(i);
+        }
+        Markers out = new Markers();
+        for (List<Integer> cell : cells.values()) {
+            if (cell.size() == 1) {
+                out.add("#" + store.id(cell.get(0)));
+                continue;
+            }
+            double south = 90, north = -90, west = 180, east = -180;
+            for (int i : cell) {
+                south = Math.min(south, store.latitude(i));
+                north = Math.max(north, store.latitude(i));
+                west = Math.min(west, store.longitude(i));
+                east = Math.max(east, store.longitude(i));
+            }
+            out.add(describe(cell.size(), south, north, west, east));
+        }
+        return out;
+    }
+
+    /** Repères du {@link ClusterIndex} au même format que l’oracle. */
+    private static Markers markers(List<Cluster> clusters) {
+        Markers out = new Markers();
+        for (Cluster c : clusters) {
+            out.add(c.isSingle() ? "#" + c.id : describe(c.count, c.south, c.north, c.west, c.east));
+        }
+        return out;
+    }
+
+    private static String describe(int count, double south, double north, double west, double east) {
+        return count + " [" + south + ", " + north + "] x [" + west + ", " + east + "]";
+    }
+
+    private static Cluster find(List<Cluster> clusters, long id) {
+        for (Cluster c : clusters) if (c.id == id) return c;
+        return null;
+    }
+
+    /** À chaque zoom, les clusters (effectif, emprise) sont ceux du regroupement exhaustif. */
+    @Test
+    public void levels_match_brute_force_grouping() {
+        LocationStore store = random(3000, 1);
+        ClusterIndex index = new ClusterEngine(MIN_ZOOM, MAX_ZOOM, CELL_PX).build(store);
+        assertEquals(store.size(), index.size());
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            List<Cluster> clusters = index.query(z, -90, 90, -180, 180);
+            assertEquals("zoom " + z, groups(store, z).sorted(), markers(clusters).sorted());
+
+            int total = 0;
+            for (Cluster c : clusters) {
+                total += c.count;
+                assertTrue(c.latitude >= c.south && c.latitude <= c.north);
+                assertTrue(c.longitude >= c.west && c.longitude <= c.east);
+                if (c.isSingle()) assertEquals(c.id, c.single.id);
+                else assertTrue(c.id < 0);
+            }
+            assertEquals(store.size(), total);
+        }
+
+        // Au-delà du zoom maximal, chaque centre est seul
+        List<Cluster> leaves = index.query(MAX_ZOOM + 1.5, -90, 90, -180, 180);
+        assertEquals(store.size(), leaves.size());
+        for (Cluster c : leaves) assertTrue(c.isSingle());
+    }
+
+    /**
+     * Les identifiants des clusters ne dépendent que de leur contenu : ils survivent à un
+     * nouveau calcul sur des données réordonnées ou complétées ailleurs.
+     */
+    @Test
+    public void cluster_ids_are_stable_across_rebuilds() {
+        LocationStore store = random(2000, 2);
+        List<Location> shuffled = new ArrayList<>(store.asList());
+        Collections.shuffle(shuffled, new Random(3));
+        // Centre ajouté loin de tous les autres (océan Austral)
+        List<Location> extended = new ArrayList<>(shuffled);
+        extended.add(new Location(99_999, "Isolé", null, "Nulle part", null, -85, 100));
+
+        ClusterEngine engine = new ClusterEngine(MIN_ZOOM, MAX_ZOOM, CELL_PX);
+        ClusterIndex before = engine.build(store);
+        ClusterIndex reordered = engine.build(LocationStore.of(shuffled));
+        ClusterIndex grown = engine.build(LocationStore.of(extended));
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            Map<Long, Integer> expected = new HashMap<>();
+            Set<Long> seen = new HashSet<>();
+            for (Cluster c : before.query(z, -90, 90, -180, 180)) {
+                assertTrue("duplicate id " + c.id, seen.add(c.id));
+                if (!c.isSingle()) expected.put(c.id, c.count);
+            }
+            for (ClusterIndex other : List.of(reordered, grown)) {
+                Map<Long, Integer> actual = new HashMap<>();
+                for (Cluster c : other.query(z, -90, 90, -180, 180)) {
+                    if (!c.isSingle()) actual.put(c.id, c.count);
+                }
+                assertEquals("zoom " + z, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Un cluster reste entier jusqu’à son {@code expansionZoom} exclu ; à ce zoom, ses
+     * centres sont répartis entre plusieurs repères de son emprise.
+     */
+    @Test
+    public void expansionZoom_is_first_zoom_where_cluster_splits() {
+        LocationStore store = random(1500, 4);
+        ClusterIndex index = new ClusterEngine(MIN_ZOOM, MAX_ZOOM, CELL_PX).build(store);
+        int checked = 0;
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM; z++) {
+            for (Cluster c : index.query(z, -90, 90, -180, 180)) {
+                if (c.isSingle()) {
+                    assertEquals(Integer.MAX_VALUE, c.expansionZoom);
+                    continue;
+                }
+                assertTrue(c.expansionZoom > z && c.expansionZoom <= MAX_ZOOM + 1);
+
+                Cluster last = find(index.query(c.expansionZoom - 1, -90, 90, -180, 180), c.id);
+                assertNotNull(last);
+                assertEquals(c.count, last.count);
+
+                List<Cluster> split = index.query(c.expansionZoom, c.south, c.north, c.west, c.east);
+                assertNull(find(split, c.id));
+                int members = 0;
+                for (Cluster part : split) members += part.count;
+                assertTrue(split.size() >= 2);
+                assertTrue(members >= c.count);
+                checked++;
+            }
+        }
+        assertTrue(checked > 100);
+    }
+
+    /**
+     * Une vue traversant l’antiméridien renvoie les repères des deux côtés, par les deux
+     * formes de requête, aux zooms de regroupement comme au-delà.
+     */
+    @Test
+    public void antimeridian_query_matches_both_sides() {
+        Random rnd = new Random(5);
+        LocationStore.Builder b = new LocationStore.Builder(400);
+        for (int i = 0; i < 400; i++) {
+            double lon = 170 + rnd.nextDouble() * 20;
+            if (lon > 180) lon -= 360;
+            b.add(1 + i, "Centre " + i, null, null, null, -20 + rnd.nextDouble() * 10, lon);
+        }
+        LocationStore store = b.build();
+        ClusterIndex index = new ClusterEngine(MIN_ZOOM, MAX_ZOOM, CELL_PX).build(store);
+        double south = -18, north = -12, west = 176, east = -176;
+
+        for (int z = MIN_ZOOM; z <= MAX_ZOOM + 1; z++) {
+            Markers expected = new Markers();
+            for (Cluster c : index.query(z, -90, 90, -180, 180)) {
+                boolean inLon = c.longitude >= west || c.longitude <= east;
+                if (c.latitude >= south && c.latitude <= north && inLon) {
+                    expected.add(c.isSingle() ? "#" + c.id : describe(c.count, c.south, c.north, c.west, c.east));
+                }
+            }
+            List<Cluster> actual = index.query(z, south, north, west, east);
+            assertEquals("zoom " + z, expected.sorted(), markers(actual).sorted());
+            if (z == MAX_ZOOM + 1) assertFalse(actual.isEmpty());
+
+            Markers visited = new Markers();
+            index.query(z, south, north, west, east, new ClusterIndex.Visitor() {
+                @Override
+                public void cluster(Cluster cluster) {
+                    visited.add(describe(cluster.count, cluster.south, cluster.north, cluster.west, cluster.east));
+                }
+
+                @Override
+                public void location(int i) {
+                    visited.add("#" + store.id(i));
+                }
+            });
+            assertEquals("zoom " + z, expected.sorted(), visited.sorted());
+        }
+    }
+
+    /** Repères décrits en texte, comparés sans tenir compte de l’ordre. */
+    private static final class Markers {
+        private final List<String> items = new ArrayList<>();
+
+        void add(String item) {
+            items.add(item);
+        }
+
+        List<String> sorted() {
+            List<String> out = new ArrayList<>(items);
+            Collections.sort(out);
+            return out;
+        }
+    }
+}
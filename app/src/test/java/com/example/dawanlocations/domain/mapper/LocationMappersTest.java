@@ -0,0 +1,60 @@
+package com.example.dawanlocations.domain.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests (JVM) de la conversion parallèle des entités en {@link LocationStore}.
+ */
+public class LocationMappersTest {
+
+    private static List<LocationEntity> entities(int n) {
+        Random rnd = new Random(n);
+        List<LocationEntity> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocationEntity e = new LocationEntity();
+            e.id = i * 3 + 1;
+            e.name = "Centre " + (i % 1000);
+            e.address = rnd.nextInt(4) == 0 ? null : i + " rue de la Paix";
+            e.city = "Ville " + (i % 37);
+            e.postalCode = String.valueOf(10000 + i % 90);
+            e.latitude = rnd.nextDouble() * 10 + 42;
+            e.longitude = rnd.nextDouble() * 10 - 4;
+            out.add(e);
+        }
+        return out;
+    }
+
+    /** Le découpage en morceaux donne exactement le même stockage que la conversion séquentielle. */
+    @Test
+    public void parallel_mapping_matches_sequential() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            for (int n : new int[]{0, 10, LocationMappers.PARALLEL_CHUNK * 2 - 1,
+                    LocationMappers.PARALLEL_CHUNK * 2, LocationMappers.PARALLEL_CHUNK * 5 + 7}) {
+                List<LocationEntity> list = entities(n);
+                LocationStore sequential = LocationMappers.toStore(list);
+                LocationStore parallel = LocationMappers.toStore(list, pool);
+                assertEquals(n, parallel.size());
+                assertEquals(sequential.stringCount(), parallel.stringCount());
+                assertTrue("n=" + n, sequential.contentEquals(parallel));
+                for (int i = 0; i < n; i++) assertEquals(i, parallel.indexOf(list.get(i).id));
+            }
+            assertSame(LocationStore.EMPTY, LocationMappers.toStore(null, pool));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.dawanlocations.domain.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.domain.spatial.IntGridIndex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests (JVM) de {@link LocationStore} et de son parcours par {@link IntGridIndex}.
+ */
+public class LocationStoreTest {
+
+    private static LocationStore random(int n, long seed) {
+        Random rnd = new Random(seed);
+        LocationStore.Builder b = new LocationStore.Builder(4);
+        for (int i = 0; i < n; i++) {
+            b.add(1000 + i * 7, "Centre " + i, rnd.nextBoolean() ? null : "1 rue " + (i % 10),
+                    "Ville " + (i % 5), "7500" + (i % 3),
+                    rnd.nextDouble() * 170 - 85, rnd.nextDouble() * 360 - 180);
+        }
+        return b.build();
+    }
+
+    /** Les chaînes répétées sont stockées une seule fois ; {@code null} n’occupe pas d’entrée. */
+    @Test
+    public void strings_are_deduplicated() {
+        LocationStore store = random(100, 1);
+        // 100 noms + 10 adresses (au plus) + 5 villes + 3 codes postaux
+        assertTrue(store.stringCount() <= 118);
+        assertSame(store.city(0), store.city(5));
+        for (int i = 0; i < store.size(); i++) {
+            if (store.addressRef(i) == LocationStore.NO_STRING) assertNull(store.address(i));
+        }
+    }
+
+    /** La recherche par id retrouve chaque position ; un id absent donne {@code -1}. */
+    @Test
+    public void indexOf_finds_every_id() {
+        LocationStore store = random(5000, 2);
+        for (int i = 0; i < store.size(); i++) assertEquals(i, store.indexOf(store.id(i)));
+        assertEquals(-1, store.indexOf(1));
+        assertEquals(-1, LocationStore.EMPTY.indexOf(1000));
+    }
+
+    /** La vue liste matérialise les mêmes valeurs que les colonnes. */
+    @Test
+    public void asList_matches_columns() {
+        LocationStore store = random(50, 3);
+        List<Location> list = store.asList();
+        assertEquals(store.size(), list.size());
+        Location l = list.get(17);
+        assertEquals(store.id(17), l.id);
+        assertEquals(store.name(17), l.name);
+        assertEquals(store.latitude(17), l.latitude, 0.0);
+
+        LocationStore copy = LocationStore.of(list);
+        assertEquals(store.size(), copy.size());
+        assertEquals(store.stringCount(), copy.stringCount());
+    }
+
+    /** La concaténation renumérote les chaînes ; le contenu est comparé par valeur. */
+    @Test
+    public void concat_and_contentEquals() {
+        LocationStore whole = random(300, 6);
+        List<Location> all = whole.asList();
+        LocationStore joined = LocationStore.concat(List.of(
+                LocationStore.of(all.subList(0, 120)), LocationStore.of(all.subList(120, 300))));
+
+        assertEquals(whole.size(), joined.size());
+        assertEquals(whole.stringCount(), joined.stringCount());
+        assertTrue(whole.contentEquals(joined));
+        assertTrue(joined.contentEquals(LocationStore.of(all)));
+
+        List<Location> changed = new ArrayList<>(all);
+        Location l = changed.get(200);
+        changed.set(200, new Location(l.id, l.name, l.address, "Autre ville", l.postalCode, l.latitude, l.longitude));
+        assertFalse(whole.contentEquals(LocationStore.of(changed)));
+        assertFalse(whole.contentEquals(LocationStore.of(all.subList(0, 299))));
+        assertFalse(whole.contentEquals(null));
+    }
+
+    /** Une requête sur la grille primitive renvoie exactement les points du rectangle. */
+    @Test
+    public void intGridIndex_matches_brute_force() {
+        LocationStore store = random(20000, 4);
+        IntGridIndex grid = IntGridIndex.build(store, 0.5);
+        Random rnd = new Random(5);
+        for (int q = 0; q < 200; q++) {
+            double south = rnd.nextDouble() * 160 - 80, north = south + rnd.nextDouble() * 20;
+            double west = rnd.nextDouble() * 360 - 180, east = west + rnd.nextDouble() * 40;
+            if (east > 180) east -= 360; // rectangle traversant l’antiméridien
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < store.size(); i++) {
+                double lat = store.latitude(i), lon = store.longitude(i);
+                boolean inLon = west <= east ? lon >= west && lon <= east : lon >= west || lon <= east;
+                if (lat >= south && lat <= north && inLon) expected.add(i);
+            }
+            List<Integer> actual = new ArrayList<>();
+            grid.query(south, north, west, east, actual::add);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.dawanlocations.domain.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests (JVM) de {@link GridIndex}, comparé à un parcours exhaustif (oracle).
+ */
+public class GridIndexTest {
+
+    /** Point indexé : sa position dans la liste d’origine et ses coordonnées. */
+    private static final class Point {
+        final int index;
+        final double lat, lon;
+
+        Point(int index, double lat, double lon) {
+            this.index = index;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+
+    private static final GridIndex.Coordinates<Point> COORDS = new GridIndex.Coordinates<Point>() {
+        @Override public double latitude(Point item) { return item.lat; }
+        @Override public double longitude(Point item) { return item.lon; }
+    };
+
+    private static List<Point> random(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Point> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            points.add(new Point(i, rnd.nextDouble() * 170 - 85, rnd.nextDouble() * 360 - 180));
+        }
+        return points;
+    }
+
+    private static List<Integer> indices(List<Point> points) {
+        List<Integer> out = new ArrayList<>(points.size());
+        for (Point p : points) out.add(p.index);
+        Collections.sort(out);
+        return out;
+    }
+
+    /**
+     * Une requête renvoie exactement les points du rectangle, y compris s’il traverse
+     * l’antiméridien, que la vue soit petite (cellules parcourues) ou très large
+     * (cellules occupées parcourues).
+     */
+    @Test
+    public void query_matches_brute_force() {
+        List<Point> points = random(20000, 1);
+        Random rnd = new Random(2);
+        for (double cellSize : new double[]{0.5, GridIndex.DEFAULT_CELL_SIZE_DEG * 8, 0.01}) {
+            GridIndex<Point> grid = GridIndex.build(points, COORDS, cellSize);
+            assertEquals(points.size(), grid.size());
+            for (int q = 0; q < 200; q++) {
+                double span = q % 4 == 0 ? 150 : 20;
+                double south = rnd.nextDouble() * 160 - 80, north = south + rnd.nextDouble() * span / 2;
+                double west = rnd.nextDouble() * 360 - 180, east = west + rnd.nextDouble() * span;
+                if (east > 180) east -= 360; // rectangle traversant l’antiméridien
+
+                List<Integer> expected = new ArrayList<>();
+                for (Point p : points) {
+                    boolean inLon = west <= east ? p.lon >= west && p.lon <= east : p.lon >= west || p.lon <= east;
+                    if (p.lat >= south && p.lat <= north && inLon) expected.add(p.index);
+                }
+                assertEquals(expected, indices(grid.query(south, north, west, east)));
+            }
+        }
+    }
+
+    /** Les bords du rectangle sont inclus, y compris ±180° de part et d’autre de l’antiméridien. */
+    @Test
+    public void edges_and_antimeridian_are_inclusive() {
+        List<Point> points = List.of(
+                new Point(0, 10, 180), new Point(1, 10, -180), new Point(2, 10, 179.5),
+                new Point(3, 10, -179.5), new Point(4, 10, 0), new Point(5, 12, 179.5));
+        GridIndex<Point> grid = GridIndex.build(points, COORDS, 0.5);
+
+        assertEquals(List.of(0, 1, 2, 3), indices(grid.query(10, 10, 179.5, -179.5)));
+        assertEquals(List.of(0, 1, 2, 3, 5), indices(grid.query(10, 12, 179, -179)));
+        assertEquals(List.of(4), indices(grid.query(9, 11, -1, 1)));
+        assertTrue(grid.query(11, 11.5, -180, 180).isEmpty());
+    }
+
+    /** Une liste {@code null} donne un index vide. */
+    @Test
+    public void null_items_give_empty_index() {
+        GridIndex<Point> grid = GridIndex.build(null, COORDS);
+        assertEquals(0, grid.size());
+        assertTrue(grid.query(-90, 90, -180, 180).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.dawanlocations.domain.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests (JVM) de {@link KdTree}, comparé à un parcours exhaustif (oracle).
+ */
+public class KdTreeTest {
+
+    /** Ensemble de points simple, stocké en tableaux. */
+    private static final class Points implements PointSet {
+        final double[] lat, lon;
+
+        Points(double[] lat, double[] lon) {
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        @Override public int size() { return lat.length; }
+        @Override public double latitude(int i) { return lat[i]; }
+        @Override public double longitude(int i) { return lon[i]; }
+    }
+
+    private static Points random(int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] lat = new double[n], lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Répartition uniforme sur la sphère
+            lat[i] = Math.toDegrees(Math.asin(2 * rnd.nextDouble() - 1));
+            lon[i] = rnd.nextDouble() * 360 - 180;
+        }
+        return new Points(lat, lon);
+    }
+
+    /** Distances (haversine) des k plus proches, par parcours exhaustif. */
+    private static double[] bruteForce(Points p, double lat, double lon, int k) {
+        double[] d = new double[p.size()];
+        for (int i = 0; i < d.length; i++) d[i] = Geo.haversineMeters(lat, lon, p.lat[i], p.lon[i]);
+        Arrays.sort(d);
+        return Arrays.copyOf(d, Math.min(k, d.length));
+    }
+
+    private static double[] distances(Points p, int[] hits, double lat, double lon) {
+        double[] d = new double[hits.length];
+        for (int i = 0; i < hits.length; i++) d[i] = Geo.haversineMeters(lat, lon, p.lat[hits[i]], p.lon[hits[i]]);
+        return d;
+    }
+
+    /** Sur 100 000 points, les k plus proches coïncident avec l’oracle, dans l’ordre. */
+    @Test
+    public void nearest_matches_brute_force_on_100k_points() {
+        Points p = random(100_000, 42);
+        KdTree tree = KdTree.build(p);
+        Random rnd = new Random(7);
+        for (int q = 0; q < 50; q++) {
+            double lat = Math.toDegrees(Math.asin(2 * rnd.nextDouble() - 1));
+            double lon = rnd.nextDouble() * 360 - 180;
+            int k = 1 + rnd.nextInt(20);
+
+            double[] expected = bruteForce(p, lat, lon, k);
+            double[] actual = distances(p, tree.nearest(lat, lon, k), lat, lon);
+            assertEquals(expected.length, actual.length);
+            for (int i = 0; i < k; i++) assertEquals(expected[i], actual[i], 1e-6);
+        }
+    }
+
+    /** Cas limites : pôles, antiméridien et doublons. */
+    @Test
+    public void handles_poles_antimeridian_and_duplicates() {
+        Points p = new Points(
+                new double[]{89.9, -89.9, 0, 0, 0, 0, 45, 45},
+                new double[]{10, -10, 179.9, -179.9, 179.9, 0, 2, 2});
+
+        KdTree tree = KdTree.build(p);
+        int[] hits = tree.nearest(0, 180, 3);
+        assertEquals(3, hits.length);
+        double[] expected = bruteForce(p, 0, 180, 3);
+        double[] actual = distances(p, hits, 0, 180);
+        for (int i = 0; i < 3; i++) assertEquals(expected[i], actual[i], 1e-6);
+
+        assertEquals(0, tree.nearest(90, 0, 1)[0]);
+        assertEquals(2, tree.nearest(45, 2, 2).length);
+    }
+
+    /** k supérieur au nombre de points, k nul et arbre vide. */
+    @Test
+    public void k_is_clamped() {
+        Points p = random(5, 1);
+        KdTree tree = KdTree.build(p);
+        assertEquals(5, tree.nearest(0, 0, 50).length);
+        assertEquals(0, tree.nearest(0, 0, 0).length);
+        assertEquals(0, KdTree.build(random(0, 1)).nearest(0, 0, 3).length);
+    }
+
+    /**
+     * Une requête (k = 10) sur 100 000 points prend en moyenne bien moins d’une milliseconde.
+     * Seuil volontairement large pour ne pas dépendre de la machine de test.
+     */
+    @Test
+    public void query_is_well_under_a_millisecond() {
+        Points p = random(100_000, 3);
+        KdTree tree = KdTree.build(p);
+        Random rnd = new Random(11);
+        int queries = 20_000;
+        long sink = 0;
+        for (int i = 0; i < queries; i++) sink += tree.nearest(rnd.nextDouble() * 180 - 90, rnd.nextDouble() * 360 - 180, 10)[0];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) sink += tree.nearest(rnd.nextDouble() * 180 - 90, rnd.nextDouble() * 360 - 180, 10)[0];
+        double avgMs = (System.nanoTime() - start) / 1e6 / queries;
+        assertTrue("avg " + avgMs + " ms (" + sink + ")", avgMs < 0.5);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.dawanlocations.domain.spatial;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests (JVM) de {@link PixelGridIndex}, comparé à un parcours exhaustif (oracle).
+ */
+public class PixelGridIndexTest {
+
+    /** Point le plus proche dans le rayon (le plus grand à distance égale), par parcours exhaustif. */
+    private static int bruteForce(long[] xs, long[] ys, double x, double y, double radius) {
+        int best = -1;
+        double bestD2 = radius * radius;
+        for (int i = 0; i < xs.length; i++) {
+            double d2 = (xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y);
+            if (d2 < bestD2 || (d2 == bestD2 && i > best)) {
+                bestD2 = d2;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /** Sur 50 000 points denses (nombreux voisins par toucher), le résultat coïncide avec l’oracle. */
+    @Test
+    public void nearest_matches_brute_force() {
+        Random rnd = new Random(42);
+        int n = 50_000;
+        long[] xs = new long[n], ys = new long[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = rnd.nextInt(4096);
+            ys[i] = rnd.nextInt(4096);
+        }
+        double radius = 24;
+        PixelGridIndex grid = PixelGridIndex.build(xs, ys, n, radius);
+        assertEquals(n, grid.size());
+        for (int q = 0; q < 2_000; q++) {
+            double x = rnd.nextDouble() * 4200 - 50, y = rnd.nextDouble() * 4200 - 50;
+            assertEquals(bruteForce(xs, ys, x, y, radius), grid.nearest(x, y, radius));
+        }
+    }
+
+    /** Les points superposés sont départagés par leur position, quel que soit le voisinage. */
+    @Test
+    public void overlapping_points_resolve_to_last_position() {
+        long[] xs = {100, 100, 100, 130}, ys = {-50, -50, -50, -50};
+        PixelGridIndex grid = PixelGridIndex.build(xs, ys, xs.length, 24);
+
+        assertEquals(2, grid.nearest(101, -49, 24));
+        assertEquals(2, grid.nearest(100, -50, 24));
+        assertEquals(3, grid.nearest(120, -50, 24)); // plus proche du quatrième
+        assertEquals(-1, grid.nearest(100, 0, 24)); // hors du rayon
+    }
+
+    /** Seuls les {@code n} premiers points sont indexés. */
+    @Test
+    public void only_first_n_points_are_indexed() {
+        long[] xs = {0, 10, 20}, ys = {0, 0, 0};
+        PixelGridIndex grid = PixelGridIndex.build(xs, ys, 2, 8);
+
+        assertEquals(2, grid.size());
+        assertEquals(-1, grid.nearest(20, 0, 5));
+        assertEquals(1, grid.nearest(16, 0, 8));
+    }
+}
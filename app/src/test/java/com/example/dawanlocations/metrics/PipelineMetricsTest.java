@@ -0,0 +1,68 @@
+package com.example.dawanlocations.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests (JVM) de {@link RollingHistogram} et de l’enregistrement des mesures de {@link PipelineMetrics}.
+ */
+public class PipelineMetricsTest {
+
+    /** Percentiles au rang le plus proche sur 1..100 ; fenêtre vide → 0. */
+    @Test
+    public void percentiles_use_nearest_rank() {
+        RollingHistogram h = new RollingHistogram(100);
+        assertArrayEquals(new long[]{0, 0}, h.percentiles(50, 99));
+        for (int v = 100; v >= 1; v--) h.record(v);
+        assertArrayEquals(new long[]{1, 50, 95, 99, 100}, h.percentiles(0, 50, 95, 99, 100));
+        assertEquals(100, h.count());
+        assertEquals(1, h.last());
+    }
+
+    /** Seules les dernières mesures comptent pour les percentiles ; le compteur reste cumulatif. */
+    @Test
+    public void window_keeps_only_recent_samples() {
+        RollingHistogram h = new RollingHistogram(10);
+        for (int i = 0; i < 1000; i++) h.record(1_000_000);
+        for (int i = 0; i < 10; i++) h.record(5);
+        assertArrayEquals(new long[]{5, 5}, h.percentiles(50, 99));
+        assertEquals(1010, h.count());
+        h.clear();
+        assertEquals(0, h.count());
+    }
+
+    /** Chaque mesure met à jour les statistiques de son étape et notifie les listeners. */
+    @Test
+    public void record_updates_stats_and_notifies_listeners() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        List<PipelineMetrics.Stage> seen = new ArrayList<>();
+        PipelineMetrics.Listener listener = (stage, nanos) -> seen.add(stage);
+        metrics.addListener(listener);
+
+        metrics.record(PipelineMetrics.Stage.HTTP, 2_000_000);
+        metrics.record(PipelineMetrics.Stage.HTTP, 4_000_000);
+        metrics.record(PipelineMetrics.Stage.RENDER, 1_000_000);
+        metrics.removeListener(listener);
+        metrics.record(PipelineMetrics.Stage.RENDER, 1_000_000);
+
+        assertEquals(3, seen.size());
+        PipelineMetrics.StageStats http = metrics.stats(PipelineMetrics.Stage.HTTP);
+        assertEquals(2, http.count);
+        assertEquals(4_000_000, http.lastNanos);
+        assertEquals(2_000_000, http.p50Nanos);
+        assertEquals(4_000_000, http.p99Nanos);
+        assertTrue(http.toString().startsWith("http"));
+
+        // Seules les étapes mesurées, dans l’ordre du pipeline
+        List<PipelineMetrics.StageStats> all = metrics.snapshot();
+        assertEquals(2, all.size());
+        assertEquals(PipelineMetrics.Stage.HTTP, all.get(0).stage);
+        assertEquals(PipelineMetrics.Stage.RENDER, all.get(1).stage);
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.dawanlocations.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingSource.LoadParams;
+import androidx.paging.PagingSource.LoadResult;
+import androidx.paging.PagingState;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.domain.model.Location;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Tests (Robolectric, Room en mémoire) de {@link LocationPagingSource} : pages suivantes
+ * et précédentes, emplacements vides (placeholders) et clé de rechargement, comparés à
+ * un tri en mémoire des mêmes lignes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LocationPagingSourceTest {
+
+    private static final int PAGE = 4;
+    /** Point de référence de l’ordre par distance */
+    private static final double REF_LAT = 45.75, REF_LON = 4.85;
+    /** Requêtes exécutées sur le thread du test */
+    private static final Executor DIRECT = Runnable::run;
+
+    private AppDatabase db;
+    private List<LocationEntity> rows;
+
+    @Before
+    public void setUp() {
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        rows = new ArrayList<>();
+        Random rnd = new Random(11);
+        String[] cities = {null, "Annecy", "Lyon", "Paris"};
+        String[] names = {null, "Centre A", "Centre B", "Centre B"};
+        for (int i = 0; i < 23; i++) {
+            LocationEntity e = new LocationEntity();
+            e.id = 100 + (i * 37) % 23; // ids non triés à l’insertion
+            e.city = cities[i % cities.length];
+            e.name = names[(i / cities.length) % names.length];
+            e.latitude = 45 + rnd.nextInt(20) / 10.0;
+            e.longitude = 4 + rnd.nextInt(20) / 10.0;
+            rows.add(e);
+        }
+        // Deux centres au même endroit : même clé de distance, départagés par l’id
+        rows.get(3).latitude = rows.get(4).latitude;
+        rows.get(3).longitude = rows.get(4).longitude;
+        db.locationDao().insertAll(rows);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    /** Ordre SQLite de la liste par ville : {@code NULL} en premier, puis ordre binaire. */
+    private List<Integer> expectedByCity() {
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        List<LocationEntity> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing((LocationEntity e) -> e.city, nullsFirst)
+                .thenComparing(e -> e.name, nullsFirst)
+                .thenComparingInt(e -> e.id));
+        List<Integer> ids = new ArrayList<>();
+        for (LocationEntity e : sorted) ids.add(e.id);
+        return ids;
+    }
+
+    /** Clé de distance calculée comme en SQL ({@code LocationPageQueries.WITH_DISTANCE}). */
+    private static double distanceKey(LocationEntity e) {
+        double cos = Math.cos(Math.toRadians(REF_LAT));
+        double dLon = Math.min(Math.abs(e.longitude - REF_LON), 360 - Math.abs(e.longitude - REF_LON));
+        return (e.latitude - REF_LAT) * (e.latitude - REF_LAT) + cos * cos * dLon * dLon;
+    }
+
+    private List<LocationEntity> sortedByDistance() {
+        List<LocationEntity> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingDouble(LocationPagingSourceTest::distanceKey)
+                .thenComparingInt(e -> e.id));
+        return sorted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LoadResult.Page<LocationPagingSource.Key, Location> load(
+            LocationPagingSource source, LoadParams<LocationPagingSource.Key> params) throws Exception {
+        LoadResult<LocationPagingSource.Key, Location> result = source.loadFuture(params).get();
+        if (result instanceof LoadResult.Error) {
+            throw new AssertionError(((LoadResult.Error<?, ?>) result).getThrowable());
+        }
+        return (LoadResult.Page<LocationPagingSource.Key, Location>) result;
+    }
+
+    private static List<Integer> ids(List<Location> locations) {
+        List<Integer> out = new ArrayList<>();
+        for (Location l : locations) out.add(l.id);
+        return out;
+    }
+
+    /**
+     * Du premier au dernier élément par pages suivantes, puis retour au début par pages
+     * précédentes : toutes les lignes, y compris ville ou nom {@code NULL}, une seule fois.
+     */
+    private static void assertWalk(LocationPagingSource source, List<Integer> expected) throws Exception {
+        LoadResult.Page<LocationPagingSource.Key, Location> page =
+                load(source, new LoadParams.Refresh<>(null, PAGE, true));
+        assertNull(page.getPrevKey());
+        assertEquals(0, page.getItemsBefore());
+        assertEquals(expected.size() - PAGE, page.getItemsAfter());
+
+        List<Integer> forward = new ArrayList<>(ids(page.getData()));
+        LocationPagingSource.Key last = page.getNextKey();
+        while (page.getNextKey() != null) {
+            last = page.getNextKey();
+            page = load(source, new LoadParams.Append<>(last, PAGE, true));
+            forward.addAll(ids(page.getData()));
+        }
+        assertEquals(expected, forward);
+
+        // Retour en arrière depuis la dernière page
+        page = load(source, new LoadParams.Refresh<>(last, PAGE, true));
+        List<Integer> backward = new ArrayList<>(ids(page.getData()));
+        int start = expected.size() - backward.size();
+        assertEquals(expected.subList(start, expected.size()), backward);
+        assertEquals(start, page.getItemsBefore());
+        assertEquals(0, page.getItemsAfter());
+        assertNull(page.getNextKey());
+        while (page.getPrevKey() != null) {
+            page = load(source, new LoadParams.Prepend<>(page.getPrevKey(), PAGE, true));
+            backward.addAll(0, ids(page.getData()));
+        }
+        assertEquals(expected, backward);
+    }
+
+    /**
+     * Clé de rechargement de chaque position : la page rechargée commence à l’élément le
+     * plus proche de la position, précédé du bon nombre d’emplacements vides.
+     */
+    private static void assertRefreshAtEveryPosition(LocationPagingSource source, List<Integer> expected,
+                                                     List<Integer> firstWithSameKey) throws Exception {
+        LoadResult.Page<LocationPagingSource.Key, Location> first =
+                load(source, new LoadParams.Refresh<>(null, expected.size(), true));
+        PagingConfig config = new PagingConfig(PAGE);
+        for (int i = 0; i < expected.size(); i++) {
+            PagingState<LocationPagingSource.Key, Location> state =
+                    new PagingState<>(Collections.singletonList(first), i, config, 0);
+            LocationPagingSource.Key key = source.getRefreshKey(state);
+            assertNotNull(key);
+
+            LoadResult.Page<LocationPagingSource.Key, Location> page =
+                    load(source, new LoadParams.Refresh<>(key, PAGE, true));
+            int at = firstWithSameKey.get(i);
+            assertEquals("position " + i, expected.get(at), ids(page.getData()).get(0));
+            assertEquals("position " + i, at, page.getItemsBefore());
+            assertEquals(expected.size() - at - page.getData().size(), page.getItemsAfter());
+            assertEquals(at == 0, page.getPrevKey() == null);
+        }
+    }
+
+    @Test
+    public void byCity_pages_both_ways_through_null_city_and_name() throws Exception {
+        assertWalk(LocationPagingSource.byCity(db, DIRECT), expectedByCity());
+    }
+
+    /** La clé (ville, nom, id − 1) désigne exactement l’élément d’ancrage (CITY_COUNT_BEFORE). */
+    @Test
+    public void byCity_refresh_key_restores_position() throws Exception {
+        List<Integer> expected = expectedByCity();
+        List<Integer> same = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i++) same.add(i);
+        assertRefreshAtEveryPosition(LocationPagingSource.byCity(db, DIRECT), expected, same);
+    }
+
+    @Test
+    public void byDistance_pages_both_ways() throws Exception {
+        List<Integer> expected = new ArrayList<>();
+        for (LocationEntity e : sortedByDistance()) expected.add(e.id);
+        assertWalk(LocationPagingSource.byDistance(db, DIRECT, REF_LAT, REF_LON), expected);
+    }
+
+    /**
+     * La clé {@code Math.nextDown(distance)} inclut l’élément d’ancrage : la page rechargée
+     * commence au premier centre de même distance que lui.
+     */
+    @Test
+    public void byDistance_refresh_key_includes_anchor() throws Exception {
+        List<LocationEntity> sorted = sortedByDistance();
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> firstWithSameKey = new ArrayList<>();
+        int tied = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            expected.add(sorted.get(i).id);
+            if (distanceKey(sorted.get(i)) != distanceKey(sorted.get(tied))) tied = i;
+            firstWithSameKey.add(tied);
+        }
+        assertTrue(firstWithSameKey.size() > new HashSet<>(firstWithSameKey).size());
+        assertRefreshAtEveryPosition(LocationPagingSource.byDistance(db, DIRECT, REF_LAT, REF_LON),
+                expected, firstWithSameKey);
+    }
+
+    /** Une clé située après tous les centres (ancrage supprimé) recharge depuis le début. */
+    @Test
+    public void refresh_past_the_end_restarts_from_first_page() throws Exception {
+        LocationPagingSource source = LocationPagingSource.byCity(db, DIRECT);
+        LocationPagingSource.Key pastEnd =
+                source.justBefore(new Location(1, "zzz", null, "zzz", null, 0, 0));
+        LoadResult.Page<LocationPagingSource.Key, Location> page =
+                load(source, new LoadParams.Refresh<>(pastEnd, PAGE, true));
+        assertEquals(expectedByCity().subList(0, PAGE), ids(page.getData()));
+        assertEquals(0, page.getItemsBefore());
+        assertEquals(rows.size() - PAGE, page.getItemsAfter());
+        assertNull(page.getPrevKey());
+    }
+
+    /** Sans position d’ancrage, pas de clé : la liste repart du début. */
+    @Test
+    public void no_anchor_gives_no_refresh_key() {
+        PagingState<LocationPagingSource.Key, Location> state =
+                new PagingState<>(Collections.emptyList(), null, new PagingConfig(PAGE), 0);
+        assertNull(LocationPagingSource.byCity(db, DIRECT).getRefreshKey(state));
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.dawanlocations.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.dawanlocations.data.local.AppDatabase;
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.data.local.SyncMetadataEntity;
+import com.example.dawanlocations.data.remote.DawanApi;
+import com.example.dawanlocations.data.remote.LocationRemoteSource;
+import com.example.dawanlocations.data.remote.RetrofitClient;
+import com.example.dawanlocations.metrics.PipelineMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tests (Robolectric, Room en mémoire) de bout en bout de {@link LocationSynchronizer},
+ * contre un serveur local qui tient un journal des changements ({@link StandInServer}).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LocationSynchronizerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final StandInServer backend = new StandInServer();
+    private MockWebServer server;
+    private AppDatabase db;
+    private LocationRemoteSource remote;
+    private LocationSynchronizer synchronizer;
+    /** Horloge des synchroniseurs (ms epoch) */
+    private long now = 1_700_000_000_000L;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(backend);
+        server.start();
+        db = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        OkHttpClient client = RetrofitClient.newHttpClient(tmp.newFolder("http"));
+        DawanApi api = RetrofitClient.create(server.url("/").toString(), client).create(DawanApi.class);
+        remote = new LocationRemoteSource(api, client.cache());
+        synchronizer = newSynchronizer();
+    }
+
+    private LocationSynchronizer newSynchronizer() {
+        return new LocationSynchronizer(db, remote, PipelineMetrics.get(), tmp.getRoot(), () -> now);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        db.close();
+        server.shutdown();
+    }
+
+    /** Première synchronisation complète, puis seulement les changements et suppressions. */
+    @Test
+    public void delta_applies_changes_and_tombstones() throws Exception {
+        backend.put(1, "Paris");
+        backend.put(2, "Lyon");
+        backend.put(3, "Nantes");
+
+        SyncResult first = synchronizer.sync();
+        assertEquals(3, first.added);
+        assertNull(cursorOf(server.takeRequest()));
+        assertEquals("v3", storedCursor());
+
+        backend.put(1, "Paris 2");
+        backend.delete(2);
+        backend.put(4, "Lille");
+
+        SyncResult second = synchronizer.sync();
+        assertEquals("v3", cursorOf(server.takeRequest()));
+        assertEquals(1, second.added);
+        assertEquals(1, second.changed);
+        assertEquals(1, second.removed);
+        assertEquals("{1=Paris 2, 3=Nantes, 4=Lille}", localNames());
+        assertEquals("v6", storedCursor());
+
+        SyncResult third = synchronizer.sync();
+        assertEquals("v6", cursorOf(server.takeRequest()));
+        assertFalse(third.hasChanges());
+        assertNoSpooledResponse();
+    }
+
+    /**
+     * Un curseur rejeté ({@code 410}) est effacé et la synchronisation repart de zéro :
+     * la suppression perdue avec le journal est rattrapée.
+     */
+    @Test
+    public void rejected_cursor_falls_back_to_full_sync() throws Exception {
+        backend.put(1, "Paris");
+        backend.put(2, "Lyon");
+        synchronizer.sync();
+        server.takeRequest();
+
+        backend.delete(2);
+        backend.put(3, "Nantes");
+        backend.compact();
+
+        SyncResult result = synchronizer.sync();
+        assertEquals("v2", cursorOf(server.takeRequest()));
+        assertNull(cursorOf(server.takeRequest()));
+        assertEquals(1, result.added);
+        assertEquals(1, result.removed);
+        assertEquals("{1=Paris, 3=Nantes}", localNames());
+        assertEquals("v4", storedCursor());
+    }
+
+    /** Une base vidée ignore le curseur enregistré : il ne décrit plus son contenu. */
+    @Test
+    public void empty_database_ignores_stored_cursor() throws Exception {
+        backend.put(1, "Paris");
+        synchronizer.sync();
+        server.takeRequest();
+        db.locationDao().deleteByIds(List.of(1));
+
+        synchronizer.sync();
+        assertNull(cursorOf(server.takeRequest()));
+        assertEquals("{1=Paris}", localNames());
+    }
+
+    /** Sans API de changements, la liste complète est utilisée, sans nouvel essai de l’API. */
+    @Test
+    public void server_without_changes_api_uses_full_list() throws Exception {
+        backend.changesEnabled = false;
+        backend.put(1, "Paris");
+
+        assertEquals(1, synchronizer.sync().added);
+        assertEquals("/public/location/changes", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals("/public/location/", server.takeRequest().getRequestUrl().encodedPath());
+
+        backend.put(2, "Lyon");
+        assertEquals(1, synchronizer.sync().added);
+        assertEquals("/public/location/", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals(3, server.getRequestCount());
+        assertNull(storedCursor());
+        assertEquals(now, db.syncMetadataDao().get(SyncMetadataEntity.KEY_LOCATIONS).changesUnsupportedAt);
+    }
+
+    /**
+     * L’absence de l’API de changements est enregistrée : un nouveau démarrage ne la
+     * redemande pas, jusqu’à l’expiration du délai ; elle est alors réessayée, et
+     * utilisée dès que le serveur l’expose.
+     */
+    @Test
+    public void unsupported_changes_api_is_remembered_until_retry() throws Exception {
+        backend.changesEnabled = false;
+        backend.put(1, "Paris");
+        synchronizer.sync();
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        server.takeRequest();
+
+        // Redémarrage : nouveau synchroniseur, même base
+        now += LocationSynchronizer.CHANGES_RETRY_INTERVAL_MS - 1;
+        backend.put(2, "Lyon");
+        assertEquals(1, newSynchronizer().sync().added);
+        assertEquals("/public/location/", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals(3, server.getRequestCount());
+
+        // Délai écoulé : l’API est réessayée, toujours absente, puis de nouveau disponible
+        now += 1;
+        assertTrue(newSynchronizer().sync().notModified);
+        assertEquals("/public/location/changes", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals("/public/location/", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals(now, db.syncMetadataDao().get(SyncMetadataEntity.KEY_LOCATIONS).changesUnsupportedAt);
+
+        backend.changesEnabled = true;
+        backend.put(3, "Nantes");
+        now += LocationSynchronizer.CHANGES_RETRY_INTERVAL_MS;
+        newSynchronizer().sync();
+        assertEquals("/public/location/changes", server.takeRequest().getRequestUrl().encodedPath());
+        assertEquals("{1=Paris, 2=Lyon, 3=Nantes}", localNames());
+        assertEquals(0, db.syncMetadataDao().get(SyncMetadataEntity.KEY_LOCATIONS).changesUnsupportedAt);
+        assertEquals("v3", storedCursor());
+    }
+
+    /**
+     * Une liste complète efface le curseur qu’elle a dépassé : le nouvel essai de l’API
+     * de changements redemande l’ensemble des centres.
+     */
+    @Test
+    public void full_list_clears_outdated_cursor() throws Exception {
+        backend.put(1, "Paris");
+        synchronizer.sync();
+        server.takeRequest();
+        assertEquals("v1", storedCursor());
+
+        backend.changesEnabled = false;
+        backend.put(2, "Lyon");
+        assertEquals(1, synchronizer.sync().added);
+        server.takeRequest();
+        server.takeRequest();
+        assertNull(storedCursor());
+
+        backend.changesEnabled = true;
+        now += LocationSynchronizer.CHANGES_RETRY_INTERVAL_MS;
+        assertEquals(0, newSynchronizer().sync().added);
+        assertNull(cursorOf(server.takeRequest()));
+        assertEquals("v2", storedCursor());
+        assertEquals(0, db.syncMetadataDao().get(SyncMetadataEntity.KEY_LOCATIONS).changesUnsupportedAt);
+    }
+
+    /**
+     * Une liste complète dont l’écriture échoue n’est pas considérée comme reçue :
+     * la synchronisation suivante la retélécharge (pas de {@code 304}) et l’applique.
+     */
+    @Test
+    public void failed_write_does_not_leave_list_cached() throws Exception {
+        backend.changesEnabled = false;
+        backend.put(1, "Paris");
+        synchronizer.sync();
+
+        backend.put(2, "Lyon");
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+        sqlite.execSQL("CREATE TEMP TRIGGER fail_insert BEFORE INSERT ON locations "
+                + "BEGIN SELECT RAISE(ABORT, 'disk full'); END");
+        try {
+            synchronizer.sync();
+            fail("write should have failed");
+        } catch (Exception expected) {
+            // écriture refusée par le trigger
+        }
+        sqlite.execSQL("DROP TRIGGER fail_insert");
+
+        SyncResult retry = synchronizer.sync();
+        assertFalse(retry.notModified);
+        assertEquals(1, retry.added);
+        assertEquals("{1=Paris, 2=Lyon}", localNames());
+        assertNoSpooledResponse();
+    }
+
+    /** Les copies locales des réponses sont supprimées, après succès comme après échec. */
+    private void assertNoSpooledResponse() {
+        String[] left = tmp.getRoot().list((dir, name) -> name.startsWith("response"));
+        assertEquals(0, left.length);
+    }
+
+    private static String cursorOf(RecordedRequest request) {
+        return request.getRequestUrl().queryParameter("cursor");
+    }
+
+    private String storedCursor() {
+        SyncMetadataEntity meta = db.syncMetadataDao().get(SyncMetadataEntity.KEY_LOCATIONS);
+        return meta != null ? meta.cursor : null;
+    }
+
+    private String localNames() {
+        Map<Integer, String> out = new TreeMap<>();
+        for (LocationEntity e : db.locationDao().getAll()) out.put(e.id, e.name);
+        return out.toString();
+    }
+
+    /**
+     * Serveur de remplacement : chaque écriture incrémente une version, et le curseur
+     * {@code v<version>} désigne l’état du journal. {@link #compact()} oublie les
+     * suppressions passées : les curseurs antérieurs sont alors rejetés.
+     */
+    private static final class StandInServer extends Dispatcher {
+        /** id → {version de la dernière modification, JSON} */
+        private final Map<Integer, Object[]> rows = new TreeMap<>();
+        /** id → version de la suppression */
+        private final Map<Integer, Integer> tombstones = new HashMap<>();
+        private int version;
+        private int compactedAt;
+        volatile boolean changesEnabled = true;
+
+        synchronized void put(int id, String name) {
+            version++;
+            tombstones.remove(id);
+            rows.put(id, new Object[]{version, "{\"id\":" + id + ",\"name\":\"" + name + "\","
+                    + "\"city\":\"" + name + "\",\"latitude\":45.0,\"longitude\":" + id + ".0}"});
+        }
+
+        synchronized void delete(int id) {
+            version++;
+            rows.remove(id);
+            tombstones.put(id, version);
+        }
+
+        synchronized void compact() {
+            tombstones.clear();
+            compactedAt = version;
+        }
+
+        @Override
+        public synchronized MockResponse dispatch(RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            if ("/public/location/".equals(url.encodedPath())) {
+                String etag = "\"v" + version + "\"";
+                if (etag.equals(request.getHeader("If-None-Match"))) {
+                    return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+                }
+                return new MockResponse().setBody("[" + changedSince(0) + "]").setHeader("ETag", etag);
+            }
+            if (!"/public/location/changes".equals(url.encodedPath()) || !changesEnabled) {
+                return new MockResponse().setResponseCode(404);
+            }
+
+            String cursor = url.queryParameter("cursor");
+            int since = cursor == null ? 0 : Integer.parseInt(cursor.substring(1));
+            if (cursor != null && since < compactedAt) return new MockResponse().setResponseCode(410);
+
+            StringBuilder deleted = new StringBuilder();
+            for (Map.Entry<Integer, Integer> t : tombstones.entrySet()) {
+                if (cursor == null || t.getValue() <= since) continue;
+                if (deleted.length() > 0) deleted.append(',');
+                deleted.append(t.getKey());
+            }
+            // Curseur en dernier : l’ordre des champs ne doit pas compter
+            return new MockResponse().setBody("{\"full\":" + (cursor == null)
+                    + ",\"changed\":[" + changedSince(since) + "],\"deleted\":[" + deleted
+                    + "],\"cursor\":\"v" + version + "\"}");
+        }
+
+        private String changedSince(int since) {
+            StringBuilder out = new StringBuilder();
+            for (Object[] row : rows.values()) {
+                if ((int) row[0] <= since) continue;
+                if (out.length() > 0) out.append(',');
+                out.append(row[1]);
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.dawanlocations.repository;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.dawanlocations.data.local.SyncMetadataEntity;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests (JVM) des règles de {@link SyncPolicy} : TTL et repli exponentiel avec gigue.
+ */
+public class SyncPolicyTest {
+
+    private final SyncPolicy policy = new SyncPolicy(10_000, 60_000, 1_000, 16_000);
+
+    private static SyncMetadataEntity meta(long lastSuccessAt) {
+        SyncMetadataEntity m = new SyncMetadataEntity();
+        m.lastSuccessAt = lastSuccessAt;
+        m.lastAttemptAt = lastSuccessAt;
+        return m;
+    }
+
+    @Test
+    public void neverSynced_isStale() {
+        assertTrue(policy.isStale(null, 1_000_000));
+        assertTrue(policy.isStale(meta(0), 1_000_000));
+    }
+
+    @Test
+    public void staleOnlyAfterTtl() {
+        assertFalse(policy.isStale(meta(100_000), 109_999));
+        assertTrue(policy.isStale(meta(100_000), 110_000));
+        // Horloge reculée : on resynchronise plutôt que de garder des données douteuses
+        assertTrue(policy.isStale(meta(100_000), 50_000));
+    }
+
+    @Test
+    public void backoff_growsExponentially_withinJitterBounds_andIsCapped() {
+        Random random = new Random(42);
+        for (int failures = 1; failures <= 10; failures++) {
+            long exp = Math.min(16_000, 1_000L << (failures - 1));
+            for (int i = 0; i < 100; i++) {
+                long d = policy.backoffDelay(failures, random);
+                assertTrue("failures=" + failures + " delay=" + d, d >= exp / 2 && d <= exp);
+            }
+        }
+    }
+
+    @Test
+    public void backingOff_untilNextAttempt() {
+        SyncMetadataEntity m = meta(0);
+        m.lastAttemptAt = 100_000;
+        m.consecutiveFailures = 2;
+        m.nextAttemptAt = 102_000;
+        assertTrue(policy.isBackingOff(m, 101_000));
+        assertFalse(policy.isBackingOff(m, 102_000));
+
+        m.consecutiveFailures = 0;
+        assertFalse(policy.isBackingOff(m, 101_000));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.dawanlocations.bench;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.data.remote.model.LocationDto;
+import com.example.dawanlocations.domain.mapper.LocationMappers;
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des conversions de {@link LocationMappers} (DTO → entité, entité → domaine,
+ * entité → {@link LocationStore}), par taille de jeu de données.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<LocationDto> dtos;
+    private List<LocationEntity> entities;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dtos = SyntheticData.dtos(size);
+        entities = SyntheticData.entities(size);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole bh) {
+        for (int i = 0, n = dtos.size(); i < n; i++) bh.consume(LocationMappers.toEntity(dtos.get(i)));
+    }
+
+    @Benchmark
+    public List<Location> toDomainList() {
+        return LocationMappers.toDomainList(entities);
+    }
+
+    @Benchmark
+    public LocationStore toStore() {
+        return LocationMappers.toStore(entities);
+    }
+
+    @Benchmark
+    public LocationStore toStoreParallel() {
+        return LocationMappers.toStore(entities, executor);
+    }
+}
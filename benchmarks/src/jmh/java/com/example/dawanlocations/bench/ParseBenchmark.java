@@ -0,0 +1,61 @@
+package com.example.dawanlocations.bench;
+
+import com.example.dawanlocations.data.remote.LocationStreamParser;
+import com.example.dawanlocations.data.remote.model.LocationDto;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse de la réponse JSON de l’API : désérialisation Gson complète en
+ * {@code List<LocationDto>} (comportement d’un convertisseur Retrofit) comparée à
+ * la lecture en flux par lots de {@link LocationStreamParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    /** Taille des lots du parseur, identique à celle de la synchronisation */
+    private static final int BATCH_SIZE = 500;
+
+    private static final Type DTO_LIST = new TypeToken<List<LocationDto>>() { }.getType();
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private String json;
+    private Gson gson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = SyntheticData.json(size);
+        gson = new Gson();
+    }
+
+    @Benchmark
+    public List<LocationDto> gsonDtoList() {
+        return gson.fromJson(new StringReader(json), DTO_LIST);
+    }
+
+    @Benchmark
+    public int streamParser(Blackhole bh) throws IOException {
+        return LocationStreamParser.parse(new StringReader(json), BATCH_SIZE, bh::consume);
+    }
+}
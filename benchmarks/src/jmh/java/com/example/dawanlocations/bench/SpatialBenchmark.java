@@ -0,0 +1,140 @@
+package com.example.dawanlocations.bench;
+
+import com.example.dawanlocations.domain.cluster.Cluster;
+import com.example.dawanlocations.domain.cluster.ClusterEngine;
+import com.example.dawanlocations.domain.cluster.ClusterIndex;
+import com.example.dawanlocations.domain.mapper.LocationMappers;
+import com.example.dawanlocations.domain.model.Location;
+import com.example.dawanlocations.domain.model.LocationStore;
+import com.example.dawanlocations.domain.spatial.GridIndex;
+import com.example.dawanlocations.domain.spatial.IntGridIndex;
+import com.example.dawanlocations.domain.spatial.KdTree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index spatiaux et clustering : construction, plus proches voisins (arbre k-d),
+ * requêtes rectangulaires (grilles) et lecture des clusters d’une vue de carte.
+ *
+ * <p>
+ * Les requêtes parcourent un jeu fixe de {@link #QUERIES} positions et rectangles tirés
+ * avec la graine commune, au format d’une vue de carte de ville (environ 0,5° de côté).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialBenchmark {
+
+    /** Nombre de requêtes par invocation des benchmarks de requête */
+    private static final int QUERIES = 64;
+
+    /** Paramètres de clustering de l’écran carte */
+    private static final int CLUSTER_MIN_ZOOM = 3;
+    private static final int CLUSTER_MAX_ZOOM = 16;
+    private static final double CLUSTER_CELL_PX = 64;
+
+    private static final GridIndex.Coordinates<Location> COORDS = new GridIndex.Coordinates<Location>() {
+        @Override public double latitude(Location item) { return item.latitude; }
+        @Override public double longitude(Location item) { return item.longitude; }
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private LocationStore store;
+    private List<Location> locations;
+    private KdTree kdTree;
+    private IntGridIndex intGrid;
+    private GridIndex<Location> grid;
+    private ClusterEngine engine;
+    private ClusterIndex clusters;
+
+    /** Requêtes : centre (lat, lon) et demi-côté du rectangle */
+    private final double[] qLat = new double[QUERIES];
+    private final double[] qLon = new double[QUERIES];
+    private final double[] qHalf = new double[QUERIES];
+    private final double[] qZoom = new double[QUERIES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = LocationMappers.toStore(SyntheticData.entities(size));
+        locations = store.asList();
+        kdTree = KdTree.build(store);
+        intGrid = IntGridIndex.build(store, GridIndex.DEFAULT_CELL_SIZE_DEG);
+        grid = GridIndex.build(locations, COORDS);
+        engine = new ClusterEngine(CLUSTER_MIN_ZOOM, CLUSTER_MAX_ZOOM, CLUSTER_CELL_PX);
+        clusters = engine.build(store);
+
+        Random rnd = new Random(SyntheticData.SEED);
+        for (int q = 0; q < QUERIES; q++) {
+            qLat[q] = 43 + rnd.nextDouble() * 7;
+            qLon[q] = -4 + rnd.nextDouble() * 12;
+            qHalf[q] = 0.1 + rnd.nextDouble() * 0.4;
+            qZoom[q] = 8 + rnd.nextDouble() * 6;
+        }
+    }
+
+    @Benchmark
+    public KdTree kdTreeBuild() {
+        return KdTree.build(store);
+    }
+
+    @Benchmark
+    public void kdTreeNearest10(Blackhole bh) {
+        for (int q = 0; q < QUERIES; q++) bh.consume(kdTree.nearest(qLat[q], qLon[q], 10));
+    }
+
+    @Benchmark
+    public IntGridIndex intGridBuild() {
+        return IntGridIndex.build(store, GridIndex.DEFAULT_CELL_SIZE_DEG);
+    }
+
+    @Benchmark
+    public void intGridQuery(Blackhole bh) {
+        for (int q = 0; q < QUERIES; q++) {
+            intGrid.query(qLat[q] - qHalf[q], qLat[q] + qHalf[q],
+                    qLon[q] - qHalf[q], qLon[q] + qHalf[q], bh::consume);
+        }
+    }
+
+    @Benchmark
+    public GridIndex<Location> gridBuild() {
+        return GridIndex.build(locations, COORDS);
+    }
+
+    @Benchmark
+    public void gridQuery(Blackhole bh) {
+        for (int q = 0; q < QUERIES; q++) {
+            bh.consume(grid.query(qLat[q] - qHalf[q], qLat[q] + qHalf[q],
+                    qLon[q] - qHalf[q], qLon[q] + qHalf[q]));
+        }
+    }
+
+    @Benchmark
+    public ClusterIndex clusterBuild() {
+        return engine.build(store);
+    }
+
+    @Benchmark
+    public void clusterQuery(Blackhole bh) {
+        for (int q = 0; q < QUERIES; q++) {
+            List<Cluster> inView = clusters.query(qZoom[q], qLat[q] - qHalf[q], qLat[q] + qHalf[q],
+                    qLon[q] - qHalf[q], qLon[q] + qHalf[q]);
+            bh.consume(inView);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.dawanlocations.bench;
+
+import com.example.dawanlocations.data.local.LocationEntity;
+import com.example.dawanlocations.data.remote.model.LocationDto;
+import com.example.dawanlocations.domain.mapper.LocationMappers;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Jeux de données synthétiques des benchmarks.
+ *
+ * <p>
+ * Les centres sont générés avec une graine fixe ({@link #SEED}) : deux exécutions (ou deux
+ * machines) mesurent exactement les mêmes données, ce qui rend les résultats comparables
+ * à la référence. La répartition imite les données réelles : des centres regroupés autour
+ * de quelques dizaines de villes, avec des noms de ville et des codes postaux répétés.
+ * </p>
+ */
+final class SyntheticData {
+
+    /** Graine de tous les générateurs */
+    static final long SEED = 42L;
+
+    /** Nombre de villes autour desquelles les centres sont regroupés */
+    private static final int CITIES = 40;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * @param n nombre de centres
+     * @return {@code n} centres (DTO), identiques d’un appel à l’autre
+     */
+    static List<LocationDto> dtos(int n) {
+        Random rnd = new Random(SEED);
+        double[] cityLat = new double[CITIES];
+        double[] cityLon = new double[CITIES];
+        for (int c = 0; c < CITIES; c++) {
+            cityLat[c] = 43 + rnd.nextDouble() * 7;  // France métropolitaine (approx.)
+            cityLon[c] = -4 + rnd.nextDouble() * 12;
+        }
+
+        List<LocationDto> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int c = rnd.nextInt(CITIES);
+            LocationDto dto = new LocationDto();
+            dto.id = i + 1;
+            dto.name = "Centre " + (i + 1);
+            dto.address = rnd.nextInt(10) == 0 ? null : (1 + rnd.nextInt(200)) + " rue " + rnd.nextInt(500);
+            dto.city = "Ville " + c;
+            dto.postalCode = String.valueOf(10000 + c * 1000);
+            dto.latitude = cityLat[c] + rnd.nextGaussian() * 0.1;
+            dto.longitude = cityLon[c] + rnd.nextGaussian() * 0.1;
+            out.add(dto);
+        }
+        return out;
+    }
+
+    /**
+     * @param n nombre de centres
+     * @return les entités Room correspondant à {@link #dtos(int)}
+     */
+    static List<LocationEntity> entities(int n) {
+        List<LocationDto> dtos = dtos(n);
+        List<LocationEntity> out = new ArrayList<>(n);
+        for (LocationDto dto : dtos) out.add(LocationMappers.toEntity(dto));
+        return out;
+    }
+
+    /**
+     * @param n nombre de centres
+     * @return le tableau JSON renvoyé par l’API pour {@link #dtos(int)}
+     */
+    static String json(int n) {
+        return new Gson().toJson(dtos(n));
+    }
+}